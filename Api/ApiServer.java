@@ -0,0 +1,442 @@
+package Api;
+
+import EventApp.Event;
+import TodoListApp.Task;
+import TodoListApp.TaskApi;
+import TodoListApp.TaskClock;
+import TodoListApp.TaskQuery;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.*;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.concurrent.*;
+
+// 他のツールからタスクと表示中のイベントを読み書きするための、ローカルホスト専用の HTTP API（JSON）
+// リクエストは1件ごとにスレッドで処理する（Java 21 以降は仮想スレッド、それ以前はスレッドを使い回すプール）。
+// 読み込みは TaskApi のスナップショットから行い、書き込みは TaskApi が EDT でまとめて反映する。
+// システムプロパティ learningjourney.api.port を指定して起動した場合だけ有効にする。
+// ブラウザで開いたページからのリクエスト（Origin ヘッダーがある）や、DNS リバインディングで別の名前を指すリクエスト
+// （Host がローカルホストでない）は拒否し、POST・PUT は Content-Type: application/json だけを受け付ける
+// （text/plain などはプリフライトなしで送れるため）
+//
+//   GET    /api/tasks?done=&priority=&overdue=&dueFrom=&dueTo=&offset=&limit=   条件に合うタスク（期限日順）
+//   GET    /api/tasks/{id}                                                        タスク
+//   POST   /api/tasks        {"title", "description", "dueDate", "isDone"}        タスクの追加
+//   PUT    /api/tasks/{id}   追加と同じ項目の一部                                  タスクの変更
+//   DELETE /api/tasks/{id}                                                        タスクの削除
+//   GET    /api/event                                                             表示中のイベント
+public class ApiServer implements Closeable {
+    public static final String PORT_PROPERTY = "learningjourney.api.port";
+
+    private static final int BACKLOG = 1024; // 受け付け待ちの接続の最大数
+    private static final int DEFAULT_LIMIT = 100; // 一覧で返すタスクの既定の件数
+    private static final int MAX_LIMIT = 10_000; // 一覧で返すタスクの最大件数
+    private static final int MAX_BODY_BYTES = 1024 * 1024; // リクエストの本文の最大サイズ
+    private static final long WRITE_TIMEOUT_SECONDS = 10; // 書き込みの反映を待つ最大時間
+
+    static {
+        // 応答のヘッダーと本文が別々に送られるため、Nagle アルゴリズムと遅延 ACK で1件ごとに約40ms待たされるのを防ぐ
+        // （HttpServer の設定は最初のサーバー作成時に読まれるため、作成前に設定する）
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+    }
+
+    private final TaskApi tasks;
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private volatile String eventJson = "null"; // 表示中のイベント（EDT で作成した JSON）
+
+    // port に待ち受ける（0 の場合は空いているポート）。start() を呼ぶまでは受け付けない
+    public ApiServer(TaskApi tasks, int port) throws IOException {
+        this.tasks = tasks;
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), BACKLOG);
+        this.executor = newRequestExecutor();
+        server.setExecutor(executor);
+        server.createContext("/api/tasks", this::handleTasks);
+        server.createContext("/api/event", this::handleEvent);
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    // 待ち受けているポート
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    // 表示中のイベントを公開する（EDT で呼ぶ。イベントが変わるたびに呼ぶこと）
+    public void publishEvent(Event event) {
+        if (event == null) {
+            eventJson = "null";
+            return;
+        }
+        StringBuilder json = new StringBuilder(256);
+        json.append("{\"id\":").append(event.getId());
+        json.append(",\"name\":");
+        Json.quote(json, event.getName());
+        json.append(",\"content\":");
+        Json.quote(json, event.getContent());
+        json.append(",\"date\":\"").append(event.getDate()).append('"');
+        json.append(",\"daysRemaining\":").append(ChronoUnit.DAYS.between(TaskClock.today(), event.getDate()));
+        json.append(",\"isDone\":").append(event.isDone());
+        json.append(",\"result\":").append(event.getResult());
+        json.append(",\"feedback\":");
+        Json.quote(json, event.getFeedback());
+        eventJson = json.append('}').toString();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    // リクエストごとのスレッド（仮想スレッドが使える場合は仮想スレッド）
+    static ExecutorService newRequestExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool(r -> {
+                Thread thread = new Thread(r, "api-request");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    private void handleEvent(HttpExchange exchange) throws IOException {
+        try {
+            if (!checkCaller(exchange)) {
+                return;
+            }
+            if (!exchange.getRequestMethod().equals("GET")) {
+                sendError(exchange, 405, "対応していないメソッドです: " + exchange.getRequestMethod());
+                return;
+            }
+            send(exchange, 200, eventJson);
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void handleTasks(HttpExchange exchange) throws IOException {
+        try {
+            if (!checkCaller(exchange)) {
+                return;
+            }
+            String path = exchange.getRequestURI().getPath();
+            String method = exchange.getRequestMethod();
+            if (path.equals("/api/tasks") || path.equals("/api/tasks/")) {
+                switch (method) {
+                    case "GET":
+                        listTasks(exchange);
+                        return;
+                    case "POST":
+                        if (!checkJson(exchange)) {
+                            return;
+                        }
+                        Future<Task> added = tasks.add(readChange(exchange, true));
+                        sendTask(exchange, 201, await(added));
+                        return;
+                    default:
+                        sendError(exchange, 405, "対応していないメソッドです: " + method);
+                        return;
+                }
+            }
+            int id = parseId(path.substring("/api/tasks/".length()));
+            switch (method) {
+                case "GET":
+                    Task task = tasks.findById(id);
+                    if (task == null) {
+                        sendError(exchange, 404, "タスクが見つかりません: " + id);
+                    } else {
+                        sendTask(exchange, 200, task);
+                    }
+                    return;
+                case "PUT":
+                    if (!checkJson(exchange)) {
+                        return;
+                    }
+                    sendTask(exchange, 200, await(tasks.update(id, readChange(exchange, false))));
+                    return;
+                case "DELETE":
+                    await(tasks.delete(id));
+                    exchange.sendResponseHeaders(204, -1);
+                    return;
+                default:
+                    sendError(exchange, 405, "対応していないメソッドです: " + method);
+            }
+        } catch (IllegalArgumentException e) {
+            sendError(exchange, 400, e.getMessage());
+        } catch (NoSuchElementException e) {
+            sendError(exchange, 404, e.getMessage());
+        } catch (TimeoutException e) {
+            sendError(exchange, 503, "書き込みの反映が時間内に終わりませんでした。");
+        } catch (RuntimeException e) {
+            sendError(exchange, 500, e.toString());
+        } finally {
+            exchange.close();
+        }
+    }
+
+    // ローカルホストのツールからのリクエストか確認し、そうでなければ 403 を返して false を返す
+    private static boolean checkCaller(HttpExchange exchange) throws IOException {
+        if (exchange.getRequestHeaders().containsKey("Origin")) {
+            sendError(exchange, 403, "ブラウザからのリクエストは受け付けません。");
+            return false;
+        }
+        String host = exchange.getRequestHeaders().getFirst("Host");
+        if (host != null && !isLoopbackHost(host)) {
+            sendError(exchange, 403, "ローカルホスト以外のホスト名は受け付けません: " + host);
+            return false;
+        }
+        return true;
+    }
+
+    // 本文が JSON（Content-Type: application/json）か確認し、そうでなければ 415 を返して false を返す
+    private static boolean checkJson(HttpExchange exchange) throws IOException {
+        String contentType = exchange.getRequestHeaders().getFirst("Content-Type");
+        if (contentType == null || !contentType.split(";", 2)[0].trim().equalsIgnoreCase("application/json")) {
+            sendError(exchange, 415, "Content-Type は application/json を指定してください: " + contentType);
+            return false;
+        }
+        return true;
+    }
+
+    // Host ヘッダーがローカルホスト（localhost, 127.0.0.1, [::1]。ポートは問わない）かどうか
+    static boolean isLoopbackHost(String host) {
+        String name = host.trim().toLowerCase(Locale.ROOT);
+        int colon = name.lastIndexOf(':');
+        if (colon >= 0 && name.indexOf(']') < colon) {
+            name = name.substring(0, colon); // ポートを除く
+        }
+        return name.equals("localhost") || name.equals("127.0.0.1") || name.equals("[::1]");
+    }
+
+    // 条件に合うタスクを {"total": 件数, "tasks": [...]} で返す
+    private void listTasks(HttpExchange exchange) throws IOException {
+        Map<String, String> params = parseQuery(exchange.getRequestURI().getRawQuery());
+        TaskQuery query = new TaskQuery();
+        LocalDate dueFrom = null;
+        LocalDate dueTo = null;
+        try {
+            for (Map.Entry<String, String> param : params.entrySet()) {
+                String value = param.getValue();
+                switch (param.getKey()) {
+                    case "done":
+                        query.done(parseBoolean(value));
+                        break;
+                    case "priority":
+                        query.priority(value);
+                        break;
+                    case "overdue":
+                        query.overdue(parseBoolean(value));
+                        break;
+                    case "dueFrom":
+                        dueFrom = LocalDate.parse(value);
+                        break;
+                    case "dueTo":
+                        dueTo = LocalDate.parse(value);
+                        break;
+                    case "offset":
+                    case "limit":
+                        break;
+                    default:
+                        throw new IllegalArgumentException("不明な条件です: " + param.getKey());
+                }
+            }
+        } catch (DateTimeException e) {
+            throw new IllegalArgumentException("日付の形式が不正です（yyyy-MM-dd）: " + e.getMessage(), e);
+        }
+        query.dueBetween(dueFrom, dueTo);
+        int offset = parseInt(params.get("offset"), 0, Integer.MAX_VALUE);
+        int limit = parseInt(params.get("limit"), DEFAULT_LIMIT, MAX_LIMIT);
+
+        List<Task> page = new ArrayList<>(Math.min(limit, 1024));
+        int total = tasks.snapshot().query(query, offset, limit, page);
+        StringBuilder json = new StringBuilder(64 + page.size() * 256);
+        json.append("{\"total\":").append(total).append(",\"tasks\":[");
+        for (int i = 0; i < page.size(); i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            appendTask(json, page.get(i));
+        }
+        send(exchange, 200, json.append("]}").toString());
+    }
+
+    // 本文の JSON からタスクの追加・変更の内容を読み取る
+    private static TaskApi.TaskChange readChange(HttpExchange exchange, boolean adding) throws IOException {
+        Map<String, Object> body = Json.parseObject(readBody(exchange));
+        TaskApi.TaskChange change = new TaskApi.TaskChange();
+        for (Map.Entry<String, Object> field : body.entrySet()) {
+            Object value = field.getValue();
+            switch (field.getKey()) {
+                case "title":
+                    change.title(asString(field.getKey(), value));
+                    break;
+                case "description":
+                    change.description(asString(field.getKey(), value));
+                    break;
+                case "dueDate":
+                    try {
+                        change.dueDate(LocalDate.parse(asString(field.getKey(), value)));
+                    } catch (DateTimeException e) {
+                        throw new IllegalArgumentException("期限日の形式が不正です（yyyy-MM-dd）: " + value, e);
+                    }
+                    break;
+                case "isDone":
+                    if (!(value instanceof Boolean)) {
+                        throw new IllegalArgumentException("isDone は true か false を指定してください。");
+                    }
+                    change.done((Boolean) value);
+                    break;
+                case "id":
+                case "createdDate":
+                case "updatedDate":
+                case "priority":
+                case "isOverdue":
+                    // 追加では、取得したタスクをそのまま送り直せるように、自動で決まる項目は無視する
+                    if (!adding) {
+                        throw new IllegalArgumentException("変更できない項目です: " + field.getKey());
+                    }
+                    break;
+                default:
+                    throw new IllegalArgumentException("変更できない項目です: " + field.getKey());
+            }
+        }
+        return change;
+    }
+
+    private static String asString(String name, Object value) {
+        if (!(value instanceof String)) {
+            throw new IllegalArgumentException(name + " は文字列で指定してください。");
+        }
+        return (String) value;
+    }
+
+    private static String readBody(HttpExchange exchange) throws IOException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        try (InputStream in = exchange.getRequestBody()) {
+            int read;
+            while ((read = in.read(buffer)) > 0) {
+                body.write(buffer, 0, read);
+                if (body.size() > MAX_BODY_BYTES) {
+                    throw new IllegalArgumentException("本文が大きすぎます。");
+                }
+            }
+        }
+        return new String(body.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    // EDT での反映を待つ（反映に失敗した場合は、その例外をそのまま投げる）
+    private static Task await(Future<Task> result) throws TimeoutException {
+        try {
+            return result.get(WRITE_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("書き込みの待機が中断されました。", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private static void appendTask(StringBuilder json, Task task) {
+        json.append("{\"id\":").append(task.getId());
+        json.append(",\"title\":");
+        Json.quote(json, task.getTitle());
+        json.append(",\"description\":");
+        Json.quote(json, task.getDescription());
+        json.append(",\"isDone\":").append(task.isDone());
+        json.append(",\"dueDate\":\"").append(task.getDueDate()).append('"');
+        json.append(",\"createdDate\":\"").append(task.getCreatedDate()).append('"');
+        json.append(",\"updatedDate\":");
+        if (task.updatedDate == null) {
+            json.append("null");
+        } else {
+            json.append('"').append(task.updatedDate).append('"');
+        }
+        json.append(",\"priority\":");
+        Json.quote(json, task.getPriority());
+        json.append(",\"isOverdue\":").append(task.isOverdue()).append('}');
+    }
+
+    private static void sendTask(HttpExchange exchange, int status, Task task) throws IOException {
+        StringBuilder json = new StringBuilder(256);
+        appendTask(json, task);
+        send(exchange, status, json.toString());
+    }
+
+    private static void sendError(HttpExchange exchange, int status, String message) throws IOException {
+        StringBuilder json = new StringBuilder("{\"error\":");
+        Json.quote(json, message);
+        send(exchange, status, json.append('}').toString());
+    }
+
+    private static void send(HttpExchange exchange, int status, String json) throws IOException {
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static Map<String, String> parseQuery(String rawQuery) throws UnsupportedEncodingException {
+        Map<String, String> params = new LinkedHashMap<>();
+        if (rawQuery == null || rawQuery.isEmpty()) {
+            return params;
+        }
+        for (String pair : rawQuery.split("&")) {
+            int eq = pair.indexOf('=');
+            String key = URLDecoder.decode(eq < 0 ? pair : pair.substring(0, eq), "UTF-8");
+            String value = eq < 0 ? "" : URLDecoder.decode(pair.substring(eq + 1), "UTF-8");
+            params.put(key, value);
+        }
+        return params;
+    }
+
+    private static int parseId(String text) {
+        try {
+            return Integer.parseInt(text);
+        } catch (NumberFormatException e) {
+            throw new NoSuchElementException("タスクが見つかりません: " + text);
+        }
+    }
+
+    private static int parseInt(String text, int defaultValue, int max) {
+        if (text == null) {
+            return defaultValue;
+        }
+        try {
+            int value = Integer.parseInt(text);
+            if (value < 0 || value > max) {
+                throw new IllegalArgumentException("0〜" + max + " の数値を指定してください: " + text);
+            }
+            return value;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("数値の形式が不正です: " + text, e);
+        }
+    }
+
+    private static boolean parseBoolean(String value) {
+        if (!value.equals("true") && !value.equals("false")) {
+            throw new IllegalArgumentException("true か false を指定してください: " + value);
+        }
+        return Boolean.parseBoolean(value);
+    }
+}
@@ -0,0 +1,235 @@
+package Api;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// HTTP API で使う最小限の JSON の読み書き
+// 読み込みはオブジェクトを Map、配列を List、文字列を String、数値を Long（整数）か Double、真偽値を Boolean、null を null にする
+public final class Json {
+    private final String text;
+    private int pos; // 読み込み位置
+
+    private Json(String text) {
+        this.text = text;
+    }
+
+    // JSON の値を読み込む（形式が不正な場合は IllegalArgumentException）
+    public static Object parse(String text) {
+        Json json = new Json(text);
+        Object value = json.value();
+        json.skipWhitespace();
+        if (json.pos != text.length()) {
+            throw json.error("値のあとに余分な文字があります");
+        }
+        return value;
+    }
+
+    // JSON のオブジェクトを読み込む
+    @SuppressWarnings("unchecked")
+    public static Map<String, Object> parseObject(String text) {
+        Object value = parse(text);
+        if (!(value instanceof Map)) {
+            throw new IllegalArgumentException("JSON のオブジェクトではありません。");
+        }
+        return (Map<String, Object>) value;
+    }
+
+    // 文字列を JSON の文字列（ダブルクォートで囲み、エスケープしたもの）として追加する。null の場合は null
+    public static StringBuilder quote(StringBuilder out, String value) {
+        if (value == null) {
+            return out.append("null");
+        }
+        out.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    out.append("\\\"");
+                    break;
+                case '\\':
+                    out.append("\\\\");
+                    break;
+                case '\n':
+                    out.append("\\n");
+                    break;
+                case '\r':
+                    out.append("\\r");
+                    break;
+                case '\t':
+                    out.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        out.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        out.append(c);
+                    }
+            }
+        }
+        return out.append('"');
+    }
+
+    private Object value() {
+        skipWhitespace();
+        if (pos >= text.length()) {
+            throw error("値がありません");
+        }
+        char c = text.charAt(pos);
+        switch (c) {
+            case '{':
+                return object();
+            case '[':
+                return array();
+            case '"':
+                return string();
+            case 't':
+                return literal("true", Boolean.TRUE);
+            case 'f':
+                return literal("false", Boolean.FALSE);
+            case 'n':
+                return literal("null", null);
+            default:
+                if (c == '-' || (c >= '0' && c <= '9')) {
+                    return number();
+                }
+                throw error("不正な文字です: " + c);
+        }
+    }
+
+    private Map<String, Object> object() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        pos++; // '{'
+        skipWhitespace();
+        if (consume('}')) {
+            return map;
+        }
+        do {
+            skipWhitespace();
+            if (pos >= text.length() || text.charAt(pos) != '"') {
+                throw error("キーがありません");
+            }
+            String key = string();
+            skipWhitespace();
+            if (!consume(':')) {
+                throw error("':' がありません");
+            }
+            map.put(key, value());
+            skipWhitespace();
+        } while (consume(','));
+        if (!consume('}')) {
+            throw error("'}' がありません");
+        }
+        return map;
+    }
+
+    private List<Object> array() {
+        List<Object> list = new ArrayList<>();
+        pos++; // '['
+        skipWhitespace();
+        if (consume(']')) {
+            return list;
+        }
+        do {
+            list.add(value());
+            skipWhitespace();
+        } while (consume(','));
+        if (!consume(']')) {
+            throw error("']' がありません");
+        }
+        return list;
+    }
+
+    private String string() {
+        pos++; // '"'
+        StringBuilder out = new StringBuilder();
+        while (pos < text.length()) {
+            char c = text.charAt(pos++);
+            if (c == '"') {
+                return out.toString();
+            }
+            if (c != '\\') {
+                out.append(c);
+                continue;
+            }
+            if (pos >= text.length()) {
+                break;
+            }
+            char escaped = text.charAt(pos++);
+            switch (escaped) {
+                case 'b':
+                    out.append('\b');
+                    break;
+                case 'f':
+                    out.append('\f');
+                    break;
+                case 'n':
+                    out.append('\n');
+                    break;
+                case 'r':
+                    out.append('\r');
+                    break;
+                case 't':
+                    out.append('\t');
+                    break;
+                case 'u':
+                    if (pos + 4 > text.length()) {
+                        throw error("\\u のあとの16進数が足りません");
+                    }
+                    try {
+                        out.append((char) Integer.parseInt(text.substring(pos, pos + 4), 16));
+                    } catch (NumberFormatException e) {
+                        throw error("\\u のあとの16進数が不正です");
+                    }
+                    pos += 4;
+                    break;
+                default:
+                    out.append(escaped); // '"' '\\' '/'
+            }
+        }
+        throw error("文字列が閉じられていません");
+    }
+
+    private Object number() {
+        int start = pos;
+        while (pos < text.length() && "+-0123456789.eE".indexOf(text.charAt(pos)) >= 0) {
+            pos++;
+        }
+        String number = text.substring(start, pos);
+        try {
+            if (number.indexOf('.') < 0 && number.indexOf('e') < 0 && number.indexOf('E') < 0) {
+                return Long.parseLong(number);
+            }
+            return Double.parseDouble(number);
+        } catch (NumberFormatException e) {
+            throw error("数値の形式が不正です: " + number);
+        }
+    }
+
+    private Object literal(String word, Object value) {
+        if (!text.startsWith(word, pos)) {
+            throw error("不正な値です");
+        }
+        pos += word.length();
+        return value;
+    }
+
+    private boolean consume(char c) {
+        if (pos < text.length() && text.charAt(pos) == c) {
+            pos++;
+            return true;
+        }
+        return false;
+    }
+
+    private void skipWhitespace() {
+        while (pos < text.length() && Character.isWhitespace(text.charAt(pos))) {
+            pos++;
+        }
+    }
+
+    private IllegalArgumentException error(String message) {
+        return new IllegalArgumentException("JSON の形式が不正です（" + pos + "文字目）: " + message);
+    }
+}
@@ -0,0 +1,272 @@
+package Benchmarks;
+
+import Api.ApiServer;
+import Storage.PersistenceService;
+import TodoListApp.Task;
+import TodoListApp.TaskApi;
+import TodoListApp.TaskRepository;
+import TodoListApp.TaskStore;
+
+import javax.swing.*;
+import java.io.*;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// HTTP API の負荷試験（ローカルホストに複数のクライアントから同時にリクエストを送り、スループットと応答時間を計測する）
+// 既定では一時ディレクトリにタスクを用意して API をこのプロセスで起動する。--url を指定した場合は起動済みのアプリに送る。
+// リクエストは ID 指定の取得・条件での一覧（20件）・完了状態の変更を、--writes の割合で混ぜる
+//
+// 実行例: java -Djava.awt.headless=true -cp out Benchmarks.ApiLoadTest --tasks=100000 --clients=16 --seconds=10
+public final class ApiLoadTest {
+    private static final int LIST_LIMIT = 20; // 一覧で取得する件数
+
+    private final String baseUrl;
+    private final int taskCount;
+    private final double writeRatio;
+
+    private ApiLoadTest(String baseUrl, int taskCount, double writeRatio) {
+        this.baseUrl = baseUrl;
+        this.taskCount = taskCount;
+        this.writeRatio = writeRatio;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int tasks = 100_000;
+        int clients = 16;
+        int seconds = 10;
+        int warmupSeconds = 3;
+        double writes = 0.1;
+        String url = null;
+        for (String arg : args) {
+            if (arg.startsWith("--tasks=")) {
+                tasks = Integer.parseInt(arg.substring("--tasks=".length()));
+            } else if (arg.startsWith("--clients=")) {
+                clients = Integer.parseInt(arg.substring("--clients=".length()));
+            } else if (arg.startsWith("--seconds=")) {
+                seconds = Integer.parseInt(arg.substring("--seconds=".length()));
+            } else if (arg.startsWith("--warmup=")) {
+                warmupSeconds = Integer.parseInt(arg.substring("--warmup=".length()));
+            } else if (arg.startsWith("--writes=")) {
+                writes = Double.parseDouble(arg.substring("--writes=".length()));
+            } else if (arg.startsWith("--url=")) {
+                url = arg.substring("--url=".length());
+            } else {
+                System.err.println("不明なオプションです: " + arg);
+                System.exit(2);
+            }
+        }
+
+        Path directory = null;
+        ApiServer server = null;
+        try {
+            if (url == null) {
+                directory = Files.createTempDirectory("api-load");
+                server = startServer(directory, tasks);
+                url = "http://127.0.0.1:" + server.getPort();
+            }
+            System.out.printf("API: %s  タスク: %,d件  クライアント: %d  書き込みの割合: %.0f%%  要求スレッド: %s%n", url, tasks,
+                    clients, writes * 100, requestThreadKind());
+            ApiLoadTest test = new ApiLoadTest(url, tasks, writes);
+            test.run(clients, warmupSeconds); // ウォームアップ
+            Result result = test.run(clients, seconds);
+            result.print(seconds);
+        } finally {
+            if (server != null) {
+                server.close();
+            }
+            if (directory != null) {
+                deleteDirectory(directory);
+            }
+        }
+        System.exit(0);
+    }
+
+    // 一時ディレクトリにタスクを用意し、API をこのプロセスで起動する
+    private static ApiServer startServer(Path directory, int count) throws Exception {
+        TaskRepository repository = new TaskRepository(directory, "tasks");
+        repository.load();
+        List<Task> tasks = new ArrayList<>(count);
+        LocalDate base = LocalDate.now().minusDays(30);
+        for (int i = 0; i < count; i++) {
+            LocalDate due = base.plusDays(i % 365);
+            tasks.add(new Task("タスク" + i, "負荷試験用の内容 " + (i % 100), i % 3 == 0, due, base, due));
+        }
+        repository.addedAll(tasks); // ID は 1 から順に採番される
+        TaskStore store = new TaskStore();
+        ApiServer[] server = new ApiServer[1];
+        SwingUtilities.invokeAndWait(() -> {
+            store.addAll(tasks);
+            try {
+                server[0] = new ApiServer(new TaskApi(store, repository), 0);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        server[0].start();
+        return server[0];
+    }
+
+    // 書き込みが終わるのを待ってから、一時ディレクトリを削除する
+    private static void deleteDirectory(Path directory) throws IOException {
+        PersistenceService.getDefault().flush();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(directory);
+    }
+
+    private static String requestThreadKind() {
+        try {
+            Thread.class.getMethod("ofVirtual");
+            return "仮想スレッド";
+        } catch (NoSuchMethodException e) {
+            return "スレッドプール（仮想スレッドは Java 21 以降）";
+        }
+    }
+
+    // clients 個のスレッドから seconds 秒間リクエストを送り続ける
+    private Result run(int clients, int seconds) throws InterruptedException {
+        AtomicBoolean stop = new AtomicBoolean();
+        Result[] results = new Result[clients];
+        Thread[] threads = new Thread[clients];
+        for (int i = 0; i < clients; i++) {
+            Result result = results[i] = new Result();
+            threads[i] = new Thread(() -> {
+                while (!stop.get()) {
+                    request(result);
+                }
+            }, "api-load-" + i);
+            threads[i].start();
+        }
+        Thread.sleep(seconds * 1000L);
+        stop.set(true);
+        Result total = new Result();
+        for (int i = 0; i < clients; i++) {
+            threads[i].join();
+            total.merge(results[i]);
+        }
+        return total;
+    }
+
+    // 1件のリクエストを送り、応答時間を記録する
+    private void request(Result result) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int id = 1 + random.nextInt(taskCount);
+        long start = System.nanoTime();
+        int status;
+        Kind kind;
+        try {
+            if (random.nextDouble() < writeRatio) {
+                kind = Kind.WRITE;
+                status = send("PUT", "/api/tasks/" + id, "{\"isDone\":" + random.nextBoolean() + "}");
+            } else if (random.nextInt(10) < 7) {
+                kind = Kind.GET;
+                status = send("GET", "/api/tasks/" + id, null);
+            } else {
+                kind = Kind.LIST;
+                status = send("GET", "/api/tasks?done=false&limit=" + LIST_LIMIT + "&offset=" + random.nextInt(1000),
+                        null);
+            }
+        } catch (IOException e) {
+            result.errors++;
+            return;
+        }
+        if (status >= 400) {
+            result.errors++;
+            return;
+        }
+        result.record(kind, System.nanoTime() - start);
+    }
+
+    // リクエストを送り、応答を最後まで読んでステータスを返す（接続は使い回す）
+    private int send(String method, String path, String body) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(baseUrl + path).openConnection();
+        connection.setRequestMethod(method);
+        if (body != null) {
+            connection.setDoOutput(true);
+            connection.setRequestProperty("Content-Type", "application/json; charset=utf-8");
+            try (OutputStream out = connection.getOutputStream()) {
+                out.write(body.getBytes(StandardCharsets.UTF_8));
+            }
+        }
+        int status = connection.getResponseCode();
+        try (InputStream in = status >= 400 ? connection.getErrorStream() : connection.getInputStream()) {
+            if (in != null) {
+                byte[] buffer = new byte[8192];
+                while (in.read(buffer) > 0) {
+                    // 接続を使い回すため、応答を最後まで読む
+                }
+            }
+        }
+        return status;
+    }
+
+    private enum Kind {
+        GET("ID指定の取得"), LIST("一覧（" + LIST_LIMIT + "件）"), WRITE("完了状態の変更");
+
+        final String label;
+
+        Kind(String label) {
+            this.label = label;
+        }
+    }
+
+    // 種類ごとの応答時間（ナノ秒）とエラーの数
+    private static final class Result {
+        final long[][] latencies = new long[Kind.values().length][];
+        final int[] counts = new int[Kind.values().length];
+        long errors;
+
+        Result() {
+            for (int i = 0; i < latencies.length; i++) {
+                latencies[i] = new long[1024];
+            }
+        }
+
+        void record(Kind kind, long nanos) {
+            int k = kind.ordinal();
+            if (counts[k] == latencies[k].length) {
+                latencies[k] = Arrays.copyOf(latencies[k], counts[k] * 2);
+            }
+            latencies[k][counts[k]++] = nanos;
+        }
+
+        void merge(Result other) {
+            for (Kind kind : Kind.values()) {
+                int k = kind.ordinal();
+                for (int i = 0; i < other.counts[k]; i++) {
+                    record(kind, other.latencies[k][i]);
+                }
+            }
+            errors += other.errors;
+        }
+
+        void print(int seconds) {
+            long total = 0;
+            System.out.printf("%-16s %10s %10s %9s %9s %9s %9s%n", "種類", "件数", "件/秒", "p50(ms)", "p90(ms)", "p99(ms)",
+                    "最大(ms)");
+            for (Kind kind : Kind.values()) {
+                int k = kind.ordinal();
+                long[] sorted = Arrays.copyOf(latencies[k], counts[k]);
+                Arrays.sort(sorted);
+                total += sorted.length;
+                System.out.printf("%-16s %,10d %,10.0f %9.2f %9.2f %9.2f %9.2f%n", kind.label, sorted.length,
+                        sorted.length / (double) seconds, percentile(sorted, 0.50), percentile(sorted, 0.90),
+                        percentile(sorted, 0.99), sorted.length == 0 ? 0 : sorted[sorted.length - 1] / 1e6);
+            }
+            System.out.printf("合計 %,d 件（%,.0f 件/秒）  エラー %,d 件%n", total, total / (double) seconds, errors);
+        }
+
+        private static double percentile(long[] sorted, double p) {
+            return sorted.length == 0 ? 0 : sorted[(int) Math.min(sorted.length - 1, (long) (sorted.length * p))] / 1e6;
+        }
+    }
+}
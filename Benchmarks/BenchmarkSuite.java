@@ -0,0 +1,422 @@
+package Benchmarks;
+
+import CalendarApp.CalendarPanel;
+import CalendarApp.HolidayUtil;
+import Storage.PersistenceService;
+import TimerApp.TimingWheel;
+import TodoListApp.Task;
+import TodoListApp.TaskJsonCodec;
+import TodoListApp.TaskRepository;
+import TodoListApp.TaskSearchIndex;
+import TodoListApp.TaskStore;
+import TodoListApp.TaskTableCellRenderer;
+import TodoListApp.TaskTableModel;
+
+import javax.swing.*;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.*;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.*;
+
+// アプリ全体のベンチマーク（結果はJSONで書き出し、実行ごとに比較できるようにする）
+//   task.*           タスク1件の変換（CSV・JSON・テキストデータ・JSON Lines の書き出し）
+//   tasks.importJsonLines  JSON Lines のファイルの読み込み（TaskCli import と同じく、CPU数のスレッドで解析する）
+//   tasks.load       起動時のタスク読み込み（TaskManager.loadTasks と同じく、読み込みと TaskStore への追加）
+//   tasks.save       タスクの更新の保存（TaskManager.saveTasks と同じく、記録とコンパクション。1000件ごとに書き込みを待つ）
+//   tasks.search     タイトル・内容の全文検索（1件に絞り込める検索語）
+//   tasks.sort       一覧の並べ替える列の切り替え（各列の索引を作成済みの状態で、先頭の1画面分を表示する）
+//   holiday.*        100年分の日付の祝日判定・祝日の一覧
+//   table.paint      タスク一覧の1画面分の描画（ランダムな位置までスクロールした状態）
+//   calendar.*       カレンダーの月の表示の作り直し
+//   timer.schedule   件数分のタイマーを登録したタイミングホイールへの登録と取り消し
+// 実行例: java Benchmarks.BenchmarkSuite --rows=1000,100000,1000000 --out=benchmark.json --filter=^task\.
+// オプション: --warmup=回数 --iterations=回数 --time=1回の計測時間(ms)
+public class BenchmarkSuite {
+    private static final int SAMPLE_SIZE = 1024; // 変換のベンチマークで使い回すタスクの数（2のべき乗）
+    private static final int SAVE_BATCH = 1000; // 保存のベンチマークで書き込みを待つまでの更新の数
+    private static final LocalDate BASE_DATE = LocalDate.of(2025, 1, 1);
+    private static final String BASE_NAME = "tasks";
+    private static final int TIMER_BATCH = 1000; // タイマーのベンチマークで1回に登録・取り消しする数
+    private static final int PAINT_WIDTH = 900; // 描画のベンチマークの画面の大きさ（TaskManager のウィンドウと同じ幅）
+    private static final int PAINT_HEIGHT = 400;
+
+    public static void main(String[] args) throws IOException {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("オプションは --名前=値 の形式で指定してください: " + arg);
+            }
+            options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+        }
+        String[] rowValues = options.getOrDefault("rows", "1000,100000,1000000").split(",");
+        int[] rows = new int[rowValues.length];
+        for (int i = 0; i < rows.length; i++) {
+            rows[i] = Integer.parseInt(rowValues[i].trim());
+        }
+        Harness harness = new Harness(
+                Integer.parseInt(options.getOrDefault("warmup", "2")),
+                Integer.parseInt(options.getOrDefault("iterations", "5")),
+                Long.parseLong(options.getOrDefault("time", "1000")),
+                rows,
+                options.get("filter"));
+
+        runTaskConversions(harness);
+        harness.runSized("tasks.load", 1, BenchmarkSuite::loadBenchmark);
+        harness.runSized("tasks.importJsonLines", 1, BenchmarkSuite::importJsonLinesBenchmark);
+        harness.runSized("tasks.save", SAVE_BATCH, BenchmarkSuite::saveBenchmark);
+        harness.runSized("tasks.search", 1, BenchmarkSuite::searchBenchmark);
+        harness.runSized("tasks.sort", 1, BenchmarkSuite::sortBenchmark);
+        runHoliday(harness);
+        harness.runSized("table.paint", 1, BenchmarkSuite::tablePaintBenchmark);
+        harness.runSized("calendar.showMonth", 1, BenchmarkSuite::calendarBenchmark);
+        harness.runSized("timer.schedule", TIMER_BATCH, BenchmarkSuite::timerBenchmark);
+
+        String out = options.get("out");
+        harness.writeJson(out == null ? null : Paths.get(out));
+    }
+
+    // タスク1件の変換（同じタスクばかりにならないよう、SAMPLE_SIZE 件を順番に使う）
+    private static void runTaskConversions(Harness harness) {
+        Task[] tasks = createSample(SAMPLE_SIZE).toArray(new Task[0]);
+        String[] csv = new String[SAMPLE_SIZE];
+        String[] json = new String[SAMPLE_SIZE];
+        String[] data = new String[SAMPLE_SIZE];
+        for (int i = 0; i < SAMPLE_SIZE; i++) {
+            csv[i] = tasks[i].toCSV();
+            json[i] = tasks[i].toJson();
+            data[i] = tasks[i].toDataString();
+        }
+        harness.run("task.toCSV", 1, rows -> cycle(i -> tasks[i].toCSV()));
+        harness.run("task.fromCSV", 1, rows -> cycle(i -> Task.fromCSV(csv[i])));
+        harness.run("task.toJson", 1, rows -> cycle(i -> tasks[i].toJson()));
+        harness.run("task.fromJson", 1, rows -> cycle(i -> Task.fromJson(json[i])));
+        harness.run("task.writeJsonLine", SAMPLE_SIZE, rows -> () -> {
+            DiscardChannel channel = new DiscardChannel();
+            try (TaskJsonCodec.Writer writer = new TaskJsonCodec.Writer(channel)) {
+                for (Task task : tasks) {
+                    writer.write(task);
+                }
+            }
+            return channel.bytes;
+        });
+        harness.run("task.toDataString", 1, rows -> cycle(i -> tasks[i].toDataString()));
+        harness.run("task.fromDataString", 1, rows -> cycle(i -> Task.fromDataString(data[i])));
+    }
+
+    // 100年分（1950〜2049年）の日付をすべて判定する
+    private static void runHoliday(Harness harness) {
+        LocalDate first = LocalDate.of(1950, 1, 1);
+        int days = (int) (LocalDate.of(2050, 1, 1).toEpochDay() - first.toEpochDay());
+        LocalDate[] dates = new LocalDate[days];
+        for (int i = 0; i < days; i++) {
+            dates[i] = first.plusDays(i);
+        }
+        harness.run("holiday.isHoliday", days, rows -> () -> {
+            int holidays = 0;
+            for (LocalDate date : dates) {
+                if (HolidayUtil.isHoliday(date)) {
+                    holidays++;
+                }
+            }
+            return holidays;
+        });
+        harness.run("holiday.holidaysBetween", days,
+                rows -> () -> HolidayUtil.holidaysBetween(first, first.plusDays(days - 1)));
+    }
+
+    // スナップショットからタスクを読み込み、TaskStore に追加する
+    private static Harness.Body loadBenchmark(int rows) throws IOException {
+        PersistenceService service = PersistenceService.getDefault();
+        Path directory = prepareDirectory(rows, service);
+        return new Fixture(directory, () -> {
+            TaskRepository repository = new TaskRepository(directory, BASE_NAME, service);
+            TaskStore store = new TaskStore();
+            store.addAll(repository.load());
+            repository.close();
+            return store;
+        });
+    }
+
+    // 件数分のタスクを JSON Lines のファイルに書き出し、TaskJsonCodec.Reader ですべて読み込む
+    private static Harness.Body importJsonLinesBenchmark(int rows) throws IOException {
+        Path directory = Files.createTempDirectory("benchmark");
+        Path file = directory.resolve(BASE_NAME + ".jsonl");
+        try (TaskJsonCodec.Writer writer = new TaskJsonCodec.Writer(FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE))) {
+            for (Task task : createSample(rows)) {
+                writer.write(task);
+            }
+        }
+        int threads = Runtime.getRuntime().availableProcessors();
+        return new Fixture(directory, () -> {
+            long count = 0;
+            try (TaskJsonCodec.Reader reader = new TaskJsonCodec.Reader(file, threads)) {
+                while (reader.hasNext()) {
+                    reader.next();
+                    count++;
+                }
+            }
+            return count;
+        });
+    }
+
+    // タスクを順番に更新して保存を記録し、SAVE_BATCH 件ごとに書き込みが終わるのを待つ
+    private static Harness.Body saveBenchmark(int rows) throws IOException {
+        PersistenceService service = PersistenceService.getDefault();
+        Path directory = prepareDirectory(rows, service);
+        TaskRepository repository = new TaskRepository(directory, BASE_NAME, service);
+        TaskStore store = new TaskStore();
+        store.addAll(repository.load());
+        int[] next = new int[1];
+        return new Fixture(directory, () -> {
+            for (int i = 0; i < SAVE_BATCH; i++) {
+                int row = next[0]++ % store.size();
+                Task task = store.get(row);
+                LocalDate updated = BASE_DATE.plusDays(next[0] & 1);
+                store.update(task, t -> t.updatedDate = updated);
+                repository.updated(task);
+                repository.compactIfNeeded();
+            }
+            service.flush();
+            return store;
+        }) {
+            @Override
+            public void close() throws IOException {
+                repository.close();
+                super.close();
+            }
+        };
+    }
+
+    // タイトルで1件に絞り込める検索語（"タスク" + 番号）で、索引から期限日順のタスクを検索する
+    private static Harness.Body searchBenchmark(int rows) throws IOException {
+        List<Task> tasks = loadSample(rows);
+        TaskStore store = new TaskStore();
+        store.addAll(tasks);
+        TaskSearchIndex index = new TaskSearchIndex(store);
+        index.addAll(tasks);
+        Random random = new Random(1);
+        return () -> index.search("タスク" + random.nextInt(rows));
+    }
+
+    // 並べ替えられる列を順番に切り替え、先頭の1画面分（50行）のセルの値を取り出す
+    // （列ごとの索引は準備で一度ずつ並べ替えて作成しておく）
+    private static Harness.Body sortBenchmark(int rows) throws IOException {
+        TaskStore store = new TaskStore();
+        store.addAll(loadSample(rows));
+        TaskTableModel model = new TaskTableModel(store);
+        List<Integer> columns = new ArrayList<>();
+        for (int column = 0; column < model.getColumnCount(); column++) {
+            if (model.isSortable(column)) {
+                model.sortBy(column);
+                columns.add(column);
+            }
+        }
+        int[] next = new int[1];
+        return () -> {
+            model.sortBy(columns.get(next[0]++ % columns.size()));
+            Object last = null;
+            for (int row = 0; row < Math.min(50, model.getRowCount()); row++) {
+                for (int column = 0; column < model.getColumnCount(); column++) {
+                    last = model.getValueAt(row, column);
+                }
+            }
+            return last;
+        };
+    }
+
+    // TaskManager と同じレンダラーを設定したタスク一覧を、ランダムな位置の1画面分（900×400）だけ画像に描画する
+    // （実際のスクロールでは新しく見えた部分だけが描画されるため、1画面分の描画は余裕を持った見積もりになる）
+    private static Harness.Body tablePaintBenchmark(int rows) throws Exception {
+        TaskStore store = new TaskStore();
+        store.addAll(loadSample(rows));
+        JTable[] table = new JTable[1];
+        SwingUtilities.invokeAndWait(() -> {
+            TaskTableModel model = new TaskTableModel(store);
+            table[0] = new JTable(model);
+            TaskTableCellRenderer renderer = new TaskTableCellRenderer(model);
+            for (int i = 0; i < table[0].getColumnCount(); i++) {
+                table[0].getColumnModel().getColumn(i).setCellRenderer(renderer);
+            }
+            table[0].setSize(PAINT_WIDTH, table[0].getRowHeight() * rows);
+            table[0].doLayout();
+        });
+        BufferedImage image = new BufferedImage(PAINT_WIDTH, PAINT_HEIGHT, BufferedImage.TYPE_INT_RGB);
+        Random random = new Random(1);
+        return () -> {
+            int y = random.nextInt(Math.max(1, table[0].getHeight() - PAINT_HEIGHT));
+            SwingUtilities.invokeAndWait(() -> {
+                Graphics2D g = image.createGraphics();
+                g.translate(0, -y);
+                g.setClip(0, y, PAINT_WIDTH, PAINT_HEIGHT);
+                table[0].paint(g);
+                g.dispose();
+            });
+            return image;
+        };
+    }
+
+    // 件数分のタスクの期限日を表示するカレンダーで、2年分の月を順番に表示する
+    // （EDTで表示し、表示のあとに登録される前後の月の計算が終わるまでを1回とする）
+    private static Harness.Body calendarBenchmark(int rows) throws Exception {
+        TaskStore store = new TaskStore();
+        store.addAll(loadSample(rows));
+        CalendarPanel[] panel = new CalendarPanel[1];
+        SwingUtilities.invokeAndWait(() -> {
+            panel[0] = new CalendarPanel(YearMonth.from(BASE_DATE));
+            panel[0].setTaskStore(store);
+        });
+        int[] next = new int[1];
+        return () -> {
+            YearMonth month = YearMonth.from(BASE_DATE).plusMonths(next[0]++ % 24);
+            SwingUtilities.invokeAndWait(() -> panel[0].showMonth(month));
+            SwingUtilities.invokeAndWait(() -> {
+            });
+            return panel[0];
+        };
+    }
+
+    // 件数分のタイマー（1時間以内に分散）を登録しておいたホイールで、さらに1000件を登録してから取り消す
+    // （登録・取り消しの時間は登録済みのタイマーの数によらないことを確かめる）
+    private static Harness.Body timerBenchmark(int rows) {
+        TimingWheel wheel = new TimingWheel("benchmark-wheel");
+        Random random = new Random(1);
+        long hour = 3_600_000_000_000L;
+        List<TimingWheel.Timeout> timeouts = new ArrayList<>(rows);
+        long now = System.nanoTime();
+        for (int i = 0; i < rows; i++) {
+            timeouts.add(wheel.schedule(now + hour + (long) (random.nextDouble() * hour), () -> {
+            }));
+        }
+        TimingWheel.Timeout[] batch = new TimingWheel.Timeout[TIMER_BATCH];
+        Harness.Body body = () -> {
+            long start = System.nanoTime();
+            for (int i = 0; i < batch.length; i++) {
+                batch[i] = wheel.schedule(start + (long) (random.nextDouble() * hour), () -> {
+                });
+            }
+            for (TimingWheel.Timeout timeout : batch) {
+                wheel.cancel(timeout);
+            }
+            return wheel.size();
+        };
+        return new Cleanup(body, () -> timeouts.forEach(wheel::cancel));
+    }
+
+    // 件数分のタスクをCSVで作成し、TaskRepository に取り込ませてスナップショットを作る
+    private static Path prepareDirectory(int rows, PersistenceService service) throws IOException {
+        Path directory = Files.createTempDirectory("benchmark");
+        TaskRepository.exportCSV(createSample(rows), directory.resolve(BASE_NAME + ".csv"));
+        TaskRepository repository = new TaskRepository(directory, BASE_NAME, service);
+        repository.load();
+        repository.close();
+        Files.delete(directory.resolve(BASE_NAME + ".csv"));
+        return directory;
+    }
+
+    // IDを採番したベンチマーク用のタスク（一時ディレクトリに保存して読み込む）
+    private static List<Task> loadSample(int rows) throws IOException {
+        PersistenceService service = PersistenceService.getDefault();
+        try (Fixture fixture = new Fixture(prepareDirectory(rows, service), null)) {
+            TaskRepository repository = new TaskRepository(fixture.directory, BASE_NAME, service);
+            List<Task> tasks = repository.load();
+            repository.close();
+            return tasks;
+        }
+    }
+
+    // ベンチマーク用のタスク（タイトルはすべて異なり、内容は100種類、期限日は2年分）
+    private static List<Task> createSample(int rows) {
+        List<Task> tasks = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            LocalDate due = BASE_DATE.plusDays(i % 730);
+            tasks.add(new Task("タスク" + i, "ベンチマーク用の内容 " + (i % 100), i % 3 == 0, due, BASE_DATE, due));
+        }
+        return tasks;
+    }
+
+    // 呼び出すたびに 0〜SAMPLE_SIZE-1 を順番に渡す
+    private static Harness.Body cycle(IndexedBody body) {
+        int[] next = new int[1];
+        return () -> body.run(next[0]++ & (SAMPLE_SIZE - 1));
+    }
+
+    private interface IndexedBody {
+        Object run(int index) throws Exception;
+    }
+
+    // 書き込んだバイト数だけを数えて捨てるチャネル（書き出しの計測でファイルの書き込みを含めないため）
+    private static class DiscardChannel implements WritableByteChannel {
+        long bytes; // 書き込まれたバイト数
+
+        @Override
+        public int write(ByteBuffer src) {
+            int length = src.remaining();
+            src.position(src.limit());
+            bytes += length;
+            return length;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return true;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    // 一時ディレクトリを使うベンチマーク（終了時にディレクトリを削除する）
+    // 計測のあとで後片付けをするベンチマーク
+    private static class Cleanup implements Harness.Body, AutoCloseable {
+        private final Harness.Body body;
+        private final Runnable cleanup;
+
+        Cleanup(Harness.Body body, Runnable cleanup) {
+            this.body = body;
+            this.cleanup = cleanup;
+        }
+
+        @Override
+        public Object run() throws Exception {
+            return body.run();
+        }
+
+        @Override
+        public void close() {
+            cleanup.run();
+        }
+    }
+
+    private static class Fixture implements Harness.Body, AutoCloseable {
+        private final Path directory;
+        private final Harness.Body body;
+
+        Fixture(Path directory, Harness.Body body) {
+            this.directory = directory;
+            this.body = body;
+        }
+
+        @Override
+        public Object run() throws Exception {
+            return body.run();
+        }
+
+        @Override
+        public void close() throws IOException {
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+                for (Path file : files) {
+                    Files.delete(file);
+                }
+            }
+            Files.delete(directory);
+        }
+    }
+}
@@ -0,0 +1,218 @@
+package Benchmarks;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.time.Instant;
+import java.util.*;
+import java.util.regex.Pattern;
+
+// ベンチマークの実行と結果のJSON出力を行うクラス（JMH の平均時間モードに相当する計測）
+// 各ベンチマークは、ウォームアップのあと、一定時間ずつ処理を繰り返す計測を数回行い、1操作あたりの平均時間（ns/op）を記録する。
+// 処理の戻り値はフィールドに保存し、JITに計算を省かれないようにする
+public final class Harness {
+    // 計測する処理（戻り値は計算を省かれないように保存する）
+    public interface Body {
+        Object run() throws Exception;
+    }
+
+    // 計測の準備（件数を受け取り、計測する処理を返す。後始末が必要な場合は Body に AutoCloseable を実装する）
+    public interface Setup {
+        Body create(int rows) throws Exception;
+    }
+
+    private final int warmupIterations; // ウォームアップの回数
+    private final int measurementIterations; // 計測の回数
+    private final long iterationNanos; // 1回の計測で処理を繰り返す時間
+    private final int[] rows; // 件数を変えて計測するベンチマークの件数
+    private final Pattern filter; // 実行するベンチマーク名（null の場合はすべて）
+    private final List<Map<String, Object>> results = new ArrayList<>();
+    private Object sink; // 処理の戻り値
+
+    public Harness(int warmupIterations, int measurementIterations, long iterationMillis, int[] rows, String filter) {
+        this.warmupIterations = warmupIterations;
+        this.measurementIterations = measurementIterations;
+        this.iterationNanos = iterationMillis * 1_000_000;
+        this.rows = rows;
+        this.filter = filter == null ? null : Pattern.compile(filter);
+    }
+
+    // 件数によらないベンチマークを実行する（operations は1回の処理に含まれる操作の数）
+    public void run(String name, int operations, Setup setup) {
+        if (matches(name)) {
+            measure(name, null, operations, setup);
+        }
+    }
+
+    // 件数ごとにベンチマークを実行する
+    public void runSized(String name, int operations, Setup setup) {
+        if (matches(name)) {
+            for (int count : rows) {
+                measure(name, count, operations, setup);
+            }
+        }
+    }
+
+    private boolean matches(String name) {
+        return filter == null || filter.matcher(name).find();
+    }
+
+    private void measure(String name, Integer count, int operations, Setup setup) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("benchmark", name);
+        Map<String, Object> params = new LinkedHashMap<>();
+        if (count != null) {
+            params.put("rows", count);
+        }
+        result.put("params", params);
+        result.put("mode", "avgt");
+        result.put("unit", "ns/op");
+        result.put("warmupIterations", warmupIterations);
+        result.put("measurementIterations", measurementIterations);
+        result.put("iterationTimeMs", iterationNanos / 1_000_000);
+        result.put("operationsPerInvocation", operations);
+        System.out.printf("# %s%s%n", name, count == null ? "" : String.format(" (rows=%,d)", count));
+
+        Body body = null;
+        try {
+            body = setup.create(count == null ? 0 : count);
+            for (int i = 0; i < warmupIterations; i++) {
+                double score = iteration(body, operations);
+                System.out.printf("  ウォームアップ %d: %,.1f ns/op%n", i + 1, score);
+            }
+            double[] scores = new double[measurementIterations];
+            for (int i = 0; i < measurementIterations; i++) {
+                scores[i] = iteration(body, operations);
+                System.out.printf("  計測 %d: %,.1f ns/op%n", i + 1, scores[i]);
+            }
+            summarize(result, scores);
+        } catch (Exception | OutOfMemoryError e) {
+            // 失敗したベンチマークはエラーとして記録し、残りのベンチマークを続ける
+            result.put("error", e.toString());
+            System.out.println("  エラー: " + e);
+        } finally {
+            sink = null;
+            if (body instanceof AutoCloseable) {
+                try {
+                    ((AutoCloseable) body).close();
+                } catch (Exception e) {
+                    System.out.println("  後始末に失敗しました: " + e);
+                }
+            }
+        }
+        results.add(result);
+    }
+
+    // 一定時間（少なくとも1回）処理を繰り返し、1操作あたりの平均時間を返す
+    private double iteration(Body body, int operations) throws Exception {
+        long invocations = 0;
+        long start = System.nanoTime();
+        long elapsed;
+        do {
+            sink = body.run();
+            invocations++;
+            elapsed = System.nanoTime() - start;
+        } while (elapsed < iterationNanos);
+        return (double) elapsed / (invocations * operations);
+    }
+
+    private static void summarize(Map<String, Object> result, double[] scores) {
+        double sum = 0;
+        double min = Double.MAX_VALUE;
+        double max = 0;
+        for (double score : scores) {
+            sum += score;
+            min = Math.min(min, score);
+            max = Math.max(max, score);
+        }
+        double mean = sum / scores.length;
+        double squares = 0;
+        for (double score : scores) {
+            squares += (score - mean) * (score - mean);
+        }
+        result.put("score", mean);
+        result.put("stdev", scores.length > 1 ? Math.sqrt(squares / (scores.length - 1)) : 0.0);
+        result.put("min", min);
+        result.put("max", max);
+        result.put("rawData", scores);
+        System.out.printf("  結果: %,.1f ns/op（最小 %,.1f / 最大 %,.1f）%n", mean, min, max);
+    }
+
+    // 実行環境と結果をJSONで書き出す（path が null の場合は標準出力）
+    public void writeJson(Path path) throws IOException {
+        Map<String, Object> root = new LinkedHashMap<>();
+        root.put("timestamp", Instant.now().toString());
+        root.put("javaVersion", System.getProperty("java.version"));
+        root.put("vmName", System.getProperty("java.vm.name"));
+        root.put("availableProcessors", Runtime.getRuntime().availableProcessors());
+        root.put("maxMemory", Runtime.getRuntime().maxMemory());
+        root.put("results", results);
+        StringBuilder json = new StringBuilder();
+        appendJson(json, root, "");
+        json.append('\n');
+        if (path == null) {
+            System.out.print(json);
+        } else {
+            Files.write(path, json.toString().getBytes(StandardCharsets.UTF_8));
+            System.out.println("結果を書き出しました: " + path);
+        }
+    }
+
+    private static void appendJson(StringBuilder json, Object value, String indent) {
+        if (value instanceof Map) {
+            Map<?, ?> map = (Map<?, ?>) value;
+            if (map.isEmpty()) {
+                json.append("{}");
+                return;
+            }
+            String inner = indent + "  ";
+            json.append("{\n");
+            Iterator<? extends Map.Entry<?, ?>> entries = map.entrySet().iterator();
+            while (entries.hasNext()) {
+                Map.Entry<?, ?> entry = entries.next();
+                json.append(inner);
+                appendString(json, entry.getKey().toString());
+                json.append(": ");
+                appendJson(json, entry.getValue(), inner);
+                json.append(entries.hasNext() ? ",\n" : "\n");
+            }
+            json.append(indent).append('}');
+        } else if (value instanceof List) {
+            List<?> list = (List<?>) value;
+            String inner = indent + "  ";
+            json.append("[\n");
+            for (int i = 0; i < list.size(); i++) {
+                json.append(inner);
+                appendJson(json, list.get(i), inner);
+                json.append(i < list.size() - 1 ? ",\n" : "\n");
+            }
+            json.append(indent).append(']');
+        } else if (value instanceof double[]) {
+            double[] values = (double[]) value;
+            json.append('[');
+            for (int i = 0; i < values.length; i++) {
+                json.append(i > 0 ? ", " : "").append(values[i]);
+            }
+            json.append(']');
+        } else if (value instanceof Number || value instanceof Boolean) {
+            json.append(value);
+        } else {
+            appendString(json, String.valueOf(value));
+        }
+    }
+
+    private static void appendString(StringBuilder json, String value) {
+        json.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                json.append('\\').append(c);
+            } else if (c < 0x20) {
+                json.append(String.format("\\u%04x", (int) c));
+            } else {
+                json.append(c);
+            }
+        }
+        json.append('"');
+    }
+}
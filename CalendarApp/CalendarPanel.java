@@ -0,0 +1,190 @@
+package CalendarApp;
+
+import EventApp.EventRepository;
+import TodoListApp.Task;
+import TodoListApp.TaskQuery;
+import TodoListApp.TaskStore;
+
+import javax.swing.*;
+import java.awt.*;
+import java.time.*;
+import java.util.List;
+import java.util.StringJoiner;
+
+// 月ごとのカレンダー（前後の月への移動ボタンと日付の一覧）
+// 画面を持たない環境でも作成できるよう JPanel にしている（ベンチマークからも使う）。
+// 曜日の見出しと 6×7 の日付のマスは作成時に一度だけ作り、月を切り替えるとマスの文字と色だけを変える。
+// 前後の月の表示内容（MonthModel）は表示のあとで計算しておき、隣の月への切り替えでは計算しない。
+// 日ごとのタスク・イベントの件数は DayIndex から取り出す
+public class CalendarPanel extends JPanel {
+    private static final String[] DAY_OF_WEEK_NAMES = { "日", "月", "火", "水", "木", "金", "土" };
+    private static final String[] KIND_NAMES = { "期限", "期限切れ", "完了", "イベント" }; // 種類の名前（DayIndex の種類の順）
+    private static final int MAX_TOOLTIP_TASKS = 10; // ツールチップに表示するタスクの最大数
+
+    private final JLabel monthLabel;
+    private final DayCell[] cells = new DayCell[MonthModel.CELLS];
+    private final DayIndex dayIndex = new DayIndex();
+    private TaskStore taskStore; // 期限日を表示するタスク（null の場合は表示しない）
+    private MonthModel current; // 表示中の月
+    private MonthModel previous; // 前の月（未計算・変更後は null）
+    private MonthModel next; // 次の月（未計算・変更後は null）
+    private boolean prefetchQueued; // 前後の月の計算を登録済みかどうか
+    private boolean refreshQueued; // 表示中の月の計算し直しを登録済みかどうか
+
+    public CalendarPanel(YearMonth yearMonth) {
+        super(new BorderLayout());
+
+        // ヘッダー（ボタンと月ラベル）
+        JPanel headerPanel = new JPanel(new BorderLayout());
+
+        JButton prevButton = new JButton("◀ 前の月");
+        JButton nextButton = new JButton("次の月 ▶");
+        monthLabel = new JLabel("", SwingConstants.CENTER);
+        monthLabel.setFont(new Font("SansSerif", Font.BOLD, 18));
+
+        headerPanel.add(prevButton, BorderLayout.WEST);
+        headerPanel.add(monthLabel, BorderLayout.CENTER);
+        headerPanel.add(nextButton, BorderLayout.EAST);
+
+        add(headerPanel, BorderLayout.NORTH);
+
+        // カレンダー描画パネル（曜日の見出しと日付のマス）
+        JPanel calendarPanel = new JPanel(new GridLayout(MonthModel.ROWS + 1, 7));
+        for (String name : DAY_OF_WEEK_NAMES) {
+            JLabel lbl = new JLabel(name, SwingConstants.CENTER);
+            lbl.setFont(lbl.getFont().deriveFont(Font.BOLD));
+            calendarPanel.add(lbl);
+        }
+        for (int i = 0; i < cells.length; i++) {
+            cells[i] = new DayCell(this::toolTipFor);
+            calendarPanel.add(cells[i]);
+        }
+        add(calendarPanel, BorderLayout.CENTER);
+
+        // 凡例
+        JPanel legendPanel = new JPanel(new FlowLayout(FlowLayout.CENTER, 12, 4));
+        for (int kind = 0; kind < DayIndex.KINDS; kind++) {
+            JLabel legend = new JLabel(DayCell.SYMBOLS[kind] + " " + KIND_NAMES[kind]);
+            legend.setForeground(DayCell.SYMBOL_COLORS[kind]);
+            legendPanel.add(legend);
+        }
+        add(legendPanel, BorderLayout.SOUTH);
+
+        // イベント登録
+        prevButton.addActionListener(e -> showMonth(current.month.minusMonths(1)));
+        nextButton.addActionListener(e -> showMonth(current.month.plusMonths(1)));
+        dayIndex.addListener(this::refresh);
+
+        showMonth(yearMonth);
+    }
+
+    // 指定した月を表示する（前後の月は計算済みのものを使う）
+    public void showMonth(YearMonth yearMonth) {
+        if (current != null && yearMonth.equals(current.month)) {
+            return;
+        }
+        if (next != null && yearMonth.equals(next.month)) {
+            previous = current;
+            current = next;
+            next = null;
+        } else if (previous != null && yearMonth.equals(previous.month)) {
+            next = current;
+            current = previous;
+            previous = null;
+        } else {
+            current = MonthModel.compute(yearMonth, dayIndex);
+            previous = null;
+            next = null;
+        }
+        apply(current);
+        queuePrefetch();
+    }
+
+    public YearMonth getMonth() {
+        return current.month;
+    }
+
+    // 日ごとのタスクの件数を表示する（タスクが変わったら表示中の月を計算し直す）
+    public void setTaskStore(TaskStore taskStore) {
+        this.taskStore = taskStore;
+        dayIndex.attach(taskStore);
+    }
+
+    // 日ごとの未完了イベントの件数を表示する
+    public void setEventRepository(EventRepository eventRepository) {
+        dayIndex.attach(eventRepository);
+    }
+
+    // 計算済みの表示内容を捨てて、表示中の月を計算し直す
+    // （日付の変化などで続けて変更された場合も、計算し直すのはまとめて1回だけ）
+    private void refresh() {
+        previous = null;
+        next = null;
+        if (refreshQueued) {
+            return;
+        }
+        refreshQueued = true;
+        SwingUtilities.invokeLater(() -> {
+            refreshQueued = false;
+            current = MonthModel.compute(current.month, dayIndex);
+            apply(current);
+            queuePrefetch();
+        });
+    }
+
+    private void apply(MonthModel model) {
+        monthLabel.setText(model.title);
+        for (int i = 0; i < cells.length; i++) {
+            cells[i].update(model.texts[i], model.colors[i], model.epochDays[i], model.counts, i * DayIndex.KINDS);
+        }
+    }
+
+    // 表示のあとで前後の月を計算する（続けて切り替えた場合は最後の月の前後だけを計算する）
+    private void queuePrefetch() {
+        if (prefetchQueued) {
+            return;
+        }
+        prefetchQueued = true;
+        SwingUtilities.invokeLater(() -> {
+            prefetchQueued = false;
+            YearMonth month = current.month;
+            if (previous == null) {
+                previous = MonthModel.compute(month.minusMonths(1), dayIndex);
+            }
+            if (next == null) {
+                next = MonthModel.compute(month.plusMonths(1), dayIndex);
+            }
+        });
+    }
+
+    // 日付のマスのツールチップ（種類ごとの件数と、期限日のタスクの一部。マウスを重ねたときに作成する）
+    private String toolTipFor(long epochDay) {
+        StringJoiner counts = new StringJoiner(" / ");
+        for (int kind = 0; kind < DayIndex.KINDS; kind++) {
+            int count = dayIndex.count(epochDay, kind);
+            if (count > 0) {
+                counts.add(KIND_NAMES[kind] + " " + count + "件");
+            }
+        }
+        if (counts.length() == 0) {
+            return null;
+        }
+        StringBuilder toolTip = new StringBuilder(counts.toString());
+        if (taskStore != null) {
+            LocalDate date = LocalDate.ofEpochDay(epochDay);
+            List<Task> tasks = taskStore.query(new TaskQuery().dueBetween(date, date));
+            StringJoiner titles = new StringJoiner("、");
+            for (int i = 0; i < Math.min(tasks.size(), MAX_TOOLTIP_TASKS); i++) {
+                Task task = tasks.get(i);
+                titles.add((task.isDone() ? "✓" : task.isOverdue() ? "⚠" : "") + task.getTitle());
+            }
+            if (tasks.size() > MAX_TOOLTIP_TASKS) {
+                titles.add("ほか" + (tasks.size() - MAX_TOOLTIP_TASKS) + "件");
+            }
+            if (!tasks.isEmpty()) {
+                toolTip.append("：").append(titles);
+            }
+        }
+        return toolTip.toString();
+    }
+}
@@ -0,0 +1,104 @@
+package CalendarApp;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.MouseEvent;
+import java.util.function.LongFunction;
+
+// カレンダーの日付のマス（6×7 のマスを作成時に用意し、月を切り替えても使い回す）
+// 1行目に日付、2行目に種類ごとの件数（期限・期限切れ・完了・イベント）を記号と色で表示する。
+// 表示を変えても大きさは変わらないため、JLabel と違ってレイアウトのやり直しを起こさず再描画だけを行う。
+// ツールチップはマウスを重ねたときに toolTips から作成する
+class DayCell extends JComponent {
+    static final String[] SYMBOLS = { "□", "⚠", "✓", "★" }; // 種類ごとの記号（DayIndex の種類の順）
+    static final Color[] SYMBOL_COLORS = { new Color(0x33, 0x33, 0x33), new Color(0xD0, 0x60, 0x00),
+            new Color(0x30, 0x90, 0x40), new Color(0x80, 0x40, 0xC0) }; // 種類ごとの色
+
+    private final Color defaultForeground; // 通常の文字色
+    private final LongFunction<String> toolTips; // エポック日 → ツールチップ（ない場合は null）
+    private final Font countFont; // 件数の文字
+    private String text = ""; // 表示する日付
+    private long epochDay; // 表示する日付（エポック日）
+    private final int[] counts = new int[DayIndex.KINDS]; // 種類ごとの件数
+
+    DayCell(LongFunction<String> toolTips) {
+        this.toolTips = toolTips;
+        setOpaque(false);
+        setFont(UIManager.getFont("Label.font"));
+        countFont = getFont().deriveFont(getFont().getSize2D() - 1f);
+        defaultForeground = UIManager.getColor("Label.foreground");
+        setForeground(defaultForeground);
+        ToolTipManager.sharedInstance().registerComponent(this);
+    }
+
+    // 表示する内容を変える（foreground が null の場合は通常の色。変わった場合だけ再描画する）
+    void update(String text, Color foreground, long epochDay, int[] counts, int offset) {
+        if (foreground == null) {
+            foreground = defaultForeground;
+        }
+        this.epochDay = epochDay;
+        boolean changed = !text.equals(this.text) || !foreground.equals(getForeground());
+        for (int kind = 0; kind < DayIndex.KINDS; kind++) {
+            if (this.counts[kind] != counts[offset + kind]) {
+                this.counts[kind] = counts[offset + kind];
+                changed = true;
+            }
+        }
+        if (changed) {
+            this.text = text;
+            setForeground(foreground);
+            repaint();
+        }
+    }
+
+    String getText() {
+        return text;
+    }
+
+    @Override
+    public String getToolTipText(MouseEvent event) {
+        return text.isEmpty() ? null : toolTips.apply(epochDay);
+    }
+
+    @Override
+    public Dimension getPreferredSize() {
+        FontMetrics metrics = getFontMetrics(getFont());
+        return new Dimension(metrics.stringWidth("□0 ⚠0 ✓0 ★0") + 8, metrics.getHeight() * 2 + 8);
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        if (text.isEmpty()) {
+            return;
+        }
+        Graphics2D g2 = (Graphics2D) g;
+        g2.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+        g2.setFont(getFont());
+        g2.setColor(getForeground());
+        FontMetrics metrics = g2.getFontMetrics();
+        int lineHeight = metrics.getHeight();
+        int top = (getHeight() - lineHeight * 2) / 2;
+        g2.drawString(text, (getWidth() - metrics.stringWidth(text)) / 2, top + metrics.getAscent());
+
+        // 件数のある種類だけを、記号と件数で中央に並べる
+        g2.setFont(countFont);
+        FontMetrics countMetrics = g2.getFontMetrics();
+        String[] parts = new String[DayIndex.KINDS];
+        int width = 0;
+        for (int kind = 0; kind < DayIndex.KINDS; kind++) {
+            if (counts[kind] > 0) {
+                parts[kind] = SYMBOLS[kind] + counts[kind];
+                width += countMetrics.stringWidth(parts[kind] + " ");
+            }
+        }
+        int x = (getWidth() - width) / 2;
+        int y = top + lineHeight + countMetrics.getAscent();
+        for (int kind = 0; kind < DayIndex.KINDS; kind++) {
+            if (parts[kind] != null) {
+                g2.setColor(SYMBOL_COLORS[kind]);
+                g2.drawString(parts[kind], x, y);
+                x += countMetrics.stringWidth(parts[kind] + " ");
+            }
+        }
+    }
+}
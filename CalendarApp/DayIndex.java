@@ -0,0 +1,155 @@
+package CalendarApp;
+
+import EventApp.EventRepository;
+import TodoListApp.Task;
+import TodoListApp.TaskStore;
+
+import java.util.*;
+
+// 日ごとのタスク・未完了イベントの件数（エポック日をキーとした集計）
+// タスクの追加・変更・削除とイベントの変更のたびに、変わった日の件数だけを増減する。
+// タスクごとに最後に数えた日と種類を覚えておき、変更後の状態との差分で更新する（全タスクの走査はまとめて追加されたときだけ）
+public class DayIndex {
+    public static final int DUE = 0; // 期限日の未完了タスク（期限切れを除く）
+    public static final int OVERDUE = 1; // 期限切れのタスク
+    public static final int DONE = 2; // 完了済みのタスク
+    public static final int EVENTS = 3; // 未完了のイベント
+    static final int KINDS = 4;
+
+    private final Map<Integer, int[]> counts = new HashMap<>(); // エポック日 → 種類ごとの件数
+    private final Map<Integer, Long> taskEntries = new HashMap<>(); // タスクID → 数えた日と種類（日 << 2 | 種類）
+    private final List<Runnable> listeners = new ArrayList<>();
+    private TaskStore taskStore;
+    private EventRepository eventRepository;
+
+    // 件数が変わったときに呼ばれる処理を登録する
+    public void addListener(Runnable listener) {
+        listeners.add(listener);
+    }
+
+    // タスクの件数を集計し、以後の変更を反映する
+    public void attach(TaskStore taskStore) {
+        this.taskStore = taskStore;
+        taskStore.addListener(new TaskStore.Listener() {
+            @Override
+            public void tasksChanged() {
+                reloadTasks();
+                fireChanged();
+            }
+
+            @Override
+            public void taskInserted(int row, Task task) {
+                addTask(task);
+                fireChanged();
+            }
+
+            @Override
+            public void taskDeleted(int row, Task task) {
+                removeTask(task.getId());
+                fireChanged();
+            }
+
+            @Override
+            public void taskUpdated(int oldRow, int newRow, Task task) {
+                removeTask(task.getId());
+                addTask(task);
+                fireChanged();
+            }
+        });
+        reloadTasks();
+        fireChanged();
+    }
+
+    // 未完了イベントの件数を集計し、以後の変更を反映する
+    public void attach(EventRepository eventRepository) {
+        this.eventRepository = eventRepository;
+        eventRepository.addListener(new EventRepository.Listener() {
+            @Override
+            public void pendingChanged(long oldEpochDay, long newEpochDay) {
+                if (oldEpochDay != EventRepository.NO_DAY) {
+                    add(oldEpochDay, EVENTS, -1);
+                }
+                if (newEpochDay != EventRepository.NO_DAY) {
+                    add(newEpochDay, EVENTS, 1);
+                }
+                fireChanged();
+            }
+
+            @Override
+            public void pendingReloaded() {
+                reloadEvents();
+                fireChanged();
+            }
+        });
+        reloadEvents();
+        fireChanged();
+    }
+
+    // epochDay の kind の件数
+    public int count(long epochDay, int kind) {
+        int[] day = counts.get((int) epochDay);
+        return day == null ? 0 : day[kind];
+    }
+
+    // epochDay の種類ごとの件数を dest の offset 番目から書き込む
+    void copyCounts(long epochDay, int[] dest, int offset) {
+        int[] day = counts.get((int) epochDay);
+        for (int kind = 0; kind < KINDS; kind++) {
+            dest[offset + kind] = day == null ? 0 : day[kind];
+        }
+    }
+
+    // タスクを数え直す（まとめて変更されたとき）
+    private void reloadTasks() {
+        clear(DUE, DONE);
+        taskEntries.clear();
+        for (Task task : taskStore) {
+            addTask(task);
+        }
+    }
+
+    private void reloadEvents() {
+        clear(EVENTS, EVENTS);
+        for (int day : eventRepository.pendingDays()) {
+            add(day, EVENTS, 1);
+        }
+    }
+
+    private void addTask(Task task) {
+        int kind = task.isDone() ? DONE : task.isOverdue() ? OVERDUE : DUE;
+        long day = task.getDueDate().toEpochDay();
+        taskEntries.put(task.getId(), day << 2 | kind);
+        add(day, kind, 1);
+    }
+
+    private void removeTask(int id) {
+        Long entry = taskEntries.remove(id);
+        if (entry != null) {
+            add(entry >> 2, (int) (entry & 3), -1);
+        }
+    }
+
+    private void add(long epochDay, int kind, int delta) {
+        int[] day = counts.get((int) epochDay);
+        if (day == null) {
+            day = new int[KINDS];
+            counts.put((int) epochDay, day);
+        }
+        day[kind] += delta;
+    }
+
+    // from から to までの種類の件数を0にする
+    private void clear(int from, int to) {
+        for (int[] day : counts.values()) {
+            for (int kind = from; kind <= to; kind++) {
+                day[kind] = 0;
+            }
+        }
+    }
+
+    private void fireChanged() {
+        for (Runnable listener : listeners) {
+            listener.run();
+        }
+    }
+}
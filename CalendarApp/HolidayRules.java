@@ -0,0 +1,195 @@
+package CalendarApp;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.Year;
+
+// 国民の祝日に関する法律に基づき、1年分の休日を計算するクラス
+// 結果は年の何日目かをビットの位置とするビットセット（long × 6 = 384ビット）で返す。
+// 含めるもの: 国民の祝日（移動する祝日・春分の日・秋分の日・特例の祝日を含む）、国民の休日（祝日に挟まれた日）、振替休日
+// 春分の日・秋分の日は天文計算の近似式で求める（官報で公表される日と一致するのは 1900〜2150年の範囲）
+final class HolidayRules {
+    static final int FIRST_YEAR = 1949; // 祝日法が1年を通して適用された最初の年（それより前は休日なし）
+    static final int WORDS = 6; // 1年分のビットセットの long の数
+
+    private static final LocalDate SUBSTITUTE_START = LocalDate.of(1973, 4, 12); // 振替休日の施行日
+    private static final int SANDWICH_START_YEAR = 1986; // 国民の休日の施行年（1985年12月27日施行）
+    private static final int CURRENT_RULES_YEAR = 2007; // 振替休日・国民の休日が現在の規定になった年
+
+    private HolidayRules() {
+    }
+
+    // year 年の休日のビットセット（1月1日がビット0）
+    static long[] compute(int year) {
+        long[] holidays = new long[WORDS];
+        if (year < FIRST_YEAR) {
+            return holidays;
+        }
+        addNationalHolidays(year, holidays);
+        long[] national = holidays.clone();
+        int length = Year.of(year).length();
+        // 1月1日の曜日（月曜=0 … 日曜=6）から各日の曜日を求める
+        int firstDayOfWeek = LocalDate.of(year, 1, 1).getDayOfWeek().getValue() - 1;
+
+        // 国民の休日: 前日と翌日が国民の祝日で、その日は祝日でない日（2006年までは日曜日を除く）
+        if (year >= SANDWICH_START_YEAR) {
+            for (int day = 1; day < length - 1; day++) {
+                if (isSet(national, day - 1) && isSet(national, day + 1) && !isSet(national, day)
+                        && (year >= CURRENT_RULES_YEAR || !isSunday(firstDayOfWeek, day))) {
+                    set(holidays, day);
+                }
+            }
+        }
+
+        // 振替休日: 祝日が日曜日の場合、2006年までは翌日の月曜日、2007年からはその後の最も近い祝日でない日
+        for (int day = 0; day < length; day++) {
+            if (!isSet(national, day) || !isSunday(firstDayOfWeek, day)) {
+                continue;
+            }
+            if (year >= CURRENT_RULES_YEAR) {
+                int substitute = day + 1;
+                while (isSet(national, substitute)) {
+                    substitute++;
+                }
+                set(holidays, substitute);
+            } else if (!LocalDate.ofYearDay(year, day + 1).isBefore(SUBSTITUTE_START) && !isSet(national, day + 1)) {
+                set(holidays, day + 1);
+            }
+        }
+        return holidays;
+    }
+
+    // 国民の祝日（その年に適用される規定のもの）
+    private static void addNationalHolidays(int year, long[] holidays) {
+        set(holidays, year, 1, 1); // 元日
+        if (year < 2000) {
+            set(holidays, year, 1, 15); // 成人の日
+        } else {
+            set(holidays, year, 1, nthMonday(year, 1, 2));
+        }
+        if (year >= 1967) {
+            set(holidays, year, 2, 11); // 建国記念の日
+        }
+        set(holidays, year, 3, vernalEquinox(year)); // 春分の日
+        set(holidays, year, 4, 29); // 天皇誕生日（〜1988年）・みどりの日（1989〜2006年）・昭和の日（2007年〜）
+        set(holidays, year, 5, 3); // 憲法記念日
+        if (year >= CURRENT_RULES_YEAR) {
+            set(holidays, year, 5, 4); // みどりの日
+        }
+        set(holidays, year, 5, 5); // こどもの日
+
+        // 海の日
+        if (year == 2020) {
+            set(holidays, year, 7, 23);
+        } else if (year == 2021) {
+            set(holidays, year, 7, 22);
+        } else if (year >= 2003) {
+            set(holidays, year, 7, nthMonday(year, 7, 3));
+        } else if (year >= 1996) {
+            set(holidays, year, 7, 20);
+        }
+
+        // 山の日
+        if (year == 2020) {
+            set(holidays, year, 8, 10);
+        } else if (year == 2021) {
+            set(holidays, year, 8, 8);
+        } else if (year >= 2016) {
+            set(holidays, year, 8, 11);
+        }
+
+        // 敬老の日
+        if (year >= 2003) {
+            set(holidays, year, 9, nthMonday(year, 9, 3));
+        } else if (year >= 1966) {
+            set(holidays, year, 9, 15);
+        }
+        set(holidays, year, 9, autumnalEquinox(year)); // 秋分の日
+
+        // 体育の日（2020年からはスポーツの日）
+        if (year == 2020) {
+            set(holidays, year, 7, 24);
+        } else if (year == 2021) {
+            set(holidays, year, 7, 23);
+        } else if (year >= 2000) {
+            set(holidays, year, 10, nthMonday(year, 10, 2));
+        } else if (year >= 1966) {
+            set(holidays, year, 10, 10);
+        }
+
+        set(holidays, year, 11, 3); // 文化の日
+        set(holidays, year, 11, 23); // 勤労感謝の日
+
+        // 天皇誕生日
+        if (year >= 2020) {
+            set(holidays, year, 2, 23);
+        } else if (year >= 1989 && year <= 2018) {
+            set(holidays, year, 12, 23);
+        }
+
+        // その年限りの祝日（皇室の行事）
+        switch (year) {
+            case 1959:
+                set(holidays, year, 4, 10); // 皇太子明仁親王の結婚の儀
+                break;
+            case 1989:
+                set(holidays, year, 2, 24); // 昭和天皇の大喪の礼
+                break;
+            case 1990:
+                set(holidays, year, 11, 12); // 即位礼正殿の儀
+                break;
+            case 1993:
+                set(holidays, year, 6, 9); // 皇太子徳仁親王の結婚の儀
+                break;
+            case 2019:
+                set(holidays, year, 5, 1); // 天皇の即位の日
+                set(holidays, year, 10, 22); // 即位礼正殿の儀
+                break;
+            default:
+                break;
+        }
+    }
+
+    // 春分の日（3月の日）
+    static int vernalEquinox(int year) {
+        if (year < 1980) {
+            return (int) (20.8357 + 0.242194 * (year - 1980) - (year - 1983) / 4);
+        } else if (year < 2100) {
+            return (int) (20.8431 + 0.242194 * (year - 1980) - (year - 1980) / 4);
+        }
+        return (int) (21.8510 + 0.242194 * (year - 1980) - (year - 1980) / 4);
+    }
+
+    // 秋分の日（9月の日）
+    static int autumnalEquinox(int year) {
+        if (year < 1980) {
+            return (int) (23.2588 + 0.242194 * (year - 1980) - (year - 1983) / 4);
+        } else if (year < 2100) {
+            return (int) (23.2488 + 0.242194 * (year - 1980) - (year - 1980) / 4);
+        }
+        return (int) (24.2488 + 0.242194 * (year - 1980) - (year - 1980) / 4);
+    }
+
+    // month 月の第 n 月曜日（日）
+    private static int nthMonday(int year, int month, int n) {
+        int firstDayOfWeek = LocalDate.of(year, month, 1).getDayOfWeek().getValue(); // 月曜=1
+        int firstMonday = 1 + (8 - firstDayOfWeek) % 7;
+        return firstMonday + 7 * (n - 1);
+    }
+
+    private static boolean isSunday(int firstDayOfWeek, int dayIndex) {
+        return (firstDayOfWeek + dayIndex) % 7 == DayOfWeek.SUNDAY.getValue() - 1;
+    }
+
+    private static void set(long[] holidays, int year, int month, int day) {
+        set(holidays, LocalDate.of(year, month, day).getDayOfYear() - 1);
+    }
+
+    private static void set(long[] bits, int index) {
+        bits[index >>> 6] |= 1L << index;
+    }
+
+    static boolean isSet(long[] bits, int index) {
+        return (bits[index >>> 6] & (1L << index)) != 0;
+    }
+}
@@ -1,26 +1,84 @@
 package CalendarApp;
 
 import java.time.LocalDate;
-import java.time.MonthDay;
-
-import java.time.*;
-import java.time.temporal.ChronoUnit;
-import java.util.*;
-import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
 
+// 祝日・休日の判定（国民の祝日、国民の休日、振替休日）
+// 1年分の休日をビットセットとして一度だけ計算し（HolidayRules）、最近使った年を CACHE_SIZE 年分まで保持する。
+// 判定は年のビットセットを探してビットを調べるだけで、オブジェクトを作成しない
 public class HolidayUtil {
+    private static final int CACHE_SIZE = 32; // 保持する年の数
+
+    // 保持している年とビットセット（最後に使った順番を記録し、いっぱいになったら最も古いものを入れ替える）
+    private static final YearHolidays[] cached = new YearHolidays[CACHE_SIZE];
+    private static final long[] lastUsed = new long[CACHE_SIZE];
+    private static long useCount;
+    private static volatile YearHolidays last; // 最後に使った年（同じ年が続く場合はロックせずに使う）
+
     public static boolean isHoliday(LocalDate date) {
-        MonthDay md = MonthDay.from(date);
-        int year = date.getYear();
-
-        // 簡易的に一部の祝日をハードコーディング
-        return md.equals(MonthDay.of(1, 1)) || // 元日
-               md.equals(MonthDay.of(2, 11)) || // 建国記念の日
-               md.equals(MonthDay.of(4, 29)) || // 昭和の日
-               md.equals(MonthDay.of(5, 3)) ||  // 憲法記念日
-               md.equals(MonthDay.of(5, 4)) ||  // みどりの日
-               md.equals(MonthDay.of(5, 5)) ||  // こどもの日
-               md.equals(MonthDay.of(11, 3)) || // 文化の日
-               md.equals(MonthDay.of(11, 23));  // 勤労感謝の日
+        return HolidayRules.isSet(bitsOf(date.getYear()), date.getDayOfYear() - 1);
+    }
+
+    // from から to まで（両端を含む）の休日を日付順に返す
+    public static List<LocalDate> holidaysBetween(LocalDate from, LocalDate to) {
+        List<LocalDate> holidays = new ArrayList<>();
+        for (int year = from.getYear(); year <= to.getYear(); year++) {
+            long[] bits = bitsOf(year);
+            int first = year == from.getYear() ? from.getDayOfYear() - 1 : 0;
+            int last = year == to.getYear() ? to.getDayOfYear() - 1 : Integer.MAX_VALUE;
+            for (int word = first >>> 6; word < bits.length; word++) {
+                long remaining = bits[word];
+                while (remaining != 0) {
+                    int index = (word << 6) + Long.numberOfTrailingZeros(remaining);
+                    remaining &= remaining - 1;
+                    if (index > last) {
+                        break;
+                    }
+                    if (index >= first) {
+                        holidays.add(LocalDate.ofYearDay(year, index + 1));
+                    }
+                }
+            }
+        }
+        return holidays;
+    }
+
+    // year 年の休日のビットセット（保持していなければ計算する）
+    private static long[] bitsOf(int year) {
+        YearHolidays holidays = last;
+        if (holidays != null && holidays.year == year) {
+            return holidays.bits;
+        }
+        synchronized (HolidayUtil.class) {
+            int slot = -1;
+            int oldest = 0;
+            for (int i = 0; i < CACHE_SIZE; i++) {
+                if (cached[i] != null && cached[i].year == year) {
+                    slot = i;
+                    break;
+                }
+                if (lastUsed[i] < lastUsed[oldest]) {
+                    oldest = i;
+                }
+            }
+            if (slot < 0) {
+                slot = oldest;
+                cached[slot] = new YearHolidays(year, HolidayRules.compute(year));
+            }
+            lastUsed[slot] = ++useCount;
+            last = cached[slot];
+            return cached[slot].bits;
+        }
+    }
+
+    private static class YearHolidays {
+        final int year;
+        final long[] bits; // 休日のビットセット（変更しない）
+
+        YearHolidays(int year, long[] bits) {
+            this.year = year;
+            this.bits = bits;
+        }
     }
 }
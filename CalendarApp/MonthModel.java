@@ -0,0 +1,61 @@
+package CalendarApp;
+
+import java.awt.*;
+import java.time.*;
+
+// 1か月分の 6×7 のマスに表示する内容（日付・色・種類ごとの件数）
+// 表示する月の前後の月もあらかじめ計算しておき、月を切り替えるときはマスに値を設定するだけにする。
+// 件数は DayIndex から日ごとに取り出すため、計算はタスクの数によらない
+final class MonthModel {
+    static final int ROWS = 6;
+    static final int CELLS = ROWS * 7;
+    private static final String[] DAY_TEXTS = new String[32]; // 日付の文字
+
+    static {
+        for (int day = 1; day < DAY_TEXTS.length; day++) {
+            DAY_TEXTS[day] = String.valueOf(day);
+        }
+    }
+
+    final YearMonth month;
+    final String title; // 月の見出し
+    final String[] texts = new String[CELLS]; // マスの日付（月の範囲外は空文字）
+    final Color[] colors = new Color[CELLS]; // マスの日付の色（null の場合は通常の色）
+    final long[] epochDays = new long[CELLS]; // マスの日付（エポック日）
+    final int[] counts = new int[CELLS * DayIndex.KINDS]; // マスごとの種類ごとの件数
+
+    private MonthModel(YearMonth month) {
+        this.month = month;
+        this.title = month.getYear() + "年 " + month.getMonthValue() + "月";
+    }
+
+    // month の表示内容を計算する（dayIndex が null の場合は件数を表示しない）
+    static MonthModel compute(YearMonth month, DayIndex dayIndex) {
+        MonthModel model = new MonthModel(month);
+        LocalDate firstOfMonth = month.atDay(1);
+        int firstCell = firstOfMonth.getDayOfWeek().getValue() % 7; // 日曜=0
+        int daysInMonth = month.lengthOfMonth();
+        long firstEpochDay = firstOfMonth.toEpochDay();
+
+        for (int cell = 0; cell < CELLS; cell++) {
+            int day = cell - firstCell + 1;
+            model.epochDays[cell] = firstEpochDay + day - 1;
+            if (day < 1 || day > daysInMonth) {
+                model.texts[cell] = "";
+                continue;
+            }
+            model.texts[cell] = DAY_TEXTS[day];
+            if (dayIndex != null) {
+                dayIndex.copyCounts(model.epochDays[cell], model.counts, cell * DayIndex.KINDS);
+            }
+
+            int column = cell % 7;
+            if (column == 0 || HolidayUtil.isHoliday(month.atDay(day))) {
+                model.colors[cell] = Color.RED;
+            } else if (column == 6) {
+                model.colors[cell] = Color.BLUE;
+            }
+        }
+        return model;
+    }
+}
@@ -0,0 +1,86 @@
+package EventApp;
+
+import TodoListApp.CsvReader;
+
+import java.time.LocalDate;
+
+// イベント（目標日と、その結果・感想）
+public class Event {
+    static final int CSV_FIELD_COUNT = 6;
+
+    int id; // イベントID（未採番の場合は0）
+    String name; // イベント名
+    String content; // イベント内容
+    boolean done; // 完了フラグ
+    LocalDate date; // イベント日付
+    boolean result; // 結果（達成/未達）
+    String feedback; // 感想
+    long offset = -1; // レコードファイル内での位置（バイト、未保存の場合は -1）
+    int capacity; // レコードの枠の大きさ（バイト）
+
+    public Event(String name, String content, LocalDate date) {
+        this.name = name;
+        this.content = content;
+        this.date = date;
+        this.feedback = "";
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getContent() {
+        return content;
+    }
+
+    public boolean isDone() {
+        return done;
+    }
+
+    public LocalDate getDate() {
+        return date;
+    }
+
+    public boolean getResult() {
+        return result;
+    }
+
+    public String getFeedback() {
+        return feedback;
+    }
+
+    // イベント名・内容・日付を変更する
+    public void edit(String name, String content, LocalDate date) {
+        this.name = name;
+        this.content = content;
+        this.date = date;
+    }
+
+    // 完了にして、結果と感想を記録する
+    public void complete(boolean result, String feedback) {
+        this.done = true;
+        this.result = result;
+        this.feedback = feedback;
+    }
+
+    // 以前のイベントCSVの1行から作成する（イベント名,イベント内容,完了,イベント日付,結果,感想）
+    static Event fromCSV(CsvReader reader) {
+        if (reader.fieldCount() < CSV_FIELD_COUNT) {
+            throw new IllegalArgumentException(
+                    reader.getLineNumber() + "行目: 列の数が不足しています（" + reader.fieldCount() + "列）");
+        }
+        LocalDate date = reader.getDate(3);
+        if (date == null) {
+            throw new IllegalArgumentException(reader.getLineNumber() + "行目: イベント日付がありません");
+        }
+        Event event = new Event(reader.getString(0), reader.getString(1), date);
+        event.done = reader.getBoolean(2);
+        event.result = reader.getBoolean(4);
+        event.feedback = reader.getString(5);
+        return event;
+    }
+}
@@ -0,0 +1,137 @@
+package EventApp;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.Arrays;
+
+// 未完了イベントの索引（イベント日付順に、レコードファイル内の位置を保持する）
+// 索引ファイルにはレコードファイルのサイズと更新日時を記録し、一致しない場合は作り直す。
+// 完了済みのイベント（履歴）は含まないため、大きさは未完了イベントの数だけで決まる
+class EventIndex {
+    private static final int MAGIC = 0x45564958; // "EVIX"
+    private static final int VERSION = 1;
+    static final long NONE = Long.MIN_VALUE; // 該当するイベントがない
+
+    private int size;
+    private int[] days = new int[16]; // イベント日付（エポック日）
+    private long[] offsets = new long[16]; // レコードファイル内の位置
+
+    int size() {
+        return size;
+    }
+
+    long offset(int rank) {
+        return offsets[rank];
+    }
+
+    // 書き込みスレッドに渡すためのコピー
+    EventIndex copy() {
+        EventIndex copy = new EventIndex();
+        copy.size = size;
+        copy.days = Arrays.copyOf(days, Math.max(size, 1));
+        copy.offsets = Arrays.copyOf(offsets, Math.max(size, 1));
+        return copy;
+    }
+
+    void clear() {
+        size = 0;
+    }
+
+    // イベント日付と位置の順に挿入する
+    void insert(long epochDay, long offset) {
+        int rank = search((int) epochDay, offset);
+        if (rank >= 0) {
+            return;
+        }
+        rank = -rank - 1;
+        if (size == days.length) {
+            days = Arrays.copyOf(days, size * 2);
+            offsets = Arrays.copyOf(offsets, size * 2);
+        }
+        System.arraycopy(days, rank, days, rank + 1, size - rank);
+        System.arraycopy(offsets, rank, offsets, rank + 1, size - rank);
+        days[rank] = (int) epochDay;
+        offsets[rank] = offset;
+        size++;
+    }
+
+    // 位置が offset のイベントを取り除き、そのイベント日付を返す（含まれない場合は NONE）
+    long remove(long offset) {
+        for (int rank = 0; rank < size; rank++) {
+            if (offsets[rank] == offset) {
+                long day = days[rank];
+                System.arraycopy(days, rank + 1, days, rank, size - rank - 1);
+                System.arraycopy(offsets, rank + 1, offsets, rank, size - rank - 1);
+                size--;
+                return day;
+            }
+        }
+        return NONE;
+    }
+
+    // イベント日付（エポック日）の一覧（日付順）
+    int[] days() {
+        return Arrays.copyOf(days, size);
+    }
+
+    // 索引ファイルを読み込む（レコードファイルのサイズ・更新日時が一致しない、または壊れている場合は false）
+    boolean read(Path path, long fileSize, long fileModified) {
+        if (Files.notExists(path)) {
+            return false;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION
+                    || in.readLong() != fileSize || in.readLong() != fileModified) {
+                return false;
+            }
+            int count = in.readInt();
+            if (count < 0) {
+                return false;
+            }
+            clear();
+            days = new int[Math.max(16, count)];
+            offsets = new long[days.length];
+            for (int i = 0; i < count; i++) {
+                days[i] = in.readInt();
+                offsets[i] = in.readLong();
+            }
+            size = count;
+            return true;
+        } catch (IOException e) {
+            clear();
+            return false;
+        }
+    }
+
+    // 索引ファイルの内容を書き込む
+    void writeTo(FileChannel channel, long fileSize, long fileModified) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(28 + 12 * size);
+        buffer.putInt(MAGIC).putInt(VERSION).putLong(fileSize).putLong(fileModified).putInt(size);
+        for (int i = 0; i < size; i++) {
+            buffer.putInt(days[i]).putLong(offsets[i]);
+        }
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    private int search(int day, long offset) {
+        int low = 0;
+        int high = size - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int cmp = days[mid] != day ? Integer.compare(days[mid], day) : Long.compare(offsets[mid], offset);
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -(low + 1);
+    }
+}
@@ -0,0 +1,261 @@
+package EventApp;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.time.LocalDate;
+import java.util.zip.CRC32;
+
+// イベントのレコードファイル（<ベース名>.dat）
+// レコードごとに余白を持った枠（スロット）を確保し、変更は枠の中を上書きする（ファイル全体は書き直さない）。
+// 枠には内容を2つ持ち、上書きは古い方に世代を1つ進めて書く。読み込みでは CRC32 が一致する新しい方を使うため、
+// 上書きの途中で終了しても前の内容が残る（どちらも一致しない枠は、イベントがないものとして扱う）。
+// 枠に収まらない場合は末尾に新しい枠を確保し、古い枠には削除済みの印をつける。
+//
+//   ファイルヘッダー: MAGIC(int) VERSION(int) 次に採番するID(int) 予備(int)
+//   レコード:       枠の大きさ(int) 状態(byte) ID(int) 内容 × 2
+//   内容:           世代(int) 長さ(int) CRC32(int: 世代・長さ・内容から計算) 内容(枠の大きさ分)
+//   内容の中身:     フラグ(byte: 完了・結果) イベント日付(int: エポック日) イベント名・内容・感想(長さ(int)+UTF-8)
+final class EventRecords {
+    static final int FILE_HEADER_SIZE = 16;
+    private static final int RECORD_HEADER_SIZE = 9;
+    private static final int COPY_HEADER_SIZE = 12;
+    private static final int MAGIC = 0x45564442; // "EVDB"
+    private static final int VERSION = 2;
+    private static final int NEXT_ID_POSITION = 8;
+    private static final byte LIVE = 1; // 有効なレコード
+    private static final byte DELETED = 0; // 移動・削除済みのレコード
+    private static final int SLACK = 128; // 感想の追記などに備えて確保する余白
+    private static final int MIN_PAYLOAD = 5; // フラグとイベント日付
+    private static final int FLAG_DONE = 1;
+    private static final int FLAG_RESULT = 2;
+
+    private EventRecords() {
+    }
+
+    // レコードを走査したときに受け取る内容
+    interface Visitor {
+        void visit(long offset, int id, boolean done, long epochDay);
+    }
+
+    // レコードのないファイルを作成する
+    static void create(Path path, int nextId) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            writeFileHeader(channel, nextId);
+        }
+    }
+
+    static void writeFileHeader(FileChannel channel, int nextId) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(FILE_HEADER_SIZE);
+        header.putInt(MAGIC).putInt(VERSION).putInt(nextId).putInt(0).flip();
+        writeFully(channel, header, 0);
+    }
+
+    // ファイルヘッダーを確認し、次に採番するIDを返す
+    static int readNextId(FileChannel channel) throws IOException {
+        ByteBuffer header = readFully(channel, 0, FILE_HEADER_SIZE);
+        if (header.getInt() != MAGIC || header.getInt() != VERSION) {
+            throw new IOException("イベントのレコードファイルの形式が不正です");
+        }
+        return header.getInt();
+    }
+
+    static void writeNextId(FileChannel channel, int nextId) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(4);
+        buffer.putInt(nextId).flip();
+        writeFully(channel, buffer, NEXT_ID_POSITION);
+    }
+
+    // 内容の長さに対して確保する枠の大きさ
+    static int capacityFor(int payloadLength) {
+        return payloadLength + SLACK;
+    }
+
+    // 枠の大きさに対する、レコード全体（ヘッダーと2つの内容）のバイト数
+    static int recordSize(int capacity) {
+        return RECORD_HEADER_SIZE + 2 * (COPY_HEADER_SIZE + capacity);
+    }
+
+    // 枠全体（ヘッダーと余白を含む）のレコード（2つ目の内容は空にしておく）
+    static ByteBuffer record(Event event, byte[] payload) {
+        ByteBuffer record = ByteBuffer.allocate(recordSize(event.capacity));
+        record.putInt(event.capacity).put(LIVE).putInt(event.id);
+        putCopy(record, 1, payload);
+        record.position(0);
+        return record;
+    }
+
+    // offset の枠にレコードの内容を上書きする（枠に収まること。今の内容は残し、もう一方に新しい世代として書く）
+    static void overwrite(FileChannel channel, long offset, int id, byte[] payload) throws IOException {
+        ByteBuffer header = readFully(channel, offset, RECORD_HEADER_SIZE);
+        int capacity = header.getInt();
+        byte status = header.get();
+        if (status != LIVE || header.getInt() != id || payload.length > capacity) {
+            throw new IOException("イベントのレコードが見つかりません（ID: " + id + "）");
+        }
+        ByteBuffer slot = readFully(channel, offset, recordSize(capacity));
+        int current = currentCopy(slot, capacity);
+        int target = current == 0 ? 1 : 0;
+        int generation = current < 0 ? 1 : slot.getInt(copyPosition(current, capacity)) + 1;
+        ByteBuffer copy = ByteBuffer.allocate(COPY_HEADER_SIZE + payload.length);
+        putCopy(copy, generation, payload);
+        copy.flip();
+        writeFully(channel, copy, offset + copyPosition(target, capacity));
+    }
+
+    // offset の枠に削除済みの印をつける
+    static void markDeleted(FileChannel channel, long offset) throws IOException {
+        writeFully(channel, ByteBuffer.wrap(new byte[] { DELETED }), offset + 4);
+    }
+
+    // offset のレコードを読み込む（内容が壊れている場合は null）
+    static Event read(FileChannel channel, long offset) throws IOException {
+        ByteBuffer header = readFully(channel, offset, RECORD_HEADER_SIZE);
+        int capacity = header.getInt();
+        if (header.get() != LIVE) {
+            throw new IOException("削除済みのイベントのレコードです（位置: " + offset + "）");
+        }
+        int id = header.getInt();
+        ByteBuffer slot = readFully(channel, offset, recordSize(capacity));
+        int current = currentCopy(slot, capacity);
+        if (current < 0) {
+            System.err.println("イベントのレコードが壊れています（ID: " + id + "）");
+            return null;
+        }
+        slot.position(copyPosition(current, capacity) + COPY_HEADER_SIZE);
+        Event event = decode(slot);
+        event.id = id;
+        event.offset = offset;
+        event.capacity = capacity;
+        return event;
+    }
+
+    // 有効なレコードを先頭から順に走査する（内容が壊れているレコードは飛ばす）
+    // 最後まで書き込まれたレコードの末尾の位置を返す
+    static long scan(FileChannel channel, Visitor visitor) throws IOException {
+        long size = channel.size();
+        long offset = FILE_HEADER_SIZE;
+        while (offset + RECORD_HEADER_SIZE <= size) {
+            ByteBuffer header = readFully(channel, offset, RECORD_HEADER_SIZE);
+            int capacity = header.getInt();
+            byte status = header.get();
+            int id = header.getInt();
+            if (capacity < MIN_PAYLOAD || offset + recordSize(capacity) > size) {
+                break; // 書き込み途中で終了したレコード
+            }
+            if (status == LIVE) {
+                ByteBuffer slot = readFully(channel, offset, recordSize(capacity));
+                int current = currentCopy(slot, capacity);
+                if (current < 0) {
+                    System.err.println("壊れたイベントのレコードを読み飛ばしました（ID: " + id + "）");
+                } else {
+                    int position = copyPosition(current, capacity) + COPY_HEADER_SIZE;
+                    int flags = slot.get(position);
+                    int epochDay = slot.getInt(position + 1);
+                    visitor.visit(offset, id, (flags & FLAG_DONE) != 0, epochDay);
+                }
+            }
+            offset += recordSize(capacity);
+        }
+        return offset;
+    }
+
+    // 枠の中の index 番目の内容の位置（枠の先頭から）
+    private static int copyPosition(int index, int capacity) {
+        return RECORD_HEADER_SIZE + index * (COPY_HEADER_SIZE + capacity);
+    }
+
+    // 世代・長さ・CRC32・内容を書く
+    private static void putCopy(ByteBuffer buffer, int generation, byte[] payload) {
+        buffer.putInt(generation).putInt(payload.length).putInt(checksum(generation, payload, 0, payload.length))
+                .put(payload);
+    }
+
+    // 枠の2つの内容のうち、CRC32 が一致する新しい方（どちらも一致しない場合は -1）
+    private static int currentCopy(ByteBuffer slot, int capacity) {
+        int current = -1;
+        int currentGeneration = 0;
+        for (int index = 0; index < 2; index++) {
+            int position = copyPosition(index, capacity);
+            int generation = slot.getInt(position);
+            int length = slot.getInt(position + 4);
+            if (length < MIN_PAYLOAD || length > capacity) {
+                continue;
+            }
+            int crc = checksum(generation, slot.array(), position + COPY_HEADER_SIZE, length);
+            if (crc == slot.getInt(position + 8) && (current < 0 || generation - currentGeneration > 0)) {
+                current = index;
+                currentGeneration = generation;
+            }
+        }
+        return current;
+    }
+
+    private static int checksum(int generation, byte[] payload, int offset, int length) {
+        CRC32 crc = new CRC32();
+        crc.update(ByteBuffer.allocate(8).putInt(generation).putInt(length).array());
+        crc.update(payload, offset, length);
+        return (int) crc.getValue();
+    }
+
+    // レコードの内容
+    static byte[] encode(Event event) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        DataOutputStream out = new DataOutputStream(bytes);
+        try {
+            out.writeByte((event.done ? FLAG_DONE : 0) | (event.result ? FLAG_RESULT : 0));
+            out.writeInt((int) event.date.toEpochDay());
+            writeString(out, event.name);
+            writeString(out, event.content);
+            writeString(out, event.feedback);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // ByteArrayOutputStream への書き込みでは発生しない
+        }
+        return bytes.toByteArray();
+    }
+
+    private static Event decode(ByteBuffer buffer) {
+        int flags = buffer.get();
+        LocalDate date = LocalDate.ofEpochDay(buffer.getInt());
+        String name = readString(buffer);
+        String content = readString(buffer);
+        Event event = new Event(name, content, date);
+        event.feedback = readString(buffer);
+        event.done = (flags & FLAG_DONE) != 0;
+        event.result = (flags & FLAG_RESULT) != 0;
+        return event;
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        String value = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length,
+                StandardCharsets.UTF_8);
+        buffer.position(buffer.position() + length);
+        return value;
+    }
+
+    private static ByteBuffer readFully(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new EOFException("イベントのレコードファイルが途中で終わっています");
+            }
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer, position + buffer.position());
+        }
+    }
+}
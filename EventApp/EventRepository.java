@@ -0,0 +1,292 @@
+package EventApp;
+
+import Storage.PersistenceService;
+import TodoListApp.CsvReader;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+
+// イベントの保存・読み込みを行うクラス
+// イベントはIDつきでレコードファイル（<ベース名>.dat）に保存し、変更は該当レコードだけを上書きする。
+// 未完了イベントの索引（<ベース名>.idx）を持ち、直近のイベントは索引から該当レコードだけを読み込む。
+// 書き込みは PersistenceService の書き込みスレッドで行い、IDとレコードの位置は呼び出し時にメモリ上で決める。
+// 以前のイベントCSV（<ベース名>.csv）は、レコードファイルがない場合に一度だけ取り込む
+public class EventRepository {
+    private final Path csvPath; // 以前のイベントCSV
+    private final Path recordPath; // イベントのレコードファイル
+    private final Path indexPath; // 未完了イベントの索引
+    private final PersistenceService service;
+    private final EventIndex index = new EventIndex();
+    private final List<Listener> listeners = new ArrayList<>();
+
+    private int nextId = 1; // 次に採番するイベントID
+    private long endOffset; // レコードファイルの末尾（次のレコードの位置）
+
+    public EventRepository(Path directory, String baseName) {
+        this(directory, baseName, PersistenceService.getDefault());
+    }
+
+    public EventRepository(Path directory, String baseName, PersistenceService service) {
+        this.csvPath = directory.resolve(baseName + ".csv");
+        this.recordPath = directory.resolve(baseName + ".dat");
+        this.indexPath = directory.resolve(baseName + ".idx");
+        this.service = service;
+    }
+
+    // 未完了イベントの日付の変化を受け取るリスナー
+    public interface Listener {
+        // 未完了イベントの日付が変わった（追加・完了・日付の変更。該当しない側は NO_DAY）
+        void pendingChanged(long oldEpochDay, long newEpochDay);
+
+        // 索引を読み込み直した
+        void pendingReloaded();
+    }
+
+    public static final long NO_DAY = EventIndex.NONE;
+
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    // 索引を読み込む（イベントが1件もない状態で新しく作成した場合は true を返す）
+    public boolean load() throws IOException {
+        boolean created = loadIndex();
+        for (Listener listener : listeners) {
+            listener.pendingReloaded();
+        }
+        return created;
+    }
+
+    private boolean loadIndex() throws IOException {
+        service.flush();
+        Files.createDirectories(recordPath.toAbsolutePath().getParent());
+        boolean created = false;
+        if (Files.notExists(recordPath)) {
+            created = !Files.exists(csvPath);
+            if (created) {
+                EventRecords.create(recordPath, 1);
+            } else {
+                migrateCsv();
+            }
+        } else if (index.read(indexPath, Files.size(recordPath), Files.getLastModifiedTime(recordPath).toMillis())) {
+            try (FileChannel channel = FileChannel.open(recordPath, StandardOpenOption.READ)) {
+                nextId = EventRecords.readNextId(channel);
+                endOffset = channel.size();
+            }
+            return false;
+        }
+        rebuildIndex();
+        writeIndex(index, recordPath, indexPath);
+        return created;
+    }
+
+    // 未完了イベントの数
+    public int pendingCount() {
+        return index.size();
+    }
+
+    // 未完了イベントの日付（エポック日、日付順）
+    public int[] pendingDays() {
+        return index.days();
+    }
+
+    // 日付が最も近い未完了イベント（ない場合は null）
+    public Event nearest() throws IOException {
+        List<Event> events = upcoming(1);
+        return events.isEmpty() ? null : events.get(0);
+    }
+
+    // 日付の近い順に、最大 limit 件の未完了イベント（書き込み待ちの変更を書き込んでから読む）
+    public List<Event> upcoming(int limit) throws IOException {
+        int count = Math.min(limit, index.size());
+        List<Event> events = new ArrayList<>(count);
+        if (count == 0) {
+            return events;
+        }
+        service.flush();
+        try (FileChannel channel = FileChannel.open(recordPath, StandardOpenOption.READ)) {
+            for (int i = 0; i < count; i++) {
+                Event event = EventRecords.read(channel, index.offset(i));
+                if (event != null) { // 内容が壊れているイベントは、ないものとして扱う
+                    events.add(event);
+                }
+            }
+        }
+        return events;
+    }
+
+    // イベントにIDを採番し、レコードを追加する
+    public void append(Event event) {
+        byte[] payload = EventRecords.encode(event);
+        event.id = nextId++;
+        allocate(event, payload.length);
+        ByteBuffer record = EventRecords.record(event, payload);
+        long offset = event.offset;
+        int nextIdValue = nextId;
+        service.submit(newSlotKey(offset), () -> {
+            try (FileChannel channel = openForWrite()) {
+                EventRecords.writeFully(channel, record, offset);
+                EventRecords.writeNextId(channel, nextIdValue);
+                service.sync(channel);
+            }
+        });
+        if (!event.done) {
+            index.insert(event.date.toEpochDay(), event.offset);
+            firePendingChanged(NO_DAY, event.date.toEpochDay());
+        }
+        submitIndex();
+    }
+
+    // イベントのレコードを上書きする（未保存のイベントは追加する）
+    public void update(Event event) {
+        if (event.offset < 0) {
+            append(event);
+            return;
+        }
+        byte[] payload = EventRecords.encode(event);
+        long oldOffset = event.offset;
+        int id = event.id;
+        if (payload.length <= event.capacity) {
+            service.submit(recordKey(oldOffset), () -> {
+                try (FileChannel channel = openForWrite()) {
+                    EventRecords.overwrite(channel, oldOffset, id, payload);
+                    service.sync(channel);
+                }
+            });
+        } else {
+            // 枠に収まらない場合は、新しい枠に書いてから古い枠を削除済みにする
+            allocate(event, payload.length);
+            ByteBuffer record = EventRecords.record(event, payload);
+            long newOffset = event.offset;
+            service.submit(newSlotKey(newOffset), () -> {
+                try (FileChannel channel = openForWrite()) {
+                    EventRecords.writeFully(channel, record, newOffset);
+                    service.sync(channel);
+                }
+            });
+            service.submit(recordKey(oldOffset), () -> {
+                try (FileChannel channel = openForWrite()) {
+                    EventRecords.markDeleted(channel, oldOffset);
+                    service.sync(channel);
+                }
+            });
+        }
+        long oldDay = index.remove(oldOffset);
+        long newDay = event.done ? NO_DAY : event.date.toEpochDay();
+        if (newDay != NO_DAY) {
+            index.insert(newDay, event.offset);
+        }
+        if (oldDay != newDay) {
+            firePendingChanged(oldDay, newDay);
+        }
+        submitIndex();
+    }
+
+    private void firePendingChanged(long oldDay, long newDay) {
+        for (Listener listener : listeners) {
+            listener.pendingChanged(oldDay, newDay);
+        }
+    }
+
+    // ファイルの末尾に新しい枠を確保する
+    private void allocate(Event event, int payloadLength) {
+        event.capacity = EventRecords.capacityFor(payloadLength);
+        event.offset = endOffset;
+        endOffset += EventRecords.recordSize(event.capacity);
+    }
+
+    // 索引の書き込みを登録する（それまでに登録したレコードの書き込みのあとで実行される）
+    private void submitIndex() {
+        EventIndex copy = index.copy();
+        service.submit(indexPath, () -> writeIndex(copy, recordPath, indexPath));
+    }
+
+    private void writeIndex(EventIndex index, Path recordPath, Path indexPath) throws IOException {
+        long size = Files.size(recordPath);
+        long modified = Files.getLastModifiedTime(recordPath).toMillis();
+        service.replace(indexPath, channel -> index.writeTo(channel, size, modified));
+    }
+
+    private FileChannel openForWrite() throws IOException {
+        return FileChannel.open(recordPath, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    // 枠の上書きのキー（同じ枠への上書きは最後のものだけを書く）
+    private Object recordKey(long offset) {
+        return recordPath + "@" + offset;
+    }
+
+    // 新しい枠の書き込みのキー（上書きに置き換えられないよう、上書きとは別のキーにする）
+    private Object newSlotKey(long offset) {
+        return recordPath + "@" + offset + "（追加）";
+    }
+
+    // レコードファイルを走査して索引を作り直す
+    // 移動の途中で終了し、同じIDの有効なレコードが2つある場合は後ろのレコードを使う。
+    // 書き込み途中で終了した末尾のレコードは切り詰める
+    private void rebuildIndex() throws IOException {
+        index.clear();
+        Map<Integer, Long> latest = new HashMap<>();
+        Set<Long> pending = new HashSet<>();
+        int[] maxId = new int[1];
+        try (FileChannel channel = FileChannel.open(recordPath, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            nextId = EventRecords.readNextId(channel);
+            endOffset = EventRecords.scan(channel, (offset, id, done, epochDay) -> {
+                Long previous = latest.put(id, offset);
+                if (previous != null && pending.remove(previous)) {
+                    index.remove(previous);
+                }
+                if (!done) {
+                    index.insert(epochDay, offset);
+                    pending.add(offset);
+                }
+                maxId[0] = Math.max(maxId[0], id);
+            });
+            if (endOffset < channel.size()) {
+                channel.truncate(endOffset);
+            }
+            if (nextId <= maxId[0]) {
+                nextId = maxId[0] + 1;
+                EventRecords.writeNextId(channel, nextId);
+            }
+        }
+    }
+
+    // 以前のイベントCSVを読み込み、IDを採番してレコードファイルを作成する
+    private void migrateCsv() throws IOException {
+        Path tempPath = recordPath.resolveSibling(recordPath.getFileName() + ".tmp");
+        Files.deleteIfExists(tempPath);
+        int id = 1;
+        try (CsvReader reader = new CsvReader(Files.newBufferedReader(csvPath, StandardCharsets.UTF_8));
+                FileChannel channel = FileChannel.open(tempPath, StandardOpenOption.CREATE_NEW,
+                        StandardOpenOption.WRITE);
+                OutputStream out = new BufferedOutputStream(Channels.newOutputStream(channel),
+                        64 * 1024)) {
+            EventRecords.writeFileHeader(channel, id);
+            channel.position(EventRecords.FILE_HEADER_SIZE);
+            reader.next(); // 最初の行（カラム行）はスキップ
+            while (reader.next()) {
+                Event event;
+                try {
+                    event = Event.fromCSV(reader);
+                } catch (RuntimeException e) {
+                    System.err.println("イベントCSVの行を読み飛ばしました: " + e.getMessage());
+                    continue;
+                }
+                byte[] payload = EventRecords.encode(event);
+                event.id = id++;
+                event.capacity = EventRecords.capacityFor(payload.length);
+                out.write(EventRecords.record(event, payload).array());
+            }
+            out.flush();
+            EventRecords.writeNextId(channel, id);
+            channel.force(true);
+        }
+        Files.move(tempPath, recordPath, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
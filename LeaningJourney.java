@@ -1,50 +1,67 @@
+import Api.ApiServer;
+import EventApp.Event;
+import EventApp.EventRepository;
+import TodoListApp.TaskApi;
+import TodoListApp.TaskClock;
 import TodoListApp.TaskManager;
+import TimerApp.StudyLog;
 import TimerApp.TimerApp;
-import CalendarApp.CalendarApp;
+import CalendarApp.CalendarPanel;
 
 import java.time.*;
 import java.time.format.DateTimeFormatter;
 import java.time.temporal.ChronoUnit;
-import java.util.List;
 
 import javax.swing.*;
 import java.awt.*;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
 import java.io.*;
 import java.nio.file.*;
 
 public class LeaningJourney extends JFrame {
+    private static final long START_NANOS = System.nanoTime(); // 起動時刻（起動時間の記録用）
 
     private final String DEFAULT_EVENT_NAME = "sample"; // デフォルトのイベント名
     private final String DEFAULT_EVENT_CONTENT = "sample"; // デフォルトのイベント内容
-    private final boolean DEFAULT_EVENT_DONE = false; // デフォルトの完了フラグ
     private final LocalDate DEFAULT_EVENT_DATE = LocalDate.of(2100, 01, 01); // デフォルトのイベント日付
 
-    private String eventName; // イベント名
-    private String eventContent; // イベント内容
-    private boolean eventDone; // 完了フラグ
-    private LocalDate eventDate; // イベント日付
-    private boolean eventResult; // 結果（達成/未達）
-    private String eventFeedback; // 感想
+    private Event event; // 表示中のイベント（日付が最も近い未完了イベント）
 
     private final JLabel eventLabel = new JLabel("", SwingConstants.CENTER);
 
-    private static String TASK_DIRECTORY = "./Data/"; // ディレクトリ
-    private static String TASK_FILE = TASK_DIRECTORY + "sample.csv"; // タスク保存用ファイル
+    private TabRegistry tabRegistry; // タブ一覧（中身は初めて表示するときに作成する）
+    private TaskManager taskManager; // ToDoリスト（カレンダーからも参照するため、先に必要になった方で作成する）
+    private TimerApp timerApp; // タイマー（タブを作成するまでは null）
+    private boolean painted; // 最初の描画が終わったかどうか
+    private ApiServer apiServer; // HTTP API（learningjourney.api.port を指定した場合だけ、タスクの読み込み後に起動する）
 
-    private final String CSV_COLUMN_NAME = "イベント名,イベント内容,完了,イベント日付,結果,感想\n";
+    private static String TASK_DIRECTORY = "./Data/"; // ディレクトリ
+    private static String TASK_FILE_NAME = "sample"; // イベント保存用ファイル名（sample.dat / sample.idx）
+    private static String STUDY_FILE_NAME = "study"; // 学習時間の保存用ファイル名（study.log / study.rollup）
 
     // ✅ 任意の保存先（ここを変更可能）
-    private final Path eventCsvPath = Paths.get(TASK_FILE);
+    private final EventRepository eventRepository = new EventRepository(Paths.get(TASK_DIRECTORY),
+            TASK_FILE_NAME); // イベントの保存・読み込み
 
     public LeaningJourney() {
         setTitle("統合アプリ：タイマー & ToDoリスト");
         setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
         setSize(900, 550);
         setLayout(new BorderLayout());
+        addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosing(WindowEvent e) {
+                // 終了する前に、動いているタイマーの学習時間を記録する
+                if (timerApp != null) {
+                    timerApp.close();
+                }
+            }
+        });
 
         loadEventInfo(); // ← 最初に読み込み
 
-        if (eventDate != null && !eventDone && eventDate.isBefore(LocalDate.now())) {
+        if (!event.isDone() && event.getDate().isBefore(TaskClock.today())) {
             SwingUtilities.invokeLater(this::openResultInputDialog);
         }
 
@@ -54,6 +71,7 @@ public class LeaningJourney extends JFrame {
         eventLabel.setFont(new Font("SansSerif", Font.BOLD, 18));
         eventLabel.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
         updateEventLabel();
+        TaskClock.addDayChangeListener((oldDay, newDay) -> updateEventLabel()); // 残り日数を更新
 
         JButton openDialogButton = new JButton("イベント更新");
         openDialogButton.addActionListener(e -> openUpdateDialog());
@@ -62,105 +80,108 @@ public class LeaningJourney extends JFrame {
         topPanel.add(openDialogButton, BorderLayout.EAST);
         add(topPanel, BorderLayout.NORTH);
 
-        // ✅ 中央：タブ
+        // ✅ 中央：タブ（最初の描画のあとで作成する。ToDoリストとカレンダーは選択前に先読みする）
         JTabbedPane tabbedPane = new JTabbedPane();
-
-        TimerApp timerApp = new TimerApp();
-        tabbedPane.addTab("タイマー", timerApp.getContentPane());
-
-        TaskManager taskManager = new TaskManager();
-        tabbedPane.addTab("ToDoリスト", taskManager.getContentPane());
-
-        YearMonth now = YearMonth.now();
-        CalendarApp calendarApp = new CalendarApp(now);
-        tabbedPane.addTab("カレンダー", calendarApp.getContentPane());
+        tabRegistry = new TabRegistry(tabbedPane, START_NANOS);
+        tabRegistry.register("タイマー", () -> {
+            timerApp = new TimerApp();
+            timerApp.setTaskStore(getTaskManager().getTaskStore());
+            timerApp.setStudyLog(loadStudyLog());
+            return timerApp.getContentPane();
+        }, false);
+        tabRegistry.register("ToDoリスト", () -> getTaskManager().getContentPane(), true);
+        tabRegistry.register("カレンダー", () -> {
+            CalendarPanel calendarPanel = new CalendarPanel(YearMonth.now());
+            calendarPanel.setTaskStore(getTaskManager().getTaskStore());
+            calendarPanel.setEventRepository(eventRepository);
+            return calendarPanel;
+        }, true);
 
         add(tabbedPane, BorderLayout.CENTER);
 
         setVisible(true);
     }
 
-    // ✅ イベント情報をCSVから読み込む
-    private void loadEventInfo() {
+    @Override
+    public void paint(Graphics g) {
+        super.paint(g);
+        if (!painted) {
+            painted = true;
+            SwingUtilities.invokeLater(tabRegistry::start); // 最初の描画のあとでタブを作成する
+        }
+    }
+
+    // ToDoリストを取得する（初回はタスクの読み込みをバックグラウンドで開始する）
+    private TaskManager getTaskManager() {
+        if (taskManager == null) {
+            taskManager = new TaskManager();
+            taskManager.whenLoaded(() -> {
+                tabRegistry.log("タスクの読み込み完了");
+                startApiServer();
+            });
+        }
+        return taskManager;
+    }
+
+    // 学習時間の記録を読み込む（読み込めない場合は記録しない）
+    private StudyLog loadStudyLog() {
+        StudyLog studyLog = new StudyLog(Paths.get(TASK_DIRECTORY), STUDY_FILE_NAME);
         try {
-            if (Files.notExists(Paths.get(TASK_DIRECTORY))) {
-                Files.createDirectories(Paths.get(TASK_DIRECTORY));
-            }
+            studyLog.load();
+            return studyLog;
+        } catch (IOException e) {
+            System.err.println("学習時間の読み込み失敗: " + e.getMessage());
+            return null;
+        }
+    }
 
-            if (Files.notExists(eventCsvPath)) {
-                try (BufferedWriter writer = Files.newBufferedWriter(eventCsvPath)) {
-                    writer.write(CSV_COLUMN_NAME);
-                    writer.write(String.format("%s,%s,%s,%s,%s,%s\n",
-                            escapeCsv(DEFAULT_EVENT_NAME),
-                            escapeCsv(DEFAULT_EVENT_CONTENT),
-                            DEFAULT_EVENT_DONE,
-                            DEFAULT_EVENT_DATE,
-                            false,
-                            ""));
-                }
-                eventName = DEFAULT_EVENT_NAME;
-                eventContent = DEFAULT_EVENT_CONTENT;
-                eventDate = DEFAULT_EVENT_DATE;
-                eventDone = DEFAULT_EVENT_DONE;
-                eventResult = false;
-                eventFeedback = "";
-                return;
-            }
+    // learningjourney.api.port が指定されていれば、ローカルホストで HTTP API を起動する
+    private void startApiServer() {
+        String port = System.getProperty(ApiServer.PORT_PROPERTY);
+        if (port == null) {
+            return;
+        }
+        try {
+            TaskApi taskApi = new TaskApi(taskManager.getTaskStore(), taskManager.getRepository());
+            apiServer = new ApiServer(taskApi, Integer.parseInt(port));
+            apiServer.publishEvent(event);
+            apiServer.start();
+            tabRegistry.log("HTTP API 起動（ポート " + apiServer.getPort() + "）");
+        } catch (IOException | NumberFormatException e) {
+            System.err.println("HTTP API の起動失敗: " + e.getMessage());
+        }
+    }
 
-            try (BufferedReader reader = Files.newBufferedReader(eventCsvPath)) {
-                String header = reader.readLine(); // ヘッダー読み飛ばし
-                String line;
-                LocalDate nearestDate = LocalDate.MAX;
-                String[] nearestParts = null;
-
-                while ((line = reader.readLine()) != null) {
-                    String[] parts = line.split(",", -1);
-                    if (parts.length >= 6) {
-                        boolean done = Boolean.parseBoolean(parts[2]);
-                        LocalDate date = LocalDate.parse(parts[3]);
-                        if (!done && date.isBefore(nearestDate)) {
-                            nearestDate = date;
-                            nearestParts = parts;
-                        }
-                    }
-                }
-                if (nearestParts != null) {
-                    eventName = nearestParts[0];
-                    eventContent = nearestParts[1];
-                    eventDone = false;
-                    eventDate = LocalDate.parse(nearestParts[3]);
-                    eventResult = Boolean.parseBoolean(nearestParts[4]);
-                    eventFeedback = nearestParts[5];
-                } else {
-                    // 未完了イベントがない場合はデフォルト
-                    eventName = DEFAULT_EVENT_NAME;
-                    eventContent = DEFAULT_EVENT_CONTENT;
-                    eventDate = DEFAULT_EVENT_DATE;
-                    eventDone = DEFAULT_EVENT_DONE;
-                    eventResult = false;
-                    eventFeedback = "";
-                }
+    // ✅ イベント情報を読み込む（未完了イベントの索引から、日付が最も近いイベントのレコードだけを読む）
+    private void loadEventInfo() {
+        try {
+            if (eventRepository.load()) {
+                eventRepository.append(createDefaultEvent()); // 新規作成時はデフォルトのイベントを登録
             }
-        } catch (IOException | DateTimeException e) {
+            event = eventRepository.nearest();
+        } catch (IOException | IllegalArgumentException | DateTimeException e) {
             System.err.println("CSV読み込みまたは作成失敗: " + e.getMessage());
         }
+        if (event == null) {
+            // 未完了イベントがない場合はデフォルト
+            event = createDefaultEvent();
+        }
     }
 
-    // ✅ CSVの特殊文字エスケープ
-    private String escapeCsv(String value) {
-        if (value.contains(",") || value.contains("\"") || value.contains("\n")) {
-            value = value.replace("\"", "\"\"");
-            return "\"" + value + "\"";
-        }
-        return value;
+    private Event createDefaultEvent() {
+        return new Event(DEFAULT_EVENT_NAME, DEFAULT_EVENT_CONTENT, DEFAULT_EVENT_DATE);
     }
 
     // ✅ 表示ラベル更新
     private void updateEventLabel() {
         DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy年M月d日");
-        long daysRemaining = ChronoUnit.DAYS.between(LocalDate.now(), eventDate);
-        String text = String.format("%s：%s（あと%d日）", eventName, eventDate.format(formatter), daysRemaining);
+        long daysRemaining = ChronoUnit.DAYS.between(TaskClock.today(), event.getDate());
+        String text = String.format("%s：%s（あと%d日）", event.getName(), event.getDate().format(formatter),
+                daysRemaining);
         eventLabel.setText(text);
+        if (apiServer != null) {
+            apiServer.publishEvent(event); // 表示中のイベントを HTTP API にも反映する
+        }
     }
 
     // ✅ 更新ダイアログ
@@ -170,9 +191,9 @@ public class LeaningJourney extends JFrame {
         dialog.setLayout(new GridLayout(6, 1, 10, 10));
         dialog.setLocationRelativeTo(this);
 
-        JTextField nameField = new JTextField(eventName);
-        JTextField contentField = new JTextField(eventContent);
-        JTextField dateField = new JTextField(eventDate.toString());
+        JTextField nameField = new JTextField(event.getName());
+        JTextField contentField = new JTextField(event.getContent());
+        JTextField dateField = new JTextField(event.getDate().toString());
 
         dialog.add(new JLabel("イベント名：", SwingConstants.CENTER));
         dialog.add(nameField);
@@ -189,37 +210,12 @@ public class LeaningJourney extends JFrame {
                 String newContent = contentField.getText().trim();
                 LocalDate newDate = LocalDate.parse(dateField.getText().trim());
 
-                // CSV全体を読み込み、該当イベントのみ更新
-                List<String> lines = Files.readAllLines(eventCsvPath);
-                try (BufferedWriter writer = Files.newBufferedWriter(eventCsvPath)) {
-                    writer.write(CSV_COLUMN_NAME);
-                    for (int i = 1; i < lines.size(); i++) {
-                        String[] parts = lines.get(i).split(",", -1);
-                        if (parts.length >= 6 &&
-                                parts[0].equals(eventName) &&
-                                parts[1].equals(eventContent) &&
-                                parts[3].equals(eventDate.toString()) &&
-                                parts[2].equals("false")) {
-                            // 該当イベントを更新
-                            writer.write(String.format("%s,%s,%s,%s,%s,%s\n",
-                                    escapeCsv(newName),
-                                    escapeCsv(newContent),
-                                    "false",
-                                    newDate.toString(),
-                                    parts[4],
-                                    escapeCsv(parts[5])));
-                            // メモリ上の値も更新
-                            eventName = newName;
-                            eventContent = newContent;
-                            eventDate = newDate;
-                        } else {
-                            writer.write(lines.get(i) + "\n");
-                        }
-                    }
-                }
+                // 該当イベントのレコードだけを更新
+                event.edit(newName, newContent, newDate);
+                eventRepository.update(event);
                 updateEventLabel();
                 dialog.dispose();
-            } catch (Exception ex) {
+            } catch (DateTimeException ex) {
                 JOptionPane.showMessageDialog(dialog, "日付の形式が正しくありません（例: 2025-10-12）", "エラー",
                         JOptionPane.ERROR_MESSAGE);
             }
@@ -249,38 +245,9 @@ public class LeaningJourney extends JFrame {
         JButton updateButton = new JButton("結果を保存");
 
         updateButton.addActionListener(e -> {
-            eventDone = true;
-            eventResult = checkBox.isSelected(); // true:達成, false:未達
-            eventFeedback = feedbackArea.getText().trim();
-
-            // CSV全体を読み込み、該当イベントのみ完了・結果・感想を更新
-            try {
-                List<String> lines = Files.readAllLines(eventCsvPath);
-                try (BufferedWriter writer = Files.newBufferedWriter(eventCsvPath)) {
-                    writer.write(CSV_COLUMN_NAME);
-                    for (int i = 1; i < lines.size(); i++) {
-                        String[] parts = lines.get(i).split(",", -1);
-                        if (parts.length >= 6 &&
-                                parts[0].equals(eventName) &&
-                                parts[1].equals(eventContent) &&
-                                parts[3].equals(eventDate.toString()) &&
-                                parts[2].equals("false")) {
-                            // 該当イベントを完了・結果・感想で更新
-                            writer.write(String.format("%s,%s,%s,%s,%s,%s\n",
-                                    escapeCsv(eventName),
-                                    escapeCsv(eventContent),
-                                    "true",
-                                    eventDate.toString(),
-                                    eventResult,
-                                    escapeCsv(eventFeedback)));
-                        } else {
-                            writer.write(lines.get(i) + "\n");
-                        }
-                    }
-                }
-            } catch (IOException ex) {
-                System.err.println("CSV保存失敗: " + ex.getMessage());
-            }
+            // 該当イベントのレコードだけを完了・結果（true:達成, false:未達）・感想で更新
+            event.complete(checkBox.isSelected(), feedbackArea.getText().trim());
+            eventRepository.update(event);
             dialog.dispose();
             SwingUtilities.invokeLater(() -> openNextEventDialog());
         });
@@ -302,7 +269,7 @@ public class LeaningJourney extends JFrame {
 
         JTextField nameField = new JTextField();
         JTextField contentField = new JTextField();
-        JTextField dateField = new JTextField(LocalDate.now().plusDays(1).toString());
+        JTextField dateField = new JTextField(TaskClock.today().plusDays(1).toString());
 
         dialog.add(new JLabel("イベント名：", SwingConstants.CENTER));
         dialog.add(nameField);
@@ -320,26 +287,14 @@ public class LeaningJourney extends JFrame {
                 String newContent = contentField.getText().trim();
                 LocalDate newDate = LocalDate.parse(dateField.getText().trim());
 
-                // 追記モードで新規イベントを追加
-                try (BufferedWriter writer = Files.newBufferedWriter(eventCsvPath, StandardOpenOption.APPEND)) {
-                    writer.write(String.format("%s,%s,%s,%s,%s,%s\n",
-                            escapeCsv(newName),
-                            escapeCsv(newContent),
-                            "false",
-                            newDate.toString(),
-                            "false",
-                            ""));
-                }
-                // メモリ上の値も更新
-                eventName = newName;
-                eventContent = newContent;
-                eventDate = newDate;
-                eventDone = false;
-                eventResult = false;
-                eventFeedback = "";
+                // 新規イベントを追記
+                Event newEvent = new Event(newName, newContent, newDate);
+                eventRepository.append(newEvent);
+                // 表示中のイベントも更新
+                event = newEvent;
                 updateEventLabel();
                 dialog.dispose();
-            } catch (Exception ex) {
+            } catch (DateTimeException ex) {
                 JOptionPane.showMessageDialog(dialog, "日付の形式が正しくありません（例: 2025-10-12）", "エラー",
                         JOptionPane.ERROR_MESSAGE);
             }
@@ -351,17 +306,7 @@ public class LeaningJourney extends JFrame {
     }
 
     private void appendNewEvent() {
-        try (BufferedWriter writer = Files.newBufferedWriter(eventCsvPath, StandardOpenOption.APPEND)) {
-            writer.write(String.format("%s,%s,%s,%s,%s,%s\n",
-                    escapeCsv(eventName),
-                    escapeCsv(eventContent),
-                    false,
-                    eventDate.toString(),
-                    false,
-                    ""));
-        } catch (IOException e) {
-            System.err.println("CSV追記失敗: " + e.getMessage());
-        }
+        eventRepository.append(event);
     }
 
     public static void main(String[] args) {
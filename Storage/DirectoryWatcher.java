@@ -0,0 +1,53 @@
+package Storage;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.Set;
+import java.util.function.Consumer;
+
+// ディレクトリ内の指定したファイルの作成・変更・削除を WatchService で監視し、変わったファイル名を通知する
+// 通知は監視スレッド（デーモン）から行う。自分のプロセスによる変更も通知されるため、受け取る側で区別すること。
+// イベントがあふれた場合（OVERFLOW）は、どのファイルが変わったか分からないため null を通知する
+public class DirectoryWatcher implements Closeable {
+    private final WatchService watchService;
+    private final Thread thread;
+
+    // directory 内の names のファイルが変わったら listener を呼ぶ
+    public DirectoryWatcher(Path directory, Set<String> names, Consumer<String> listener) throws IOException {
+        this.watchService = directory.getFileSystem().newWatchService();
+        directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY,
+                StandardWatchEventKinds.ENTRY_DELETE);
+        this.thread = new Thread(() -> run(names, listener), "directory-watcher");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void run(Set<String> names, Consumer<String> listener) {
+        try {
+            while (true) {
+                WatchKey key = watchService.take();
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                        listener.accept(null);
+                        continue;
+                    }
+                    String name = event.context().toString();
+                    if (names.contains(name)) {
+                        listener.accept(name);
+                    }
+                }
+                if (!key.reset()) {
+                    return; // ディレクトリが削除された
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // close() で終了する
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        watchService.close();
+    }
+}
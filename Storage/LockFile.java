@@ -0,0 +1,101 @@
+package Storage;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+// 複数のプロセス（アプリを2つ起動した場合や、アプリとコマンドを同時に実行した場合）でデータファイルを共有するためのロック
+// ロックファイル全体に FileChannel のロック（アドバイザリロック）をかけ、同じプロセス内ではパスごとの ReentrantLock で排他する
+// （FileChannel のロックは同じプロセスの別のチャネルからの重複を例外にするため）。同じスレッドからは入れ子で取得できる。
+// ロックファイルには、ロック中に読み書きできる数値を1つ保存できる（IDの採番の上限など）
+public class LockFile implements Closeable {
+    private static final ConcurrentHashMap<Path, ReentrantLock> LOCKS = new ConcurrentHashMap<>(); // プロセス内のロック
+
+    private final Path path;
+    private final ReentrantLock localLock;
+    private FileChannel channel; // 最初のロックで開き、close() まで開いたままにする
+    private FileLock fileLock; // 取得中のファイルロック
+
+    // ロック中に実行する処理
+    public interface Action<T> {
+        T run() throws IOException;
+    }
+
+    public LockFile(Path path) {
+        this.path = path.toAbsolutePath().normalize();
+        this.localLock = LOCKS.computeIfAbsent(this.path, p -> new ReentrantLock());
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    // ロックを取得して action を実行する（他のプロセスがロック中の場合は解放されるまで待つ）
+    public <T> T withLock(Action<T> action) throws IOException {
+        localLock.lock();
+        try {
+            if (localLock.getHoldCount() > 1) {
+                return action.run(); // 入れ子の場合は取得済み
+            }
+            if (channel == null) {
+                channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                        StandardOpenOption.WRITE);
+            }
+            fileLock = channel.lock();
+            try {
+                return action.run();
+            } finally {
+                fileLock.release();
+                fileLock = null;
+            }
+        } finally {
+            localLock.unlock();
+        }
+    }
+
+    // ロックファイルに保存した数値（保存していない場合は 0。ロック中に呼ぶ）
+    public long readValue() throws IOException {
+        checkLocked();
+        ByteBuffer buffer = ByteBuffer.allocate(Long.BYTES);
+        while (buffer.hasRemaining() && channel.read(buffer, buffer.position()) > 0) {
+            // 8バイト読むまで繰り返す
+        }
+        return buffer.hasRemaining() ? 0 : buffer.getLong(0);
+    }
+
+    // ロックファイルに数値を保存する（ロック中に呼ぶ）
+    public void writeValue(long value) throws IOException {
+        checkLocked();
+        ByteBuffer buffer = ByteBuffer.allocate(Long.BYTES);
+        buffer.putLong(0, value);
+        while (buffer.hasRemaining()) {
+            channel.write(buffer, buffer.position());
+        }
+    }
+
+    private void checkLocked() {
+        if (!localLock.isHeldByCurrentThread() || fileLock == null) {
+            throw new IllegalStateException("ロックを取得していません: " + path);
+        }
+    }
+
+    // ロックファイルを閉じる（ロック中に呼ばないこと）
+    @Override
+    public void close() throws IOException {
+        localLock.lock();
+        try {
+            if (channel != null) {
+                channel.close();
+                channel = null;
+            }
+        } finally {
+            localLock.unlock();
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package Storage;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// ファイルへの書き込みを1つの書き込みスレッドでまとめて行うサービス
+// 書き込みはキーごとに登録し、同じキーの書き込みがまだ実行されていなければ新しいもので置き換える。
+// 最初の登録から一定時間待ってから、その間に登録された書き込みを登録順にまとめて実行する。
+// 同じキーで登録し直した書き込みは、それまでに登録されたすべての書き込みのあとに実行される
+public class PersistenceService {
+    private static final long DEFAULT_DELAY_MILLIS = 200; // 書き込みをまとめる間隔
+    private static final long SHUTDOWN_TIMEOUT_MILLIS = 10_000; // 終了時に書き込みを待つ最大時間
+
+    private static PersistenceService defaultService;
+
+    private final long delayNanos;
+    private final SyncPolicy syncPolicy;
+    private final Object lock = new Object();
+    private final Map<Object, Write> pending = new LinkedHashMap<>(); // 未実行の書き込み（登録順）
+    private long firstPendingNanos; // 未実行の書き込みのうち、最初に登録された時刻
+    private boolean writing; // 書き込みスレッドが書き込み中かどうか
+    private int flushWaiters; // flush() で待っているスレッドの数（待っている間は間隔を待たずに書き込む）
+    private volatile ErrorHandler errorHandler = (key, e) -> System.err
+            .println("ファイルの書き込みに失敗しました（" + key + "）: " + e.getMessage());
+    private final Thread writer;
+
+    // ディスクへの同期（fsync）を行うタイミング
+    public enum SyncPolicy {
+        NEVER, // 同期しない（OSに任せる）
+        ON_REPLACE, // ファイルを置き換える前だけ同期する
+        ALWAYS // 追記・上書きのたびに同期する
+    }
+
+    // 書き込み処理（書き込みスレッドで実行される）
+    public interface Write {
+        void write() throws IOException;
+    }
+
+    // 置き換えるファイルの内容を書き込む処理
+    public interface Content {
+        void writeTo(FileChannel channel) throws IOException;
+    }
+
+    // 書き込みに失敗したときの処理（書き込みスレッドで呼ばれる）
+    public interface ErrorHandler {
+        void writeFailed(Object key, Exception e);
+    }
+
+    public PersistenceService(long delayMillis, SyncPolicy syncPolicy) {
+        this.delayNanos = TimeUnit.MILLISECONDS.toNanos(delayMillis);
+        this.syncPolicy = syncPolicy;
+        this.writer = new Thread(this::run, "persistence-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    // アプリ全体で共有するサービス（初回に作成し、終了時に未実行の書き込みを実行するよう登録する）
+    // 同期のタイミングはシステムプロパティ learningjourney.fsync（never / on_replace / always）で指定する
+    public static synchronized PersistenceService getDefault() {
+        if (defaultService == null) {
+            String policy = System.getProperty("learningjourney.fsync", SyncPolicy.ON_REPLACE.name());
+            defaultService = new PersistenceService(DEFAULT_DELAY_MILLIS, SyncPolicy.valueOf(policy.toUpperCase()));
+            defaultService.installShutdownHook();
+        }
+        return defaultService;
+    }
+
+    public SyncPolicy getSyncPolicy() {
+        return syncPolicy;
+    }
+
+    public void setErrorHandler(ErrorHandler errorHandler) {
+        this.errorHandler = errorHandler;
+    }
+
+    // 書き込みを登録する（同じキーの未実行の書き込みは取り消す）
+    public void submit(Object key, Write write) {
+        synchronized (lock) {
+            if (pending.isEmpty()) {
+                firstPendingNanos = System.nanoTime();
+            }
+            pending.remove(key);
+            pending.put(key, write);
+            lock.notifyAll();
+        }
+    }
+
+    // 登録済みの書き込みがすべて終わるまで待つ（書き込みスレッドから呼んだ場合は何もしない）
+    public void flush() {
+        if (Thread.currentThread() == writer) {
+            return;
+        }
+        synchronized (lock) {
+            flushWaiters++;
+            lock.notifyAll();
+            try {
+                while (!pending.isEmpty() || writing) {
+                    lock.wait();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                flushWaiters--;
+            }
+        }
+    }
+
+    // 終了時（System.exit を含む）に未実行の書き込みを実行する
+    public void installShutdownHook() {
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            Thread flusher = new Thread(this::flush, "persistence-flush");
+            flusher.start();
+            try {
+                flusher.join(SHUTDOWN_TIMEOUT_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, "persistence-shutdown"));
+    }
+
+    // 追記・上書きしたチャネルを、同期のタイミングに従ってディスクに同期する
+    public void sync(FileChannel channel) throws IOException {
+        if (syncPolicy == SyncPolicy.ALWAYS) {
+            channel.force(false);
+        }
+    }
+
+    // 一時ファイルに書いてから target を置き換える
+    public void replace(Path target, Content content) throws IOException {
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            content.writeTo(channel);
+            if (syncPolicy != SyncPolicy.NEVER) {
+                channel.force(true);
+            }
+        }
+        try {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private void run() {
+        while (true) {
+            List<Map.Entry<Object, Write>> batch;
+            synchronized (lock) {
+                try {
+                    while (pending.isEmpty()) {
+                        lock.wait();
+                    }
+                    // 最初の登録から一定時間、続けて登録される書き込みを待つ
+                    long remaining;
+                    while (flushWaiters == 0
+                            && (remaining = firstPendingNanos + delayNanos - System.nanoTime()) > 0) {
+                        TimeUnit.NANOSECONDS.timedWait(lock, remaining);
+                    }
+                } catch (InterruptedException e) {
+                    return;
+                }
+                batch = new ArrayList<>(pending.entrySet());
+                pending.clear();
+                writing = true;
+            }
+            for (Map.Entry<Object, Write> entry : batch) {
+                try {
+                    entry.getValue().write();
+                } catch (IOException | RuntimeException e) {
+                    errorHandler.writeFailed(entry.getKey(), e);
+                }
+            }
+            synchronized (lock) {
+                writing = false;
+                lock.notifyAll();
+            }
+        }
+    }
+}
@@ -0,0 +1,92 @@
+import javax.swing.*;
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+// タブの中身を必要になったときに作成するタブ一覧
+// 起動時は「読み込み中」の表示だけを置き、最初の描画のあとで選択中のタブを作成する。
+// 先読みを指定したタブは、その後に1つずつ（間に画面の操作を挟みながら）作成する。
+// 起動からの経過時間（最初の描画、各タブの作成）を標準出力に記録する
+public class TabRegistry {
+    private final JTabbedPane tabbedPane;
+    private final long startNanos; // 起動時刻（System.nanoTime）
+    private final List<Tab> tabs = new ArrayList<>();
+    private boolean started; // 最初の描画が終わったかどうか
+
+    public TabRegistry(JTabbedPane tabbedPane, long startNanos) {
+        this.tabbedPane = tabbedPane;
+        this.startNanos = startNanos;
+        tabbedPane.addChangeListener(e -> {
+            if (started) {
+                build(tabbedPane.getSelectedIndex());
+            }
+        });
+    }
+
+    // タブを登録する（factory は初めて表示するときにEDTで呼ばれる）
+    public void register(String title, Supplier<? extends Component> factory, boolean preload) {
+        JPanel placeholder = new JPanel(new BorderLayout());
+        placeholder.add(new JLabel("読み込み中…", SwingConstants.CENTER), BorderLayout.CENTER);
+        tabs.add(new Tab(title, factory, preload, placeholder));
+        tabbedPane.addTab(title, placeholder);
+    }
+
+    // 最初の描画のあとに呼ぶ（選択中のタブを作成し、先読みを始める）
+    public void start() {
+        if (started) {
+            return;
+        }
+        started = true;
+        log("最初の描画");
+        build(tabbedPane.getSelectedIndex());
+        SwingUtilities.invokeLater(this::preloadNext);
+    }
+
+    // 起動からの経過時間を記録する
+    public void log(String phase) {
+        System.out.printf("[起動] %s: %d ms%n", phase, (System.nanoTime() - startNanos) / 1_000_000);
+    }
+
+    // 先読みするタブを1つ作成し、残りがあれば次のイベントで続ける
+    private void preloadNext() {
+        for (int i = 0; i < tabs.size(); i++) {
+            Tab tab = tabs.get(i);
+            if (tab.preload && !tab.built) {
+                build(i);
+                SwingUtilities.invokeLater(this::preloadNext);
+                return;
+            }
+        }
+    }
+
+    private void build(int index) {
+        if (index < 0 || index >= tabs.size() || tabs.get(index).built) {
+            return;
+        }
+        Tab tab = tabs.get(index);
+        tab.built = true;
+        long start = System.nanoTime();
+        Component component = tab.factory.get();
+        tab.placeholder.removeAll();
+        tab.placeholder.add(component, BorderLayout.CENTER);
+        tab.placeholder.revalidate();
+        tab.placeholder.repaint();
+        log(String.format("%s タブの作成（%d ms）", tab.title, (System.nanoTime() - start) / 1_000_000));
+    }
+
+    private static class Tab {
+        final String title; // タブ名
+        final Supplier<? extends Component> factory; // タブの中身を作成する処理
+        final boolean preload; // 選択される前に作成するかどうか
+        final JPanel placeholder; // タブに置くパネル（作成後は中身を入れる）
+        boolean built; // 作成済みかどうか
+
+        Tab(String title, Supplier<? extends Component> factory, boolean preload, JPanel placeholder) {
+            this.title = title;
+            this.factory = factory;
+            this.preload = preload;
+            this.placeholder = placeholder;
+        }
+    }
+}
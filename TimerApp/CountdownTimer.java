@@ -0,0 +1,183 @@
+package TimerApp;
+
+import javax.swing.*;
+import java.util.concurrent.TimeUnit;
+
+// 残り時間を System.nanoTime() の期限から求めるカウントダウンタイマー
+// 1秒ごとに残り時間を減らすのではなく、表示する秒が変わる時刻（期限 - n 秒）だけを TimingWheel に登録する。
+// そのため EDT やスレッドの遅れが積み重ならず、9時間でも終了時刻は期限から刻み1つ分以内に収まる。
+// 表示の更新は EDT にまとめて渡し、EDT が遅れて複数の秒が変わった場合も最後の値で1回だけ更新する。
+// 操作（start・pause・resume・reset）はどのスレッドから呼んでもよい
+public class CountdownTimer {
+    private static final long SECOND_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    // 表示の更新を受け取るリスナー（EDTで呼ばれる）
+    public interface Listener {
+        // 表示する残り秒数が変わった
+        void remainingChanged(long remainingSeconds);
+
+        // 残り時間が0になった
+        void finished();
+    }
+
+    private final TimingWheel wheel;
+    private final Listener listener;
+    private long deadlineNanos; // 終了する時刻（動作中のみ）
+    private long remainingNanos; // 残り時間（停止中のみ）
+    private boolean running; // 動作中かどうか
+    private TimingWheel.Timeout timeout; // 次に表示の秒が変わる時刻の処理
+    private long displayedSeconds = -1; // EDTに渡す残り秒数（-1 は未設定）
+    private boolean finishedPending; // EDTに終了を渡すかどうか
+    private boolean updateQueued; // EDTへの更新を登録済みかどうか
+
+    public CountdownTimer(Listener listener) {
+        this(TimingWheel.getDefault(), listener);
+    }
+
+    public CountdownTimer(TimingWheel wheel, Listener listener) {
+        this.wheel = wheel;
+        this.listener = listener;
+    }
+
+    // 残り時間を seconds 秒にして開始する（動作中の場合はやり直す）
+    public synchronized void start(long seconds) {
+        cancelTimeout();
+        remainingNanos = seconds * SECOND_NANOS;
+        running = false;
+        resume();
+    }
+
+    // 終了したタイマーを、終了した時刻から seconds 秒のタイマーとして続ける（連続するタイマー用）
+    // 終了の通知が EDT で遅れても、次の終了時刻は前の終了時刻から数えるため遅れが積み重ならない
+    public synchronized void chain(long seconds) {
+        if (running) {
+            return;
+        }
+        cancelTimeout();
+        deadlineNanos += seconds * SECOND_NANOS;
+        running = true;
+        long remaining = deadlineNanos - System.nanoTime();
+        publish(remaining);
+        scheduleNext(Math.max(remaining, 1));
+    }
+
+    // 停止した時点の残り時間から再開する（残り時間がない場合・動作中の場合は何もしない）
+    public synchronized void resume() {
+        if (running || remainingNanos <= 0) {
+            publish(remainingNanos);
+            return;
+        }
+        running = true;
+        deadlineNanos = System.nanoTime() + remainingNanos;
+        publish(remainingNanos);
+        scheduleNext(remainingNanos);
+    }
+
+    // 一時停止する（残り時間を覚えておく）
+    public synchronized void pause() {
+        if (!running) {
+            return;
+        }
+        cancelTimeout();
+        remainingNanos = Math.max(0, deadlineNanos - System.nanoTime());
+        running = false;
+    }
+
+    // 停止して残り時間を0にする
+    public synchronized void reset() {
+        cancelTimeout();
+        running = false;
+        remainingNanos = 0;
+        publish(0);
+    }
+
+    public synchronized boolean isRunning() {
+        return running;
+    }
+
+    // 現在の残り時間（ナノ秒）
+    public synchronized long getRemainingNanos() {
+        return running ? Math.max(0, deadlineNanos - System.nanoTime()) : remainingNanos;
+    }
+
+    // 終了した時刻から今までの時間（ナノ秒。終了の通知が EDT で遅れた分。動作中・停止中は 0）
+    public synchronized long overdueNanos() {
+        return running || remainingNanos > 0 ? 0 : Math.max(0, System.nanoTime() - deadlineNanos);
+    }
+
+    // 表示する残り秒数（端数は切り上げ。0 になるのは終了したとき）
+    public long getRemainingSeconds() {
+        return toSeconds(getRemainingNanos());
+    }
+
+    // 次に表示の秒が変わる時刻（期限 - (今の表示 - 1) 秒）を登録する
+    private void scheduleNext(long remaining) {
+        long nextSeconds = toSeconds(remaining) - 1;
+        long fireAt = deadlineNanos - nextSeconds * SECOND_NANOS;
+        timeout = wheel.schedule(fireAt, this::tick);
+    }
+
+    // ホイールのスレッドで、表示の秒が変わる時刻に呼ばれる
+    private synchronized void tick() {
+        if (!running) {
+            return;
+        }
+        long remaining = deadlineNanos - System.nanoTime();
+        if (remaining <= 0) {
+            running = false;
+            remainingNanos = 0;
+            timeout = null;
+            displayedSeconds = 0;
+            finishedPending = true;
+            queueDelivery();
+            return;
+        }
+        publish(remaining);
+        scheduleNext(remaining);
+    }
+
+    private void cancelTimeout() {
+        if (timeout != null) {
+            wheel.cancel(timeout);
+            timeout = null;
+        }
+        finishedPending = false;
+    }
+
+    // 残り秒数を EDT に渡す（変わっていなければ渡さない。登録済みの更新があれば、その更新で最新の値を表示する）
+    private void publish(long remaining) {
+        long seconds = toSeconds(remaining);
+        if (seconds == displayedSeconds) {
+            return;
+        }
+        displayedSeconds = seconds;
+        queueDelivery();
+    }
+
+    private void queueDelivery() {
+        if (updateQueued) {
+            return;
+        }
+        updateQueued = true;
+        SwingUtilities.invokeLater(this::deliver);
+    }
+
+    private void deliver() {
+        long seconds;
+        boolean finished;
+        synchronized (this) {
+            updateQueued = false;
+            seconds = displayedSeconds;
+            finished = finishedPending;
+            finishedPending = false;
+        }
+        listener.remainingChanged(seconds);
+        if (finished) {
+            listener.finished();
+        }
+    }
+
+    private static long toSeconds(long nanos) {
+        return nanos <= 0 ? 0 : (nanos + SECOND_NANOS - 1) / SECOND_NANOS;
+    }
+}
@@ -0,0 +1,292 @@
+package TimerApp;
+
+import Storage.PersistenceService;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.time.*;
+import java.util.*;
+
+// タイマーで学習した時間の記録（タスクごとの学習セッションの追記専用ログと、期間ごとの集計）
+// セッションは1件16バイトの固定長レコードで <ベース名>.log に追記するだけで、書き換えない。
+// 日・週・月・全期間ごとのタスク別の合計は記録のたびに差分で更新するため、集計の問い合わせでログは読まない。
+// 集計は一定件数ごとにチェックポイント（<ベース名>.rollup）に書き出し、起動時はチェックポイントを読んで
+// そのあとに追記されたセッションだけを再生する（何年分の記録があっても起動時間は変わらない）。
+// 書き込みは PersistenceService の書き込みスレッドで行う。EDT からのみ操作すること
+//
+//   ログ:           開始時刻(long、エポックミリ秒) 秒数(int) タスクID(int)
+//   チェックポイント: MAGIC(int) VERSION(int) 含まれるセッション数(long) 期間ごとに [件数(int) (期間(int) タスクID(int) 秒数(long)) × 件数]
+public class StudyLog implements Closeable {
+    private static final int RECORD_SIZE = 16;
+    private static final int MAGIC = 0x53524C50; // "SRLP"
+    private static final int VERSION = 1;
+    private static final int CHECKPOINT_INTERVAL = 256; // チェックポイントを書き出すセッションの間隔
+
+    // 集計の期間（日はエポック日、週は月曜日のエポック日、月は 年 × 12 + 月 - 1、全期間は 0 で区別する）
+    public enum Period {
+        DAY, WEEK, MONTH, ALL;
+
+        int key(LocalDate date) {
+            switch (this) {
+                case DAY:
+                    return (int) date.toEpochDay();
+                case WEEK:
+                    return (int) (date.toEpochDay() - (date.getDayOfWeek().getValue() - 1));
+                case MONTH:
+                    return date.getYear() * 12 + date.getMonthValue() - 1;
+                default:
+                    return 0;
+            }
+        }
+    }
+
+    private final Path logPath;
+    private final Path checkpointPath;
+    private final PersistenceService service;
+    private final ZoneId zone; // 日付の区切りに使うタイムゾーン
+    private final List<Map<Integer, Map<Integer, Long>>> rollups = new ArrayList<>(); // 期間ごとの 期間 → タスクID → 秒数
+    private long sessionCount; // 記録したセッションの数
+    private List<ByteBuffer> pending = new ArrayList<>(); // 未書き込みのレコード
+    private FileChannel channel; // 追記用チャネル（書き込みスレッドからのみ操作する）
+
+    public StudyLog(Path directory, String baseName) {
+        this(directory, baseName, PersistenceService.getDefault(), ZoneId.systemDefault());
+    }
+
+    public StudyLog(Path directory, String baseName, PersistenceService service, ZoneId zone) {
+        this.logPath = directory.resolve(baseName + ".log");
+        this.checkpointPath = directory.resolve(baseName + ".rollup");
+        this.service = service;
+        this.zone = zone;
+        for (int i = 0; i < Period.values().length; i++) {
+            rollups.add(new HashMap<>());
+        }
+    }
+
+    // チェックポイントを読み込み、そのあとのセッションをログから再生する
+    // （途中で切れた末尾のレコードは取り除く。チェックポイントがログと合わない場合はログ全体から集計し直す）
+    public void load() throws IOException {
+        service.flush();
+        Files.createDirectories(logPath.toAbsolutePath().getParent());
+        for (Map<Integer, Map<Integer, Long>> rollup : rollups) {
+            rollup.clear();
+        }
+        sessionCount = 0;
+        if (channel != null) {
+            channel.close();
+        }
+        channel = FileChannel.open(logPath, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        long records = channel.size() / RECORD_SIZE;
+        channel.truncate(records * RECORD_SIZE);
+        if (!readCheckpoint(records)) {
+            for (Map<Integer, Map<Integer, Long>> rollup : rollups) {
+                rollup.clear();
+            }
+            sessionCount = 0;
+        }
+        long replayed = records - sessionCount;
+        ByteBuffer buffer = ByteBuffer.allocate(RECORD_SIZE * 1024);
+        long position = sessionCount * RECORD_SIZE;
+        while (position < records * RECORD_SIZE) {
+            buffer.clear();
+            buffer.limit((int) Math.min(buffer.capacity(), records * RECORD_SIZE - position));
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, position + buffer.position()) < 0) {
+                    throw new EOFException("学習記録のログが途中で終わっています: " + logPath);
+                }
+            }
+            buffer.flip();
+            position += buffer.limit();
+            while (buffer.hasRemaining()) {
+                long startMillis = buffer.getLong();
+                int seconds = buffer.getInt();
+                int taskId = buffer.getInt();
+                apply(taskId, startMillis, seconds);
+            }
+        }
+        channel.position(channel.size());
+        if (replayed >= CHECKPOINT_INTERVAL) {
+            submitCheckpoint();
+        }
+    }
+
+    // taskId のタスクを startMillis（エポックミリ秒）から seconds 秒学習したことを記録する
+    public void record(int taskId, long startMillis, long seconds) {
+        if (seconds <= 0) {
+            return;
+        }
+        ByteBuffer record = ByteBuffer.allocate(RECORD_SIZE);
+        record.putLong(startMillis).putInt((int) Math.min(seconds, Integer.MAX_VALUE)).putInt(taskId).flip();
+        synchronized (this) {
+            pending.add(record);
+        }
+        service.submit(logPath, this::writeLog);
+        apply(taskId, startMillis, seconds);
+        if (sessionCount % CHECKPOINT_INTERVAL == 0) {
+            submitCheckpoint();
+        }
+    }
+
+    // 記録したセッションの数
+    public long getSessionCount() {
+        return sessionCount;
+    }
+
+    // date を含む期間の、taskId のタスクの学習時間（秒）
+    public long seconds(Period period, LocalDate date, int taskId) {
+        Map<Integer, Long> tasks = rollups.get(period.ordinal()).get(period.key(date));
+        Long seconds = tasks == null ? null : tasks.get(taskId);
+        return seconds == null ? 0 : seconds;
+    }
+
+    // date を含む期間の、タスクごとの学習時間（タスクID → 秒）
+    public Map<Integer, Long> byTask(Period period, LocalDate date) {
+        Map<Integer, Long> tasks = rollups.get(period.ordinal()).get(period.key(date));
+        return tasks == null ? Collections.emptyMap() : Collections.unmodifiableMap(tasks);
+    }
+
+    // taskId のタスクの全期間の学習時間（秒）
+    public long totalSeconds(int taskId) {
+        return seconds(Period.ALL, LocalDate.MIN, taskId);
+    }
+
+    // チェックポイントを書き出し、未書き込みのセッションを書き込んでログを閉じる（書き込みが終わるまで待つ）
+    @Override
+    public void close() throws IOException {
+        submitCheckpoint();
+        service.submit(logPath, () -> {
+            writeLog();
+            if (channel != null) {
+                channel.close();
+                channel = null;
+            }
+        });
+        service.flush();
+    }
+
+    // セッションを集計に加える（日をまたぐセッションは日ごとに分ける）
+    private void apply(int taskId, long startMillis, long seconds) {
+        sessionCount++;
+        ZonedDateTime start = Instant.ofEpochMilli(startMillis).atZone(zone);
+        long remaining = seconds;
+        while (remaining > 0) {
+            LocalDate date = start.toLocalDate();
+            ZonedDateTime nextDay = date.plusDays(1).atStartOfDay(zone);
+            long part = Math.min(remaining, Math.max(1, Duration.between(start, nextDay).getSeconds()));
+            for (Period period : Period.values()) {
+                rollups.get(period.ordinal()).computeIfAbsent(period.key(date), key -> new HashMap<>())
+                        .merge(taskId, part, Long::sum);
+            }
+            remaining -= part;
+            start = nextDay;
+        }
+    }
+
+    // 未書き込みのレコードをまとめてログに追記する（書き込みスレッドで実行する）
+    // 追記に失敗した場合は、途中まで書いた分を切り詰め、レコードを未書き込みの先頭に戻して次の書き込みでやり直す
+    private void writeLog() throws IOException {
+        List<ByteBuffer> records;
+        synchronized (this) {
+            if (pending.isEmpty() || channel == null) {
+                return;
+            }
+            records = pending;
+            pending = new ArrayList<>();
+        }
+        long start = channel.position();
+        try {
+            for (ByteBuffer record : records) {
+                while (record.hasRemaining()) {
+                    channel.write(record);
+                }
+            }
+            service.sync(channel);
+        } catch (IOException e) {
+            for (ByteBuffer record : records) {
+                record.rewind();
+            }
+            synchronized (this) {
+                records.addAll(pending);
+                pending = records;
+            }
+            try {
+                channel.truncate(start); // レコードの区切りを保つ
+            } catch (IOException suppressed) {
+                e.addSuppressed(suppressed);
+            }
+            throw e;
+        }
+    }
+
+    // 現時点の集計をチェックポイントとして書き出す（先にそこまでのセッションをログに書いてから置き換える）
+    private void submitCheckpoint() {
+        byte[] content = encodeCheckpoint();
+        service.submit(checkpointPath, () -> {
+            writeLog();
+            service.replace(checkpointPath, out -> {
+                ByteBuffer buffer = ByteBuffer.wrap(content);
+                while (buffer.hasRemaining()) {
+                    out.write(buffer);
+                }
+            });
+        });
+    }
+
+    private byte[] encodeCheckpoint() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(sessionCount);
+            for (Map<Integer, Map<Integer, Long>> rollup : rollups) {
+                int count = 0;
+                for (Map<Integer, Long> tasks : rollup.values()) {
+                    count += tasks.size();
+                }
+                out.writeInt(count);
+                for (Map.Entry<Integer, Map<Integer, Long>> period : rollup.entrySet()) {
+                    for (Map.Entry<Integer, Long> task : period.getValue().entrySet()) {
+                        out.writeInt(period.getKey());
+                        out.writeInt(task.getKey());
+                        out.writeLong(task.getValue());
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // ByteArrayOutputStream への書き込みでは発生しない
+        }
+        return bytes.toByteArray();
+    }
+
+    // チェックポイントを読み込む（ない・壊れている・ログより先のセッションを含む場合は false）
+    private boolean readCheckpoint(long records) {
+        if (Files.notExists(checkpointPath)) {
+            return false;
+        }
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(Files.newInputStream(checkpointPath)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                return false;
+            }
+            sessionCount = in.readLong();
+            if (sessionCount < 0 || sessionCount > records) {
+                return false;
+            }
+            for (Map<Integer, Map<Integer, Long>> rollup : rollups) {
+                int count = in.readInt();
+                for (int i = 0; i < count; i++) {
+                    int period = in.readInt();
+                    int taskId = in.readInt();
+                    rollup.computeIfAbsent(period, key -> new HashMap<>()).put(taskId, in.readLong());
+                }
+            }
+            return true;
+        } catch (IOException e) {
+            System.err.println("学習記録のチェックポイントを読み込めませんでした（ログから集計し直します）: " + e.getMessage());
+            return false;
+        }
+    }
+}
@@ -1,156 +1,327 @@
 package TimerApp;
 
+import TodoListApp.Task;
+import TodoListApp.TaskQuery;
+import TodoListApp.TaskStore;
+
 import javax.swing.*;
+import javax.swing.event.PopupMenuEvent;
+import javax.swing.event.PopupMenuListener;
 import java.awt.*;
-import java.awt.event.*;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 
+// 複数のタイマーを同時に動かせるカウントダウンタイマー（標準時間・時間指定・ポモドーロ）
+// タイマーは TimerManager が1つのスレッドでまとめて動かし、一覧は表示が変わったタイマーの行だけを再描画する。
+// 上部の大きな表示は、一覧で選択したタイマー（未選択の場合は最後に追加したタイマー）の残り時間。
+// タスクを選んでから追加したタイマーは、学習した時間をそのタスクの学習時間として StudyLog に記録する
 public class TimerApp extends JFrame {
-    private Timer timer;
-    private int remainingSeconds;
+    private static final int TASK_CHOICES = 100; // タスクの選択肢に出す未完了タスクの最大件数（期限日順）
+    private static final String NO_TASK = "タスクなし";
+
+    private final TimerManager manager = new TimerManager();
+    private TaskStore taskStore; // 学習時間を記録するタスクの一覧（null の場合はタスクを選べない）
+    private StudyLog studyLog; // 学習時間の記録（null の場合は記録しない）
+    private TimerEntry shownEntry; // 上部に表示しているタイマー
     private JLabel timeLabel;
+    private JLabel statusLabel; // 最後に終わったステップの表示
+    private JList<TimerEntry> timerList;
+    private JComboBox<Object> taskBox; // 新しいタイマーで学習するタスク
     private JTextField hourField, minuteField, secondField;
-    private JButton startButton, stopButton, resetButton, tenMinuteButton, fiftyMinuteButton, oneHourButton,
-            fourHourButton, nineHourButton;
+    private JButton startButton, stopButton, resetButton, clearButton, tenMinuteButton, fiftyMinuteButton,
+            oneHourButton, fourHourButton, nineHourButton, pomodoroButton, studyButton;
 
     public TimerApp() {
         setTitle("タイマーアプリ（時間指定対応）");
-        setSize(400, 250);
+        setSize(480, 420);
         setDefaultCloseOperation(EXIT_ON_CLOSE);
-        setLayout(new GridLayout(4, 1));
+        setLayout(new BorderLayout());
+        addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosing(WindowEvent e) {
+                close();
+            }
+        });
 
-        // --- 1段目：時間表示ラベル（時:分:秒） ---
+        // --- 上部：時間表示ラベル（時:分:秒）と終わったステップ ---
+        JPanel headerPanel = new JPanel(new BorderLayout());
         timeLabel = new JLabel("00:00:00", SwingConstants.CENTER);
         timeLabel.setFont(new Font("Arial", Font.BOLD, 32));
-        add(timeLabel);
+        statusLabel = new JLabel(" ", SwingConstants.CENTER);
+        headerPanel.add(timeLabel, BorderLayout.CENTER);
+        headerPanel.add(statusLabel, BorderLayout.SOUTH);
+        add(headerPanel, BorderLayout.NORTH);
+
+        // --- 中央：動いているタイマーの一覧 ---
+        timerList = new JList<>(manager.getListModel());
+        timerList.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        timerList.setFixedCellHeight(24); // 行の高さを固定し、表示が変わってもレイアウトを計算し直さない
+        timerList.setCellRenderer(new DefaultListCellRenderer() {
+            @Override
+            public Component getListCellRendererComponent(JList<?> list, Object value, int index,
+                    boolean isSelected, boolean cellHasFocus) {
+                super.getListCellRendererComponent(list, value, index, isSelected, cellHasFocus);
+                setText(((TimerEntry) value).describe());
+                return this;
+            }
+        });
+        add(new JScrollPane(timerList), BorderLayout.CENTER);
 
-        // --- 2段目：標準ボタン（10分・50分・1時間・4時間・9時間） ---
+        JPanel controlPanel = new JPanel(new GridLayout(4, 1));
+
+        // --- 0段目：学習するタスクと学習時間 ---
+        JPanel taskPanel = new JPanel();
+        taskBox = new JComboBox<>(new Object[] { NO_TASK });
+        taskBox.setPrototypeDisplayValue("タスクのタイトルを表示する幅");
+        taskBox.setRenderer(new DefaultListCellRenderer() {
+            @Override
+            public Component getListCellRendererComponent(JList<?> list, Object value, int index,
+                    boolean isSelected, boolean cellHasFocus) {
+                super.getListCellRendererComponent(list, value, index, isSelected, cellHasFocus);
+                if (value instanceof Task) {
+                    setText(((Task) value).getTitle());
+                }
+                return this;
+            }
+        });
+        studyButton = new JButton("学習時間");
+        taskPanel.add(new JLabel("タスク:"));
+        taskPanel.add(taskBox);
+        taskPanel.add(studyButton);
+        controlPanel.add(taskPanel);
+
+        // --- 1段目：標準ボタン（10分・50分・1時間・4時間・9時間・ポモドーロ） ---
         JPanel standardPanel = new JPanel();
         tenMinuteButton = new JButton("10分");
         fiftyMinuteButton = new JButton("50分");
         oneHourButton = new JButton("1時間");
         fourHourButton = new JButton("4時間");
         nineHourButton = new JButton("9時間");
+        pomodoroButton = new JButton("ポモドーロ");
         standardPanel.add(tenMinuteButton);
         standardPanel.add(fiftyMinuteButton);
         standardPanel.add(oneHourButton);
         standardPanel.add(fourHourButton);
         standardPanel.add(nineHourButton);
-        add(standardPanel);
+        standardPanel.add(pomodoroButton);
+        controlPanel.add(standardPanel);
 
-        // --- 3段目：時・分・秒の入力欄 ---
+        // --- 2段目：時・分・秒の入力欄とスタート ---
         JPanel inputPanel = new JPanel();
         hourField = new JTextField(2);
         minuteField = new JTextField(2);
         secondField = new JTextField(2);
+        startButton = new JButton("スタート");
         inputPanel.add(new JLabel("時:"));
         inputPanel.add(hourField);
         inputPanel.add(new JLabel("分:"));
         inputPanel.add(minuteField);
         inputPanel.add(new JLabel("秒:"));
         inputPanel.add(secondField);
-        add(inputPanel);
+        inputPanel.add(startButton);
+        controlPanel.add(inputPanel);
 
-        // --- 4段目：各ボタン（スタート・ストップ・リセット） ---
+        // --- 3段目：選択したタイマーの操作（ストップ・再開、リセット）とすべて削除 ---
         JPanel buttonPanel = new JPanel();
-        startButton = new JButton("スタート");
-        stopButton = new JButton("ストップ");
+        stopButton = new JButton("ストップ／再開");
         resetButton = new JButton("リセット");
-        buttonPanel.add(startButton);
+        clearButton = new JButton("すべて削除");
         buttonPanel.add(stopButton);
         buttonPanel.add(resetButton);
-        add(buttonPanel);
-
-        // --- タイマー処理（1秒ごと） ---
-        timer = new Timer(1000, e -> {
-            if (remainingSeconds > 0) {
-                remainingSeconds--;
-                updateLabel();
-            } else {
-                timer.stop();
-                JOptionPane.showMessageDialog(this, "タイムアップ！");
+        buttonPanel.add(clearButton);
+        controlPanel.add(buttonPanel);
+
+        add(controlPanel, BorderLayout.SOUTH);
+
+        // --- タイマー処理（表示が変わったタイマーの行だけを再描画する） ---
+        manager.addListener(new TimerManager.Listener() {
+            @Override
+            public void timerChanged(int index, TimerEntry entry) {
+                Rectangle bounds = timerList.getCellBounds(index, index);
+                if (bounds != null) {
+                    timerList.repaint(bounds);
+                }
+                if (entry == shownEntry) {
+                    updateLabel(entry.getRemainingSeconds());
+                }
             }
-        });
 
-        // --- 標準ボタン(10分) ---
-        tenMinuteButton.addActionListener(e -> {
-            if (!timer.isRunning()) {
-                remainingSeconds = 600;
-                updateLabel();
-                timer.start();
+            @Override
+            public void stepFinished(TimerEntry entry, TimerEntry.Step step, boolean last) {
+                statusLabel.setText(entry.getName() + "：" + step.name + " が終わりました");
+                Toolkit.getDefaultToolkit().beep();
+                if (last) {
+                    JOptionPane.showMessageDialog(TimerApp.this, "タイムアップ！（" + entry.getName() + "）");
+                }
             }
         });
-
-        // --- 標準ボタン(50分) ---
-        fiftyMinuteButton.addActionListener(e -> {
-            if (!timer.isRunning()) {
-                remainingSeconds = 3000;
-                updateLabel();
-                timer.start();
+        timerList.addListSelectionListener(e -> {
+            if (timerList.getSelectedValue() != null) {
+                showTimer(timerList.getSelectedValue());
             }
         });
 
-        // --- 標準ボタン(1時間) ---
-        oneHourButton.addActionListener(e -> {
-            if (!timer.isRunning()) {
-                remainingSeconds = 3600;
-                updateLabel();
-                timer.start();
+        // --- タスクの選択肢は、開くたびに未完了のタスクから作り直す ---
+        taskBox.addPopupMenuListener(new PopupMenuListener() {
+            @Override
+            public void popupMenuWillBecomeVisible(PopupMenuEvent e) {
+                reloadTasks();
             }
-        });
 
-        // --- 標準ボタン(4時間) ---
-        fourHourButton.addActionListener(e -> {
-            if (!timer.isRunning()) {
-                remainingSeconds = 3600 * 4;
-                updateLabel();
-                timer.start();
+            @Override
+            public void popupMenuWillBecomeInvisible(PopupMenuEvent e) {
             }
-        });
 
-        // --- 標準ボタン(9時間) ---
-        nineHourButton.addActionListener(e -> {
-            if (!timer.isRunning()) {
-                remainingSeconds = 3600 * 9;
-                updateLabel();
-                timer.start();
+            @Override
+            public void popupMenuCanceled(PopupMenuEvent e) {
             }
         });
+        studyButton.addActionListener(e -> showStudyTime());
+
+        // --- 標準ボタン（押すたびに新しいタイマーを追加する） ---
+        tenMinuteButton.addActionListener(e -> start(TimerEntry.single("10分", 600)));
+        fiftyMinuteButton.addActionListener(e -> start(TimerEntry.single("50分", 3000)));
+        oneHourButton.addActionListener(e -> start(TimerEntry.single("1時間", 3600)));
+        fourHourButton.addActionListener(e -> start(TimerEntry.single("4時間", 3600 * 4)));
+        nineHourButton.addActionListener(e -> start(TimerEntry.single("9時間", 3600 * 9)));
+
+        // --- ポモドーロ（作業25分・休憩5分を4回、4回目の休憩は15分。繰り返す） ---
+        pomodoroButton.addActionListener(e -> start(TimerEntry.pomodoro(25, 5, 15, 4)));
 
         // --- スタート処理 ---
         startButton.addActionListener(e -> {
-            if (!timer.isRunning()) {
-                try {
-                    int hours = Integer.parseInt(hourField.getText());
-                    int minutes = Integer.parseInt(minuteField.getText());
-                    int seconds = Integer.parseInt(secondField.getText());
-                    remainingSeconds = hours * 3600 + minutes * 60 + seconds;
-                    updateLabel();
-                    timer.start();
-                } catch (NumberFormatException ex) {
-                    JOptionPane.showMessageDialog(this, "時・分・秒を正しく入力してください。");
-                }
+            try {
+                int hours = Integer.parseInt(hourField.getText());
+                int minutes = Integer.parseInt(minuteField.getText());
+                int seconds = Integer.parseInt(secondField.getText());
+                long total = hours * 3600L + minutes * 60L + seconds;
+                start(TimerEntry.single(TimerEntry.format(total), total));
+            } catch (NumberFormatException ex) {
+                JOptionPane.showMessageDialog(this, "時・分・秒を正しく入力してください。");
             }
         });
 
-        // --- ストップ処理 ---
-        stopButton.addActionListener(e -> timer.stop());
+        // --- ストップ・再開処理 ---
+        stopButton.addActionListener(e -> {
+            if (shownEntry != null) {
+                manager.toggle(shownEntry);
+            }
+        });
 
-        // --- リセット処理 ---
+        // --- リセット処理（選択したタイマーを取り除く） ---
         resetButton.addActionListener(e -> {
-            timer.stop();
-            remainingSeconds = 0;
-            updateLabel();
+            if (shownEntry != null) {
+                manager.remove(shownEntry);
+                showTimer(manager.size() > 0 ? manager.get(manager.size() - 1) : null);
+            }
+        });
+
+        // --- すべて削除 ---
+        clearButton.addActionListener(e -> {
+            manager.clear();
+            showTimer(null);
         });
 
         // setVisible(true);
     }
 
+    // 学習時間を記録するタスクの一覧を設定する
+    public void setTaskStore(TaskStore taskStore) {
+        this.taskStore = taskStore;
+    }
+
+    // 学習時間の記録先を設定する
+    public void setStudyLog(StudyLog studyLog) {
+        this.studyLog = studyLog;
+        manager.setStudyLog(studyLog);
+    }
+
+    // 動いているタイマーの学習時間を記録し、学習時間の記録を閉じる（終了時に EDT で呼ぶ。書き込みが終わるまで待つ）
+    public void close() {
+        manager.endSessions();
+        if (studyLog != null) {
+            try {
+                studyLog.close();
+            } catch (IOException e) {
+                System.err.println("学習時間の保存失敗: " + e.getMessage());
+            }
+            setStudyLog(null);
+        }
+    }
+
+    // タイマーを追加して開始し、上部に表示する（タスクを選んでいる場合はそのタスクの学習時間を記録する）
+    private void start(TimerEntry entry) {
+        Object selected = taskBox.getSelectedItem();
+        if (selected instanceof Task) {
+            Task task = (Task) selected;
+            entry.forTask(task.getId(), task.getTitle());
+        }
+        showTimer(manager.start(entry));
+    }
+
+    // タスクの選択肢を作り直す（選んでいたタスクは、まだ選択肢にあれば選んだままにする）
+    private void reloadTasks() {
+        Object selected = taskBox.getSelectedItem();
+        DefaultComboBoxModel<Object> model = new DefaultComboBoxModel<>();
+        model.addElement(NO_TASK);
+        if (taskStore != null) {
+            List<Task> tasks = taskStore.query(new TaskQuery().done(false));
+            for (Task task : tasks.subList(0, Math.min(tasks.size(), TASK_CHOICES))) {
+                model.addElement(task);
+            }
+        }
+        if (model.getIndexOf(selected) >= 0) {
+            model.setSelectedItem(selected);
+        }
+        taskBox.setModel(model);
+    }
+
+    // 今日・今週・今月のタスクごとの学習時間を表示する（集計済みの値を読むだけ）
+    private void showStudyTime() {
+        if (studyLog == null) {
+            JOptionPane.showMessageDialog(this, "学習時間の記録がありません。");
+            return;
+        }
+        LocalDate today = LocalDate.now();
+        StringBuilder text = new StringBuilder();
+        appendStudyTime(text, "今日", studyLog.byTask(StudyLog.Period.DAY, today));
+        appendStudyTime(text, "今週", studyLog.byTask(StudyLog.Period.WEEK, today));
+        appendStudyTime(text, "今月", studyLog.byTask(StudyLog.Period.MONTH, today));
+        JTextArea area = new JTextArea(text.toString(), 16, 36);
+        area.setEditable(false);
+        JOptionPane.showMessageDialog(this, new JScrollPane(area), "学習時間", JOptionPane.PLAIN_MESSAGE);
+    }
+
+    // 期間の合計と、タスクごとの学習時間（長い順）を追加する
+    private void appendStudyTime(StringBuilder text, String label, Map<Integer, Long> byTask) {
+        List<Map.Entry<Integer, Long>> entries = new ArrayList<>(byTask.entrySet());
+        entries.sort(Map.Entry.<Integer, Long>comparingByValue().reversed());
+        long total = 0;
+        for (Map.Entry<Integer, Long> entry : entries) {
+            total += entry.getValue();
+        }
+        text.append("■ ").append(label).append("  ").append(TimerEntry.format(total)).append('\n');
+        for (Map.Entry<Integer, Long> entry : entries) {
+            Task task = taskStore == null ? null : taskStore.findById(entry.getKey());
+            String title = task == null ? "（削除されたタスク #" + entry.getKey() + "）" : task.getTitle();
+            text.append("    ").append(TimerEntry.format(entry.getValue())).append("  ").append(title).append('\n');
+        }
+    }
+
+    // 上部に表示するタイマーを変える（null の場合は 00:00:00）
+    private void showTimer(TimerEntry entry) {
+        shownEntry = entry;
+        updateLabel(entry == null ? 0 : entry.getRemainingSeconds());
+    }
+
     // --- ラベルの更新（HH:mm:ss 形式） ---
-    private void updateLabel() {
-        int hours = remainingSeconds / 3600;
-        int minutes = (remainingSeconds % 3600) / 60;
-        int seconds = remainingSeconds % 60;
-        timeLabel.setText(String.format("%02d:%02d:%02d", hours, minutes, seconds));
+    private void updateLabel(long remainingSeconds) {
+        timeLabel.setText(TimerEntry.format(remainingSeconds));
     }
 
     public static void main(String[] args) {
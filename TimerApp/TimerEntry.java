@@ -0,0 +1,122 @@
+package TimerApp;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+// TimerManager で動かす1つのタイマー（1つ以上のステップを順に実行する。repeat の場合は最後のあと先頭に戻る）
+// 例: ポモドーロは「作業 25分 → 休憩 5分」を繰り返し、4回目の休憩だけ長くする。
+// タスクを指定した場合、学習のステップ（休憩以外）を動かした時間を StudyLog に記録する。
+// 表示用の値（ステップ・残り秒数・状態）は EDT でのみ読み書きする
+public class TimerEntry {
+    // 1つのステップ（名前と時間。study が false のステップは学習時間に含めない）
+    public static final class Step {
+        final String name;
+        final long seconds;
+        final boolean study;
+
+        public Step(String name, long seconds) {
+            this(name, seconds, true);
+        }
+
+        public Step(String name, long seconds, boolean study) {
+            this.name = name;
+            this.seconds = seconds;
+            this.study = study;
+        }
+    }
+
+    final String name; // タイマーの名前
+    final List<Step> steps; // 順に実行するステップ
+    final boolean repeat; // 最後のステップのあと先頭に戻るかどうか
+    CountdownTimer timer; // 残り時間を数えるタイマー（TimerManager が作成する）
+    int stepIndex; // 実行中のステップ
+    int round = 1; // 何周目か（repeat の場合）
+    long remainingSeconds; // 表示する残り秒数
+    boolean finished; // すべてのステップが終わったかどうか
+    int taskId; // 学習時間を記録するタスクのID（0 の場合は記録しない）
+    String taskTitle; // 学習時間を記録するタスクのタイトル（一覧の表示用）
+    boolean sessionOpen; // 記録中の学習セッションがあるかどうか
+    long sessionStartMillis; // 記録中のセッションの開始時刻（エポックミリ秒）
+    long sessionStartNanos; // 記録中のセッションの開始時点の残り時間
+
+    public TimerEntry(String name, List<Step> steps, boolean repeat) {
+        if (steps.isEmpty()) {
+            throw new IllegalArgumentException("ステップがありません: " + name);
+        }
+        this.name = name;
+        this.steps = Collections.unmodifiableList(new ArrayList<>(steps));
+        this.repeat = repeat;
+        this.remainingSeconds = steps.get(0).seconds;
+    }
+
+    // 1つのステップだけのタイマー
+    public static TimerEntry single(String name, long seconds) {
+        return new TimerEntry(name, Collections.singletonList(new Step(name, seconds)), false);
+    }
+
+    // ポモドーロ（作業と休憩を繰り返し、cycles 回目ごとに長い休憩を取る）
+    public static TimerEntry pomodoro(int workMinutes, int breakMinutes, int longBreakMinutes, int cycles) {
+        List<Step> steps = new ArrayList<>();
+        for (int i = 1; i <= cycles; i++) {
+            steps.add(new Step("作業", workMinutes * 60L));
+            steps.add(i < cycles ? new Step("休憩", breakMinutes * 60L, false)
+                    : new Step("長い休憩", longBreakMinutes * 60L, false));
+        }
+        return new TimerEntry("ポモドーロ", steps, true);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    // 学習時間を記録するタスクを設定する（開始前に呼ぶこと。taskId が 0 の場合は記録しない）
+    public TimerEntry forTask(int taskId, String taskTitle) {
+        this.taskId = taskId;
+        this.taskTitle = taskTitle;
+        return this;
+    }
+
+    public int getTaskId() {
+        return taskId;
+    }
+
+    public Step getStep() {
+        return steps.get(stepIndex);
+    }
+
+    public long getRemainingSeconds() {
+        return remainingSeconds;
+    }
+
+    public boolean isRunning() {
+        return timer.isRunning();
+    }
+
+    public boolean isFinished() {
+        return finished;
+    }
+
+    // 一覧に表示する文字列（例: ▶ 00:24:59 ポモドーロ - 作業 (1/8)）
+    String describe() {
+        StringBuilder text = new StringBuilder();
+        text.append(finished ? "✓ " : isRunning() ? "▶ " : "❚❚ ");
+        text.append(format(remainingSeconds)).append(' ').append(name);
+        if (steps.size() > 1) {
+            text.append(" - ").append(getStep().name).append(" (").append(stepIndex + 1).append('/')
+                    .append(steps.size()).append(')');
+            if (repeat && round > 1) {
+                text.append(' ').append(round).append("周目");
+            }
+        }
+        if (taskId != 0) {
+            text.append(" 【").append(taskTitle).append('】');
+        }
+        return text.toString();
+    }
+
+    // HH:mm:ss 形式
+    static String format(long seconds) {
+        return String.format("%02d:%02d:%02d", seconds / 3600, (seconds % 3600) / 60, seconds % 60);
+    }
+}
@@ -0,0 +1,180 @@
+package TimerApp;
+
+import javax.swing.*;
+import java.util.ArrayList;
+import java.util.List;
+
+// 複数のタイマーをまとめて管理するクラス
+// すべてのタイマーは1つの TimingWheel（1スレッド）で動き、止まっているタイマーはスレッドを起こさない。
+// 一覧（ListModel）はタイマーの追加・削除のときだけ変わり、残り時間の変化は Listener でタイマーの位置だけを知らせる
+// （一覧の画面は、変わった行だけを再描画する）。
+// タスクを指定したタイマーは、学習のステップを動かしていた時間（開始・再開から一時停止・ステップの終了・削除まで）を
+// 1つのセッションとして StudyLog に記録する（アプリの終了時は endSessions() で動いている分を記録する）。EDT からのみ操作すること
+public class TimerManager {
+    // タイマーの変化を受け取るリスナー（EDTで呼ばれる）
+    public interface Listener {
+        // index 番目のタイマーの表示（残り時間・ステップ・状態）が変わった
+        void timerChanged(int index, TimerEntry entry);
+
+        // ステップが終わった（last はタイマーのすべてのステップが終わった場合）
+        void stepFinished(TimerEntry entry, TimerEntry.Step step, boolean last);
+    }
+
+    private final TimingWheel wheel;
+    private final DefaultListModel<TimerEntry> entries = new DefaultListModel<>();
+    private final List<Listener> listeners = new ArrayList<>();
+    private StudyLog studyLog; // 学習時間の記録先（null の場合は記録しない）
+
+    public TimerManager() {
+        this(TimingWheel.getDefault());
+    }
+
+    public TimerManager(TimingWheel wheel) {
+        this.wheel = wheel;
+    }
+
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    public void setStudyLog(StudyLog studyLog) {
+        this.studyLog = studyLog;
+    }
+
+    // 一覧の画面に渡すタイマーの一覧
+    public ListModel<TimerEntry> getListModel() {
+        return entries;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public TimerEntry get(int index) {
+        return entries.get(index);
+    }
+
+    // タイマーを追加して開始する
+    public TimerEntry start(TimerEntry entry) {
+        entry.timer = new CountdownTimer(wheel, new CountdownTimer.Listener() {
+            @Override
+            public void remainingChanged(long remainingSeconds) {
+                entry.remainingSeconds = remainingSeconds;
+                fireChanged(entry);
+            }
+
+            @Override
+            public void finished() {
+                advance(entry);
+            }
+        });
+        entries.addElement(entry);
+        entry.timer.start(entry.getStep().seconds);
+        beginSession(entry);
+        return entry;
+    }
+
+    // 一時停止・再開を切り替える（終わったタイマーは最初のステップからやり直す）
+    public void toggle(TimerEntry entry) {
+        if (entry.finished) {
+            entry.finished = false;
+            entry.stepIndex = 0;
+            entry.round = 1;
+            entry.timer.start(entry.getStep().seconds);
+            beginSession(entry);
+        } else if (entry.timer.isRunning()) {
+            entry.timer.pause();
+            endSession(entry, entry.timer.getRemainingNanos());
+        } else {
+            entry.timer.resume();
+            beginSession(entry);
+        }
+        fireChanged(entry);
+    }
+
+    // タイマーを止めて一覧から取り除く
+    public void remove(TimerEntry entry) {
+        endSession(entry, entry.timer.getRemainingNanos());
+        entry.timer.reset();
+        entries.removeElement(entry);
+    }
+
+    // すべてのタイマーを止めて取り除く
+    public void clear() {
+        for (int i = 0; i < entries.size(); i++) {
+            TimerEntry entry = entries.get(i);
+            endSession(entry, entry.timer.getRemainingNanos());
+            entry.timer.reset();
+        }
+        entries.clear();
+    }
+
+    // 動いているタイマーのセッションを、今の時点までで記録する（アプリの終了時に呼ぶ。タイマーは止めない）
+    public void endSessions() {
+        for (int i = 0; i < entries.size(); i++) {
+            TimerEntry entry = entries.get(i);
+            endSession(entry, entry.timer.getRemainingNanos());
+        }
+    }
+
+    // ステップが終わったら次のステップを、前のステップの終了時刻から開始する
+    private void advance(TimerEntry entry) {
+        if (!entries.contains(entry)) {
+            return;
+        }
+        TimerEntry.Step step = entry.getStep();
+        long stepEndMillis = System.currentTimeMillis() - entry.timer.overdueNanos() / 1_000_000;
+        endSession(entry, 0);
+        boolean last = entry.stepIndex == entry.steps.size() - 1 && !entry.repeat;
+        if (last) {
+            entry.finished = true;
+        } else {
+            entry.stepIndex++;
+            if (entry.stepIndex == entry.steps.size()) {
+                entry.stepIndex = 0;
+                entry.round++;
+            }
+            entry.timer.chain(entry.getStep().seconds);
+            // 次のステップは前のステップの終了時刻から始まっている
+            beginSession(entry);
+            if (entry.sessionOpen) {
+                entry.sessionStartMillis = stepEndMillis;
+                entry.sessionStartNanos = entry.getStep().seconds * 1_000_000_000L;
+            }
+        }
+        fireChanged(entry);
+        for (Listener listener : listeners) {
+            listener.stepFinished(entry, step, last);
+        }
+    }
+
+    // 学習のステップを動かし始めたら、セッションの開始時刻と残り時間を覚えておく
+    private void beginSession(TimerEntry entry) {
+        if (studyLog == null || entry.taskId == 0 || !entry.getStep().study || !entry.timer.isRunning()) {
+            return;
+        }
+        entry.sessionOpen = true;
+        entry.sessionStartMillis = System.currentTimeMillis();
+        entry.sessionStartNanos = entry.timer.getRemainingNanos();
+    }
+
+    // セッションを終えて、動かしていた時間（開始時点の残り時間 - remainingNanos）を記録する
+    private void endSession(TimerEntry entry, long remainingNanos) {
+        if (!entry.sessionOpen) {
+            return;
+        }
+        entry.sessionOpen = false;
+        long seconds = Math.round((entry.sessionStartNanos - remainingNanos) / 1e9);
+        studyLog.record(entry.taskId, entry.sessionStartMillis, seconds);
+    }
+
+    private void fireChanged(TimerEntry entry) {
+        int index = entries.indexOf(entry);
+        if (index < 0) {
+            return;
+        }
+        for (Listener listener : listeners) {
+            listener.timerChanged(index, entry);
+        }
+    }
+}
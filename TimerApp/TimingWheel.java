@@ -0,0 +1,164 @@
+package TimerApp;
+
+import java.util.concurrent.TimeUnit;
+
+// 多数のタイマーを1つのスレッドで動かすハッシュ化タイミングホイール
+// 時刻は System.nanoTime() の期限で指定し、期限を刻み（TICK_NANOS）ごとの枠に振り分けておく。
+// スレッドは刻みごとに1つの枠だけを調べ、期限を過ぎた処理を実行する（タイマーの数によらず1刻みあたり O(枠内の数)）。
+// 刻みの時刻は開始時刻からの倍数で求めるため、スレッドの起床が遅れても刻みはずれていかない。
+// タイマーがないときは、次に登録されるまでスレッドは待機する
+public final class TimingWheel {
+    static final long TICK_NANOS = TimeUnit.MILLISECONDS.toNanos(10); // 刻みの間隔（処理が遅れる最大時間）
+    private static final int WHEEL_SIZE = 512; // 枠の数（2のべき乗。1周 = 5.12秒）
+
+    private static TimingWheel defaultWheel;
+
+    private final Object lock = new Object();
+    private final Timeout[] buckets = new Timeout[WHEEL_SIZE]; // 枠ごとの処理（双方向リストの先頭）
+    private int count; // 登録されている処理の数
+    private long startNanos; // 刻み0の時刻
+    private long tick; // 次に調べる刻み
+
+    // 登録した処理（cancel で取り消せる）
+    public static final class Timeout {
+        private final long deadlineNanos; // 実行する時刻
+        private final Runnable task;
+        private long rounds; // 実行までに枠を何周するか
+        private int bucket = -1; // 入っている枠（-1 は実行済み・取り消し済み）
+        private Timeout previous;
+        private Timeout next;
+
+        private Timeout(long deadlineNanos, Runnable task) {
+            this.deadlineNanos = deadlineNanos;
+            this.task = task;
+        }
+    }
+
+    public TimingWheel(String name) {
+        Thread worker = new Thread(this::run, name);
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    // アプリ全体で共有するホイール（初回に作成する）
+    public static synchronized TimingWheel getDefault() {
+        if (defaultWheel == null) {
+            defaultWheel = new TimingWheel("timing-wheel");
+        }
+        return defaultWheel;
+    }
+
+    // deadlineNanos（System.nanoTime() の値）以降に task をホイールのスレッドで実行する
+    // task は短時間で終わる処理にすること（画面の更新は EDT に渡す）
+    public Timeout schedule(long deadlineNanos, Runnable task) {
+        Timeout timeout = new Timeout(deadlineNanos, task);
+        synchronized (lock) {
+            if (count == 0) {
+                // 待機中は刻みが進んでいないため、今の時刻から数え直す
+                startNanos = System.nanoTime();
+                tick = 0;
+            }
+            // 期限を含む刻みの枠に入れる（過ぎている場合は次に調べる枠）
+            long ticks = Math.max(ceilDiv(deadlineNanos - startNanos, TICK_NANOS), tick);
+            timeout.rounds = (ticks - tick) / WHEEL_SIZE;
+            link(timeout, (int) (ticks & (WHEEL_SIZE - 1)));
+            count++;
+            lock.notifyAll();
+        }
+        return timeout;
+    }
+
+    // 処理を取り消す（実行前に取り消せた場合は true）
+    public boolean cancel(Timeout timeout) {
+        synchronized (lock) {
+            if (timeout.bucket < 0) {
+                return false;
+            }
+            unlink(timeout);
+            count--;
+            return true;
+        }
+    }
+
+    // 登録されている処理の数
+    public int size() {
+        synchronized (lock) {
+            return count;
+        }
+    }
+
+    private void run() {
+        while (true) {
+            Timeout expired = null;
+            synchronized (lock) {
+                try {
+                    while (count == 0) {
+                        lock.wait();
+                    }
+                    long remaining;
+                    while (count > 0 && (remaining = startNanos + tick * TICK_NANOS - System.nanoTime()) > 0) {
+                        TimeUnit.NANOSECONDS.timedWait(lock, remaining);
+                    }
+                } catch (InterruptedException e) {
+                    return;
+                }
+                if (count == 0) {
+                    continue;
+                }
+                // この刻みの枠から期限を過ぎた処理を取り出す（残りは1周分減らす）
+                long now = System.nanoTime();
+                int bucket = (int) (tick & (WHEEL_SIZE - 1));
+                Timeout timeout = buckets[bucket];
+                while (timeout != null) {
+                    Timeout next = timeout.next;
+                    if (timeout.rounds <= 0 && timeout.deadlineNanos - now <= 0) {
+                        unlink(timeout);
+                        count--;
+                        timeout.next = expired;
+                        expired = timeout;
+                    } else if (timeout.rounds > 0) {
+                        timeout.rounds--;
+                    }
+                    timeout = next;
+                }
+                tick++;
+            }
+            // 登録の受け付けを止めないよう、ロックの外で実行する
+            for (; expired != null; expired = expired.next) {
+                try {
+                    expired.task.run();
+                } catch (RuntimeException e) {
+                    e.printStackTrace();
+                }
+            }
+        }
+    }
+
+    private void link(Timeout timeout, int bucket) {
+        timeout.bucket = bucket;
+        timeout.previous = null;
+        timeout.next = buckets[bucket];
+        if (buckets[bucket] != null) {
+            buckets[bucket].previous = timeout;
+        }
+        buckets[bucket] = timeout;
+    }
+
+    private void unlink(Timeout timeout) {
+        if (timeout.previous != null) {
+            timeout.previous.next = timeout.next;
+        } else {
+            buckets[timeout.bucket] = timeout.next;
+        }
+        if (timeout.next != null) {
+            timeout.next.previous = timeout.previous;
+        }
+        timeout.bucket = -1;
+        timeout.previous = null;
+        timeout.next = null;
+    }
+
+    private static long ceilDiv(long x, long y) {
+        return x <= 0 ? 0 : (x + y - 1) / y;
+    }
+}
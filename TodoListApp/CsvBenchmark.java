@@ -0,0 +1,97 @@
+package TodoListApp;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+// CSV読み込みのスループットを旧実装（trim + replaceAll + split）と比較するベンチマーク
+// 実行例: java TodoListApp.CsvBenchmark 500000
+public class CsvBenchmark {
+    private static final int WARMUP_ROUNDS = 3; // ウォームアップ回数
+    private static final int MEASURE_ROUNDS = 5; // 計測回数
+
+    public static void main(String[] args) throws IOException {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 500_000;
+        Path file = Files.createTempFile("tasks", ".csv");
+        try {
+            writeSample(file, rows);
+            System.out.printf("行数: %,d  ファイルサイズ: %,d bytes%n", rows, Files.size(file));
+
+            for (int i = 0; i < WARMUP_ROUNDS; i++) {
+                loadLegacy(file);
+                loadStreaming(file);
+            }
+            report("旧実装 (split)", rows, measure(file, true));
+            report("CsvReader", rows, measure(file, false));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private static long measure(Path file, boolean legacy) throws IOException {
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < MEASURE_ROUNDS; i++) {
+            long start = System.nanoTime();
+            List<Task> tasks = legacy ? loadLegacy(file) : loadStreaming(file);
+            best = Math.min(best, System.nanoTime() - start);
+            if (tasks.isEmpty()) {
+                throw new IllegalStateException("タスクが読み込まれていません");
+            }
+        }
+        return best;
+    }
+
+    private static void report(String name, int rows, long nanos) {
+        System.out.printf("%-16s %8.1f ms  %,12.0f 行/秒%n", name, nanos / 1e6, rows / (nanos / 1e9));
+    }
+
+    // ベンチマーク用のCSVを作成（クォートを含まない旧形式でも読めるデータ）
+    private static void writeSample(Path file, int rows) throws IOException {
+        LocalDate base = LocalDate.of(2025, 1, 1);
+        try (CsvWriter writer = new CsvWriter(Files.newBufferedWriter(file, StandardCharsets.UTF_8))) {
+            Task.writeCSVHeader(writer);
+            for (int i = 0; i < rows; i++) {
+                LocalDate due = base.plusDays(i % 730);
+                Task task = new Task("タスク" + i, "ベンチマーク用の内容 " + (i % 100), i % 3 == 0, due, base, due);
+                task.writeCSV(writer);
+                writer.endRecord();
+            }
+        }
+    }
+
+    private static List<Task> loadStreaming(Path file) throws IOException {
+        List<Task> tasks = new ArrayList<>();
+        try (CsvReader reader = CsvReader.open(file.toFile())) {
+            reader.next();
+            while (reader.next()) {
+                tasks.add(Task.fromCSV(reader));
+            }
+        }
+        return tasks;
+    }
+
+    private static List<Task> loadLegacy(Path file) throws IOException {
+        List<Task> tasks = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line = reader.readLine();
+            while ((line = reader.readLine()) != null) {
+                tasks.add(legacyFromCSV(line));
+            }
+        }
+        return tasks;
+    }
+
+    // 変更前の Task.fromCSV と同じ処理
+    private static Task legacyFromCSV(String csvLine) {
+        csvLine = csvLine.trim();
+        String[] fields = csvLine.replaceAll("\"", "").split(",");
+        if (fields.length != 8) {
+            throw new IllegalArgumentException("CSVのフィールド数が不正です。");
+        }
+        return new Task(fields[0], fields[1], Boolean.parseBoolean(fields[2]), LocalDate.parse(fields[3]),
+                LocalDate.parse(fields[4]), LocalDate.parse(fields[5]));
+    }
+}
@@ -0,0 +1,282 @@
+package TodoListApp;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+
+// RFC 4180 形式のCSVを1レコードずつ読み込むクラス
+// 行ごとに String や配列を作らず、内部バッファ上のフィールドを直接パースする
+public class CsvReader implements Closeable {
+    private static final int BUFFER_SIZE = 64 * 1024; // 読み込みバッファサイズ
+    private static final int DATE_CACHE_SIZE = 64; // 日付キャッシュのエントリ数（2のべき乗）
+
+    private final Reader in;
+    private final char[] buf = new char[BUFFER_SIZE];
+    private int pos; // buf の読み込み位置
+    private int limit; // buf の有効データ末尾
+    private boolean firstChar = true; // BOM判定用
+
+    private char[] chars = new char[256]; // 現在のレコードのフィールド文字列
+    private int length; // chars の使用量
+    private int[] starts = new int[16]; // 各フィールドの開始位置
+    private int[] ends = new int[16]; // 各フィールドの終了位置
+    private int fieldCount; // 現在のレコードのフィールド数
+    private long lines; // これまでに読み込んだ行数
+    private long lineNumber; // 現在のレコードの開始行番号（1始まり）
+
+    // 同じ日付が続く場合に LocalDate を使い回すためのキャッシュ
+    private final int[] dateKeys = new int[DATE_CACHE_SIZE];
+    private final LocalDate[] dateValues = new LocalDate[DATE_CACHE_SIZE];
+
+    public CsvReader(Reader in) {
+        this.in = in;
+    }
+
+    // UTF-8 のCSVファイルを開く
+    public static CsvReader open(File file) throws IOException {
+        return new CsvReader(new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8));
+    }
+
+    // 次のレコードを読み込む（空行は読み飛ばす）。ファイル末尾なら false。クォートが閉じていない場合は IllegalArgumentException
+    public boolean next() throws IOException {
+        while (readRecord()) {
+            if (fieldCount > 1 || ends[0] > starts[0]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // 現在のレコードのフィールド数
+    public int fieldCount() {
+        return fieldCount;
+    }
+
+    // 現在のレコードが始まる行番号（ヘッダー行を含む1始まり）
+    public long getLineNumber() {
+        return lineNumber;
+    }
+
+    // ファイルの途中から読み込む場合に、それより前の行数を設定する
+    public void setLineOffset(long lineOffset) {
+        this.lines = lineOffset;
+    }
+
+    // フィールドが空かどうか
+    public boolean isEmpty(int index) {
+        return ends[index] == starts[index];
+    }
+
+    // フィールドを文字列として取得
+    public String getString(int index) {
+        return new String(chars, starts[index], ends[index] - starts[index]);
+    }
+
+    // フィールドを真偽値として取得（Boolean.parseBoolean と同じく "true" 以外は false）
+    public boolean getBoolean(int index) {
+        int start = skipSpaces(starts[index], ends[index]);
+        int end = trimSpaces(start, ends[index]);
+        return end - start == 4
+                && (chars[start] | 0x20) == 't'
+                && (chars[start + 1] | 0x20) == 'r'
+                && (chars[start + 2] | 0x20) == 'u'
+                && (chars[start + 3] | 0x20) == 'e';
+    }
+
+    // フィールドを整数として取得
+    public int getInt(int index) {
+        int start = skipSpaces(starts[index], ends[index]);
+        int end = trimSpaces(start, ends[index]);
+        boolean negative = start < end && chars[start] == '-';
+        int i = negative ? start + 1 : start;
+        if (i == end) {
+            throw new NumberFormatException("数値ではありません: \"" + getString(index) + "\"");
+        }
+        long value = 0;
+        for (; i < end; i++) {
+            int digit = chars[i] - '0';
+            if (digit < 0 || digit > 9 || (value = value * 10 + digit) > Integer.MAX_VALUE + 1L) {
+                throw new NumberFormatException("数値ではありません: \"" + getString(index) + "\"");
+            }
+        }
+        value = negative ? -value : value;
+        if (value > Integer.MAX_VALUE) {
+            throw new NumberFormatException("数値ではありません: \"" + getString(index) + "\"");
+        }
+        return (int) value;
+    }
+
+    // フィールドを yyyy-MM-dd 形式の日付として取得（空欄は null）
+    public LocalDate getDate(int index) {
+        int start = skipSpaces(starts[index], ends[index]);
+        int end = trimSpaces(start, ends[index]);
+        if (start == end) {
+            return null;
+        }
+        if (end - start != 10 || chars[start + 4] != '-' || chars[start + 7] != '-') {
+            throw new DateTimeParseException("日付の形式が不正です", getString(index), 0);
+        }
+        int year = digits(start, 4, index);
+        int month = digits(start + 5, 2, index);
+        int day = digits(start + 8, 2, index);
+
+        int key = year * 10000 + month * 100 + day;
+        int slot = (key ^ (key >>> 7)) & (DATE_CACHE_SIZE - 1);
+        LocalDate cached = dateValues[slot];
+        if (cached != null && dateKeys[slot] == key) {
+            return cached;
+        }
+        try {
+            LocalDate date = LocalDate.of(year, month, day);
+            dateKeys[slot] = key;
+            dateValues[slot] = date;
+            return date;
+        } catch (DateTimeException e) {
+            throw new DateTimeParseException(e.getMessage(), getString(index), 0, e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    // 1レコード分を chars に読み込む
+    private boolean readRecord() throws IOException {
+        int c = read();
+        if (c < 0) {
+            return false;
+        }
+        if (firstChar) {
+            firstChar = false;
+            if (c == '\uFEFF') { // BOM付きUTF-8は読み飛ばす
+                c = read();
+                if (c < 0) {
+                    return false;
+                }
+            }
+        }
+
+        lineNumber = lines + 1;
+        fieldCount = 0;
+        length = 0;
+        while (true) {
+            int start = length;
+            if (c == '"') {
+                // クォートされたフィールド（"" はエスケープされた " として扱う。閉じないままファイルが終わる場合は不正）
+                while (true) {
+                    c = read();
+                    if (c < 0) {
+                        throw new IllegalArgumentException("クォートが閉じられていません（" + lineNumber + "行目）。");
+                    }
+                    if (c == '\n') {
+                        lines++; // フィールド内の改行
+                    }
+                    if (c == '"') {
+                        c = read();
+                        if (c != '"') {
+                            break;
+                        }
+                    }
+                    append((char) c);
+                }
+                // 閉じクォートの後ろに余分な文字があれば、そのまま取り込む
+                while (c >= 0 && c != ',' && c != '\n' && c != '\r') {
+                    append((char) c);
+                    c = read();
+                }
+            } else {
+                while (c >= 0 && c != ',' && c != '\n' && c != '\r') {
+                    append((char) c);
+                    c = read();
+                }
+            }
+            addField(start, length);
+
+            if (c == ',') {
+                c = read();
+                continue;
+            }
+            if (c >= 0) {
+                lines++;
+            }
+            if (c == '\r') {
+                if (pos >= limit) {
+                    fill();
+                }
+                if (pos < limit && buf[pos] == '\n') {
+                    pos++;
+                }
+            }
+            return true;
+        }
+    }
+
+    private int read() throws IOException {
+        if (pos >= limit && !fill()) {
+            return -1;
+        }
+        return buf[pos++];
+    }
+
+    private boolean fill() throws IOException {
+        int n = in.read(buf, 0, buf.length);
+        while (n == 0) {
+            n = in.read(buf, 0, buf.length);
+        }
+        pos = 0;
+        limit = Math.max(n, 0);
+        return n > 0;
+    }
+
+    private void append(char c) {
+        if (length == chars.length) {
+            char[] grown = new char[chars.length * 2];
+            System.arraycopy(chars, 0, grown, 0, length);
+            chars = grown;
+        }
+        chars[length++] = c;
+    }
+
+    private void addField(int start, int end) {
+        if (fieldCount == starts.length) {
+            int[] grownStarts = new int[fieldCount * 2];
+            int[] grownEnds = new int[fieldCount * 2];
+            System.arraycopy(starts, 0, grownStarts, 0, fieldCount);
+            System.arraycopy(ends, 0, grownEnds, 0, fieldCount);
+            starts = grownStarts;
+            ends = grownEnds;
+        }
+        starts[fieldCount] = start;
+        ends[fieldCount] = end;
+        fieldCount++;
+    }
+
+    private int skipSpaces(int start, int end) {
+        while (start < end && chars[start] <= ' ') {
+            start++;
+        }
+        return start;
+    }
+
+    private int trimSpaces(int start, int end) {
+        while (end > start && chars[end - 1] <= ' ') {
+            end--;
+        }
+        return end;
+    }
+
+    private int digits(int start, int count, int index) {
+        int value = 0;
+        for (int i = start; i < start + count; i++) {
+            int digit = chars[i] - '0';
+            if (digit < 0 || digit > 9) {
+                throw new DateTimeParseException("日付の形式が不正です", getString(index), i - starts[index]);
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+}
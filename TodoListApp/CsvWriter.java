@@ -0,0 +1,152 @@
+package TodoListApp;
+
+import java.io.*;
+import java.time.LocalDate;
+
+// RFC 4180 形式のCSVを書き出すクラス
+// フィールドは内部バッファに直接書き込み、必要な場合のみクォートする
+public class CsvWriter implements Closeable, Flushable {
+    private static final int BUFFER_SIZE = 64 * 1024; // 書き込みバッファサイズ
+
+    private final Writer out;
+    private final char[] buf = new char[BUFFER_SIZE];
+    private int pos; // buf の使用量
+    private boolean firstField = true; // レコード先頭かどうか
+
+    public CsvWriter(Writer out) {
+        this.out = out;
+    }
+
+    // 文字列フィールドを書き込む（カンマ・改行・ダブルクォートを含む場合はクォート）
+    public CsvWriter field(String value) throws IOException {
+        separator();
+        if (value == null || value.isEmpty()) {
+            return this;
+        }
+        if (!needsQuote(value)) {
+            write(value);
+            return this;
+        }
+        put('"');
+        int length = value.length();
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                put('"');
+            }
+            put(c);
+        }
+        put('"');
+        return this;
+    }
+
+    // 真偽値フィールドを書き込む
+    public CsvWriter field(boolean value) throws IOException {
+        separator();
+        write(value ? "true" : "false");
+        return this;
+    }
+
+    // 整数フィールドを書き込む
+    public CsvWriter field(int value) throws IOException {
+        separator();
+        write(Integer.toString(value));
+        return this;
+    }
+
+    // 日付フィールドを yyyy-MM-dd 形式で書き込む（null は空欄）
+    public CsvWriter field(LocalDate date) throws IOException {
+        separator();
+        if (date == null) {
+            return this;
+        }
+        int year = date.getYear();
+        if (year < 0 || year > 9999) {
+            write(date.toString());
+            return this;
+        }
+        ensure(10);
+        buf[pos++] = (char) ('0' + year / 1000);
+        buf[pos++] = (char) ('0' + year / 100 % 10);
+        buf[pos++] = (char) ('0' + year / 10 % 10);
+        buf[pos++] = (char) ('0' + year % 10);
+        buf[pos++] = '-';
+        int month = date.getMonthValue();
+        buf[pos++] = (char) ('0' + month / 10);
+        buf[pos++] = (char) ('0' + month % 10);
+        buf[pos++] = '-';
+        int day = date.getDayOfMonth();
+        buf[pos++] = (char) ('0' + day / 10);
+        buf[pos++] = (char) ('0' + day % 10);
+        return this;
+    }
+
+    // レコードを終了する（改行を書き込む）
+    public void endRecord() throws IOException {
+        put('\n');
+        firstField = true;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        flushBuffer();
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        flushBuffer();
+        out.close();
+    }
+
+    private static boolean needsQuote(String value) {
+        int length = value.length();
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void separator() throws IOException {
+        if (firstField) {
+            firstField = false;
+        } else {
+            put(',');
+        }
+    }
+
+    private void put(char c) throws IOException {
+        if (pos == buf.length) {
+            flushBuffer();
+        }
+        buf[pos++] = c;
+    }
+
+    private void write(String s) throws IOException {
+        int length = s.length();
+        if (length > buf.length) {
+            flushBuffer();
+            out.write(s);
+            return;
+        }
+        ensure(length);
+        s.getChars(0, length, buf, pos);
+        pos += length;
+    }
+
+    private void ensure(int length) throws IOException {
+        if (buf.length - pos < length) {
+            flushBuffer();
+        }
+    }
+
+    private void flushBuffer() throws IOException {
+        if (pos > 0) {
+            out.write(buf, 0, pos);
+            pos = 0;
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package TodoListApp;
+
+// 描画時間の計測（システムプロパティ learningjourney.paintStats=true で起動したときだけ使う）
+// 1回の描画（フレーム）にかかった時間を集計し、1秒ごとに回数・平均・最大を標準出力に書き出す。
+// スクロール中も 1フレーム 16ms（60fps）に収まっているかを確かめるためのもの
+final class PaintMeter {
+    static final boolean ENABLED = Boolean.getBoolean("learningjourney.paintStats");
+    private static final long REPORT_INTERVAL_NANOS = 1_000_000_000L; // 書き出す間隔
+
+    private final String name; // 書き出すときの名前
+    private long windowStart = System.nanoTime(); // 集計を始めた時刻
+    private int frames; // 描画の回数
+    private long totalNanos; // 描画にかかった時間の合計
+    private long maxNanos; // 描画にかかった時間の最大
+
+    PaintMeter(String name) {
+        this.name = name;
+    }
+
+    // 1回の描画にかかった時間を記録する（EDTから呼ぶこと）
+    void record(long nanos) {
+        frames++;
+        totalNanos += nanos;
+        maxNanos = Math.max(maxNanos, nanos);
+        long now = System.nanoTime();
+        if (now - windowStart >= REPORT_INTERVAL_NANOS) {
+            System.out.printf("[描画] %s: %dフレーム 平均 %.2fms 最大 %.2fms%n", name, frames,
+                    totalNanos / 1e6 / frames, maxNanos / 1e6);
+            windowStart = now;
+            frames = 0;
+            totalNanos = 0;
+            maxNanos = 0;
+        }
+    }
+}
@@ -1,11 +1,19 @@
 package TodoListApp;
 
+import java.io.*;
 import java.time.*;
-import java.time.temporal.ChronoUnit;
 import java.util.*;
 
 // タスク情報を保持するクラス
 public class Task {
+    // CSVのヘッダー行とフィールド数（ID列がない旧形式のCSVも読み込める）
+    public static final String CSV_HEADER = "タイトル,内容,完了,期限日,登録日,更新日,優先度,期限切れ,ID";
+    public static final int CSV_FIELD_COUNT = 9;
+
+    static final int HIGH_PRIORITY_DAYS = 1; // 優先度が「高」になる残り日数
+    static final int MIDDLE_PRIORITY_DAYS = 7; // 優先度が「中」になる残り日数
+
+    int id; // タスクID（未採番の場合は0）
     String title; // タイトル
     String description; // 内容
     LocalDate dueDate; // 期限日
@@ -26,20 +34,67 @@ public class Task {
         updatePriorityAndOverdue();
     }
 
-    // 優先度と期限切れ状態を更新
+    public int getId() {
+        return id;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public LocalDate getDueDate() {
+        return dueDate;
+    }
+
+    public LocalDate getCreatedDate() {
+        return createdDate;
+    }
+
+    public boolean isDone() {
+        return isDone;
+    }
+
+    public String getPriority() {
+        return priority;
+    }
+
+    public boolean isOverdue() {
+        return isOverdue;
+    }
+
+    // 保存用のコピーを作成
+    Task copy() {
+        Task copy = new Task(title, description, isDone, dueDate, createdDate, updatedDate);
+        copy.id = id;
+        return copy;
+    }
+
+    // 優先度と期限切れ状態を更新（今日の日付は TaskClock から取得する）
     public void updatePriorityAndOverdue() {
-        LocalDate today = LocalDate.now();
-        long daysUntilDue = ChronoUnit.DAYS.between(today, dueDate);
-
-        if (daysUntilDue < 0) {
-            isOverdue = true;
-            priority = "高";
-        } else if (daysUntilDue <= 1) {
-            priority = "高";
-        } else if (daysUntilDue <= 7) {
-            priority = "中";
+        updatePriorityAndOverdue(TaskClock.todayEpochDay());
+    }
+
+    // 指定した日（エポック日）を今日として優先度と期限切れ状態を更新
+    void updatePriorityAndOverdue(long todayEpochDay) {
+        long daysUntilDue = dueDate.toEpochDay() - todayEpochDay;
+
+        isOverdue = daysUntilDue < 0;
+        priority = priorityFor(daysUntilDue);
+    }
+
+    // 期限日までの日数に対応する優先度
+    // 期限切れ・1日以内は高、7日以内は中、それ以外は低（この境界をまたいだタスクだけが日付の変化で変わる）
+    static String priorityFor(long daysUntilDue) {
+        if (daysUntilDue <= HIGH_PRIORITY_DAYS) {
+            return "高";
+        } else if (daysUntilDue <= MIDDLE_PRIORITY_DAYS) {
+            return "中";
         } else {
-            priority = "低";
+            return "低";
         }
     }
 
@@ -58,99 +113,119 @@ public class Task {
 
     // CSV形式に変換
     public String toCSV() {
-        return String.join(",",
-                title,
-                description,
-                Boolean.toString(isDone),
-                dueDate.toString(),
-                createdDate.toString(),
-                updatedDate != null ? updatedDate.toString() : "",
-                priority,
-                Boolean.toString(isOverdue));
+        StringWriter out = new StringWriter(128);
+        CsvWriter writer = new CsvWriter(out);
+        try {
+            writeCSV(writer);
+            writer.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // StringWriter への書き込みでは発生しない
+        }
+        return out.toString();
+    }
+
+    // CSVのヘッダー行を書き込む
+    public static void writeCSVHeader(CsvWriter writer) throws IOException {
+        for (String column : CSV_HEADER.split(",")) {
+            writer.field(column);
+        }
+        writer.endRecord();
+    }
+
+    // CSVの1レコードとして書き込む（改行は含まない）
+    public void writeCSV(CsvWriter writer) throws IOException {
+        writer.field(title)
+                .field(description)
+                .field(isDone)
+                .field(dueDate)
+                .field(createdDate)
+                .field(updatedDate)
+                .field(priority)
+                .field(isOverdue)
+                .field(id);
     }
 
-    // JSON形式に変換
+    // JSON形式に変換（JSON Lines の1行分。改行は含まない）
     public String toJson() {
-        return String.format(
-                "{\"title\":\"%s\",\"description\":\"%s\",\"dueDate\":\"%s\",\"isDone\":%s,\"createdDate\":\"%s\"}",
-                escape(title), escape(description), dueDate, isDone, createdDate);
+        return TaskJsonCodec.toJson(this);
     }
 
-    // JSON文字列からTaskオブジェクトに変換
+    // JSON文字列からTaskオブジェクトに変換（形式が不正な場合は IllegalArgumentException）
     public static Task fromJson(String jsonLine) {
-        Map<String, String> map = new HashMap<>();
-        jsonLine = jsonLine.trim().replaceAll("[{}\"]", "");
-        for (String pair : jsonLine.split(",")) {
-            String[] kv = pair.split(":", 2);
-            if (kv.length == 2)
-                map.put(kv[0].trim(), kv[1].trim());
-        }
-        return new Task(
-                unescape(map.get("title")),
-                unescape(map.get("description")),
-                Boolean.parseBoolean(map.get("isDone")),
-                LocalDate.parse(map.get("dueDate")),
-                LocalDate.parse(map.get("createdDate")),
-                LocalDate.parse(map.get("updatedDate")));
+        return TaskJsonCodec.fromJson(jsonLine);
     }
 
+    // CSV行からTaskオブジェクトに変換
     public static Task fromCSV(String csvLine) {
-        // CSV行の前後の余分なスペースをトリム
-        csvLine = csvLine.trim();
-
-        String csvString = (String) csvLine.replaceAll("\"", "");
-        // CSVの区切り文字で分割（ダブルクォーテーション内のカンマは無視する）
-        String[] fields = csvString.split(",");
-
-        // フィールド数が正しいか確認
-        if (fields.length != 8) {
-            System.err.println("CSVのフィールド数が不正です。予想されるフィールド数は8つですが、実際のフィールド数は " + fields.length + " です。");
-            for (int i = 0; i < fields.length; i++) {
-                System.out.println("フィールド[" + i + "]: " + fields[i]);
+        try (CsvReader reader = new CsvReader(new StringReader(csvLine))) {
+            if (!reader.next()) {
+                throw new IllegalArgumentException("CSV行が空です。");
             }
-            throw new IllegalArgumentException("CSVのフィールド数が不正です。予想されるフィールド数は5つです。");
+            return fromCSV(reader);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // StringReader からの読み込みでは発生しない
         }
-
-        // 各フィールドを適切にパース
-        String title = fields[0];
-        String description = fields[1];
-        boolean isDone = Boolean.parseBoolean(fields[2]); // 完了フラグ
-        LocalDate dueDate = LocalDate.parse(fields[3]); // 期限日
-        LocalDate createdDate = LocalDate.parse(fields[4]); // 登録日
-        LocalDate updatedDate = LocalDate.parse(fields[5]); // 更新日
-
-        return new Task(title, description, isDone, dueDate, createdDate, updatedDate);
     }
 
-    // JSONエスケープ
-    private static String escape(String s) {
-        return s.replace("\\", "\\\\").replace("\"", "\\\"");
+    // CsvReader の現在のレコードからTaskオブジェクトに変換
+    public static Task fromCSV(CsvReader reader) {
+        return fromCSV(reader, 0);
     }
 
-    // JSONアンエスケープ
-    private static String unescape(String s) {
-        return s.replace("\\\"", "\"").replace("\\\\", "\\");
+    // CsvReader の現在のレコードの offset 番目以降のフィールドからTaskオブジェクトに変換
+    static Task fromCSV(CsvReader reader, int offset) {
+        // フィールド数が正しいか確認（ID列は省略可能）
+        int fieldCount = reader.fieldCount() - offset;
+        if (fieldCount != CSV_FIELD_COUNT && fieldCount != CSV_FIELD_COUNT - 1) {
+            throw new IllegalArgumentException("CSVのフィールド数が不正です（" + reader.getLineNumber() + "行目）。予想されるフィールド数は"
+                    + CSV_FIELD_COUNT + "つですが、実際のフィールド数は " + fieldCount + " です。");
+        }
+
+        // 各フィールドを適切にパース（優先度・期限切れは読み込み時に再計算する）
+        String title = reader.getString(offset);
+        String description = reader.getString(offset + 1);
+        boolean isDone = reader.getBoolean(offset + 2); // 完了フラグ
+        LocalDate dueDate; // 期限日
+        LocalDate createdDate; // 登録日
+        LocalDate updatedDate; // 更新日
+        try {
+            dueDate = reader.getDate(offset + 3);
+            createdDate = reader.getDate(offset + 4);
+            updatedDate = reader.getDate(offset + 5);
+        } catch (DateTimeException e) {
+            throw new IllegalArgumentException("日付の形式が不正です（" + reader.getLineNumber() + "行目）: " + e.getMessage(), e);
+        }
+
+        if (dueDate == null || createdDate == null) {
+            throw new IllegalArgumentException("期限日と登録日は必須です（" + reader.getLineNumber() + "行目）。");
+        }
+        Task task = new Task(title, description, isDone, dueDate, createdDate, updatedDate);
+        if (fieldCount == CSV_FIELD_COUNT && !reader.isEmpty(offset + 8)) {
+            task.id = reader.getInt(offset + 8);
+        }
+        return task;
     }
 
-    // テキストファイル用にデータを文字列に変換
+    // テキストファイル用にデータを文字列に変換（更新日が未設定の場合は空にする）
     public String toDataString() {
         return String.join("|",
                 title,
                 description,
                 dueDate.toString(),
                 Boolean.toString(isDone),
-                createdDate.toString());
+                createdDate.toString(),
+                updatedDate == null ? "" : updatedDate.toString());
     }
 
-    // テキストデータからTaskオブジェクトに変換
+    // テキストデータからTaskオブジェクトに変換（更新日のない以前の形式も読み込める）
     public static Task fromDataString(String data) {
-        String[] parts = data.split("\\|");
+        String[] parts = data.split("\\|", -1);
         return new Task(
                 parts[0],
                 parts[1],
                 Boolean.parseBoolean(parts[3]),
                 LocalDate.parse(parts[2]),
                 LocalDate.parse(parts[4]),
-                LocalDate.parse(parts[5]));
+                parts.length > 5 && !parts[5].isEmpty() ? LocalDate.parse(parts[5]) : null);
     }
 }
\ No newline at end of file
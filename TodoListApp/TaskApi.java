@@ -0,0 +1,402 @@
+package TodoListApp;
+
+import javax.swing.*;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// 画面以外（HTTP API など）のスレッドからタスクを読み書きするための窓口
+// 読み込みは EDT で作ったスナップショット（タスクのコピーの配列）から行い、EDT も TaskStore も待たない。
+// スナップショットは TaskStore の変更の通知で差分を反映し、変更のあと EDT で1回だけ公開する。
+// 書き込みはキューに入れ、EDT でまとめて TaskStore と TaskRepository に反映してから結果を返す
+// （反映後のスナップショットを公開してから完了するため、書き込みの結果はすぐに読み込める）。
+// TaskStore の読み込みが終わってから EDT で作成すること
+//
+// 計算量（n はタスク数）: コピーの一覧は配列リストのため、行の追加・削除は O(n) の要素の移動になり、
+// 公開は変更のあった EDT の処理1回につき1回の O(n) の配列のコピーになる（100万件でそれぞれ数ms 程度）。
+// 一覧の検索は、条件が期限日の範囲だけなら二分探索で O(log n + limit)。完了状態・優先度・期限切れの条件は、
+// スナップショットごとに最初の検索で条件ごとの配列を O(n) で作り、以後は TaskStore と同じく、期限日の範囲内の件数が
+// 最も少ない配列だけを走査する（条件が1つなら O(log n + limit)）
+public class TaskApi implements TaskStore.Listener {
+    private final TaskStore store;
+    private final TaskRepository repository;
+    private final List<Task> rows = new ArrayList<>(); // TaskStore と同じ順のタスクのコピー（EDT のみ）
+    private final Map<Integer, Task> byId = new ConcurrentHashMap<>(); // ID → タスクのコピー
+    private final Queue<PendingWrite> writes = new ConcurrentLinkedQueue<>(); // EDT で反映する書き込み
+    private final AtomicBoolean drainQueued = new AtomicBoolean(); // 書き込みの反映を登録済みかどうか
+    private boolean publishQueued; // スナップショットの公開を登録済みかどうか（EDT のみ）
+    private volatile Snapshot snapshot;
+
+    public TaskApi(TaskStore store, TaskRepository repository) {
+        this.store = store;
+        this.repository = repository;
+        store.addListener(this);
+        tasksChanged();
+        publish();
+    }
+
+    // 最新のスナップショット（どのスレッドから呼んでもよい）
+    public Snapshot snapshot() {
+        return snapshot;
+    }
+
+    // IDからタスクのコピーを取得する（見つからない場合は null。スナップショットより新しい場合がある）
+    public Task findById(int id) {
+        return byId.get(id);
+    }
+
+    // タスクを追加する（タイトルと期限日は必須。完了したら追加したタスクのコピーを返す）
+    public CompletableFuture<Task> add(TaskChange change) {
+        if (change.title == null || change.title.trim().isEmpty() || change.dueDate == null) {
+            throw new IllegalArgumentException("タイトルと期限日は必須です。");
+        }
+        return submit(() -> {
+            LocalDate today = TaskClock.today();
+            Task task = new Task(change.title.trim(), change.description == null ? "" : change.description.trim(),
+                    change.done != null && change.done, change.dueDate, today, today);
+            repository.added(task); // IDを採番する
+            store.add(task);
+            return byId.get(task.id);
+        });
+    }
+
+    // タスクを変更する（指定した項目だけを変え、更新日を今日にする。タスクがない場合は NoSuchElementException）
+    public CompletableFuture<Task> update(int id, TaskChange change) {
+        if (change.title != null && change.title.trim().isEmpty()) {
+            throw new IllegalArgumentException("タイトルは空にできません。");
+        }
+        return submit(() -> {
+            Task task = find(id);
+            store.update(task, t -> {
+                if (change.title != null) {
+                    t.title = change.title.trim();
+                }
+                if (change.description != null) {
+                    t.description = change.description.trim();
+                }
+                if (change.dueDate != null) {
+                    t.dueDate = change.dueDate;
+                }
+                if (change.done != null) {
+                    t.isDone = change.done;
+                }
+                t.updatedDate = TaskClock.today();
+            });
+            repository.updated(task);
+            return byId.get(id);
+        });
+    }
+
+    // タスクを削除する（タスクがない場合は NoSuchElementException。完了したら削除したタスクのコピーを返す）
+    public CompletableFuture<Task> delete(int id) {
+        return submit(() -> {
+            Task task = find(id);
+            Task copy = byId.get(id);
+            store.remove(task);
+            repository.deleted(task);
+            return copy;
+        });
+    }
+
+    private Task find(int id) {
+        Task task = store.findById(id);
+        if (task == null) {
+            throw new NoSuchElementException("タスクが見つかりません: " + id);
+        }
+        return task;
+    }
+
+    // 書き込みをキューに入れ、EDT での反映を登録する（登録済みの場合は、その反映でまとめて行う）
+    private CompletableFuture<Task> submit(Write write) {
+        PendingWrite pending = new PendingWrite(write);
+        writes.add(pending);
+        if (drainQueued.compareAndSet(false, true)) {
+            SwingUtilities.invokeLater(this::drain);
+        }
+        return pending.result;
+    }
+
+    // EDT で TaskStore と TaskRepository に反映する書き込み（結果のタスクのコピーを返す）
+    private interface Write {
+        Task apply();
+    }
+
+    private static final class PendingWrite {
+        final Write write;
+        final CompletableFuture<Task> result = new CompletableFuture<>();
+        Task task; // 反映した結果
+        RuntimeException error; // 反映に失敗した場合の例外
+
+        PendingWrite(Write write) {
+            this.write = write;
+        }
+    }
+
+    // キューの書き込みをまとめて反映し、スナップショットを公開してから結果を返す
+    private void drain() {
+        drainQueued.set(false);
+        List<PendingWrite> batch = new ArrayList<>();
+        PendingWrite pending;
+        while ((pending = writes.poll()) != null) {
+            try {
+                pending.task = pending.write.apply();
+            } catch (RuntimeException e) {
+                pending.error = e;
+            }
+            batch.add(pending);
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+        repository.compactIfNeeded();
+        publish();
+        for (PendingWrite done : batch) {
+            if (done.error != null) {
+                done.result.completeExceptionally(done.error);
+            } else {
+                done.result.complete(done.task);
+            }
+        }
+    }
+
+    @Override
+    public void tasksChanged() {
+        rows.clear();
+        byId.clear();
+        for (Task task : store) {
+            Task copy = task.copy();
+            rows.add(copy);
+            byId.put(copy.id, copy);
+        }
+        queuePublish();
+    }
+
+    @Override
+    public void taskInserted(int row, Task task) {
+        Task copy = task.copy();
+        rows.add(row, copy);
+        byId.put(copy.id, copy);
+        queuePublish();
+    }
+
+    @Override
+    public void taskDeleted(int row, Task task) {
+        rows.remove(row);
+        byId.remove(task.id);
+        queuePublish();
+    }
+
+    @Override
+    public void taskUpdated(int oldRow, int newRow, Task task) {
+        Task copy = task.copy();
+        if (oldRow == newRow) {
+            rows.set(newRow, copy);
+        } else {
+            rows.remove(oldRow);
+            rows.add(newRow, copy);
+        }
+        byId.put(copy.id, copy);
+        queuePublish();
+    }
+
+    // 画面からの変更は、続けて起きた変更をまとめて1回だけ公開する
+    private void queuePublish() {
+        if (!publishQueued) {
+            publishQueued = true;
+            SwingUtilities.invokeLater(() -> {
+                if (publishQueued) {
+                    publish();
+                }
+            });
+        }
+    }
+
+    private void publish() {
+        publishQueued = false;
+        snapshot = new Snapshot(rows.toArray(new Task[0]));
+    }
+
+    // タスクの追加・変更の内容（指定しなかった項目は変えない）
+    public static final class TaskChange {
+        String title; // タイトル
+        String description; // 内容
+        LocalDate dueDate; // 期限日
+        Boolean done; // 完了状態
+
+        public TaskChange title(String title) {
+            this.title = title;
+            return this;
+        }
+
+        public TaskChange description(String description) {
+            this.description = description;
+            return this;
+        }
+
+        public TaskChange dueDate(LocalDate dueDate) {
+            this.dueDate = dueDate;
+            return this;
+        }
+
+        public TaskChange done(boolean done) {
+            this.done = done;
+            return this;
+        }
+    }
+
+    // ある時点のタスク一覧（期限日順。変更されないため、どのスレッドから読んでもよい）
+    public static final class Snapshot {
+        private final Task[] tasks; // すべてのタスク（期限日順）
+        private volatile Indexes indexes; // 条件ごとの配列（最初に条件付きで検索したときに作成する）
+
+        Snapshot(Task[] tasks) {
+            this.tasks = tasks;
+        }
+
+        public int size() {
+            return tasks.length;
+        }
+
+        // 条件に合うタスクのうち offset 件目から最大 limit 件を out に追加し、条件に合うタスクの件数を返す
+        public int query(TaskQuery query, int offset, int limit, List<Task> out) {
+            Task[] candidates = select(query);
+            int[] range = dueRange(candidates, query.dueFrom, query.dueTo);
+            if (isExact(candidates, query)) {
+                // 配列と期限日の範囲だけで条件が決まる場合は、範囲から直接取り出す
+                int total = range[1] - range[0];
+                for (int i = range[0] + Math.min(offset, total); i < range[1] && out.size() < limit; i++) {
+                    out.add(candidates[i]);
+                }
+                return total;
+            }
+            int total = 0;
+            for (int i = range[0]; i < range[1]; i++) {
+                Task task = candidates[i];
+                if (query.matches(task)) {
+                    if (total >= offset && total - offset < limit) {
+                        out.add(task);
+                    }
+                    total++;
+                }
+            }
+            return total;
+        }
+
+        // 指定された条件に対応する配列のうち、期限日の範囲内の件数が最も少ないもの
+        private Task[] select(TaskQuery query) {
+            if (query.done == null && query.priority == null && !Boolean.TRUE.equals(query.overdue)) {
+                return tasks;
+            }
+            Indexes index = indexes();
+            List<Task[]> candidates = new ArrayList<>(4);
+            candidates.add(tasks);
+            if (query.done != null) {
+                candidates.add(query.done ? index.done : index.undone);
+            }
+            if (query.priority != null) {
+                candidates.add(index.byPriority.getOrDefault(query.priority, new Task[0]));
+            }
+            if (Boolean.TRUE.equals(query.overdue)) {
+                candidates.add(index.overdue);
+            }
+            Task[] best = tasks;
+            int bestCount = Integer.MAX_VALUE;
+            for (Task[] candidate : candidates) {
+                int[] range = dueRange(candidate, query.dueFrom, query.dueTo);
+                if (range[1] - range[0] < bestCount) {
+                    best = candidate;
+                    bestCount = range[1] - range[0];
+                }
+            }
+            return best;
+        }
+
+        // candidates の期限日の範囲内のタスクが、すべて条件に合うかどうか
+        private boolean isExact(Task[] candidates, TaskQuery query) {
+            int conditions = (query.done != null ? 1 : 0) + (query.priority != null ? 1 : 0)
+                    + (query.overdue != null ? 1 : 0);
+            if (conditions == 0) {
+                return candidates == tasks;
+            }
+            if (conditions > 1 || candidates == tasks) {
+                return false;
+            }
+            Indexes index = indexes;
+            return (query.done != null && candidates == (query.done ? index.done : index.undone))
+                    || (query.priority != null && candidates == index.byPriority.get(query.priority))
+                    || (Boolean.TRUE.equals(query.overdue) && candidates == index.overdue);
+        }
+
+        // 別々のスレッドが同時に作成した場合は、どちらかを使う（内容は同じ）
+        private Indexes indexes() {
+            Indexes index = indexes;
+            if (index == null) {
+                index = new Indexes(tasks);
+                indexes = index;
+            }
+            return index;
+        }
+
+        // 期限日が from 以上 to 以下の位置の範囲 [開始, 終了)
+        private static int[] dueRange(Task[] tasks, LocalDate from, LocalDate to) {
+            int start = from == null ? 0 : countBefore(tasks, from, false);
+            int end = to == null ? tasks.length : countBefore(tasks, to, true);
+            return new int[] { start, Math.max(start, end) };
+        }
+
+        // 期限日が date より前（inclusive なら date 以前）のタスクの数（期限日順のため二分探索する）
+        private static int countBefore(Task[] tasks, LocalDate date, boolean inclusive) {
+            int low = 0;
+            int high = tasks.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                int cmp = tasks[mid].dueDate.compareTo(date);
+                if (cmp < 0 || (inclusive && cmp == 0)) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+    }
+
+    // スナップショットの条件ごとの配列（すべて期限日順）
+    private static final class Indexes {
+        final Task[] undone; // 未完了のタスク
+        final Task[] done; // 完了済みのタスク
+        final Task[] overdue; // 期限切れのタスク
+        final Map<String, Task[]> byPriority = new HashMap<>(); // 優先度ごとのタスク
+
+        Indexes(Task[] tasks) {
+            List<Task> undoneTasks = new ArrayList<>();
+            List<Task> doneTasks = new ArrayList<>();
+            List<Task> overdueTasks = new ArrayList<>();
+            Map<String, List<Task>> priorityTasks = new HashMap<>();
+            for (String priority : TaskStore.PRIORITIES) {
+                priorityTasks.put(priority, new ArrayList<>());
+            }
+            for (Task task : tasks) {
+                (task.isDone ? doneTasks : undoneTasks).add(task);
+                if (task.isOverdue) {
+                    overdueTasks.add(task);
+                }
+                priorityTasks.computeIfAbsent(task.priority, p -> new ArrayList<>()).add(task);
+            }
+            undone = undoneTasks.toArray(new Task[0]);
+            done = doneTasks.toArray(new Task[0]);
+            overdue = overdueTasks.toArray(new Task[0]);
+            for (Map.Entry<String, List<Task>> entry : priorityTasks.entrySet()) {
+                byPriority.put(entry.getKey(), entry.getValue().toArray(new Task[0]));
+            }
+        }
+    }
+}
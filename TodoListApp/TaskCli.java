@@ -0,0 +1,363 @@
+package TodoListApp;
+
+import Storage.PersistenceService;
+
+import java.io.*;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+// 画面を使わずにタスクを一括処理するコマンド（取り込み・書き出し・検索・一括完了・コンパクション）
+// TaskManager と同じ TaskRepository で保存し、Swing・AWT のクラスは読み込まない。
+// タスクは TaskRepository.forEach で1件ずつ流し、入出力もストリーミングで行うため、データが大きくてもメモリ使用量は一定。
+// 一括の追加・変更はジャーナルに書かず、TaskRepository.rewrite でスナップショットを1回書き直す。
+// 拡張子が .jsonl / .ndjson のファイルは JSON Lines（TaskJsonCodec）として読み書きし、取り込みは複数スレッドで解析する
+//
+// 実行例:
+//   java TodoListApp.TaskCli import tasks.csv
+//   java TodoListApp.TaskCli export - --done=false --due-to=2025-12-31
+//   java TodoListApp.TaskCli export tasks.jsonl
+//   java TodoListApp.TaskCli export - --format=jsonl --overdue
+//   java TodoListApp.TaskCli query --overdue
+//   java TodoListApp.TaskCli complete --due-to=2024-12-31
+//   java TodoListApp.TaskCli --dir=./TodoListApp/Data/ --name=sample compact
+public final class TaskCli {
+    private static final String DEFAULT_DIRECTORY = "./TodoListApp/Data/"; // TaskManager と同じ保存先
+    private static final String DEFAULT_NAME = "sample";
+    private static final int MAX_ERROR_MESSAGES = 10; // 表示する取り込みエラーの最大数
+
+    private static final String USAGE = String.join(System.lineSeparator(),
+            "使い方: java TodoListApp.TaskCli [--dir=ディレクトリ] [--name=ファイル名] <コマンド> [引数] [条件]",
+            "  import <ファイル>           CSVまたはJSON Lines（.jsonl, .ndjson）のタスクを追加する（CSVの1行目はカラム行）",
+            "  export <ファイル | ->       条件に合うタスクを書き出す（- は標準出力。--format=csv|jsonl、省略時は拡張子で判断）",
+            "  query [--count]             条件に合うタスクを表示する（--count は件数のみ）",
+            "  complete <条件 | --all>     条件に合う未完了のタスクを完了にする",
+            "  compact                     ジャーナルをスナップショットに書き戻す",
+            "条件: --done=true|false --priority=高|中|低 --overdue[=true|false] --due-from=yyyy-MM-dd --due-to=yyyy-MM-dd");
+
+    private final TaskRepository repository;
+    private final TaskQuery query = new TaskQuery();
+    private boolean filtered; // 条件を指定したかどうか
+    private boolean all; // --all（complete で条件なしを許可する）
+    private boolean countOnly; // --count
+    private String format; // --format（省略時は null）
+    private volatile boolean writeFailed; // 書き込みスレッドで書き込みに失敗したかどうか
+
+    private TaskCli(TaskRepository repository) {
+        this.repository = repository;
+    }
+
+    public static void main(String[] args) {
+        String directory = DEFAULT_DIRECTORY;
+        String name = DEFAULT_NAME;
+        List<String> rest = new ArrayList<>();
+        for (String arg : args) {
+            if (arg.startsWith("--dir=")) {
+                directory = arg.substring("--dir=".length());
+            } else if (arg.startsWith("--name=")) {
+                name = arg.substring("--name=".length());
+            } else {
+                rest.add(arg);
+            }
+        }
+        if (rest.isEmpty()) {
+            System.err.println(USAGE);
+            System.exit(2);
+        }
+
+        PersistenceService service = PersistenceService.getDefault();
+        TaskCli cli = new TaskCli(new TaskRepository(Paths.get(directory), name, service));
+        service.setErrorHandler((key, e) -> {
+            cli.writeFailed = true;
+            System.err.println("ファイルの書き込みに失敗しました（" + key + "）: " + e.getMessage());
+        });
+        int status;
+        try {
+            status = cli.run(rest.get(0), rest.subList(1, rest.size()));
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(USAGE);
+            status = 2;
+        } catch (IOException | UncheckedIOException e) {
+            System.err.println("処理に失敗しました: " + e.getMessage());
+            status = 1;
+        }
+        System.exit(cli.writeFailed ? 1 : status);
+    }
+
+    // コマンドを実行して終了コードを返す（引数が不正な場合は IllegalArgumentException）
+    private int run(String command, List<String> args) throws IOException {
+        List<String> operands = parseOptions(args);
+        long start = System.nanoTime();
+        repository.open();
+        try {
+            switch (command) {
+                case "import":
+                    requireOperands(command, operands, 1);
+                    Path file = Paths.get(operands.get(0));
+                    if (isJsonLines(file.toString())) {
+                        importJsonLines(file);
+                    } else {
+                        importCsv(file);
+                    }
+                    break;
+                case "export":
+                    requireOperands(command, operands, 1);
+                    String target = operands.get(0);
+                    if (format == null ? isJsonLines(target) : format.equals("jsonl")) {
+                        exportJsonLines(target);
+                    } else {
+                        export(target);
+                    }
+                    break;
+                case "query":
+                    requireOperands(command, operands, 0);
+                    query();
+                    break;
+                case "complete":
+                    requireOperands(command, operands, 0);
+                    if (!filtered && !all) {
+                        throw new IllegalArgumentException("complete には条件を指定してください（すべてのタスクを完了にする場合は --all）");
+                    }
+                    complete();
+                    break;
+                case "compact":
+                    requireOperands(command, operands, 0);
+                    repository.compact();
+                    break;
+                default:
+                    throw new IllegalArgumentException("不明なコマンドです: " + command);
+            }
+        } finally {
+            repository.close();
+        }
+        System.err.printf("%s: %.1f ms%n", command, (System.nanoTime() - start) / 1e6);
+        return 0;
+    }
+
+    // 条件のオプションを読み取り、残りの引数を返す
+    private List<String> parseOptions(List<String> args) {
+        List<String> operands = new ArrayList<>();
+        try {
+            for (String arg : args) {
+                if (arg.startsWith("--done=")) {
+                    query.done(parseBoolean(arg, "--done="));
+                } else if (arg.startsWith("--priority=")) {
+                    query.priority(arg.substring("--priority=".length()));
+                } else if (arg.equals("--overdue")) {
+                    query.overdue(true);
+                } else if (arg.startsWith("--overdue=")) {
+                    query.overdue(parseBoolean(arg, "--overdue="));
+                } else if (arg.startsWith("--due-from=")) {
+                    query.dueBetween(LocalDate.parse(arg.substring("--due-from=".length())), query.dueTo);
+                } else if (arg.startsWith("--due-to=")) {
+                    query.dueBetween(query.dueFrom, LocalDate.parse(arg.substring("--due-to=".length())));
+                } else if (arg.equals("--all")) {
+                    all = true;
+                    continue;
+                } else if (arg.equals("--count")) {
+                    countOnly = true;
+                    continue;
+                } else if (arg.startsWith("--format=")) {
+                    format = arg.substring("--format=".length());
+                    if (!format.equals("csv") && !format.equals("jsonl")) {
+                        throw new IllegalArgumentException("csv か jsonl を指定してください: " + arg);
+                    }
+                    continue;
+                } else if (arg.startsWith("--") && arg.length() > 2) {
+                    throw new IllegalArgumentException("不明なオプションです: " + arg);
+                } else {
+                    operands.add(arg);
+                    continue;
+                }
+                filtered = true;
+            }
+        } catch (DateTimeException e) {
+            throw new IllegalArgumentException("日付の形式が不正です（yyyy-MM-dd）: " + e.getMessage(), e);
+        }
+        return operands;
+    }
+
+    private static boolean parseBoolean(String arg, String prefix) {
+        String value = arg.substring(prefix.length());
+        if (!value.equals("true") && !value.equals("false")) {
+            throw new IllegalArgumentException("true か false を指定してください: " + arg);
+        }
+        return Boolean.parseBoolean(value);
+    }
+
+    // JSON Lines のファイル名かどうか（拡張子で判断する）
+    private static boolean isJsonLines(String fileName) {
+        String lower = fileName.toLowerCase();
+        return lower.endsWith(".jsonl") || lower.endsWith(".ndjson");
+    }
+
+    private static void requireOperands(String command, List<String> operands, int count) {
+        if (operands.size() != count) {
+            throw new IllegalArgumentException(command + " の引数の数が不正です: " + operands);
+        }
+    }
+
+    // CSVのタスクを1行ずつ読み、保存されているタスクのあとに追加してスナップショットを書き直す（読み込めない行は飛ばす）
+    private void importCsv(Path file) throws IOException {
+        try (CsvReader reader = CsvReader.open(file.toFile())) {
+            reader.next(); // 最初の行（カラム行）はスキップ
+            CsvTasks tasks = new CsvTasks(reader);
+            repository.rewrite(task -> {
+            }, tasks);
+            System.err.printf("%,d 件を追加しました（読み込めなかった行: %,d 行）%n", tasks.count, tasks.errors);
+        }
+    }
+
+    // JSON Lines のタスクを複数スレッドで解析し、ファイルの順に保存されているタスクのあとに追加する（読み込めない行は飛ばす）
+    private void importJsonLines(Path file) throws IOException {
+        try (TaskJsonCodec.Reader reader = new TaskJsonCodec.Reader(file, Runtime.getRuntime().availableProcessors())) {
+            long[] count = new long[1];
+            repository.rewrite(task -> {
+            }, new Iterator<Task>() {
+                @Override
+                public boolean hasNext() {
+                    return reader.hasNext();
+                }
+
+                @Override
+                public Task next() {
+                    count[0]++;
+                    return reader.next();
+                }
+            });
+            for (String message : reader.getErrorMessages()) {
+                System.err.println(message);
+            }
+            System.err.printf("%,d 件を追加しました（読み込めなかった行: %,d 行）%n", count[0], reader.getErrorCount());
+        }
+    }
+
+    // 条件に合うタスクを JSON Lines で書き出す（"-" の場合は標準出力）
+    private void exportJsonLines(String target) throws IOException {
+        WritableByteChannel channel = target.equals("-")
+                ? Channels.newChannel(new FileOutputStream(FileDescriptor.out))
+                : FileChannel.open(Paths.get(target), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                        StandardOpenOption.TRUNCATE_EXISTING);
+        long[] count = new long[1];
+        try (TaskJsonCodec.Writer writer = new TaskJsonCodec.Writer(channel)) {
+            repository.forEach(task -> {
+                if (query.matches(task)) {
+                    try {
+                        writer.write(task);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                    count[0]++;
+                }
+            });
+        }
+        System.err.printf("%,d 件を書き出しました%n", count[0]);
+    }
+
+    // 条件に合うタスクをCSVに書き出す（"-" の場合は標準出力）
+    private void export(String target) throws IOException {
+        Writer out = target.equals("-")
+                ? new OutputStreamWriter(new FileOutputStream(FileDescriptor.out), StandardCharsets.UTF_8)
+                : Files.newBufferedWriter(Paths.get(target), StandardCharsets.UTF_8);
+        long[] count = new long[1];
+        try (CsvWriter writer = new CsvWriter(out)) {
+            Task.writeCSVHeader(writer);
+            repository.forEach(task -> {
+                if (query.matches(task)) {
+                    try {
+                        task.writeCSV(writer);
+                        writer.endRecord();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                    count[0]++;
+                }
+            });
+        }
+        System.err.printf("%,d 件を書き出しました%n", count[0]);
+    }
+
+    // 条件に合うタスクを1行ずつ表示する（--count の場合は件数だけ）
+    private void query() throws IOException {
+        PrintWriter out = new PrintWriter(new BufferedWriter(
+                new OutputStreamWriter(new FileOutputStream(FileDescriptor.out), StandardCharsets.UTF_8), 64 * 1024));
+        long[] count = new long[1];
+        repository.forEach(task -> {
+            if (query.matches(task)) {
+                if (!countOnly) {
+                    out.println(task.id + "\t" + task);
+                }
+                count[0]++;
+            }
+        });
+        if (countOnly) {
+            out.println(count[0]);
+        }
+        out.flush();
+    }
+
+    // 条件に合う未完了のタスクを完了にする（更新日は今日）
+    private void complete() throws IOException {
+        LocalDate today = TaskClock.today();
+        long[] count = new long[1];
+        repository.rewrite(task -> {
+            if (!task.isDone && query.matches(task)) {
+                task.isDone = true;
+                task.updatedDate = today;
+                count[0]++;
+            }
+        }, Collections.emptyIterator());
+        System.err.printf("%,d 件を完了にしました%n", count[0]);
+    }
+
+    // CSVのレコードを1件ずつタスクにする（読み込めないレコードはエラーを表示して飛ばす）
+    private static class CsvTasks implements Iterator<Task> {
+        private final CsvReader reader;
+        private Task next; // 次に返すタスク（未読み込みの場合は null）
+        long count; // 返したタスクの数
+        long errors; // 読み込めなかったレコードの数
+
+        CsvTasks(CsvReader reader) {
+            this.reader = reader;
+        }
+
+        @Override
+        public boolean hasNext() {
+            try {
+                while (next == null && reader.next()) {
+                    try {
+                        next = Task.fromCSV(reader);
+                    } catch (IllegalArgumentException e) {
+                        if (++errors <= MAX_ERROR_MESSAGES) {
+                            System.err.println(e.getMessage());
+                        }
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return next != null;
+        }
+
+        @Override
+        public Task next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Task task = next;
+            next = null;
+            count++;
+            return task;
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package TodoListApp;
+
+import javax.swing.*;
+import java.time.*;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// アプリ全体で共有する「今日」の日付
+// 日付は日付が変わったときだけ更新し、変更をリスナーに通知する（通知はEDTで行う）
+public final class TaskClock {
+    private static final long MAX_CHECK_INTERVAL_MILLIS = 60_000; // スリープ復帰などに備えた最大の確認間隔
+
+    private static volatile LocalDate today = LocalDate.now();
+    private static final List<DayChangeListener> listeners = new CopyOnWriteArrayList<>();
+    private static ScheduledExecutorService scheduler; // 日付の変化を確認するスレッド
+
+    private TaskClock() {
+    }
+
+    // 日付が変わったことを受け取るリスナー
+    public interface DayChangeListener {
+        void dayChanged(LocalDate oldDay, LocalDate newDay);
+    }
+
+    // 今日の日付
+    public static LocalDate today() {
+        return today;
+    }
+
+    // 今日の日付（エポック日）
+    public static long todayEpochDay() {
+        return today.toEpochDay();
+    }
+
+    // 日付が変わったときの通知を登録する（初回登録時に確認用のスレッドを開始する）
+    public static synchronized void addDayChangeListener(DayChangeListener listener) {
+        listeners.add(listener);
+        if (scheduler == null) {
+            scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "task-clock");
+                thread.setDaemon(true);
+                return thread;
+            });
+            scheduleNextCheck();
+        }
+    }
+
+    public static void removeDayChangeListener(DayChangeListener listener) {
+        listeners.remove(listener);
+    }
+
+    // 次の0時（ただし最大1分後）に日付を確認する
+    private static void scheduleNextCheck() {
+        ZonedDateTime now = ZonedDateTime.now();
+        ZonedDateTime nextMidnight = now.toLocalDate().plusDays(1).atStartOfDay(now.getZone());
+        long delay = Math.min(Duration.between(now, nextMidnight).toMillis() + 1, MAX_CHECK_INTERVAL_MILLIS);
+        scheduler.schedule(TaskClock::checkDayChange, Math.max(delay, 1), TimeUnit.MILLISECONDS);
+    }
+
+    private static void checkDayChange() {
+        try {
+            LocalDate oldDay = today;
+            LocalDate newDay = LocalDate.now();
+            if (!newDay.equals(oldDay)) {
+                today = newDay;
+                SwingUtilities.invokeLater(() -> {
+                    for (DayChangeListener listener : listeners) {
+                        listener.dayChanged(oldDay, newDay);
+                    }
+                });
+            }
+        } finally {
+            scheduleNextCheck();
+        }
+    }
+}
@@ -0,0 +1,217 @@
+package TodoListApp;
+
+import javax.swing.*;
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// CSVファイルをバックグラウンドで分割し、複数スレッドで並列に読み込むクラス
+// 結果は done() でEDT上からまとめて取り出す
+public class TaskImporter extends SwingWorker<List<Task>, Void> {
+    private static final long CHUNK_SIZE = 8L * 1024 * 1024; // 1チャンクのおおよそのサイズ
+    private static final int MAX_ERROR_MESSAGES = 10; // 保持するエラーメッセージの最大数
+    private static final int CANCEL_CHECK_INTERVAL = 4096; // キャンセル確認の間隔（行数）
+
+    private final File file;
+    private final AtomicLong processedBytes = new AtomicLong(); // 読み込み済みバイト数
+    private final AtomicInteger errorCount = new AtomicInteger(); // 読み込めなかった行数
+    private final List<String> errorMessages = Collections.synchronizedList(new ArrayList<>());
+
+    public TaskImporter(File file) {
+        this.file = file;
+    }
+
+    // 読み込めなかった行数
+    public int getErrorCount() {
+        return errorCount.get();
+    }
+
+    // 読み込めなかった行のエラーメッセージ（先頭の数件のみ）
+    public List<String> getErrorMessages() {
+        synchronized (errorMessages) {
+            return new ArrayList<>(errorMessages);
+        }
+    }
+
+    @Override
+    protected List<Task> doInBackground() throws Exception {
+        int threads = Runtime.getRuntime().availableProcessors();
+        ExecutorService executor = Executors.newFixedThreadPool(threads, r -> {
+            Thread thread = new Thread(r, "task-import");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            int chunkCount = (int) Math.max(1, (size + CHUNK_SIZE - 1) / CHUNK_SIZE);
+
+            // 1. 各チャンクのダブルクォートと改行の数を並列に数える
+            List<Future<long[]>> counts = new ArrayList<>();
+            for (int i = 0; i < chunkCount; i++) {
+                long start = i * CHUNK_SIZE;
+                long end = Math.min(size, start + CHUNK_SIZE);
+                counts.add(executor.submit(() -> countQuotesAndLines(channel, start, end)));
+            }
+
+            // 2. クォートの外にある改行をチャンクの境界にする
+            long[] boundaries = new long[chunkCount + 1];
+            long[] lineOffsets = new long[chunkCount + 1];
+            boolean inQuote = false;
+            long lines = 0;
+            for (int i = 0; i < chunkCount; i++) {
+                long[] count = counts.get(i).get();
+                if (i > 0) {
+                    long[] boundary = findRecordStart(channel, i * CHUNK_SIZE, size, inQuote);
+                    boundaries[i] = Math.max(boundary[0], boundaries[i - 1]);
+                    lineOffsets[i] = lines + boundary[1];
+                }
+                inQuote ^= (count[0] & 1) == 1;
+                lines += count[1];
+            }
+            boundaries[chunkCount] = size;
+
+            // 3. 各チャンクを並列にパースする
+            List<Future<List<Task>>> parts = new ArrayList<>();
+            for (int i = 0; i < chunkCount; i++) {
+                long start = boundaries[i];
+                long end = boundaries[i + 1];
+                long lineOffset = lineOffsets[i];
+                boolean skipHeader = i == 0;
+                parts.add(executor.submit(() -> parseChunk(channel, start, end, lineOffset, skipHeader, size)));
+            }
+
+            List<List<Task>> results = new ArrayList<>(chunkCount);
+            int total = 0;
+            for (Future<List<Task>> part : parts) {
+                List<Task> tasks = part.get();
+                results.add(tasks);
+                total += tasks.size();
+            }
+
+            List<Task> merged = new ArrayList<>(total);
+            for (List<Task> tasks : results) {
+                merged.addAll(tasks);
+            }
+            return merged;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    // 指定範囲のダブルクォートの数と改行の数を数える
+    private long[] countQuotesAndLines(FileChannel channel, long start, long end) throws IOException {
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+        long quotes = 0;
+        long lines = 0;
+        while (buffer.hasRemaining()) {
+            byte b = buffer.get();
+            if (b == '"') {
+                quotes++;
+            } else if (b == '\n') {
+                lines++;
+            }
+        }
+        checkCancelled();
+        return new long[] { quotes, lines };
+    }
+
+    // position 以降で、クォートの外にある最初の改行の次の位置と、そこまでの改行数を返す
+    // UTF-8 では '"' と '\n' がマルチバイト文字の一部になることはないため、バイト単位で判定できる
+    private long[] findRecordStart(FileChannel channel, long position, long size, boolean inQuote) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+        long lines = 0;
+        while (position < size) {
+            buffer.clear();
+            int n = channel.read(buffer, position);
+            if (n <= 0) {
+                break;
+            }
+            for (int i = 0; i < n; i++) {
+                byte b = buffer.get(i);
+                if (b == '"') {
+                    inQuote = !inQuote;
+                } else if (b == '\n') {
+                    lines++;
+                    if (!inQuote) {
+                        return new long[] { position + i + 1, lines };
+                    }
+                }
+            }
+            position += n;
+        }
+        return new long[] { size, lines };
+    }
+
+    // 指定範囲のCSVレコードをタスクに変換する
+    private List<Task> parseChunk(FileChannel channel, long start, long end, long lineOffset, boolean skipHeader,
+            long size) throws IOException {
+        List<Task> tasks = new ArrayList<>();
+        if (start >= end) {
+            return tasks;
+        }
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+        try (CsvReader reader = new CsvReader(
+                new InputStreamReader(new ByteBufferInputStream(buffer), StandardCharsets.UTF_8))) {
+            reader.setLineOffset(lineOffset);
+            if (skipHeader) {
+                reader.next(); // 最初の行（カラム行）はスキップ
+            }
+            int rows = 0;
+            while (reader.next()) {
+                try {
+                    tasks.add(Task.fromCSV(reader));
+                } catch (RuntimeException ex) {
+                    if (errorCount.incrementAndGet() <= MAX_ERROR_MESSAGES) {
+                        errorMessages.add(ex.getMessage());
+                    }
+                }
+                if (++rows % CANCEL_CHECK_INTERVAL == 0) {
+                    checkCancelled();
+                }
+            }
+        }
+        long processed = processedBytes.addAndGet(end - start);
+        setProgress((int) Math.min(100, processed * 100 / size));
+        return tasks;
+    }
+
+    private void checkCancelled() {
+        if (isCancelled() || Thread.currentThread().isInterrupted()) {
+            throw new CancellationException();
+        }
+    }
+
+    // ByteBuffer を InputStream として読み込むためのクラス
+    private static class ByteBufferInputStream extends InputStream {
+        private final ByteBuffer buffer;
+
+        ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int n = Math.min(len, buffer.remaining());
+            buffer.get(b, off, n);
+            return n;
+        }
+    }
+}
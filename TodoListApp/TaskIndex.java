@@ -0,0 +1,253 @@
+package TodoListApp;
+
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+// タスクを指定した順序で保持する索引（部分木のサイズを持つツリープ）
+// 挿入・削除・順位からの取得・順位の計算をすべて O(log n) で行う。
+// 比較器はタスクごとに一意な順序（同順位はIDで比較）を返すこと
+class TaskIndex implements Iterable<Task> {
+    private static final Random RANDOM = new Random();
+
+    private final Comparator<Task> order;
+    private Node root;
+
+    TaskIndex(Comparator<Task> order) {
+        this.order = order;
+    }
+
+    int size() {
+        return size(root);
+    }
+
+    // 並び順のタスク一覧で索引を作り直す（O(n log n)）
+    void rebuild(Collection<Task> tasks) {
+        Task[] sorted = tasks.toArray(new Task[0]);
+        Arrays.sort(sorted, order);
+        root = build(sorted);
+    }
+
+    void insert(Task task) {
+        Node[] parts = split(root, task);
+        root = merge(merge(parts[0], new Node(task)), parts[1]);
+    }
+
+    boolean remove(Task task) {
+        int before = size(root);
+        root = remove(root, task);
+        return size(root) < before;
+    }
+
+    void clear() {
+        root = null;
+    }
+
+    // rank 番目（0始まり）のタスク
+    Task get(int rank) {
+        if (rank < 0 || rank >= size(root)) {
+            throw new IndexOutOfBoundsException("順位が範囲外です: " + rank);
+        }
+        Node node = root;
+        while (true) {
+            int leftSize = size(node.left);
+            if (rank < leftSize) {
+                node = node.left;
+            } else if (rank == leftSize) {
+                return node.task;
+            } else {
+                rank -= leftSize + 1;
+                node = node.right;
+            }
+        }
+    }
+
+    // タスクの順位（含まれない場合は -1）
+    int indexOf(Task task) {
+        Node node = root;
+        int rank = 0;
+        while (node != null) {
+            int cmp = order.compare(task, node.task);
+            if (cmp < 0) {
+                node = node.left;
+            } else if (cmp > 0) {
+                rank += size(node.left) + 1;
+                node = node.right;
+            } else {
+                return node.task == task ? rank + size(node.left) : -1;
+            }
+        }
+        return -1;
+    }
+
+    // isBefore を満たすタスクの数（isBefore は並び順の先頭側でのみ true になる条件であること）
+    int countBefore(Predicate<Task> isBefore) {
+        Node node = root;
+        int count = 0;
+        while (node != null) {
+            if (isBefore.test(node.task)) {
+                count += size(node.left) + 1;
+                node = node.right;
+            } else {
+                node = node.left;
+            }
+        }
+        return count;
+    }
+
+    // 順位 from 以上 to 未満のタスクを順に処理する（O(log n + k)）
+    void forEach(int from, int to, Consumer<Task> action) {
+        forEach(root, 0, Math.max(from, 0), Math.min(to, size(root)), action);
+    }
+
+    @Override
+    public Iterator<Task> iterator() {
+        return new Iterator<Task>() {
+            private final Deque<Node> stack = new ArrayDeque<>();
+
+            {
+                pushLeft(root);
+            }
+
+            @Override
+            public boolean hasNext() {
+                return !stack.isEmpty();
+            }
+
+            @Override
+            public Task next() {
+                if (stack.isEmpty()) {
+                    throw new NoSuchElementException();
+                }
+                Node node = stack.pop();
+                pushLeft(node.right);
+                return node.task;
+            }
+
+            private void pushLeft(Node node) {
+                for (; node != null; node = node.left) {
+                    stack.push(node);
+                }
+            }
+        };
+    }
+
+    private void forEach(Node node, int offset, int from, int to, Consumer<Task> action) {
+        while (node != null && from < to) {
+            int rank = offset + size(node.left);
+            if (from < rank) {
+                forEach(node.left, offset, from, to, action);
+            }
+            if (rank >= to) {
+                return;
+            }
+            if (rank >= from) {
+                action.accept(node.task);
+            }
+            offset = rank + 1;
+            node = node.right;
+        }
+    }
+
+    // task より前の部分木と、task 以降の部分木に分割する
+    private Node[] split(Node node, Task task) {
+        if (node == null) {
+            return new Node[2];
+        }
+        if (order.compare(node.task, task) < 0) {
+            Node[] parts = split(node.right, task);
+            node.right = parts[0];
+            node.update();
+            parts[0] = node;
+            return parts;
+        }
+        Node[] parts = split(node.left, task);
+        node.left = parts[1];
+        node.update();
+        parts[1] = node;
+        return parts;
+    }
+
+    private static Node merge(Node left, Node right) {
+        if (left == null) {
+            return right;
+        }
+        if (right == null) {
+            return left;
+        }
+        if (left.priority > right.priority) {
+            left.right = merge(left.right, right);
+            left.update();
+            return left;
+        }
+        right.left = merge(left, right.left);
+        right.update();
+        return right;
+    }
+
+    private Node remove(Node node, Task task) {
+        if (node == null) {
+            return null;
+        }
+        int cmp = order.compare(task, node.task);
+        if (cmp < 0) {
+            node.left = remove(node.left, task);
+        } else if (cmp > 0) {
+            node.right = remove(node.right, task);
+        } else {
+            return merge(node.left, node.right);
+        }
+        node.update();
+        return node;
+    }
+
+    // 並び順の配列から O(n) でツリープを組み立てる（右端の経路をスタックで保持）
+    private static Node build(Task[] sorted) {
+        Node[] spine = new Node[64];
+        int depth = 0;
+        for (Task task : sorted) {
+            Node node = new Node(task);
+            Node last = null;
+            while (depth > 0 && spine[depth - 1].priority < node.priority) {
+                last = spine[--depth];
+                last.update();
+            }
+            node.left = last;
+            if (depth > 0) {
+                spine[depth - 1].right = node;
+            }
+            if (depth == spine.length) {
+                spine = Arrays.copyOf(spine, depth * 2);
+            }
+            spine[depth++] = node;
+        }
+        while (depth > 1) {
+            spine[--depth].update();
+        }
+        if (depth == 0) {
+            return null;
+        }
+        spine[0].update();
+        return spine[0];
+    }
+
+    private static int size(Node node) {
+        return node == null ? 0 : node.size;
+    }
+
+    private static class Node {
+        final Task task;
+        final int priority = RANDOM.nextInt();
+        int size = 1;
+        Node left;
+        Node right;
+
+        Node(Task task) {
+            this.task = task;
+        }
+
+        void update() {
+            size = 1 + TaskIndex.size(left) + TaskIndex.size(right);
+        }
+    }
+}
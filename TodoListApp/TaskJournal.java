@@ -0,0 +1,341 @@
+package TodoListApp;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+// タスクの変更を1件1レコードで追記するジャーナル（先行書き込みログ）
+// レコード形式: "#<内容のバイト数（16進8桁）><内容の CRC32（16進8桁）><内容>"
+// 内容は CSV の1レコード（改行で終わる）で、"P,<ID>,<タスクのCSVフィールド>"（追加・更新） / "D,<ID>"（削除）。
+// 異常終了で途中まで書かれたレコードは長さと CRC32 で見分け、開くときに末尾から切り詰める
+// （他のプロセスが異常終了した場合も、追記の前に同じように切り詰める。再生では、末尾の切れたレコードは無視し、
+// 途中の壊れたレコードは読み飛ばして続きのレコードを読む）
+class TaskJournal implements Closeable {
+    private static final String PUT = "P"; // 追加・更新
+    private static final String DELETE = "D"; // 削除
+    private static final byte MARK = '#'; // レコードの先頭
+    private static final int HEADER_SIZE = 17; // '#' ＋ バイト数 ＋ CRC32
+
+    private final Path path;
+    private FileChannel channel; // 追記用チャネル
+    private OutputStream out;
+    private long verifiedEnd; // 検証済みのレコードの終わりの位置（これより後ろは他のプロセスが追記した分）
+
+    TaskJournal(Path path) {
+        this.path = path;
+    }
+
+    Path getPath() {
+        return path;
+    }
+
+    // 追記用に開く（前回の異常終了で末尾のレコードが途中で切れている場合は、最後の完全なレコードまで切り詰める）
+    void open() throws IOException {
+        verifiedEnd = truncateTornTail(0);
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        out = new BufferedOutputStream(Channels.newOutputStream(channel), 64 * 1024);
+    }
+
+    // レコード（putRecord / deleteRecord で作成したもの）をまとめて追記する
+    // 他のプロセスが追記した分や、前回失敗した追記の末尾が途中で切れていれば、そのあとに続けないよう先に切り詰める
+    void append(Iterable<String> records) throws IOException {
+        long size = channel.size();
+        if (size != verifiedEnd) {
+            verifiedEnd = truncateTornTail(size < verifiedEnd ? 0 : verifiedEnd);
+        }
+        CRC32 crc = new CRC32();
+        byte[] header = new byte[HEADER_SIZE];
+        header[0] = MARK;
+        try {
+            for (String record : records) {
+                byte[] content = record.getBytes(StandardCharsets.UTF_8);
+                crc.reset();
+                crc.update(content, 0, content.length);
+                putHex(header, 1, content.length);
+                putHex(header, 9, (int) crc.getValue());
+                out.write(header);
+                out.write(content);
+            }
+            out.flush();
+        } catch (IOException e) {
+            // 書き込めなかったバッファの内容は捨てる（途中まで書いたレコードは、次の追記の前に切り詰める）
+            out = new BufferedOutputStream(Channels.newOutputStream(channel), 64 * 1024);
+            throw e;
+        }
+        verifiedEnd = channel.size();
+    }
+
+    // 追記した内容をディスクに同期する
+    void force() throws IOException {
+        channel.force(false);
+    }
+
+    // ジャーナルのサイズ（バイト）
+    long size() throws IOException {
+        return channel != null ? channel.size() : Files.exists(path) ? Files.size(path) : 0;
+    }
+
+    // タスクの追加・更新のレコード（IDを先頭に置く。改行を含む）
+    static String putRecord(Task task) {
+        StringWriter out = new StringWriter(128);
+        CsvWriter writer = new CsvWriter(out);
+        try {
+            writer.field(PUT).field(task.id);
+            task.writeCSV(writer);
+            writer.endRecord();
+            writer.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // StringWriter への書き込みでは発生しない
+        }
+        return out.toString();
+    }
+
+    // タスクの削除のレコード（改行を含む）
+    static String deleteRecord(int id) {
+        return DELETE + "," + id + "\n";
+    }
+
+    // 開いている場合は開き直す（他のプロセスがジャーナルを削除・置き換えた場合に、新しいファイルに追記するため）
+    void reopen() throws IOException {
+        if (out != null) {
+            close();
+            open();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (out != null) {
+            out.close();
+            out = null;
+            channel = null;
+        }
+    }
+
+    // ジャーナルの内容を tasks（ID → タスク）に適用する。途中で切れた末尾のレコードと壊れたレコードは無視する
+    static void replay(Path path, Map<Integer, Task> tasks) throws IOException {
+        replay(path, 0, tasks, false);
+    }
+
+    // ジャーナルの変更だけを changes（ID → タスク）に集める（削除したタスクは null で残す）
+    static void replayChanges(Path path, Map<Integer, Task> changes) throws IOException {
+        replay(path, 0, changes, true);
+    }
+
+    // ジャーナルの offset バイト目以降の変更だけを changes に集め、読み終えた位置（最後の完全なレコードの終わり）を返す
+    // （他のプロセスが追記した分を読むために使う。追記がロックで止まっている間に呼ぶこと）
+    static long replayChanges(Path path, long offset, Map<Integer, Task> changes) throws IOException {
+        return replay(path, offset, changes, true);
+    }
+
+    private static long replay(Path path, long offset, Map<Integer, Task> tasks, boolean keepDeletes)
+            throws IOException {
+        if (Files.notExists(path)) {
+            return 0;
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            RecordReader records = new RecordReader(channel, offset);
+            CsvReader reader = new CsvReader(records);
+            while (reader.next()) {
+                try {
+                    String op = reader.getString(0);
+                    int id = reader.getInt(1);
+                    if (PUT.equals(op)) {
+                        Task task = Task.fromCSV(reader, 2);
+                        if (task.id != id) {
+                            throw new IllegalArgumentException("IDが一致しません: " + id + ", " + task.id);
+                        }
+                        tasks.put(id, task);
+                    } else if (DELETE.equals(op)) {
+                        if (keepDeletes) {
+                            tasks.put(id, null);
+                        } else {
+                            tasks.remove(id);
+                        }
+                    } else {
+                        throw new IllegalArgumentException("不明な操作です: " + op);
+                    }
+                } catch (RuntimeException e) {
+                    // CRC32 が一致したレコードのため、別の形式で書かれたものだけが該当する（このレコードだけを飛ばす）
+                    System.err.println("ジャーナルのレコードを読み飛ばしました（" + path + " の " + records.recordStart
+                            + "バイト目）: " + e.getMessage());
+                }
+            }
+            return records.end;
+        }
+    }
+
+    // from 以降のレコードを検証し、末尾の途中で切れたレコードを切り詰めて、ファイルの終わりの位置を返す（ロック中に呼ぶ）
+    private long truncateTornTail(long from) throws IOException {
+        if (Files.notExists(path)) {
+            return 0;
+        }
+        try (FileChannel file = FileChannel.open(path, StandardOpenOption.WRITE, StandardOpenOption.READ)) {
+            long end = new RecordReader(file, from).skipAll();
+            if (end < file.size()) {
+                System.err.println("ジャーナルの途中で切れた末尾を切り詰めました（" + path + " の " + end + "バイト目以降）");
+                file.truncate(end);
+            }
+            return end;
+        }
+    }
+
+    private static void putHex(byte[] buf, int offset, int value) {
+        for (int i = 7; i >= 0; i--) {
+            buf[offset + i] = (byte) Character.forDigit(value & 0xF, 16);
+            value >>>= 4;
+        }
+    }
+
+    // ジャーナルのレコードを先頭から検証し、正しいレコードの内容だけを続けて読む Reader
+    // 1回の read では1レコードの内容までしか返さないため、CsvReader が next() で返したレコードは recordStart から始まる
+    private static final class RecordReader extends Reader {
+        private final FileChannel channel;
+        private final long size; // 読み込み開始時のファイルサイズ（ロック中のため変わらない）
+        private final CRC32 crc = new CRC32();
+        private byte[] buf = new byte[64 * 1024];
+        private long bufStart; // buf[0] のファイル上の位置
+        private int bufLength; // buf の有効なバイト数
+        private long position; // 次に調べるレコードの位置
+        private String content = ""; // 読み込み中のレコードの内容
+        private int contentPos; // content の読み込み位置
+        long recordStart; // 読み込み中のレコードの位置
+        long end; // 最後に読み込んだ正しいレコードの終わりの位置
+
+        RecordReader(FileChannel channel, long offset) throws IOException {
+            this.channel = channel;
+            this.size = channel.size();
+            this.position = offset;
+            this.end = offset;
+            this.bufStart = offset;
+        }
+
+        @Override
+        public int read(char[] cbuf, int off, int len) throws IOException {
+            if (contentPos == content.length()) {
+                String next = nextRecord();
+                if (next == null) {
+                    return -1;
+                }
+                content = next;
+                contentPos = 0;
+            }
+            int n = Math.min(len, content.length() - contentPos);
+            content.getChars(contentPos, contentPos + n, cbuf, off);
+            contentPos += n;
+            return n;
+        }
+
+        // すべてのレコードを検証して、最後の正しいレコードの終わりの位置を返す
+        long skipAll() throws IOException {
+            while (nextRecord() != null) {
+                // 内容は使わない
+            }
+            return end;
+        }
+
+        // 次の正しいレコードの内容（ない場合は null）。壊れたレコードは、次のレコードの先頭になりうる '#' まで飛ばす
+        // （途中で切れたレコードのすぐあとに追記されたレコードも見つけられるよう、改行の直後に限らない）
+        private String nextRecord() throws IOException {
+            long skipped = -1; // 壊れたレコードの位置
+            while (position < size) {
+                String record = readRecord(position);
+                if (record != null) {
+                    if (skipped >= 0) {
+                        System.err.println("ジャーナルの壊れたレコードを読み飛ばしました（" + skipped + "〜" + position + "バイト目）");
+                    }
+                    return record;
+                }
+                if (skipped < 0) {
+                    skipped = position;
+                }
+                position = findNextMark(position + 1);
+            }
+            return null; // 末尾の途中で切れたレコードは、最後の完全なレコードのあとに追記すれば消える
+        }
+
+        // position から始まるレコードが正しければ内容を返し、次のレコードの位置に進める（正しくなければ null）
+        private String readRecord(long at) throws IOException {
+            if (at + HEADER_SIZE > size || !fill(at, HEADER_SIZE)) {
+                return null;
+            }
+            int i = (int) (at - bufStart);
+            if (buf[i] != MARK) {
+                return null;
+            }
+            long length = parseHex(i + 1);
+            long checksum = parseHex(i + 9);
+            if (length <= 0 || checksum < 0 || at + HEADER_SIZE + length > size
+                    || !fill(at, HEADER_SIZE + (int) length)) {
+                return null;
+            }
+            i = (int) (at - bufStart) + HEADER_SIZE;
+            int n = (int) length;
+            crc.reset();
+            crc.update(buf, i, n);
+            if (crc.getValue() != checksum || buf[i + n - 1] != '\n') {
+                return null;
+            }
+            recordStart = at;
+            position = end = at + HEADER_SIZE + n;
+            return new String(buf, i, n, StandardCharsets.UTF_8);
+        }
+
+        // from 以降で最初の '#' の位置（ない場合はファイルの末尾）
+        private long findNextMark(long from) throws IOException {
+            for (long at = from; at < size; at++) {
+                if (!fill(at, 1)) {
+                    break;
+                }
+                if (buf[(int) (at - bufStart)] == MARK) {
+                    return at;
+                }
+            }
+            return size;
+        }
+
+        // ファイルの at から count バイトを buf に読み込む（ファイルの末尾に達した場合は false）
+        private boolean fill(long at, int count) throws IOException {
+            if (at >= bufStart && at + count <= bufStart + bufLength) {
+                return true;
+            }
+            if (count > buf.length) {
+                buf = new byte[Math.max(count, buf.length * 2)];
+            }
+            ByteBuffer target = ByteBuffer.wrap(buf);
+            bufStart = at;
+            bufLength = 0;
+            while (target.hasRemaining()) {
+                int n = channel.read(target, at + target.position());
+                if (n < 0) {
+                    break;
+                }
+            }
+            bufLength = target.position();
+            return bufLength >= count;
+        }
+
+        // buf の offset から16進8桁を読む（16進でない場合は -1）
+        private long parseHex(int offset) {
+            long value = 0;
+            for (int i = offset; i < offset + 8; i++) {
+                int digit = Character.digit(buf[i], 16);
+                if (digit < 0) {
+                    return -1;
+                }
+                value = value << 4 | digit;
+            }
+            return value;
+        }
+
+        @Override
+        public void close() {
+            // チャネルは呼び出し元で閉じる
+        }
+    }
+}
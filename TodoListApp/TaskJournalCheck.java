@@ -0,0 +1,140 @@
+package TodoListApp;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.time.LocalDate;
+import java.util.*;
+
+// 異常終了で途中まで書かれたジャーナルの再生を確認するチェック（失敗した場合は例外で終了する）
+// 実行例: java TodoListApp.TaskJournalCheck
+public class TaskJournalCheck {
+    public static void main(String[] args) throws IOException {
+        Path directory = Files.createTempDirectory("journal");
+        Path path = directory.resolve("tasks.journal");
+        try {
+            tornTail(path);
+            tornInsideId(path);
+            tornQuotedFieldInTheMiddle(path);
+            corruptedInTheMiddle(path);
+            tornByAnotherProcess(path);
+            System.out.println("すべてのチェックに成功しました");
+        } finally {
+            Files.deleteIfExists(path);
+            Files.deleteIfExists(directory);
+        }
+    }
+
+    // 末尾のレコードが途中で切れた場合は、そのレコードだけを無視し、開いたときに切り詰める
+    private static void tornTail(Path path) throws IOException {
+        write(path, put(1, "a"), put(2, "b"), put(3, "c"));
+        truncate(path, Files.size(path) - 5);
+        expect("末尾の切れたレコード", path, 1, 2);
+
+        TaskJournal journal = new TaskJournal(path);
+        journal.open();
+        journal.append(Collections.singletonList(put(4, "d")));
+        journal.close();
+        expect("切り詰めたあとの追記", path, 1, 2, 4);
+    }
+
+    // IDの途中で切れたレコード（"…,12" と "…,123"）で、別のタスクを上書きしない
+    private static void tornInsideId(Path path) throws IOException {
+        write(path, put(12, "元のタスク"), put(123, "新しいタスク"));
+        truncate(path, Files.size(path) - 2);
+        Map<Integer, Task> tasks = replay(path);
+        if (tasks.size() != 1 || !"元のタスク".equals(tasks.get(12).title)) {
+            throw new IllegalStateException("IDの途中で切れたレコード: " + tasks.keySet());
+        }
+        System.out.println("OK: IDの途中で切れたレコード");
+    }
+
+    // クォートの途中で切れたレコードのあとに追記されたレコードも読む（以前の形式では改行を補って追記していた）
+    private static void tornQuotedFieldInTheMiddle(Path path) throws IOException {
+        byte[] torn = frame(put(5, "クォート\n\"を含む"));
+        write(path, put(1, "a"));
+        appendBytes(path, Arrays.copyOf(torn, torn.length - 10));
+        appendBytes(path, "\n".getBytes(StandardCharsets.UTF_8));
+        appendBytes(path, frame(put(7, "あとのタスク")));
+        appendBytes(path, frame(TaskJournal.deleteRecord(1)));
+        expect("途中のクォートの切れたレコード", path, 7);
+    }
+
+    // 途中のレコードの内容が壊れていれば、そのレコードだけを読み飛ばす
+    private static void corruptedInTheMiddle(Path path) throws IOException {
+        write(path, put(1, "a"), put(2, "b"), put(3, "c"));
+        long second = frame(put(1, "a")).length;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[] { 'x' }), second + 30);
+        }
+        expect("途中の壊れたレコード", path, 1, 3);
+    }
+
+    // 他のプロセスが追記の途中で終了した場合は、切れたレコードを切り詰めてから追記する
+    private static void tornByAnotherProcess(Path path) throws IOException {
+        Files.deleteIfExists(path);
+        TaskJournal journal = new TaskJournal(path);
+        journal.open();
+        journal.append(Collections.singletonList(put(1, "a")));
+        byte[] torn = frame(put(2, "他のプロセス"));
+        appendBytes(path, Arrays.copyOf(torn, torn.length / 2));
+        journal.append(Collections.singletonList(put(3, "c")));
+        journal.close();
+        expect("他のプロセスの切れたレコード", path, 1, 3);
+        if (Files.size(path) != frame(put(1, "a")).length + frame(put(3, "c")).length) {
+            throw new IllegalStateException("切れたレコードが切り詰められていません");
+        }
+    }
+
+    private static String put(int id, String title) {
+        LocalDate day = LocalDate.of(2025, 1, 1);
+        Task task = new Task(title, "内容", false, day, day, day);
+        task.id = id;
+        return TaskJournal.putRecord(task);
+    }
+
+    // TaskJournal.append と同じ形式の1レコード
+    private static byte[] frame(String record) throws IOException {
+        Path temp = Files.createTempFile("frame", ".journal");
+        try {
+            write(temp, record);
+            return Files.readAllBytes(temp);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private static void write(Path path, String... records) throws IOException {
+        Files.deleteIfExists(path);
+        TaskJournal journal = new TaskJournal(path);
+        journal.open();
+        journal.append(Arrays.asList(records));
+        journal.close();
+    }
+
+    private static void appendBytes(Path path, byte[] bytes) throws IOException {
+        Files.write(path, bytes, StandardOpenOption.APPEND);
+    }
+
+    private static void truncate(Path path, long size) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            channel.truncate(size);
+        }
+    }
+
+    private static Map<Integer, Task> replay(Path path) throws IOException {
+        Map<Integer, Task> tasks = new TreeMap<>();
+        TaskJournal.replay(path, tasks);
+        return tasks;
+    }
+
+    private static void expect(String name, Path path, Integer... ids) throws IOException {
+        Set<Integer> actual = replay(path).keySet();
+        if (!actual.equals(new TreeSet<>(Arrays.asList(ids)))) {
+            throw new IllegalStateException(name + ": " + actual + "（期待値: " + Arrays.toString(ids) + "）");
+        }
+        System.out.println("OK: " + name);
+    }
+}
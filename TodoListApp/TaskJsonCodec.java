@@ -0,0 +1,776 @@
+package TodoListApp;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.*;
+
+// タスクの JSON Lines（1行に1タスクの JSON オブジェクト）の書き出し・読み込み
+// 書き出しはフィールドごとに書式化せず、UTF-8 のバイト列をバッファに直接書いてチャネルに渡す。
+// 読み込みは行をバイト列のまま解析し、ファイルを改行の位置で区切って複数スレッドで並列に読める
+// （JSON の文字列の中の改行は必ずエスケープされるため、行の区切りはバイト単位の '\n' だけで分かる）。
+// キーは id, title, description, isDone, dueDate, createdDate, updatedDate（HTTP API のタスクと同じ名前）。
+// 読み込みでは知らないキー（priority, isOverdue など）は無視し、updatedDate のキーがない場合は createdDate を使う
+public final class TaskJsonCodec {
+    private static final int BUFFER_SIZE = 64 * 1024; // 書き出しバッファサイズ
+    private static final int CHUNK_SIZE = 4 * 1024 * 1024; // 並列に読み込む1チャンクのおおよそのサイズ
+    private static final int MAX_ERROR_MESSAGES = 10; // 保持するエラーメッセージの最大数
+    private static final int DATE_CACHE_SIZE = 64; // 日付キャッシュのエントリ数（2のべき乗）
+    private static final byte[] HEX = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+
+    private static final byte[] ID = key("id");
+    private static final byte[] TITLE = key("title");
+    private static final byte[] DESCRIPTION = key("description");
+    private static final byte[] IS_DONE = key("isDone");
+    private static final byte[] DUE_DATE = key("dueDate");
+    private static final byte[] CREATED_DATE = key("createdDate");
+    private static final byte[] UPDATED_DATE = key("updatedDate");
+
+    private TaskJsonCodec() {
+    }
+
+    private static byte[] key(String name) {
+        return name.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    // タスクを JSON のオブジェクト1つ（改行なし）に変換する
+    public static String toJson(Task task) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(256);
+        try (Writer writer = new Writer(Channels.newChannel(out), 256)) {
+            writer.writeObject(task);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // ByteArrayOutputStream への書き込みでは発生しない
+        }
+        return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    // JSON のオブジェクト1つをタスクに変換する（形式が不正な場合は IllegalArgumentException）
+    public static Task fromJson(String json) {
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        return new Parser().parse(bytes, 0, bytes.length);
+    }
+
+    // JSON Lines の書き出し（write() のたびに1行を書き、バッファがいっぱいになったらチャネルに渡す）
+    public static final class Writer implements Closeable, Flushable {
+        private final WritableByteChannel channel;
+        private final byte[] buf;
+        private final ByteBuffer buffer; // buf をラップしたもの
+        private int pos; // buf の使用量
+
+        public Writer(WritableByteChannel channel) {
+            this(channel, BUFFER_SIZE);
+        }
+
+        private Writer(WritableByteChannel channel, int bufferSize) {
+            this.channel = channel;
+            this.buf = new byte[bufferSize];
+            this.buffer = ByteBuffer.wrap(buf);
+        }
+
+        // タスクを1行書き込む
+        public void write(Task task) throws IOException {
+            writeObject(task);
+            put((byte) '\n');
+        }
+
+        private void writeObject(Task task) throws IOException {
+            ascii("{\"id\":");
+            number(task.id);
+            ascii(",\"title\":");
+            string(task.title);
+            ascii(",\"description\":");
+            string(task.description);
+            ascii(task.isDone ? ",\"isDone\":true" : ",\"isDone\":false");
+            ascii(",\"dueDate\":");
+            date(task.dueDate);
+            ascii(",\"createdDate\":");
+            date(task.createdDate);
+            ascii(",\"updatedDate\":");
+            date(task.updatedDate);
+            put((byte) '}');
+        }
+
+        // ASCII だけの文字列をそのまま書き込む
+        private void ascii(String s) throws IOException {
+            int length = s.length();
+            ensure(length);
+            for (int i = 0; i < length; i++) {
+                buf[pos++] = (byte) s.charAt(i);
+            }
+        }
+
+        private void number(int value) throws IOException {
+            if (value < 0) {
+                ascii(Integer.toString(value));
+                return;
+            }
+            ensure(10);
+            int digits = 1;
+            for (int v = value; v >= 10; v /= 10) {
+                digits++;
+            }
+            for (int i = pos + digits - 1; i >= pos; i--) {
+                buf[i] = (byte) ('0' + value % 10);
+                value /= 10;
+            }
+            pos += digits;
+        }
+
+        // 日付を "yyyy-MM-dd" で書き込む（null は null）
+        private void date(LocalDate date) throws IOException {
+            if (date == null) {
+                ascii("null");
+                return;
+            }
+            int year = date.getYear();
+            if (year < 0 || year > 9999) {
+                put((byte) '"');
+                ascii(date.toString());
+                put((byte) '"');
+                return;
+            }
+            ensure(12);
+            buf[pos++] = '"';
+            buf[pos++] = (byte) ('0' + year / 1000);
+            buf[pos++] = (byte) ('0' + year / 100 % 10);
+            buf[pos++] = (byte) ('0' + year / 10 % 10);
+            buf[pos++] = (byte) ('0' + year % 10);
+            buf[pos++] = '-';
+            int month = date.getMonthValue();
+            buf[pos++] = (byte) ('0' + month / 10);
+            buf[pos++] = (byte) ('0' + month % 10);
+            buf[pos++] = '-';
+            int day = date.getDayOfMonth();
+            buf[pos++] = (byte) ('0' + day / 10);
+            buf[pos++] = (byte) ('0' + day % 10);
+            buf[pos++] = '"';
+        }
+
+        // 文字列をダブルクォートで囲み、エスケープしながら UTF-8 で書き込む（null は null）
+        private void string(String s) throws IOException {
+            if (s == null) {
+                ascii("null");
+                return;
+            }
+            put((byte) '"');
+            int length = s.length();
+            int limit = buf.length - 6; // 1文字で書く最大のバイト数（\\uXXXX）を残す
+            for (int i = 0; i < length; i++) {
+                if (pos > limit) {
+                    flushBuffer();
+                }
+                char c = s.charAt(i);
+                if (c < 0x80) {
+                    if (c >= 0x20 && c != '"' && c != '\\') {
+                        buf[pos++] = (byte) c;
+                    } else {
+                        escape(c);
+                    }
+                } else if (c < 0x800) {
+                    buf[pos++] = (byte) (0xc0 | c >> 6);
+                    buf[pos++] = (byte) (0x80 | c & 0x3f);
+                } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(s.charAt(i + 1))) {
+                    int codePoint = Character.toCodePoint(c, s.charAt(++i));
+                    buf[pos++] = (byte) (0xf0 | codePoint >> 18);
+                    buf[pos++] = (byte) (0x80 | codePoint >> 12 & 0x3f);
+                    buf[pos++] = (byte) (0x80 | codePoint >> 6 & 0x3f);
+                    buf[pos++] = (byte) (0x80 | codePoint & 0x3f);
+                } else if (Character.isSurrogate(c)) {
+                    escape(c); // 対になっていないサロゲートは UTF-8 にできないため \\u でエスケープする
+                } else {
+                    buf[pos++] = (byte) (0xe0 | c >> 12);
+                    buf[pos++] = (byte) (0x80 | c >> 6 & 0x3f);
+                    buf[pos++] = (byte) (0x80 | c & 0x3f);
+                }
+            }
+            put((byte) '"');
+        }
+
+        private void escape(char c) {
+            buf[pos++] = '\\';
+            switch (c) {
+                case '"':
+                    buf[pos++] = '"';
+                    break;
+                case '\\':
+                    buf[pos++] = '\\';
+                    break;
+                case '\n':
+                    buf[pos++] = 'n';
+                    break;
+                case '\r':
+                    buf[pos++] = 'r';
+                    break;
+                case '\t':
+                    buf[pos++] = 't';
+                    break;
+                default:
+                    buf[pos++] = 'u';
+                    buf[pos++] = HEX[c >> 12 & 0xf];
+                    buf[pos++] = HEX[c >> 8 & 0xf];
+                    buf[pos++] = HEX[c >> 4 & 0xf];
+                    buf[pos++] = HEX[c & 0xf];
+            }
+        }
+
+        private void put(byte b) throws IOException {
+            if (pos == buf.length) {
+                flushBuffer();
+            }
+            buf[pos++] = b;
+        }
+
+        private void ensure(int length) throws IOException {
+            if (buf.length - pos < length) {
+                flushBuffer();
+            }
+        }
+
+        private void flushBuffer() throws IOException {
+            buffer.clear().limit(pos);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            pos = 0;
+        }
+
+        @Override
+        public void flush() throws IOException {
+            flushBuffer();
+        }
+
+        @Override
+        public void close() throws IOException {
+            flushBuffer();
+            channel.close();
+        }
+    }
+
+    // JSON Lines のファイルを読み込み、タスクを1件ずつ返す（読み込めない行はエラーを数えて飛ばす）
+    // threads が2以上の場合は、ファイルを CHUNK_SIZE ごとに改行の位置で区切り、複数スレッドで並列に解析する。
+    // 解析中のチャンクは threads の2倍までにするため、ファイルが大きくてもメモリ使用量は一定。順序はファイルと同じ
+    public static final class Reader implements Iterator<Task>, Closeable {
+        private final FileChannel channel;
+        private final ExecutorService executor; // threads が1の場合は null（呼び出したスレッドで解析する）
+        private final int maxInFlight;
+        private final Deque<Future<Chunk>> inFlight = new ArrayDeque<>(); // 解析中のチャンク（ファイルの順）
+        private byte[] carry = new byte[0]; // 前のチャンクの最後の改行より後ろ（次のチャンクの先頭になる）
+        private boolean eof;
+        private List<Task> tasks = Collections.emptyList(); // 取り出し中のチャンクのタスク
+        private int index; // tasks の次に返す位置
+        private long lines; // 取り出したチャンクまでの行数
+        private long errorCount; // 読み込めなかった行数
+        private final List<String> errorMessages = new ArrayList<>(); // エラーメッセージ（先頭の数件のみ）
+
+        public Reader(Path path, int threads) throws IOException {
+            this.channel = FileChannel.open(path, StandardOpenOption.READ);
+            this.maxInFlight = Math.max(1, threads * 2);
+            this.executor = threads <= 1 ? null : Executors.newFixedThreadPool(threads, r -> {
+                Thread thread = new Thread(r, "task-json-import");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+
+        // 読み込めなかった行数（読み終えたチャンクまで）
+        public long getErrorCount() {
+            return errorCount;
+        }
+
+        // 読み込めなかった行のエラーメッセージ（先頭の数件のみ）
+        public List<String> getErrorMessages() {
+            return new ArrayList<>(errorMessages);
+        }
+
+        @Override
+        public boolean hasNext() {
+            try {
+                while (index == tasks.size()) {
+                    while (inFlight.size() < maxInFlight && submitNext()) {
+                        // 解析中のチャンクを補充する
+                    }
+                    if (inFlight.isEmpty()) {
+                        return false;
+                    }
+                    take(inFlight.poll());
+                }
+                return true;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public Task next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return tasks.get(index++);
+        }
+
+        // 次のチャンク（最後の改行まで）を読み、解析を登録する。ファイルの末尾なら false
+        private boolean submitNext() throws IOException {
+            if (eof) {
+                return false;
+            }
+            byte[] chunk = Arrays.copyOf(carry, carry.length + CHUNK_SIZE);
+            int length = carry.length;
+            int end;
+            while (true) {
+                while (length < chunk.length) {
+                    int n = channel.read(ByteBuffer.wrap(chunk, length, chunk.length - length));
+                    if (n < 0) {
+                        eof = true;
+                        break;
+                    }
+                    length += n;
+                }
+                end = eof ? length : lastNewline(chunk, length) + 1;
+                if (end > 0 || eof) {
+                    break;
+                }
+                chunk = Arrays.copyOf(chunk, chunk.length * 2); // 1行がチャンクより長い
+            }
+            carry = Arrays.copyOfRange(chunk, end, length);
+            if (end == 0) {
+                return false;
+            }
+            byte[] data = chunk;
+            int dataEnd = end;
+            if (executor == null) {
+                inFlight.add(CompletableFuture.completedFuture(decode(data, dataEnd)));
+            } else {
+                inFlight.add(executor.submit(() -> decode(data, dataEnd)));
+            }
+            return true;
+        }
+
+        private static int lastNewline(byte[] bytes, int length) {
+            for (int i = length - 1; i >= 0; i--) {
+                if (bytes[i] == '\n') {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        // 解析の終わったチャンクを取り出す（エラーメッセージの行番号をファイル全体の行番号にする）
+        private void take(Future<Chunk> future) throws IOException {
+            Chunk chunk;
+            try {
+                chunk = future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("読み込みが中断されました。");
+            } catch (ExecutionException e) {
+                throw new IOException(e.getCause());
+            }
+            for (int i = 0; i < chunk.errorLines.size() && errorMessages.size() < MAX_ERROR_MESSAGES; i++) {
+                errorMessages.add("JSONの形式が不正です（" + (lines + chunk.errorLines.get(i)) + "行目）: "
+                        + chunk.errorMessages.get(i));
+            }
+            errorCount += chunk.errorCount;
+            lines += chunk.lines;
+            tasks = chunk.tasks;
+            index = 0;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (executor != null) {
+                executor.shutdownNow();
+            }
+            channel.close();
+        }
+    }
+
+    // 1チャンクの解析結果
+    private static final class Chunk {
+        final List<Task> tasks = new ArrayList<>();
+        long lines; // チャンクの行数
+        long errorCount; // 読み込めなかった行数
+        final List<Long> errorLines = new ArrayList<>(); // 読み込めなかった行のチャンク内の行番号（先頭の数件のみ）
+        final List<String> errorMessages = new ArrayList<>();
+    }
+
+    // bytes の先頭から end までの行を解析する（空行は飛ばす）
+    private static Chunk decode(byte[] bytes, int end) {
+        Chunk chunk = new Chunk();
+        Parser parser = new Parser();
+        int start = 0;
+        while (start < end) {
+            int lineEnd = start;
+            while (lineEnd < end && bytes[lineEnd] != '\n') {
+                lineEnd++;
+            }
+            chunk.lines++;
+            if (!isBlank(bytes, start, lineEnd)) {
+                try {
+                    chunk.tasks.add(parser.parse(bytes, start, lineEnd));
+                } catch (IllegalArgumentException e) {
+                    if (chunk.errorCount++ < MAX_ERROR_MESSAGES) {
+                        chunk.errorLines.add(chunk.lines);
+                        chunk.errorMessages.add(e.getMessage());
+                    }
+                }
+            }
+            start = lineEnd + 1;
+        }
+        return chunk;
+    }
+
+    private static boolean isBlank(byte[] bytes, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (bytes[i] != ' ' && bytes[i] != '\t' && bytes[i] != '\r') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // 1行の JSON オブジェクトをバイト列のまま解析する（スレッドごとに作る）
+    private static final class Parser {
+        private byte[] b;
+        private int start; // 行の先頭
+        private int pos; // 読み込み位置
+        private int end; // 行の末尾
+        private final int[] dateKeys = new int[DATE_CACHE_SIZE]; // 同じ日付が続く場合に LocalDate を使い回すためのキャッシュ
+        private final LocalDate[] dateValues = new LocalDate[DATE_CACHE_SIZE];
+
+        Task parse(byte[] bytes, int start, int end) {
+            this.b = bytes;
+            this.start = start;
+            this.pos = start;
+            this.end = end;
+            int id = 0;
+            String title = null;
+            String description = "";
+            boolean isDone = false;
+            LocalDate dueDate = null;
+            LocalDate createdDate = null;
+            LocalDate updatedDate = null;
+            boolean hasUpdatedDate = false; // updatedDate のキーがあったか（null の場合も含む）
+
+            skipWhitespace();
+            expect('{');
+            skipWhitespace();
+            if (!consume('}')) {
+                do {
+                    skipWhitespace();
+                    expect('"');
+                    int keyStart = pos;
+                    while (pos < end && b[pos] != '"' && b[pos] != '\\') {
+                        pos++;
+                    }
+                    int keyEnd = pos;
+                    if (pos < end && b[pos] == '\\') {
+                        pos = keyStart - 1;
+                        string(); // エスケープを含むキーは知らないキーとして扱う
+                        keyEnd = keyStart;
+                    } else {
+                        expect('"');
+                    }
+                    skipWhitespace();
+                    expect(':');
+                    skipWhitespace();
+                    if (matches(keyStart, keyEnd, ID)) {
+                        id = integer();
+                    } else if (matches(keyStart, keyEnd, TITLE)) {
+                        title = string();
+                    } else if (matches(keyStart, keyEnd, DESCRIPTION)) {
+                        String value = string();
+                        description = value == null ? "" : value;
+                    } else if (matches(keyStart, keyEnd, IS_DONE)) {
+                        isDone = bool();
+                    } else if (matches(keyStart, keyEnd, DUE_DATE)) {
+                        dueDate = date();
+                    } else if (matches(keyStart, keyEnd, CREATED_DATE)) {
+                        createdDate = date();
+                    } else if (matches(keyStart, keyEnd, UPDATED_DATE)) {
+                        updatedDate = date();
+                        hasUpdatedDate = true;
+                    } else {
+                        skipValue(0);
+                    }
+                    skipWhitespace();
+                } while (consume(','));
+                expect('}');
+            }
+            skipWhitespace();
+            if (pos != end) {
+                throw error("オブジェクトのあとに余分な文字があります");
+            }
+            if (title == null) {
+                throw new IllegalArgumentException("title は必須です。");
+            }
+            if (dueDate == null) {
+                throw new IllegalArgumentException("dueDate は必須です。");
+            }
+            if (createdDate == null) {
+                createdDate = TaskClock.today();
+            }
+            Task task = new Task(title, description, isDone, dueDate, createdDate,
+                    hasUpdatedDate ? updatedDate : createdDate);
+            task.id = id;
+            return task;
+        }
+
+        private boolean matches(int start, int end, byte[] key) {
+            if (end - start != key.length) {
+                return false;
+            }
+            for (int i = 0; i < key.length; i++) {
+                if (b[start + i] != key[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        // 文字列の値（null の場合は null）
+        private String string() {
+            if (consumeLiteral("null")) {
+                return null;
+            }
+            expect('"');
+            int start = pos;
+            boolean ascii = true;
+            while (pos < end) {
+                byte c = b[pos];
+                if (c == '"') {
+                    String value = new String(b, start, pos - start,
+                            ascii ? StandardCharsets.ISO_8859_1 : StandardCharsets.UTF_8);
+                    pos++;
+                    return value;
+                }
+                if (c == '\\') {
+                    return escapedString(start);
+                }
+                ascii &= c >= 0;
+                pos++;
+            }
+            throw error("文字列が閉じられていません");
+        }
+
+        // エスケープを含む文字列（start は文字列の先頭、pos は最初の '\\'）
+        private String escapedString(int start) {
+            StringBuilder out = new StringBuilder(pos - start + 16);
+            int run = start; // エスケープを含まない部分の先頭
+            while (pos < end) {
+                byte c = b[pos];
+                if (c == '"') {
+                    out.append(new String(b, run, pos - run, StandardCharsets.UTF_8));
+                    pos++;
+                    return out.toString();
+                }
+                if (c != '\\') {
+                    pos++;
+                    continue;
+                }
+                out.append(new String(b, run, pos - run, StandardCharsets.UTF_8));
+                if (pos + 1 >= end) {
+                    break;
+                }
+                byte escaped = b[pos + 1];
+                pos += 2;
+                switch (escaped) {
+                    case '"':
+                    case '\\':
+                    case '/':
+                        out.append((char) escaped);
+                        break;
+                    case 'b':
+                        out.append('\b');
+                        break;
+                    case 'f':
+                        out.append('\f');
+                        break;
+                    case 'n':
+                        out.append('\n');
+                        break;
+                    case 'r':
+                        out.append('\r');
+                        break;
+                    case 't':
+                        out.append('\t');
+                        break;
+                    case 'u':
+                        if (pos + 4 > end) {
+                            throw error("\\u のあとの16進数が足りません");
+                        }
+                        int value = 0;
+                        for (int i = 0; i < 4; i++) {
+                            int digit = Character.digit(b[pos++], 16);
+                            if (digit < 0) {
+                                throw error("\\u のあとの16進数が不正です");
+                            }
+                            value = value << 4 | digit;
+                        }
+                        out.append((char) value);
+                        break;
+                    default:
+                        throw error("不正なエスケープです: \\" + (char) escaped);
+                }
+                run = pos;
+            }
+            throw error("文字列が閉じられていません");
+        }
+
+        private int integer() {
+            int start = pos;
+            boolean negative = consume('-');
+            long value = 0;
+            while (pos < end && b[pos] >= '0' && b[pos] <= '9') {
+                value = value * 10 + (b[pos++] - '0');
+                if (value > Integer.MAX_VALUE) {
+                    throw error("id が大きすぎます");
+                }
+            }
+            if (pos == start + (negative ? 1 : 0) || (pos < end && (b[pos] == '.' || b[pos] == 'e' || b[pos] == 'E'))) {
+                throw error("id は整数で指定してください");
+            }
+            return (int) (negative ? -value : value);
+        }
+
+        private boolean bool() {
+            if (consumeLiteral("true")) {
+                return true;
+            }
+            if (consumeLiteral("false")) {
+                return false;
+            }
+            throw error("isDone は true か false で指定してください");
+        }
+
+        // "yyyy-MM-dd" の日付（null の場合は null）
+        private LocalDate date() {
+            if (consumeLiteral("null")) {
+                return null;
+            }
+            if (pos + 12 <= end && b[pos] == '"' && b[pos + 11] == '"' && b[pos + 5] == '-' && b[pos + 8] == '-') {
+                int year = digits(pos + 1, 4);
+                int month = digits(pos + 6, 2);
+                int day = digits(pos + 9, 2);
+                if (year >= 0 && month >= 0 && day >= 0) {
+                    int key = (year * 100 + month) * 100 + day;
+                    int slot = key & (DATE_CACHE_SIZE - 1);
+                    if (dateKeys[slot] != key || dateValues[slot] == null) {
+                        try {
+                            dateValues[slot] = LocalDate.of(year, month, day);
+                        } catch (DateTimeException e) {
+                            throw error("日付が不正です: " + e.getMessage());
+                        }
+                        dateKeys[slot] = key;
+                    }
+                    pos += 12;
+                    return dateValues[slot];
+                }
+            }
+            String text = string();
+            try {
+                return text == null ? null : LocalDate.parse(text);
+            } catch (DateTimeException e) {
+                throw error("日付の形式が不正です（yyyy-MM-dd）: " + text);
+            }
+        }
+
+        private int digits(int start, int count) {
+            int value = 0;
+            for (int i = start; i < start + count; i++) {
+                int digit = b[i] - '0';
+                if (digit < 0 || digit > 9) {
+                    return -1;
+                }
+                value = value * 10 + digit;
+            }
+            return value;
+        }
+
+        // 知らないキーの値を読み飛ばす（オブジェクト・配列は入れ子ごと）
+        private void skipValue(int depth) {
+            if (depth > 64) {
+                throw error("入れ子が深すぎます");
+            }
+            skipWhitespace();
+            if (pos >= end) {
+                throw error("値がありません");
+            }
+            byte c = b[pos];
+            if (c == '"') {
+                string();
+            } else if (c == '{' || c == '[') {
+                byte close = c == '{' ? (byte) '}' : (byte) ']';
+                pos++;
+                skipWhitespace();
+                if (consume((char) close)) {
+                    return;
+                }
+                do {
+                    skipWhitespace();
+                    if (c == '{') {
+                        string();
+                        skipWhitespace();
+                        expect(':');
+                    }
+                    skipValue(depth + 1);
+                    skipWhitespace();
+                } while (consume(','));
+                expect((char) close);
+            } else if (!consumeLiteral("true") && !consumeLiteral("false") && !consumeLiteral("null")) {
+                int start = pos;
+                while (pos < end && "+-0123456789.eE".indexOf(b[pos]) >= 0) {
+                    pos++;
+                }
+                if (pos == start) {
+                    throw error("不正な値です");
+                }
+            }
+        }
+
+        private boolean consumeLiteral(String literal) {
+            int length = literal.length();
+            if (pos + length > end) {
+                return false;
+            }
+            for (int i = 0; i < length; i++) {
+                if (b[pos + i] != literal.charAt(i)) {
+                    return false;
+                }
+            }
+            pos += length;
+            return true;
+        }
+
+        private boolean consume(char c) {
+            if (pos < end && b[pos] == c) {
+                pos++;
+                return true;
+            }
+            return false;
+        }
+
+        private void expect(char c) {
+            if (!consume(c)) {
+                throw error("'" + c + "' がありません");
+            }
+        }
+
+        private void skipWhitespace() {
+            while (pos < end && (b[pos] == ' ' || b[pos] == '\t' || b[pos] == '\r')) {
+                pos++;
+            }
+        }
+
+        private IllegalArgumentException error(String message) {
+            return new IllegalArgumentException(message + "（" + (pos - start + 1) + "バイト目）");
+        }
+    }
+}
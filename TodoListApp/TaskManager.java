@@ -1,29 +1,38 @@
 package TodoListApp;
 
+import Storage.PersistenceService;
+
 import javax.swing.*;
-import javax.swing.table.DefaultTableModel;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
 import java.awt.*;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
 import java.io.*;
+import java.nio.file.Paths;
 import java.time.LocalDate;
 import java.util.ArrayList;
-import java.util.Comparator;
 import java.util.List;
-import java.util.Scanner;
+import java.util.concurrent.ExecutionException;
 
 public class TaskManager extends JFrame {
     private static String TASK_DIRECTORY = "./TodoListApp/Data/"; // ディレクトリ
-    private static String TASK_FILE = TASK_DIRECTORY + "sample.csv"; // タスク保存用ファイル
+    private static String TASK_FILE_NAME = "sample"; // タスク保存用ファイル（拡張子なし）
+    private static final String[] FILTER_NAMES = { "すべて", "未完了", "完了", "期限切れ", "未完了（優先度：高）", "1週間以内が期限の未完了" };
 
     private JTable taskTable;
-    private DefaultTableModel tableModel;
-    private List<Task> taskList;
+    private TaskTableModel tableModel;
+    private TaskStore taskStore; // 期限日順のタスク一覧
+    private TaskRepository repository; // タスクの保存先
 
     private JTextField titleField;
     private JTextField descriptionField;
     private JTextField dueDateField; // yyyy-MM-dd形式で入力
-
-    // UTF-8 明示指定で Scanner を作成
-    Scanner scanner = new Scanner(System.in, "UTF-8");
+    private JButton importButton; // 一括登録ボタン（読み込み中は無効化）
+    private JComboBox<String> filterBox; // 絞り込み条件
+    private final List<JButton> editButtons = new ArrayList<>(); // タスクを変更・再読み込みするボタン（読み込み中・読み込みの失敗時は無効化）
+    private boolean loaded; // タスクの読み込みが完了したかどうか
+    private final List<Runnable> loadListeners = new ArrayList<>(); // 読み込み完了時に実行する処理
 
     public TaskManager() {
         setTitle("ToDoアプリ（GUI版）");
@@ -31,25 +40,84 @@ public class TaskManager extends JFrame {
         setDefaultCloseOperation(EXIT_ON_CLOSE);
         setLocationRelativeTo(null);
 
-        taskList = new ArrayList<>();
+        taskStore = new TaskStore();
+        repository = new TaskRepository(Paths.get(TASK_DIRECTORY), TASK_FILE_NAME);
+        // 保存はバックグラウンドで行うため、失敗した場合はあとからダイアログで知らせる
+        PersistenceService.getDefault().setErrorHandler((key, e) -> SwingUtilities.invokeLater(
+                () -> JOptionPane.showMessageDialog(this, "保存中にエラーが発生しました（" + key + "）: " + e.getMessage(),
+                        "保存エラー", JOptionPane.ERROR_MESSAGE)));
         initUI();
-        loadTasks(); // 起動時にタスクを読み込む
-        displayTasks();
+        loadTasks(); // 起動時にタスクをバックグラウンドで読み込む
 
-        // setVisible(true);
-    }
+        // 日付が変わったら、優先度・期限切れが変わるタスクだけを更新する
+        TaskClock.addDayChangeListener((oldDay, newDay) -> {
+            taskStore.dayChanged(oldDay, newDay);
+            tableModel.setQuery(createFilter(filterBox.getSelectedIndex()));
+        });
 
-    // タスクを期限日の昇順でソート
-    private void sortTasksByDueDate() {
-        taskList.sort(Comparator.comparing(task -> task.dueDate));
+        // setVisible(true);
     }
 
     private void initUI() {
-        String[] columnNames = { "No", "タイトル", "内容", "完了", "期限日", "優先度", "期限切れ", "登録日", "更新日" };
-        tableModel = new DefaultTableModel(columnNames, 0);
-        taskTable = new JTable(tableModel);
+        tableModel = new TaskTableModel(taskStore);
+        // learningjourney.paintStats=true で起動した場合は、一覧の描画時間を計測して書き出す
+        PaintMeter paintMeter = PaintMeter.ENABLED ? new PaintMeter("タスク一覧") : null;
+        taskTable = new JTable(tableModel) {
+            @Override
+            protected void paintComponent(Graphics g) {
+                if (paintMeter == null) {
+                    super.paintComponent(g);
+                    return;
+                }
+                long start = System.nanoTime();
+                super.paintComponent(g);
+                paintMeter.record(System.nanoTime() - start);
+            }
+        };
         add(new JScrollPane(taskTable), BorderLayout.CENTER);
 
+        // 列の見出しのクリックで並べ替える（同じ列をもう一度クリックすると降順）
+        taskTable.getTableHeader().addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                int column = taskTable.convertColumnIndexToModel(taskTable.columnAtPoint(e.getPoint()));
+                if (tableModel.isSortable(column)) {
+                    tableModel.sortBy(column);
+                    updateSortHeaders();
+                }
+            }
+        });
+        updateSortHeaders();
+
+        // 上部のパネル（表示するタスクの絞り込み）
+        JPanel filterPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        filterBox = new JComboBox<>(FILTER_NAMES);
+        filterBox.addActionListener(e -> tableModel.setQuery(createFilter(filterBox.getSelectedIndex())));
+        filterPanel.add(new JLabel("表示:"));
+        filterPanel.add(filterBox);
+
+        // タイトル・内容の検索（入力するたびに絞り込む）
+        JTextField searchField = new JTextField(15);
+        searchField.getDocument().addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) {
+                tableModel.setSearch(searchField.getText());
+            }
+
+            @Override
+            public void removeUpdate(DocumentEvent e) {
+                tableModel.setSearch(searchField.getText());
+            }
+
+            @Override
+            public void changedUpdate(DocumentEvent e) {
+                tableModel.setSearch(searchField.getText());
+            }
+        });
+        filterPanel.add(new JLabel("検索:"));
+        filterPanel.add(searchField);
+        add(filterPanel, BorderLayout.NORTH);
+
         // 下部のパネル（入力フォーム＋追加ボタン）
         JPanel inputPanel = new JPanel(new GridLayout(2, 1)); // 2行に分ける
         JPanel upperPanel = new JPanel(new FlowLayout());
@@ -69,26 +137,33 @@ public class TaskManager extends JFrame {
         JButton addButton = new JButton("追加");
         addButton.addActionListener(e -> addTask());
         lowerPanel.add(addButton);
+        editButtons.add(addButton);
 
         JButton deleteButton = new JButton("削除");
         deleteButton.addActionListener(e -> deleteTask());
         lowerPanel.add(deleteButton);
+        editButtons.add(deleteButton);
 
         JButton updateButton = new JButton("更新");
         updateButton.addActionListener(e -> updateTask());
         lowerPanel.add(updateButton);
+        editButtons.add(updateButton);
 
         JButton completeButton = new JButton("完了");
         completeButton.addActionListener(e -> markTaskAsDone());
         lowerPanel.add(completeButton);
+        editButtons.add(completeButton);
 
+        // 他のプロセス（もう1つのアプリや TaskCli）による変更を、変わったタスクだけ読み込む
         JButton reloadButton = new JButton("最新化");
-        reloadButton.addActionListener(e -> displayTasks());
+        reloadButton.addActionListener(e -> repository.refresh());
         lowerPanel.add(reloadButton);
+        editButtons.add(reloadButton);
 
-        JButton importButton = new JButton("一括登録");
+        importButton = new JButton("一括登録");
         importButton.addActionListener(e -> importTasks());
         lowerPanel.add(importButton);
+        editButtons.add(importButton);
 
         inputPanel.add(upperPanel);
         inputPanel.add(lowerPanel);
@@ -97,8 +172,8 @@ public class TaskManager extends JFrame {
 
         taskTable.getSelectionModel().addListSelectionListener(e -> {
             int selectedRow = taskTable.getSelectedRow();
-            if (selectedRow >= 0 && selectedRow < taskList.size()) {
-                Task task = taskList.get(selectedRow);
+            if (selectedRow >= 0 && selectedRow < tableModel.getRowCount()) {
+                Task task = tableModel.getTaskAt(selectedRow);
                 titleField.setText(task.title);
                 descriptionField.setText(task.description);
                 dueDateField.setText(task.dueDate.toString());
@@ -106,7 +181,7 @@ public class TaskManager extends JFrame {
         });
 
         // カスタムレンダラーを全列に適用
-        TaskTableCellRenderer renderer = new TaskTableCellRenderer(taskList);
+        TaskTableCellRenderer renderer = new TaskTableCellRenderer(tableModel);
         for (int i = 0; i < taskTable.getColumnCount(); i++) {
             taskTable.getColumnModel().getColumn(i).setCellRenderer(renderer);
         }
@@ -114,6 +189,19 @@ public class TaskManager extends JFrame {
         add(inputPanel, BorderLayout.SOUTH);
     }
 
+    // 並べ替えている列の見出しに昇順・降順の印を付ける
+    private void updateSortHeaders() {
+        for (int i = 0; i < taskTable.getColumnCount(); i++) {
+            int column = taskTable.convertColumnIndexToModel(i);
+            String name = tableModel.getColumnName(column);
+            if (column == tableModel.getSortColumn()) {
+                name += tableModel.isDescending() ? " ▼" : " ▲";
+            }
+            taskTable.getColumnModel().getColumn(i).setHeaderValue(name);
+        }
+        taskTable.getTableHeader().repaint();
+    }
+
     private void addTask() {
         String title = titleField.getText().trim();
         String description = descriptionField.getText().trim();
@@ -126,11 +214,9 @@ public class TaskManager extends JFrame {
 
         try {
             LocalDate dueDate = LocalDate.parse(dueDateStr);
-            Task newTask = new Task(title, description, false, dueDate, LocalDate.now(), LocalDate.now());
-            taskList.add(newTask);
-            displayTasks();
-
-            saveTasks(); // タスクを保存する
+            Task newTask = new Task(title, description, false, dueDate, TaskClock.today(), TaskClock.today());
+            saveTasks(() -> repository.added(newTask)); // タスクを保存する（IDを採番する）
+            taskStore.add(newTask);
         } catch (Exception ex) {
             JOptionPane.showMessageDialog(this, "期限日の日付形式が正しくありません（例: 2025-05-15）。", "日付エラー",
                     JOptionPane.ERROR_MESSAGE);
@@ -149,10 +235,9 @@ public class TaskManager extends JFrame {
             return;
         }
 
-        // 行番号は0からだが、taskListはインデックス0が最初のタスク
-        taskList.remove(selectedRow);
-        displayTasks();
-        saveTasks();
+        Task task = tableModel.getTaskAt(selectedRow);
+        taskStore.remove(task);
+        saveTasks(() -> repository.deleted(task));
     }
 
     private void updateTask() {
@@ -173,15 +258,14 @@ public class TaskManager extends JFrame {
 
         try {
             LocalDate dueDate = LocalDate.parse(dueDateStr);
-            Task task = taskList.get(selectedRow);
-            task.title = title;
-            task.description = description;
-            task.dueDate = dueDate;
-            task.updatedDate = LocalDate.now();
-            task.updatePriorityAndOverdue();
-
-            displayTasks();
-            saveTasks();
+            Task task = tableModel.getTaskAt(selectedRow);
+            taskStore.update(task, t -> {
+                t.title = title;
+                t.description = description;
+                t.dueDate = dueDate;
+                t.updatedDate = TaskClock.today();
+            });
+            saveTasks(() -> repository.updated(task));
         } catch (Exception ex) {
             JOptionPane.showMessageDialog(this, "期限日の日付形式が正しくありません（例: 2025-05-15）。", "日付エラー",
                     JOptionPane.ERROR_MESSAGE);
@@ -195,15 +279,14 @@ public class TaskManager extends JFrame {
             return;
         }
 
-        Task task = taskList.get(selectedRow);
+        Task task = tableModel.getTaskAt(selectedRow);
         if (task.isDone) {
             JOptionPane.showMessageDialog(this, "このタスクは既に完了しています。", "情報", JOptionPane.INFORMATION_MESSAGE);
             return;
         }
 
-        task.isDone = true;
-        displayTasks();
-        saveTasks();
+        taskStore.update(task, t -> t.isDone = true);
+        saveTasks(() -> repository.updated(task));
     }
 
     private void importTasks() {
@@ -214,105 +297,167 @@ public class TaskManager extends JFrame {
         if (result == JFileChooser.APPROVE_OPTION) {
             File selectedFile = fileChooser.getSelectedFile();
 
-            try (BufferedReader reader = new BufferedReader(new FileReader(selectedFile))) {
-                String line;
-                boolean isFirstLine = true; // 最初の行を判定するフラグ
-
-                while ((line = reader.readLine()) != null) {
-                    if (isFirstLine) {
-                        isFirstLine = false; // 最初の行（カラム行）はスキップ
-                        continue;
-                    }
-                    try {
-                        Task task = Task.fromCSV(line);
-                        taskList.add(task);
-                    } catch (Exception ex) {
-                        JOptionPane.showMessageDialog(this, "タスクの登録中にエラーが発生しました: " + ex.getMessage(),
-                                "登録エラー", JOptionPane.ERROR_MESSAGE);
-                    }
+            // 読み込みはバックグラウンドで行い、EDTでは進捗表示のみ行う
+            ProgressMonitor monitor = new ProgressMonitor(this, "タスクを一括登録しています…", selectedFile.getName(), 0, 100);
+            monitor.setMillisToDecideToPopup(200);
+            TaskImporter importer = new TaskImporter(selectedFile) {
+                @Override
+                protected void done() {
+                    monitor.close();
+                    importButton.setEnabled(true);
+                    finishImport(this);
                 }
+            };
+            importer.addPropertyChangeListener(e -> {
+                if ("progress".equals(e.getPropertyName())) {
+                    monitor.setProgress((Integer) e.getNewValue());
+                }
+            });
+            Timer cancelPoller = new Timer(200, e -> {
+                if (importer.isDone()) {
+                    ((Timer) e.getSource()).stop();
+                } else if (monitor.isCanceled()) {
+                    importer.cancel(true);
+                }
+            });
 
-                sortTasksByDueDate(); // 読み込み後にソート
-                saveTasks(); // 保存
-                displayTasks(); // 画面更新
-
-                JOptionPane.showMessageDialog(this, "タスクを一括登録しました。", "登録完了", JOptionPane.INFORMATION_MESSAGE);
-            } catch (IOException e) {
-                JOptionPane.showMessageDialog(this, "ファイルの読み込み中にエラーが発生しました: " + e.getMessage(),
-                        "読み込みエラー", JOptionPane.ERROR_MESSAGE);
-            }
+            importButton.setEnabled(false);
+            importer.execute();
+            cancelPoller.start();
         }
     }
 
-    private void displayTasks() {
-        tableModel.setRowCount(0);
-        int i = 1;
-        for (Task task : taskList) {
-            tableModel.addRow(new Object[] {
-                    i,
-                    task.title,
-                    task.description,
-                    task.isDone ? "✓" : "",
-                    task.dueDate,
-                    task.priority,
-                    task.isOverdue ? "⚠" : "",
-                    task.createdDate,
-                    task.updatedDate != null ? task.updatedDate : ""
-            });
-
-            i++;
+    // 一括登録の結果をまとめてタスクリストに反映する
+    private void finishImport(TaskImporter importer) {
+        if (importer.isCancelled()) {
+            JOptionPane.showMessageDialog(this, "一括登録をキャンセルしました。", "キャンセル", JOptionPane.INFORMATION_MESSAGE);
+            return;
         }
-    }
 
-    private void saveTasks() {
-        // ディレクトリが存在しない場合は作成
-        File directory = new File(TASK_DIRECTORY);
-        if (!directory.exists()) {
-            directory.mkdirs();
+        List<Task> imported;
+        try {
+            imported = importer.get();
+        } catch (InterruptedException | ExecutionException e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            JOptionPane.showMessageDialog(this, "ファイルの読み込み中にエラーが発生しました: " + cause.getMessage(),
+                    "読み込みエラー", JOptionPane.ERROR_MESSAGE);
+            return;
         }
 
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(TASK_FILE))) {
-            // ヘッダー行を追加
-            writer.write("タイトル,内容,完了,期限日,登録日,更新日,優先度,期限切れ");
-            writer.newLine();
+        saveTasks(() -> repository.addedAll(imported)); // 保存（IDを採番する）
+        taskStore.addAll(imported); // 期限日順に並べて画面更新
 
-            for (Task task : taskList) {
-                writer.write(task.toCSV());
-                writer.newLine();
+        if (importer.getErrorCount() > 0) {
+            StringBuilder message = new StringBuilder();
+            message.append(importer.getErrorCount()).append("件のタスクを登録できませんでした。\n");
+            for (String error : importer.getErrorMessages()) {
+                message.append(error).append('\n');
             }
-            sortTasksByDueDate();
-            displayTasks();
-            // 入力欄クリア
-            titleField.setText("");
-            descriptionField.setText("");
-            dueDateField.setText("");
-        } catch (IOException e) {
-            JOptionPane.showMessageDialog(this, "タスクの保存中にエラーが発生しました。", "保存エラー", JOptionPane.ERROR_MESSAGE);
+            JOptionPane.showMessageDialog(this, message.toString(), "登録エラー", JOptionPane.ERROR_MESSAGE);
         }
+        JOptionPane.showMessageDialog(this, String.format("タスクを一括登録しました（%,d件）。", imported.size()), "登録完了",
+                JOptionPane.INFORMATION_MESSAGE);
     }
 
+    // 変更を記録し（ファイルへの書き込みはバックグラウンドでまとめて行う）、入力欄をクリアする
+    private void saveTasks(Runnable change) {
+        change.run();
+        repository.compactIfNeeded();
+        // 入力欄クリア
+        titleField.setText("");
+        descriptionField.setText("");
+        dueDateField.setText("");
+    }
+
+    // ファイルの読み込みと検索用の索引の作成はバックグラウンドで行い、読み込み中はタスクを変更するボタンを無効にする
+    // 読み込みに失敗した場合は、空の一覧のまま変更して保存しないよう、ボタンを無効にしたままにする
     private void loadTasks() {
-        File file = new File(TASK_FILE);
-        if (!file.exists()) {
-            return; // ファイルがない場合は読み込まない
-        }
+        setEditable(false);
+        TaskSearchIndex searchIndex = new TaskSearchIndex(taskStore);
+        new SwingWorker<List<Task>, Void>() {
+            @Override
+            protected List<Task> doInBackground() throws IOException {
+                List<Task> tasks = repository.load();
+                searchIndex.addAll(tasks);
+                return tasks;
+            }
 
-        try (BufferedReader reader = new BufferedReader(new FileReader(TASK_FILE))) {
-            String line;
-            boolean isFirstLine = true; // 最初の行を判定するフラグ
-            while ((line = reader.readLine()) != null) {
-                if (isFirstLine) {
-                    isFirstLine = false; // 最初の行（カラム行）はスキップ
-                    continue;
+            @Override
+            protected void done() {
+                try {
+                    List<Task> tasks = get();
+                    tableModel.setSearchIndex(searchIndex);
+                    taskStore.addAll(tasks);
+                } catch (InterruptedException | ExecutionException e) {
+                    Throwable cause = e.getCause() != null ? e.getCause() : e;
+                    JOptionPane.showMessageDialog(TaskManager.this, "タスクの読み込み中にエラーが発生しました: " + cause.getMessage(),
+                            "読み込みエラー", JOptionPane.ERROR_MESSAGE);
+                    return;
                 }
-                taskList.add(Task.fromCSV(line));
+                watchExternalChanges();
+                setEditable(true);
+                loaded = true;
+                for (Runnable listener : loadListeners) {
+                    listener.run();
+                }
+                loadListeners.clear();
             }
-            sortTasksByDueDate();
+        }.execute();
+    }
+
+    // 他のプロセスがファイルを変更したら、変わったタスクだけを一覧に反映する
+    private void watchExternalChanges() {
+        try {
+            repository.watch(changes -> SwingUtilities.invokeLater(() -> repository.apply(changes, taskStore)));
         } catch (IOException e) {
-            JOptionPane.showMessageDialog(this, "タスクの読み込み中にエラーが発生しました。", "読み込みエラー", JOptionPane.ERROR_MESSAGE);
+            System.err.println("タスクのファイルの監視を開始できませんでした: " + e.getMessage());
+        }
+    }
+
+    // 読み込みが完了したら listener を実行する（完了済みの場合はすぐに実行する）
+    public void whenLoaded(Runnable listener) {
+        if (loaded) {
+            listener.run();
+        } else {
+            loadListeners.add(listener);
+        }
+    }
+
+    private void setEditable(boolean editable) {
+        for (JButton button : editButtons) {
+            button.setEnabled(editable);
         }
     }
 
+    // 絞り込み条件を作成する（0 はすべて表示）
+    private static TaskQuery createFilter(int index) {
+        LocalDate today = TaskClock.today();
+        switch (index) {
+            case 1:
+                return new TaskQuery().done(false);
+            case 2:
+                return new TaskQuery().done(true);
+            case 3:
+                return new TaskQuery().overdue(true);
+            case 4:
+                return new TaskQuery().done(false).priority("高");
+            case 5:
+                return new TaskQuery().done(false).dueBetween(today, today.plusDays(7));
+            default:
+                return null;
+        }
+    }
+
+    // 保存しているタスク一覧（カレンダーなど他の画面から参照する）
+    public TaskStore getTaskStore() {
+        return taskStore;
+    }
+
+    // タスクの保存先（HTTP API など画面以外からの変更を記録する）
+    public TaskRepository getRepository() {
+        return repository;
+    }
+
     public static void main(String[] args) {
         SwingUtilities.invokeLater(TaskManager::new);
     }
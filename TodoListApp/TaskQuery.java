@@ -0,0 +1,46 @@
+package TodoListApp;
+
+import java.time.LocalDate;
+
+// TaskStore への検索条件（指定しなかった条件は絞り込まない）
+public class TaskQuery {
+    Boolean done; // 完了状態
+    String priority; // 優先度（高・中・低）
+    Boolean overdue; // 期限切れかどうか
+    LocalDate dueFrom; // 期限日の下限（この日を含む）
+    LocalDate dueTo; // 期限日の上限（この日を含む）
+
+    // 完了状態で絞り込む
+    public TaskQuery done(boolean done) {
+        this.done = done;
+        return this;
+    }
+
+    // 優先度で絞り込む
+    public TaskQuery priority(String priority) {
+        this.priority = priority;
+        return this;
+    }
+
+    // 期限切れかどうかで絞り込む
+    public TaskQuery overdue(boolean overdue) {
+        this.overdue = overdue;
+        return this;
+    }
+
+    // 期限日の範囲で絞り込む（null の側は無制限）
+    public TaskQuery dueBetween(LocalDate from, LocalDate to) {
+        this.dueFrom = from;
+        this.dueTo = to;
+        return this;
+    }
+
+    // タスクが条件をすべて満たすかどうか
+    public boolean matches(Task task) {
+        return (done == null || task.isDone == done)
+                && (priority == null || priority.equals(task.priority))
+                && (overdue == null || task.isOverdue == overdue)
+                && (dueFrom == null || !task.dueDate.isBefore(dueFrom))
+                && (dueTo == null || !task.dueDate.isAfter(dueTo));
+    }
+}
@@ -0,0 +1,662 @@
+package TodoListApp;
+
+import Storage.DirectoryWatcher;
+import Storage.LockFile;
+import Storage.PersistenceService;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.*;
+import java.util.function.Consumer;
+
+// タスクの保存・読み込みを行うクラス
+// スナップショット（バイナリ形式）＋変更ジャーナルで構成し、変更は1件1レコードでジャーナルに追記する。
+// 追記は PersistenceService の書き込みスレッドでまとめて行い、書き込み前に同じタスクが再度変更された場合は最後の状態だけを書く。
+// ジャーナルが大きくなったら、書き込みスレッドでスナップショットに書き戻す（コンパクション）。
+// CSVは取り込み・書き出し用の形式で、以前のCSVのスナップショットはバイナリ形式がない場合に一度だけ読み込む。
+// 画面を使わない一括処理（TaskCli）は load() の代わりに open() と forEach() を使い、タスク一覧をメモリに作らない
+//
+// 複数のプロセス（アプリを2つ起動した場合や、アプリと TaskCli を同時に実行した場合）で同じファイルを使えるよう、
+// ファイルの読み書きはロックファイル（<ベース名>.lock）のロック中に行い、IDはロックファイルに保存した上限から予約して採番する。
+// 書き込みの前には、他のプロセスが追記したジャーナルの続きを読み、スナップショットが書き直されていれば全件を読み直して、
+// 行ハッシュが変わったタスクだけを ExternalChangeListener に渡す（watch() した場合は、ファイルの変更を監視して同じように読む）
+public class TaskRepository implements Closeable {
+    private static final long MIN_COMPACTION_BYTES = 1024 * 1024; // コンパクションを行うジャーナルの最小サイズ
+    private static final int ID_BLOCK = 100; // 一度に予約するIDの数
+    private static final int BULK_CHANGES = 1000; // これより多い他のプロセスの変更は、索引をまとめて作り直して反映する
+
+    private final Path snapshotPath; // スナップショット（バイナリ形式）
+    private final Path csvPath; // 以前のCSVのスナップショット
+    private final Path journalPath; // 変更ジャーナル
+    private final Path compactingPath; // 以前の形式のコンパクション中の旧ジャーナル
+    private final TaskJournal journal; // ロック中にのみ操作する
+    private final LockFile lock; // 他のプロセスと共有するロック（IDの採番の上限を保存する）
+    private final PersistenceService service;
+
+    private int nextId = 1; // 次に採番するタスクID（synchronized で操作する）
+    private int reservedEnd = 1; // 予約済みのIDの終わり（nextId から reservedEnd - 1 までを採番できる。synchronized で操作する）
+    private Map<Integer, String> pending = new LinkedHashMap<>(); // 未書き込みのジャーナルのレコード（タスクID → レコード）
+    private volatile boolean compactionQueued; // コンパクションの実行待ちかどうか
+    private volatile long journalSize; // 書き込み済みのジャーナルのサイズ
+    private volatile long snapshotSize; // 最後に書き出したスナップショットのサイズ
+
+    // 他のプロセスの変更の読み込み（ロック中に操作する）
+    private Object snapshotStamp; // 最後に読み書きしたスナップショットの識別（ファイルキー・サイズ・更新時刻）
+    private long journalOffset; // ジャーナルの読み込み・書き込み済みの位置
+    private int[] rowHashes = new int[0]; // ID → ファイル上のタスクの行ハッシュ（0 はタスクなし。synchronized で操作する）
+    private boolean tracking; // load() で読み込んだタスクについて、他のプロセスの変更を追うかどうか（open() では追わない）
+    private ExternalChangeListener externalListener; // synchronized で操作する
+    private final List<ExternalChanges> undelivered = new ArrayList<>(); // watch() の前に読んだ他のプロセスの変更
+    private DirectoryWatcher watcher;
+
+    // 画面での変更と他のプロセスの変更の競合の判定（synchronized で操作する）
+    private long localSeq; // 画面での変更の通し番号
+    private int unappliedBatches; // 渡したが apply() されていない他のプロセスの変更の数
+    private final Map<Integer, Long> localChanges = new HashMap<>(); // 反映待ちの間に画面で変更したタスク（ID → 通し番号）
+
+    public TaskRepository(Path directory, String baseName) {
+        this(directory, baseName, PersistenceService.getDefault());
+    }
+
+    public TaskRepository(Path directory, String baseName, PersistenceService service) {
+        this.service = service;
+        this.snapshotPath = directory.resolve(baseName + ".bin");
+        this.csvPath = directory.resolve(baseName + ".csv");
+        this.journalPath = directory.resolve(baseName + ".journal");
+        this.compactingPath = directory.resolve(baseName + ".journal.old");
+        this.journal = new TaskJournal(journalPath);
+        this.lock = new LockFile(directory.resolve(baseName + ".lock"));
+    }
+
+    // 他のプロセスによる変更を受け取るリスナー（書き込みスレッドから呼ばれる）
+    public interface ExternalChangeListener {
+        void tasksChangedExternally(ExternalChanges changes);
+    }
+
+    // 他のプロセスによる変更（EDT で apply() に渡して TaskStore に反映する）
+    public static final class ExternalChanges {
+        final Map<Integer, Task> tasks; // ID → 変更後のタスク（削除は null）
+        final long seq; // 読み込んだ時点の画面での変更の通し番号
+
+        ExternalChanges(Map<Integer, Task> tasks, long seq) {
+            this.tasks = tasks;
+            this.seq = seq;
+        }
+
+        public int size() {
+            return tasks.size();
+        }
+    }
+
+    // スナップショットを読み込み、ジャーナルを再生してタスクを復元する
+    public List<Task> load() throws IOException {
+        Files.createDirectories(snapshotPath.getParent());
+        return lock.withLock(() -> {
+            List<Task> tasks = loadLocked();
+            tracking = true;
+            return tasks;
+        });
+    }
+
+    private List<Task> loadLocked() throws IOException {
+        Map<Integer, Task> tasks = new LinkedHashMap<>();
+        List<Task> unnumbered = new ArrayList<>();
+        boolean migrating = false;
+        if (Files.exists(snapshotPath)) {
+            snapshotSize = Files.size(snapshotPath);
+            for (Task task : TaskSnapshot.read(snapshotPath)) {
+                tasks.put(task.id, task);
+            }
+        } else if (Files.exists(csvPath)) {
+            migrating = true;
+            try (CsvReader reader = CsvReader.open(csvPath.toFile())) {
+                reader.next(); // 最初の行（カラム行）はスキップ
+                while (reader.next()) {
+                    Task task = Task.fromCSV(reader);
+                    if (task.id <= 0 || tasks.containsKey(task.id)) {
+                        unnumbered.add(task); // ID列のない旧形式
+                    } else {
+                        tasks.put(task.id, task);
+                    }
+                }
+            }
+        }
+        int next = tasks.keySet().stream().mapToInt(Integer::intValue).max().orElse(0) + 1; // 次に採番するID
+        for (Task task : unnumbered) {
+            task.id = next++;
+            tasks.put(task.id, task);
+        }
+
+        // 前回のコンパクションが途中で終了していた場合は、旧ジャーナルから再生する
+        boolean interrupted = Files.exists(compactingPath);
+        TaskJournal.replay(compactingPath, tasks);
+        TaskJournal.replay(journalPath, tasks);
+        for (int id : tasks.keySet()) {
+            next = Math.max(next, id + 1);
+        }
+
+        List<Task> result = new ArrayList<>(tasks.values());
+        if (interrupted || migrating || !unnumbered.isEmpty()) {
+            // 復旧した状態（と採番したID、CSVから移行したタスク）をすぐにスナップショットに書き戻す
+            writeSnapshot(result);
+            Files.deleteIfExists(compactingPath);
+            Files.deleteIfExists(journalPath);
+        }
+        synchronized (this) {
+            nextId = next;
+            rowHashes = new int[nextId];
+            for (Task task : result) {
+                rowHashes[task.id] = rowHash(task);
+            }
+        }
+        openJournal();
+        return result;
+    }
+
+    // タスク一覧を作らずに、変更を記録できるようにする（IDの採番だけを復元する）
+    // 以前のCSVからの移行と、途中で終了したコンパクションの復旧が必要な場合だけ load() で読み込む
+    public void open() throws IOException {
+        Files.createDirectories(snapshotPath.getParent());
+        lock.withLock(() -> {
+            if (Files.exists(compactingPath) || (Files.notExists(snapshotPath) && Files.exists(csvPath))) {
+                loadLocked();
+                return null;
+            }
+            int maxId = 0;
+            if (Files.exists(snapshotPath)) {
+                snapshotSize = Files.size(snapshotPath);
+                maxId = TaskSnapshot.maxId(snapshotPath);
+            }
+            for (int id : readChanges().keySet()) {
+                maxId = Math.max(maxId, id);
+            }
+            synchronized (this) {
+                nextId = maxId + 1;
+            }
+            openJournal();
+            return null;
+        });
+    }
+
+    private void openJournal() throws IOException {
+        journal.open();
+        journalSize = journal.size();
+        journalOffset = journalSize;
+        snapshotStamp = stamp(snapshotPath);
+        synchronized (this) {
+            reservedEnd = nextId;
+        }
+    }
+
+    // ファイルの変更を監視し、他のプロセスによる変更を listener に渡す（load() のあとで呼ぶ）
+    // load() から watch() までの間に読んだ変更は、ここでまとめて渡す。終了時には、予約したまま使わなかったIDを戻す
+    public void watch(ExternalChangeListener listener) throws IOException {
+        synchronized (this) {
+            externalListener = listener;
+            for (ExternalChanges changes : undelivered) {
+                listener.tasksChangedExternally(changes); // このあとに読む変更より先に渡す
+            }
+            undelivered.clear();
+        }
+        Set<String> names = new HashSet<>(Arrays.asList(snapshotPath.getFileName().toString(),
+                journalPath.getFileName().toString()));
+        watcher = new DirectoryWatcher(snapshotPath.getParent(), names, name -> refresh());
+        Runtime.getRuntime().addShutdownHook(new Thread(this::releaseIds, "task-id-release"));
+    }
+
+    // 他のプロセスによる変更があれば、書き込みスレッドで読み込んでリスナーに渡す
+    public void refresh() {
+        service.submit(lock.getPath(), () -> lock.withLock(() -> {
+            catchUp();
+            return null;
+        }));
+    }
+
+    // 他のプロセスによる変更を TaskStore に反映する（EDT で呼ぶ）
+    // 変更を読み込んでから反映するまでの間に画面で変更したタスクは、画面の変更（このあとファイルにも書く）を優先する。
+    // 変更が少ない場合は行ごとに追加・変更・削除し、多い場合は索引をまとめて作り直す
+    public void apply(ExternalChanges changes, TaskStore store) {
+        Map<Integer, Task> tasks = changes.tasks;
+        synchronized (this) {
+            tasks.keySet().removeIf(id -> localChanges.getOrDefault(id, 0L) > changes.seq);
+            if (--unappliedBatches == 0) {
+                localChanges.clear();
+            } else {
+                localChanges.values().removeIf(seq -> seq <= changes.seq);
+            }
+        }
+        if (tasks.size() > BULK_CHANGES) {
+            store.applyChanges(tasks);
+            return;
+        }
+        for (Map.Entry<Integer, Task> entry : tasks.entrySet()) {
+            Task current = store.findById(entry.getKey());
+            Task changed = entry.getValue();
+            if (changed == null) {
+                if (current != null) {
+                    store.remove(current);
+                }
+            } else if (current == null) {
+                store.add(changed);
+            } else {
+                store.update(current, t -> {
+                    t.title = changed.title;
+                    t.description = changed.description;
+                    t.isDone = changed.isDone;
+                    t.dueDate = changed.dueDate;
+                    t.createdDate = changed.createdDate;
+                    t.updatedDate = changed.updatedDate;
+                });
+            }
+        }
+    }
+
+    // 保存されているタスクを、ジャーナルの変更を適用しながら1件ずつ渡す（load() または open() のあとで呼ぶ）
+    // スナップショットは1件ずつ読むため、メモリに持つのはジャーナルの変更だけ。順序は load() と同じ
+    public void forEach(Consumer<Task> action) throws IOException {
+        service.flush();
+        lock.withLock(() -> {
+            forEachLocked(action);
+            return null;
+        });
+    }
+
+    private void forEachLocked(Consumer<Task> action) throws IOException {
+        Map<Integer, Task> changes = readChanges();
+        if (Files.exists(snapshotPath)) {
+            TaskSnapshot.forEach(snapshotPath, task -> {
+                if (!changes.containsKey(task.id)) {
+                    action.accept(task);
+                    return;
+                }
+                Task changed = changes.remove(task.id);
+                if (changed != null) {
+                    action.accept(changed);
+                }
+            });
+        }
+        for (Task task : changes.values()) {
+            if (task != null) {
+                action.accept(task);
+            }
+        }
+    }
+
+    // ジャーナルを読み直して ID → 変更後のタスク（削除は null）を作る（未書き込みの変更は含まない）
+    private Map<Integer, Task> readChanges() throws IOException {
+        Map<Integer, Task> changes = new LinkedHashMap<>();
+        TaskJournal.replayChanges(compactingPath, changes);
+        TaskJournal.replayChanges(journalPath, changes);
+        return changes;
+    }
+
+    // タスクの追加を記録する（IDを採番する）
+    public void added(Task task) {
+        task.id = allocateIds(1);
+        record(task.id, TaskJournal.putRecord(task), rowHash(task));
+    }
+
+    // 複数タスクの追加をまとめて記録する（IDを採番する）
+    public void addedAll(Collection<Task> tasks) {
+        int id = allocateIds(tasks.size());
+        Map<Integer, String> records = new LinkedHashMap<>();
+        for (Task task : tasks) {
+            task.id = id++;
+            records.put(task.id, TaskJournal.putRecord(task));
+        }
+        synchronized (this) {
+            pending.putAll(records);
+            localSeq++;
+            for (Task task : tasks) {
+                setRowHash(task.id, rowHash(task));
+                if (unappliedBatches > 0) {
+                    localChanges.put(task.id, localSeq);
+                }
+            }
+        }
+        service.submit(journalPath, this::writeJournal);
+    }
+
+    // タスクの更新を記録する
+    public void updated(Task task) {
+        record(task.id, TaskJournal.putRecord(task), rowHash(task));
+    }
+
+    // タスクの削除を記録する
+    public void deleted(Task task) {
+        record(task.id, TaskJournal.deleteRecord(task.id), 0);
+    }
+
+    // ジャーナルが一定サイズを超えていれば、書き込みスレッドでスナップショットに書き戻す
+    // （スナップショットの半分を超えたら行うため、書き戻しのコストは変更1件あたり定数に収まる）。
+    // 他のプロセスの変更も含めるため、メモリ上のタスクではなくファイルのスナップショットとジャーナルから書き直す
+    public void compactIfNeeded() {
+        if (compactionQueued || journalSize < Math.max(MIN_COMPACTION_BYTES, snapshotSize / 2)) {
+            return;
+        }
+        compactionQueued = true;
+        service.submit(snapshotPath, () -> {
+            try {
+                lock.withLock(() -> {
+                    catchUp();
+                    appendPending();
+                    rewriteLocked(task -> {
+                    }, Collections.emptyIterator());
+                    return null;
+                });
+            } finally {
+                compactionQueued = false;
+            }
+        });
+    }
+
+    // 呼び出したスレッドで、ジャーナルをスナップショットに書き戻す（open() のあとで呼ぶ）
+    public void compact() throws IOException {
+        rewrite(task -> {
+        }, Collections.emptyIterator());
+    }
+
+    // 呼び出したスレッドで、スナップショットを書き直す（open() のあとで呼ぶ。一括変更・一括追加用）
+    // 保存されているタスクを1件ずつ change に渡して（タスクを変更してよい）書き出し、続けて added のタスクをIDを採番して書き出す。
+    // タスクを流しながら書き出すため、タスク一覧をメモリに作らず、変更をジャーナルにも書かない。
+    // 書き直したあとでジャーナルを削除するため、途中で終了した場合は書き直す前の状態に戻る
+    public void rewrite(Consumer<Task> change, Iterator<Task> added) throws IOException {
+        service.submit(journalPath, this::writeJournal);
+        service.flush();
+        lock.withLock(() -> {
+            catchUp();
+            appendPending();
+            rewriteLocked(change, added);
+            return null;
+        });
+    }
+
+    // 書き込みスレッド（コンパクション）からも呼ばれるため、画面のスレッドが採番に使う nextId・reservedEnd は変えない。
+    // 追加するタスクには、このプロセスの予約と他のプロセスの予約（ロックファイルの値）より後ろのIDを採番し、
+    // ロックファイルの値だけを進める（このプロセスの次の予約は、その値から始まる）
+    private void rewriteLocked(Consumer<Task> change, Iterator<Task> added) throws IOException {
+        journal.close();
+        long high = lock.readValue();
+        int[] maxId = { 0 };
+        try (TaskSnapshot.Builder builder = new TaskSnapshot.Builder(snapshotPath.getParent())) {
+            forEachLocked(task -> {
+                change.accept(task);
+                builder.add(task);
+                maxId[0] = Math.max(maxId[0], task.id);
+            });
+            long end = Math.max(high, maxId[0] + 1); // 書き直したあとのロックファイルの値
+            if (added.hasNext()) {
+                int next;
+                synchronized (this) {
+                    next = (int) Math.max(end, Math.max(nextId, reservedEnd));
+                }
+                while (added.hasNext()) {
+                    Task task = added.next();
+                    task.id = next++;
+                    builder.add(task);
+                }
+                end = next;
+            }
+            lock.writeValue(end); // 他のプロセスは、追加したタスクのあとから採番する
+            service.replace(snapshotPath, builder::writeTo);
+            snapshotSize = Files.size(snapshotPath);
+            Files.deleteIfExists(compactingPath);
+            Files.deleteIfExists(journalPath);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            journal.open(); // 書き直しに失敗した場合は、これまでのジャーナルに追記を続ける
+            journalSize = journal.size();
+            journalOffset = journalSize;
+            snapshotStamp = stamp(snapshotPath);
+        }
+    }
+
+    // 未書き込みの変更を書き込んでジャーナルを閉じ、使わなかったIDの予約を戻す（書き込みが終わるまで待つ）
+    @Override
+    public void close() throws IOException {
+        service.submit(journalPath, () -> {
+            writeJournal();
+            journal.close();
+        });
+        service.flush();
+        if (watcher != null) {
+            watcher.close();
+        }
+        releaseIds();
+        lock.close();
+    }
+
+    // count 個の連続したIDを採番し、最初のIDを返す（予約したIDが足りなければ予約を増やす）
+    private int allocateIds(int count) {
+        while (true) {
+            synchronized (this) {
+                if (reservedEnd - nextId >= count) {
+                    int first = nextId;
+                    nextId += count;
+                    return first;
+                }
+            }
+            reserveIds(count);
+        }
+    }
+
+    // ロックファイルの上限を進めて、count 個以上のIDを予約する
+    // （他のプロセスや書き直しが上限を進めていない場合は続きから、進めている場合はその上限から採番する）。
+    // ロックは必ずファイルのロック、このオブジェクトのモニターの順に取得する（catchUp や書き直しと同じ順）
+    private void reserveIds(int count) {
+        try {
+            lock.withLock(() -> {
+                long high = lock.readValue();
+                synchronized (this) {
+                    if (reservedEnd - nextId >= count) {
+                        return null; // 他のスレッドが予約した
+                    }
+                    if (high != reservedEnd) {
+                        nextId = (int) Math.max(high, nextId);
+                    }
+                    reservedEnd = nextId + Math.max(count, ID_BLOCK);
+                    lock.writeValue(reservedEnd);
+                }
+                return null;
+            });
+        } catch (IOException e) {
+            // ロックできない場合（読み取り専用のディレクトリなど）は、このプロセスだけで採番する
+            System.err.println("IDを予約できませんでした（" + lock.getPath() + "）: " + e.getMessage());
+            synchronized (this) {
+                reservedEnd = Math.max(reservedEnd, nextId + count);
+            }
+        }
+    }
+
+    // 予約したまま使わなかったIDを戻す（そのあと他のプロセスが予約していない場合だけ）
+    private void releaseIds() {
+        synchronized (this) {
+            if (reservedEnd == nextId) {
+                return;
+            }
+        }
+        try {
+            lock.withLock(() -> {
+                long high = lock.readValue();
+                synchronized (this) {
+                    if (high == reservedEnd) {
+                        lock.writeValue(nextId);
+                        reservedEnd = nextId;
+                    }
+                }
+                return null;
+            });
+        } catch (IOException e) {
+            // 戻せなかった場合は、次に採番するIDが飛ぶだけ
+        }
+    }
+
+    // レコードと、書き込んだあとのファイル上の行ハッシュ（削除は 0）を記録する
+    private void record(int id, String record, int hash) {
+        synchronized (this) {
+            pending.put(id, record);
+            setRowHash(id, hash);
+            localSeq++;
+            if (unappliedBatches > 0) {
+                localChanges.put(id, localSeq);
+            }
+        }
+        service.submit(journalPath, this::writeJournal);
+    }
+
+    // 他のプロセスの変更を読んでから、未書き込みのレコードをまとめてジャーナルに追記する（書き込みスレッドで実行する）
+    private void writeJournal() throws IOException {
+        lock.withLock(() -> {
+            catchUp();
+            appendPending();
+            return null;
+        });
+    }
+
+    // 追記に失敗した場合は、レコードを未書き込みに戻して次の書き込みでやり直す
+    // （そのあとに同じタスクが変更されていれば、新しいレコードを残す）
+    private void appendPending() throws IOException {
+        Map<Integer, String> records;
+        synchronized (this) {
+            if (pending.isEmpty()) {
+                return;
+            }
+            records = pending;
+            pending = new LinkedHashMap<>();
+        }
+        try {
+            journal.append(records.values());
+        } catch (IOException e) {
+            synchronized (this) {
+                records.putAll(pending);
+                pending = records;
+            }
+            throw e;
+        }
+        if (service.getSyncPolicy() == PersistenceService.SyncPolicy.ALWAYS) {
+            journal.force();
+        }
+        journalSize = journal.size();
+        journalOffset = journalSize;
+    }
+
+    // 前回の読み書きのあとに他のプロセスが変更した分を読み、リスナーに渡す（ロック中に呼ぶ）
+    // ジャーナルに追記されただけなら続きだけを読み、スナップショットが書き直されていれば（他のプロセスの
+    // コンパクション・一括処理）全件を読み直して、行ハッシュが変わったタスクと、なくなったタスクだけを取り出す。
+    // load() のあと watch() の前に読んだ変更は、watch() で渡すまで取っておく（open() だけの場合は読まない）
+    private void catchUp() throws IOException {
+        Object stamp = stamp(snapshotPath);
+        long size = Files.exists(journalPath) ? Files.size(journalPath) : 0;
+        boolean rewritten = !stamp.equals(snapshotStamp) || size < journalOffset;
+        if (rewritten) {
+            journal.reopen(); // 削除されたジャーナルに追記しないよう、開き直す
+        }
+        if (!tracking || (!rewritten && size == journalOffset)) {
+            snapshotStamp = stamp;
+            journalOffset = size;
+            return;
+        }
+
+        Map<Integer, Task> changes = new LinkedHashMap<>();
+        if (rewritten) {
+            BitSet found = new BitSet();
+            forEachLocked(task -> {
+                found.set(task.id);
+                if (rowHash(task) != knownRowHash(task.id)) {
+                    changes.put(task.id, task);
+                }
+            });
+            synchronized (this) {
+                for (int id = 0; id < rowHashes.length; id++) {
+                    if (rowHashes[id] != 0 && !found.get(id)) {
+                        changes.put(id, null);
+                    }
+                }
+            }
+            journalOffset = size;
+        } else {
+            journalOffset = TaskJournal.replayChanges(journalPath, journalOffset, changes);
+        }
+        snapshotStamp = stamp;
+        journalSize = size;
+
+        ExternalChanges batch;
+        ExternalChangeListener listener;
+        synchronized (this) {
+            for (Iterator<Map.Entry<Integer, Task>> it = changes.entrySet().iterator(); it.hasNext();) {
+                Map.Entry<Integer, Task> entry = it.next();
+                int hash = entry.getValue() == null ? 0 : rowHash(entry.getValue());
+                if (pending.containsKey(entry.getKey())) {
+                    it.remove(); // このあと書く画面での変更で上書きする
+                } else if (hash == knownRowHash(entry.getKey())) {
+                    it.remove(); // 読み込み済みの内容と同じ
+                } else {
+                    setRowHash(entry.getKey(), hash);
+                }
+            }
+            if (changes.isEmpty()) {
+                return;
+            }
+            unappliedBatches++;
+            batch = new ExternalChanges(changes, localSeq);
+            listener = externalListener;
+            if (listener == null) {
+                undelivered.add(batch);
+                return;
+            }
+        }
+        listener.tasksChangedExternally(batch);
+    }
+
+    private synchronized int knownRowHash(int id) {
+        return id < rowHashes.length ? rowHashes[id] : 0;
+    }
+
+    private void setRowHash(int id, int hash) {
+        if (id >= rowHashes.length) {
+            rowHashes = Arrays.copyOf(rowHashes, Math.max(id + 1, rowHashes.length * 2));
+        }
+        rowHashes[id] = hash;
+    }
+
+    // タスクの行ハッシュ（保存する項目から計算する。0 はタスクなしを表すため使わない）
+    static int rowHash(Task task) {
+        int hash = task.id;
+        hash = 31 * hash + Objects.hashCode(task.title);
+        hash = 31 * hash + Objects.hashCode(task.description);
+        hash = 31 * hash + (task.isDone ? 1 : 0);
+        hash = 31 * hash + Objects.hashCode(task.dueDate);
+        hash = 31 * hash + Objects.hashCode(task.createdDate);
+        hash = 31 * hash + Objects.hashCode(task.updatedDate);
+        return hash == 0 ? 1 : hash;
+    }
+
+    // ファイルが置き換えられたかどうかを判定するための識別（ファイルキー・サイズ・更新時刻。ない場合は空のリスト）
+    private static Object stamp(Path path) throws IOException {
+        if (Files.notExists(path)) {
+            return Collections.emptyList();
+        }
+        BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+        return Arrays.asList(attributes.fileKey(), attributes.size(), attributes.lastModifiedTime());
+    }
+
+    // タスク一覧をCSVに書き出す
+    public static void exportCSV(Iterable<Task> tasks, Path path) throws IOException {
+        try (CsvWriter writer = new CsvWriter(Files.newBufferedWriter(path, StandardCharsets.UTF_8))) {
+            Task.writeCSVHeader(writer);
+            for (Task task : tasks) {
+                task.writeCSV(writer);
+                writer.endRecord();
+            }
+        }
+    }
+
+    // 一時ファイルに書き出してから置き換える
+    private void writeSnapshot(List<Task> tasks) throws IOException {
+        service.replace(snapshotPath, channel -> TaskSnapshot.write(channel, tasks));
+        snapshotSize = Files.size(snapshotPath);
+    }
+}
@@ -0,0 +1,315 @@
+package TodoListApp;
+
+import java.text.Normalizer;
+import java.util.*;
+
+// タスクのタイトル・内容の全文検索用の転置索引
+// 日本語は単語の区切りがないため、正規化した文字列の1文字と連続する2文字（バイグラム）を索引の単位にする。
+// 正規化: NFKC（全角英数・半角カナの統一）、英字の小文字化、カタカナのひらがな化
+// 検索は検索語のバイグラムの出現リスト（タスクIDの昇順）を短い順に絞り込み、3文字以上の場合は正規化した文字列で確認する。
+// TaskTableModel からタスクの変更を受け取り、変わったタスクだけを更新する（Swing のEDTからのみ操作すること。
+// ただし、画面に渡す前であれば addAll は別スレッドで呼んでよい）
+public class TaskSearchIndex implements TaskStore.Listener {
+    private final TaskStore taskStore;
+    private int[] gramKeys = new int[1024]; // 索引の単位（オープンアドレス法のハッシュ表）
+    private Postings[] gramPostings = new Postings[1024]; // 索引の単位を含むタスクのID（null は空き）
+    private int gramCount; // ハッシュ表に登録した索引の単位の数
+    private final Map<Integer, String> texts = new HashMap<>(); // タスクID → 正規化したタイトルと内容
+
+    public TaskSearchIndex(TaskStore taskStore) {
+        this.taskStore = taskStore;
+    }
+
+    // 索引に含まれるタスクの数
+    public int size() {
+        return texts.size();
+    }
+
+    // タスクをまとめて索引に追加する（追加済みのタスクは更新する）
+    public void addAll(Collection<Task> tasks) {
+        for (Task task : tasks) {
+            put(task);
+        }
+    }
+
+    // text を含むタスクを期限日順で返す（空白だけの場合は null）
+    public List<Task> search(String text) {
+        String query = normalize(text.trim());
+        if (query.isEmpty()) {
+            return null;
+        }
+        int[] grams = grams(query);
+        Postings[] lists = new Postings[grams.length];
+        for (int i = 0; i < grams.length; i++) {
+            lists[i] = postings(grams[i], false);
+            if (lists[i] == null || lists[i].size == 0) {
+                return new ArrayList<>();
+            }
+        }
+        Arrays.sort(lists, Comparator.comparingInt(list -> list.size));
+
+        // 短い出現リストから順に絞り込む
+        int[] ids = Arrays.copyOf(lists[0].ids, lists[0].size);
+        int count = ids.length;
+        for (int i = 1; i < lists.length && count > 0; i++) {
+            count = lists[i].retainAll(ids, count);
+        }
+        if (query.length() > 2) {
+            // バイグラムがすべて含まれていても、連続しているとは限らないため確認する
+            int kept = 0;
+            for (int i = 0; i < count; i++) {
+                if (texts.get(ids[i]).contains(query)) {
+                    ids[kept++] = ids[i];
+                }
+            }
+            count = kept;
+        }
+        return toTasks(ids, count);
+    }
+
+    // 検索結果のIDを期限日順のタスクにする
+    // 結果が多い場合は、並べ替えるより期限日順にすべてのタスクをたどる方が速い
+    private List<Task> toTasks(int[] ids, int count) {
+        List<Task> result = new ArrayList<>(count);
+        if ((long) count * 20 > taskStore.size()) {
+            BitSet matched = new BitSet();
+            for (int i = 0; i < count; i++) {
+                matched.set(ids[i]);
+            }
+            for (Task task : taskStore) {
+                if (matched.get(task.id)) {
+                    result.add(task);
+                }
+            }
+        } else {
+            for (int i = 0; i < count; i++) {
+                Task task = taskStore.findById(ids[i]);
+                if (task != null) {
+                    result.add(task);
+                }
+            }
+            result.sort(TaskStore.DUE_DATE_ORDER);
+        }
+        return result;
+    }
+
+    // まとめて変更された（索引にないタスクを追加し、なくなったタスクを取り除く）
+    @Override
+    public void tasksChanged() {
+        for (Task task : taskStore) {
+            if (!texts.containsKey(task.id)) {
+                put(task);
+            }
+        }
+        if (texts.size() > taskStore.size()) {
+            List<Integer> removed = new ArrayList<>();
+            for (int id : texts.keySet()) {
+                if (taskStore.findById(id) == null) {
+                    removed.add(id);
+                }
+            }
+            for (int id : removed) {
+                remove(id);
+            }
+        }
+    }
+
+    @Override
+    public void taskInserted(int row, Task task) {
+        put(task);
+    }
+
+    @Override
+    public void taskDeleted(int row, Task task) {
+        remove(task.id);
+    }
+
+    @Override
+    public void taskUpdated(int oldRow, int newRow, Task task) {
+        put(task);
+    }
+
+    // タスクを索引に追加する（文字列が変わっていない場合は何もしない。変わった場合は差分だけを更新する）
+    private void put(Task task) {
+        String text = normalize(task.title) + '\n' + normalize(task.description);
+        String old = texts.put(task.id, text);
+        if (text.equals(old)) {
+            return;
+        }
+        int[] grams = grams(text);
+        int[] oldGrams = old == null ? new int[0] : grams(old);
+        for (int gram : oldGrams) {
+            if (Arrays.binarySearch(grams, gram) < 0) {
+                postings(gram, false).remove(task.id);
+            }
+        }
+        for (int gram : grams) {
+            if (Arrays.binarySearch(oldGrams, gram) < 0) {
+                postings(gram, true).add(task.id);
+            }
+        }
+    }
+
+    private void remove(int id) {
+        String old = texts.remove(id);
+        if (old == null) {
+            return;
+        }
+        for (int gram : grams(old)) {
+            postings(gram, false).remove(id);
+        }
+    }
+
+    // 索引の単位の出現リスト（ない場合は create なら作成し、そうでなければ null を返す）
+    // 空になった出現リストも削除せずに残す（同じ単位はまた使われることが多いため）
+    private Postings postings(int gram, boolean create) {
+        int mask = gramKeys.length - 1;
+        int slot = slot(gram);
+        while (gramPostings[slot] != null) {
+            if (gramKeys[slot] == gram) {
+                return gramPostings[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        if (!create) {
+            return null;
+        }
+        if ((gramCount + 1) * 2 > gramKeys.length) {
+            grow();
+            return postings(gram, true);
+        }
+        gramKeys[slot] = gram;
+        gramPostings[slot] = new Postings();
+        gramCount++;
+        return gramPostings[slot];
+    }
+
+    // ハッシュ表の最初の位置（掛け算の結果の上位ビットを表の大きさの分だけ使う。下位ビットは偏るため使わない）
+    private int slot(int gram) {
+        return (gram * 0x9E3779B9) >>> (32 - Integer.numberOfTrailingZeros(gramKeys.length));
+    }
+
+    private void grow() {
+        int[] oldKeys = gramKeys;
+        Postings[] oldPostings = gramPostings;
+        gramKeys = new int[oldKeys.length * 2];
+        gramPostings = new Postings[oldKeys.length * 2];
+        int mask = gramKeys.length - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldPostings[i] != null) {
+                int slot = slot(oldKeys[i]);
+                while (gramPostings[slot] != null) {
+                    slot = (slot + 1) & mask;
+                }
+                gramKeys[slot] = oldKeys[i];
+                gramPostings[slot] = oldPostings[i];
+            }
+        }
+    }
+
+    // 検索用に正規化する
+    static String normalize(String text) {
+        String normalized = Normalizer.normalize(text, Normalizer.Form.NFKC).toLowerCase(Locale.ROOT);
+        char[] chars = normalized.toCharArray();
+        for (int i = 0; i < chars.length; i++) {
+            char c = chars[i];
+            if (c >= 'ァ' && c <= 'ヶ') {
+                chars[i] = (char) (c - 0x60); // カタカナ → ひらがな
+            } else if (c == '\n' || c == '\r') {
+                chars[i] = ' ';
+            }
+        }
+        return new String(chars);
+    }
+
+    // 文字列に含まれる索引の単位（重複を除いて昇順。1文字は文字コード、2文字は上位16ビットに1文字目）
+    // 1文字の検索語は1文字の単位、2文字以上の検索語はバイグラムだけで探す。改行をまたぐ組は含めない
+    private static int[] grams(String text) {
+        if (text.length() == 1) {
+            return new int[] { text.charAt(0) };
+        }
+        boolean query = text.indexOf('\n') < 0;
+        int[] grams = new int[text.length() * 2];
+        int count = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '\n') {
+                continue;
+            }
+            if (!query) {
+                grams[count++] = c;
+            }
+            if (i + 1 < text.length() && text.charAt(i + 1) != '\n') {
+                grams[count++] = c << 16 | text.charAt(i + 1);
+            }
+        }
+        Arrays.sort(grams, 0, count);
+        int unique = 0;
+        for (int i = 0; i < count; i++) {
+            if (unique == 0 || grams[unique - 1] != grams[i]) {
+                grams[unique++] = grams[i];
+            }
+        }
+        return Arrays.copyOf(grams, unique);
+    }
+
+    // 索引の単位を含むタスクのID（昇順）
+    private static class Postings {
+        int[] ids = new int[4];
+        int size;
+
+        void add(int id) {
+            if (size > 0 && ids[size - 1] >= id) {
+                int index = Arrays.binarySearch(ids, 0, size, id);
+                if (index >= 0) {
+                    return;
+                }
+                insert(-index - 1, id);
+                return;
+            }
+            insert(size, id);
+        }
+
+        private void insert(int index, int id) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            System.arraycopy(ids, index, ids, index + 1, size - index);
+            ids[index] = id;
+            size++;
+        }
+
+        void remove(int id) {
+            int index = Arrays.binarySearch(ids, 0, size, id);
+            if (index >= 0) {
+                System.arraycopy(ids, index + 1, ids, index, size - index - 1);
+                size--;
+            }
+        }
+
+        // candidates の先頭 count 件のうち、このリストに含まれるものだけを前に詰めて件数を返す
+        // （候補は少ないため、リストの中を指数探索で進む）
+        int retainAll(int[] candidates, int count) {
+            int kept = 0;
+            int position = 0;
+            for (int i = 0; i < count && position < size; i++) {
+                int id = candidates[i];
+                int step = 1;
+                int high = position;
+                while (high < size && ids[high] < id) {
+                    position = high + 1;
+                    high += step;
+                    step <<= 1;
+                }
+                int index = Arrays.binarySearch(ids, position, Math.min(high + 1, size), id);
+                if (index >= 0) {
+                    candidates[kept++] = id;
+                    position = index + 1;
+                } else {
+                    position = -index - 1;
+                }
+            }
+            return kept;
+        }
+    }
+}
@@ -0,0 +1,557 @@
+package TodoListApp;
+
+import java.io.*;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.function.Consumer;
+
+// タスク一覧のバイナリ形式のスナップショット（<ベース名>.bin）
+// 列ごとに配列で保存し、読み込みは FileChannel の位置を指定した読み込みで配列ごとにまとめて取り出す。
+// メモリマップは使わない（Windows ではマップしたままのファイルを置き換え・削除できず、マップは GC まで残るため、
+// 読み込んだあとのコンパクションでの置き換えが失敗する）。
+// 日付はエポック日の int、完了フラグはビットセット、文字列は重複を除いた文字列表への番号で保存する。
+// 優先度と期限切れは読み込み時に再計算するため保存しない。
+// 画面を使わない処理（TaskCli）向けに、タスク一覧を作らずに1件ずつ読む forEach と書き出す Builder もある。
+//
+//   ヘッダー:   MAGIC(int) VERSION(int) タスク数(int) 文字列数(int) 文字列データの長さ(int)
+//   文字列表:   各文字列の開始位置(int × (文字列数 + 1)) 文字列データ(UTF-8、4バイト境界まで埋める)
+//   列:         ID、タイトル、内容、期限日、登録日、更新日(int × タスク数) 完了フラグ(long × ⌈タスク数 / 64⌉)
+final class TaskSnapshot {
+    private static final int MAGIC = 0x54534E50; // "TSNP"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 20;
+    private static final int NO_DATE = Integer.MIN_VALUE; // 日付なし（更新日が未設定の場合）
+    private static final int DATE_CACHE_SIZE = 1024; // 読み込み時に使い回す日付の数
+    private static final int STRING_CACHE_SIZE = 4096; // 1件ずつ読み書きするときに使い回す文字列の数
+    private static final int WINDOW_SIZE = 64 * 1024; // 読み込みバッファサイズ
+    private static final int STRING_WINDOW_SIZE = 256 * 1024; // 1件ずつ読む場合の文字列表の読み込みバッファサイズ
+    private static final int BATCH_SIZE = 16 * 1024; // 1件ずつ読む場合に、列をまとめて読み込む件数（64の倍数）
+
+    private TaskSnapshot() {
+    }
+
+    // スナップショットを書き出す
+    static void write(FileChannel channel, List<Task> tasks) throws IOException {
+        int count = tasks.size();
+        int[] ids = new int[count];
+        int[] titles = new int[count];
+        int[] descriptions = new int[count];
+        int[] dueDates = new int[count];
+        int[] createdDates = new int[count];
+        int[] updatedDates = new int[count];
+        long[] done = new long[(count + 63) >>> 6];
+
+        Map<String, Integer> stringIds = new HashMap<>();
+        List<byte[]> strings = new ArrayList<>();
+        int blobLength = 0;
+        for (int i = 0; i < count; i++) {
+            Task task = tasks.get(i);
+            ids[i] = task.id;
+            for (int column = 0; column < 2; column++) {
+                String value = column == 0 ? task.title : task.description;
+                Integer stringId = stringIds.get(value);
+                if (stringId == null) {
+                    byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+                    stringId = strings.size();
+                    stringIds.put(value, stringId);
+                    strings.add(bytes);
+                    blobLength += bytes.length;
+                }
+                (column == 0 ? titles : descriptions)[i] = stringId;
+            }
+            dueDates[i] = epochDay(task.dueDate);
+            createdDates[i] = epochDay(task.createdDate);
+            updatedDates[i] = epochDay(task.updatedDate);
+            if (task.isDone) {
+                done[i >>> 6] |= 1L << i;
+            }
+        }
+
+        DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(Channels.newOutputStream(channel), 256 * 1024));
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeInt(count);
+        out.writeInt(strings.size());
+        out.writeInt(blobLength);
+        int position = 0;
+        out.writeInt(position);
+        for (byte[] bytes : strings) {
+            position += bytes.length;
+            out.writeInt(position);
+        }
+        for (byte[] bytes : strings) {
+            out.write(bytes);
+        }
+        for (int i = blobLength; (i & 3) != 0; i++) {
+            out.writeByte(0);
+        }
+        for (int[] column : new int[][] { ids, titles, descriptions, dueDates, createdDates, updatedDates }) {
+            for (int value : column) {
+                out.writeInt(value);
+            }
+        }
+        for (long bits : done) {
+            out.writeLong(bits);
+        }
+        out.flush();
+    }
+
+    // スナップショットを読み込む
+    static List<Task> read(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            Layout layout = new Layout(channel, path);
+            int count = layout.count;
+            int stringCount = layout.stringCount;
+            int blobLength = layout.blobLength;
+            ByteBuffer scratch = ByteBuffer.allocate(WINDOW_SIZE);
+
+            // 文字列表（重複を除いているため、同じ文字列は1回だけ変換する）
+            int[] stringOffsets = readInts(channel, layout.offsetsStart, stringCount + 1, scratch);
+            byte[] blob = new byte[blobLength];
+            readFully(channel, ByteBuffer.wrap(blob), layout.blobStart);
+            String[] strings = new String[stringCount];
+            for (int i = 0; i < stringCount; i++) {
+                strings[i] = new String(blob, stringOffsets[i], stringOffsets[i + 1] - stringOffsets[i],
+                        StandardCharsets.UTF_8);
+            }
+
+            int[] ids = readInts(channel, layout.column(0, 0), count, scratch);
+            int[] titles = readInts(channel, layout.column(1, 0), count, scratch);
+            int[] descriptions = readInts(channel, layout.column(2, 0), count, scratch);
+            int[] dueDates = readInts(channel, layout.column(3, 0), count, scratch);
+            int[] createdDates = readInts(channel, layout.column(4, 0), count, scratch);
+            int[] updatedDates = readInts(channel, layout.column(5, 0), count, scratch);
+            long[] done = new long[(count + 63) >>> 6];
+            readLongs(channel, layout.doneStart, done, done.length, scratch);
+
+            DateCache dates = new DateCache();
+            List<Task> tasks = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                Task task = new Task(strings[titles[i]], strings[descriptions[i]], (done[i >>> 6] & (1L << i)) != 0,
+                        dates.get(dueDates[i]), dates.get(createdDates[i]), dates.get(updatedDates[i]));
+                task.id = ids[i];
+                tasks.add(task);
+            }
+            return tasks;
+        } catch (IndexOutOfBoundsException | BufferUnderflowException e) {
+            throw new IOException("スナップショットが壊れています: " + path, e);
+        }
+    }
+
+    // スナップショットのタスクを先頭から順に渡す（列や文字列表を配列に読み込まないため、タスク数によらずメモリ使用量は一定）
+    // 各列は BATCH_SIZE 件ずつ配列に読み込み、文字列は必要な部分だけを読む
+    static void forEach(Path path, Consumer<Task> action) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            Layout layout = new Layout(channel, path);
+            ByteBuffer scratch = ByteBuffer.allocate(WINDOW_SIZE);
+            int[][] columns = new int[6][BATCH_SIZE];
+            long[] done = new long[BATCH_SIZE >>> 6];
+            DateCache dates = new DateCache();
+            StringCache strings = new StringCache(channel, path, layout);
+            for (int first = 0; first < layout.count; first += BATCH_SIZE) {
+                int n = Math.min(BATCH_SIZE, layout.count - first);
+                for (int column = 0; column < columns.length; column++) {
+                    readInts(channel, layout.column(column, first), columns[column], n, scratch);
+                }
+                readLongs(channel, layout.doneStart + 8L * (first >>> 6), done, (n + 63) >>> 6, scratch);
+                for (int i = 0; i < n; i++) {
+                    Task task = new Task(strings.get(columns[1][i]), strings.get(columns[2][i]),
+                            (done[i >>> 6] & (1L << i)) != 0, dates.get(columns[3][i]), dates.get(columns[4][i]),
+                            dates.get(columns[5][i]));
+                    task.id = columns[0][i];
+                    action.accept(task);
+                }
+            }
+        } catch (IndexOutOfBoundsException | BufferUnderflowException e) {
+            throw new IOException("スナップショットが壊れています: " + path, e);
+        }
+    }
+
+    // スナップショットのタスクIDの最大値（タスクがない場合は0。ID の列だけを読む）
+    static int maxId(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            Layout layout = new Layout(channel, path);
+            ByteBuffer scratch = ByteBuffer.allocate(WINDOW_SIZE);
+            int[] ids = new int[BATCH_SIZE];
+            int max = 0;
+            for (int first = 0; first < layout.count; first += BATCH_SIZE) {
+                int n = Math.min(BATCH_SIZE, layout.count - first);
+                readInts(channel, layout.column(0, first), ids, n, scratch);
+                for (int i = 0; i < n; i++) {
+                    max = Math.max(max, ids[i]);
+                }
+            }
+            return max;
+        }
+    }
+
+    // position から count 個の int を読む（scratch を読み込みバッファとして使い回す）
+    private static int[] readInts(FileChannel channel, long position, int count, ByteBuffer scratch)
+            throws IOException {
+        int[] values = new int[count];
+        readInts(channel, position, values, count, scratch);
+        return values;
+    }
+
+    // position から count 個の int を values の先頭に読む
+    private static void readInts(FileChannel channel, long position, int[] values, int count, ByteBuffer scratch)
+            throws IOException {
+        int read = 0;
+        while (read < count) {
+            int n = Math.min(count - read, scratch.capacity() / 4);
+            scratch.clear().limit(4 * n);
+            readFully(channel, scratch, position + 4L * read);
+            scratch.flip();
+            scratch.asIntBuffer().get(values, read, n);
+            read += n;
+        }
+    }
+
+    // position から count 個の long を values の先頭に読む
+    private static void readLongs(FileChannel channel, long position, long[] values, int count, ByteBuffer scratch)
+            throws IOException {
+        int read = 0;
+        while (read < count) {
+            int n = Math.min(count - read, scratch.capacity() / 8);
+            scratch.clear().limit(8 * n);
+            readFully(channel, scratch, position + 8L * read);
+            scratch.flip();
+            scratch.asLongBuffer().get(values, read, n);
+            read += n;
+        }
+    }
+
+    // buffer がいっぱいになるまで position から読む（ファイルが途中で終わった場合は EOFException）
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        long next = position;
+        while (buffer.hasRemaining()) {
+            int n = channel.read(buffer, next);
+            if (n < 0) {
+                throw new EOFException("スナップショットが途中で終わっています");
+            }
+            next += n;
+        }
+    }
+
+    private static int epochDay(LocalDate date) {
+        return date == null ? NO_DATE : (int) date.toEpochDay();
+    }
+
+    // ヘッダーを読み、各部分の位置を求める（サイズがヘッダーと合わない場合は IOException）
+    private static final class Layout {
+        final int count; // タスク数
+        final int stringCount; // 文字列数
+        final int blobLength; // 文字列データの長さ
+        final int offsetsStart; // 文字列の開始位置の表の位置
+        final int blobStart; // 文字列データの位置
+        final int columnsStart; // 最初の列（ID）の位置
+        final int doneStart; // 完了フラグの位置
+
+        Layout(FileChannel channel, Path path) throws IOException {
+            long size = channel.size();
+            if (size < HEADER_SIZE || size > Integer.MAX_VALUE) {
+                throw new IOException("スナップショットのサイズが不正です: " + size);
+            }
+            ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE);
+            readFully(channel, buffer, 0);
+            buffer.flip();
+            if (buffer.getInt() != MAGIC) {
+                throw new IOException("スナップショットの形式が不正です: " + path);
+            }
+            int version = buffer.getInt();
+            if (version != VERSION) {
+                throw new IOException("対応していないスナップショットのバージョンです: " + version);
+            }
+            count = buffer.getInt();
+            stringCount = buffer.getInt();
+            blobLength = buffer.getInt();
+            long expected = HEADER_SIZE + 4L * (stringCount + 1) + ((blobLength + 3L) & ~3L)
+                    + 24L * count + 8L * ((count + 63L) >>> 6);
+            if (count < 0 || stringCount < 0 || blobLength < 0 || expected != size) {
+                throw new IOException("スナップショットが壊れています: " + path);
+            }
+            offsetsStart = HEADER_SIZE;
+            blobStart = offsetsStart + 4 * (stringCount + 1);
+            columnsStart = blobStart + ((blobLength + 3) & ~3);
+            doneStart = columnsStart + 24 * count;
+        }
+
+        // column 番目の列（ID、タイトル、内容、期限日、登録日、更新日の順）の index 番目の値の位置
+        int column(int column, int index) {
+            return columnsStart + 4 * (count * column + index);
+        }
+    }
+
+    // ファイルの一部（STRING_WINDOW_SIZE）を読み込んでおき、その範囲の読み込みはバッファから返す
+    // 範囲より後ろを読む場合は、その位置の少し前（半分）から読み込み直す（繰り返し現れる文字列は少し前にあることが多いため）。
+    // 範囲より前を読む場合は、範囲を変えずにその部分だけを直接読む
+    private static final class Window {
+        private final FileChannel channel;
+        private final Path path;
+        private final long end; // 読める範囲の終わり
+        private byte[] data = new byte[STRING_WINDOW_SIZE];
+        private long start = -1; // data の先頭のファイル上の位置（未読み込みの場合は -1）
+        private int length; // data に読み込んだバイト数
+        private byte[] side = new byte[256]; // 範囲より前を直接読むためのバッファ
+
+        Window(FileChannel channel, Path path, long end) {
+            this.channel = channel;
+            this.path = path;
+            this.end = end;
+        }
+
+        int getInt(long position) throws IOException {
+            byte[] bytes = data;
+            int offset;
+            if (start >= 0 && position >= start && position + 4 <= start + length) {
+                offset = (int) (position - start);
+            } else if (start >= 0 && position < start) {
+                bytes = readSide(position, 4);
+                offset = 0;
+            } else {
+                offset = load(position, 4);
+            }
+            return (bytes[offset] & 0xff) << 24 | (bytes[offset + 1] & 0xff) << 16 | (bytes[offset + 2] & 0xff) << 8
+                    | (bytes[offset + 3] & 0xff);
+        }
+
+        void get(long position, byte[] bytes, int count) throws IOException {
+            if (start >= 0 && position >= start && position + count <= start + length) {
+                System.arraycopy(data, (int) (position - start), bytes, 0, count);
+            } else if (start >= 0 && position < start) {
+                System.arraycopy(readSide(position, count), 0, bytes, 0, count);
+            } else {
+                System.arraycopy(data, load(position, count), bytes, 0, count);
+            }
+        }
+
+        // position の少し前から読み込み直し、data 内の位置を返す
+        private int load(long position, int count) throws IOException {
+            if (count > data.length / 2) {
+                data = new byte[2 * count];
+            }
+            long from = Math.max(start < 0 ? 0 : start, position - data.length / 2);
+            length = fill(data, (int) Math.min(data.length, end - from), from, (int) (position - from) + count);
+            start = from;
+            return (int) (position - from);
+        }
+
+        // 読み込んだ範囲より前の count バイトを、範囲を変えずに直接読む
+        private byte[] readSide(long position, int count) throws IOException {
+            if (count > side.length) {
+                side = new byte[count];
+            }
+            fill(side, count, position, count);
+            return side;
+        }
+
+        // target の先頭から capacity バイトまで position から読み、読んだバイト数を返す（required バイトに足りなければ IOException）
+        private int fill(byte[] target, int capacity, long position, int required) throws IOException {
+            ByteBuffer buffer = ByteBuffer.wrap(target, 0, Math.max(capacity, required));
+            long next = position;
+            while (buffer.hasRemaining()) {
+                int n = channel.read(buffer, next);
+                if (n < 0) {
+                    break;
+                }
+                next += n;
+            }
+            if (buffer.position() < required) {
+                throw new IOException("スナップショットが壊れています: " + path);
+            }
+            return buffer.position();
+        }
+    }
+
+    // 文字列表の番号から文字列への変換結果を使い回す（1件ずつ読む場合、文字列表をまとめて変換しない）
+    private static class StringCache {
+        private final Layout layout;
+        private final Window offsets; // 文字列の開始位置の表
+        private final Window blob; // 文字列データ
+        private final int[] keys = new int[STRING_CACHE_SIZE];
+        private final String[] values = new String[STRING_CACHE_SIZE];
+        private byte[] bytes = new byte[256];
+
+        StringCache(FileChannel channel, Path path, Layout layout) {
+            this.layout = layout;
+            this.offsets = new Window(channel, path, layout.blobStart);
+            this.blob = new Window(channel, path, layout.blobStart + layout.blobLength);
+        }
+
+        String get(int stringId) throws IOException {
+            if (stringId < 0 || stringId >= layout.stringCount) {
+                throw new IndexOutOfBoundsException("文字列の番号が不正です: " + stringId);
+            }
+            int slot = stringId & (STRING_CACHE_SIZE - 1);
+            String cached = values[slot];
+            if (cached == null || keys[slot] != stringId) {
+                int start = offsets.getInt(layout.offsetsStart + 4L * stringId);
+                int length = offsets.getInt(layout.offsetsStart + 4L * stringId + 4) - start;
+                if (length < 0 || start < 0 || start + length > layout.blobLength) {
+                    throw new IndexOutOfBoundsException("文字列の位置が不正です: " + stringId);
+                }
+                if (length > bytes.length) {
+                    bytes = new byte[Math.max(length, bytes.length * 2)];
+                }
+                blob.get(layout.blobStart + start, bytes, length);
+                cached = new String(bytes, 0, length, StandardCharsets.UTF_8);
+                keys[slot] = stringId;
+                values[slot] = cached;
+            }
+            return cached;
+        }
+    }
+
+    // タスクを1件ずつ受け取ってスナップショットを書き出す（コンパクションでタスク一覧を作らないために使う）
+    // 文字列表・文字列データ・各列を一時ファイルに書き分け、最後に連結するため、タスク数によらずメモリ使用量は一定。
+    // 文字列の重複は、直前に現れた文字列（STRING_CACHE_SIZE 件）の範囲でだけ除く
+    static final class Builder implements Closeable {
+        private static final int SECTIONS = 9; // 文字列の開始位置、文字列データ、6つの列、完了フラグ
+        private static final int OFFSETS = 0;
+        private static final int BLOB = 1;
+        private static final int COLUMNS = 2;
+        private static final int DONE = 8;
+
+        private final Path[] paths = new Path[SECTIONS];
+        private final DataOutputStream[] sections = new DataOutputStream[SECTIONS];
+        private final String[] cachedStrings = new String[STRING_CACHE_SIZE];
+        private final int[] cachedIds = new int[STRING_CACHE_SIZE];
+        private int count; // 受け取ったタスク数
+        private int stringCount; // 書き出した文字列数
+        private long blobLength; // 書き出した文字列データの長さ
+        private long doneBits; // 書き出す前の完了フラグ（64件分）
+
+        // directory に一時ファイルを作成する
+        Builder(Path directory) throws IOException {
+            try {
+                for (int i = 0; i < SECTIONS; i++) {
+                    paths[i] = Files.createTempFile(directory, "snapshot", ".part");
+                    sections[i] = new DataOutputStream(
+                            new BufferedOutputStream(Files.newOutputStream(paths[i]), 64 * 1024));
+                }
+                sections[OFFSETS].writeInt(0);
+            } catch (IOException e) {
+                close();
+                throw e;
+            }
+        }
+
+        // タスクを追加する（一時ファイルへの書き込みに失敗した場合は UncheckedIOException）
+        void add(Task task) {
+            try {
+                sections[COLUMNS].writeInt(task.id);
+                sections[COLUMNS + 1].writeInt(stringId(task.title));
+                sections[COLUMNS + 2].writeInt(stringId(task.description));
+                sections[COLUMNS + 3].writeInt(epochDay(task.dueDate));
+                sections[COLUMNS + 4].writeInt(epochDay(task.createdDate));
+                sections[COLUMNS + 5].writeInt(epochDay(task.updatedDate));
+                if (task.isDone) {
+                    doneBits |= 1L << count;
+                }
+                count++;
+                if ((count & 63) == 0) {
+                    sections[DONE].writeLong(doneBits);
+                    doneBits = 0;
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        // 追加したタスクをスナップショットとして channel に書き出す
+        void writeTo(FileChannel channel) throws IOException {
+            if ((count & 63) != 0) {
+                sections[DONE].writeLong(doneBits);
+            }
+            for (DataOutputStream section : sections) {
+                section.flush();
+            }
+            int padding = (int) (-blobLength & 3);
+            long size = HEADER_SIZE + 4L * (stringCount + 1) + blobLength + padding + 24L * count
+                    + 8L * ((count + 63L) >>> 6);
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("スナップショットが大きすぎます: " + size + " バイト");
+            }
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            header.putInt(MAGIC).putInt(VERSION).putInt(count).putInt(stringCount).putInt((int) blobLength).flip();
+            writeFully(channel, header);
+            for (int i = 0; i < SECTIONS; i++) {
+                try (FileChannel in = FileChannel.open(paths[i], StandardOpenOption.READ)) {
+                    long position = 0;
+                    long length = in.size();
+                    while (position < length) {
+                        position += in.transferTo(position, length - position, channel);
+                    }
+                }
+                if (i == BLOB) {
+                    writeFully(channel, ByteBuffer.allocate(padding));
+                }
+            }
+        }
+
+        // 一時ファイルを削除する
+        @Override
+        public void close() throws IOException {
+            for (int i = 0; i < SECTIONS; i++) {
+                if (sections[i] != null) {
+                    try {
+                        sections[i].close();
+                    } catch (IOException ignored) {
+                        // 削除するファイルのため無視する
+                    }
+                }
+                if (paths[i] != null) {
+                    Files.deleteIfExists(paths[i]);
+                }
+            }
+        }
+
+        // 文字列の番号（直前に同じ文字列を書き出していればその番号、なければ文字列データに追加する）
+        private int stringId(String value) throws IOException {
+            int slot = value.hashCode() & (STRING_CACHE_SIZE - 1);
+            if (value.equals(cachedStrings[slot])) {
+                return cachedIds[slot];
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            sections[BLOB].write(bytes);
+            blobLength += bytes.length;
+            sections[OFFSETS].writeInt((int) blobLength);
+            cachedStrings[slot] = value;
+            cachedIds[slot] = stringCount;
+            return stringCount++;
+        }
+
+        private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+    }
+
+    // エポック日から LocalDate への変換結果を使い回す（同じ日付のタスクが多いため）
+    private static class DateCache {
+        private final int[] keys = new int[DATE_CACHE_SIZE];
+        private final LocalDate[] values = new LocalDate[DATE_CACHE_SIZE];
+
+        LocalDate get(int epochDay) {
+            if (epochDay == NO_DATE) {
+                return null;
+            }
+            int slot = epochDay & (DATE_CACHE_SIZE - 1);
+            LocalDate cached = values[slot];
+            if (cached == null || keys[slot] != epochDay) {
+                cached = LocalDate.ofEpochDay(epochDay);
+                keys[slot] = epochDay;
+                values[slot] = cached;
+            }
+            return cached;
+        }
+    }
+}
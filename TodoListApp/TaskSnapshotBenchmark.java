@@ -0,0 +1,86 @@
+package TodoListApp;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+// 起動時のタスク読み込み時間を、CSVのスナップショットとバイナリ形式のスナップショットで比較するベンチマーク
+// TaskRepository.load() と同じく、スナップショットの読み込みからタスクの作成までを計測する
+// 実行例: java TodoListApp.TaskSnapshotBenchmark 1000000
+public class TaskSnapshotBenchmark {
+    private static final int WARMUP_ROUNDS = 2; // ウォームアップ回数
+    private static final int MEASURE_ROUNDS = 5; // 計測回数
+
+    public static void main(String[] args) throws IOException {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        Path directory = Files.createTempDirectory("snapshot");
+        Path csv = directory.resolve("tasks.csv");
+        Path bin = directory.resolve("tasks.bin");
+        try {
+            List<Task> tasks = createSample(rows);
+            TaskRepository.exportCSV(tasks, csv);
+            try (FileChannel channel = FileChannel.open(bin, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE)) {
+                TaskSnapshot.write(channel, tasks);
+            }
+            tasks = null;
+            System.out.printf("タスク数: %,d  CSV: %,d bytes  バイナリ: %,d bytes%n", rows, Files.size(csv),
+                    Files.size(bin));
+
+            for (int i = 0; i < WARMUP_ROUNDS; i++) {
+                loadCsv(csv);
+                TaskSnapshot.read(bin);
+            }
+            report("CSV", rows, measure(csv, false));
+            report("バイナリ", rows, measure(bin, true));
+        } finally {
+            Files.deleteIfExists(csv);
+            Files.deleteIfExists(bin);
+            Files.deleteIfExists(directory);
+        }
+    }
+
+    private static long measure(Path file, boolean binary) throws IOException {
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < MEASURE_ROUNDS; i++) {
+            long start = System.nanoTime();
+            List<Task> tasks = binary ? TaskSnapshot.read(file) : loadCsv(file);
+            best = Math.min(best, System.nanoTime() - start);
+            if (tasks.isEmpty()) {
+                throw new IllegalStateException("タスクが読み込まれていません");
+            }
+        }
+        return best;
+    }
+
+    private static void report(String name, int rows, long nanos) {
+        System.out.printf("%-10s %8.1f ms  %,12.0f 件/秒%n", name, nanos / 1e6, rows / (nanos / 1e9));
+    }
+
+    // ベンチマーク用のタスク（タイトルはすべて異なり、内容は100種類）
+    private static List<Task> createSample(int rows) {
+        LocalDate base = LocalDate.of(2025, 1, 1);
+        List<Task> tasks = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            LocalDate due = base.plusDays(i % 730);
+            Task task = new Task("タスク" + i, "ベンチマーク用の内容 " + (i % 100), i % 3 == 0, due, base, due);
+            task.id = i + 1;
+            tasks.add(task);
+        }
+        return tasks;
+    }
+
+    private static List<Task> loadCsv(Path file) throws IOException {
+        List<Task> tasks = new ArrayList<>();
+        try (CsvReader reader = CsvReader.open(file.toFile())) {
+            reader.next();
+            while (reader.next()) {
+                tasks.add(Task.fromCSV(reader));
+            }
+        }
+        return tasks;
+    }
+}
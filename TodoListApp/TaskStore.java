@@ -0,0 +1,346 @@
+package TodoListApp;
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.function.Consumer;
+
+// タスクを期限日順に保持し、完了状態・優先度・期限切れの索引を持つクラス
+// 挿入・削除・行番号からの取得は O(log n)、範囲検索は O(log n + 件数) で行う。
+// 表の並べ替えに使うほかの順序の索引も、初めて使われたときに作成して同じように更新する。
+// Swing のEDTからのみ操作すること
+public class TaskStore implements Iterable<Task> {
+    public static final String[] PRIORITIES = { "高", "中", "低" }; // 優先度の一覧
+
+    // 期限日の昇順（同じ期限日の中ではID順）
+    static final Comparator<Task> DUE_DATE_ORDER = (a, b) -> {
+        int cmp = a.dueDate.compareTo(b.dueDate);
+        return cmp != 0 ? cmp : Integer.compare(a.id, b.id);
+    };
+
+    private final TaskIndex all = new TaskIndex(DUE_DATE_ORDER); // すべてのタスク
+    private final TaskIndex undone = new TaskIndex(DUE_DATE_ORDER); // 未完了のタスク
+    private final TaskIndex done = new TaskIndex(DUE_DATE_ORDER); // 完了済みのタスク
+    private final TaskIndex overdue = new TaskIndex(DUE_DATE_ORDER); // 期限切れのタスク
+    private final Map<String, TaskIndex> byPriority = new HashMap<>(); // 優先度ごとのタスク
+    private final Map<Integer, Task> byId = new HashMap<>(); // ID → タスク
+    private final Map<Comparator<Task>, TaskIndex> sorted = new HashMap<>(); // 並べ替えの順序 → 作成済みの索引
+    private final List<Listener> listeners = new ArrayList<>();
+
+    public TaskStore() {
+        for (String priority : PRIORITIES) {
+            byPriority.put(priority, new TaskIndex(DUE_DATE_ORDER));
+        }
+    }
+
+    // 変更の通知を受け取るリスナー（個別の通知は既定で tasksChanged にまとめられる）
+    public interface Listener {
+        // まとめて変更された
+        void tasksChanged();
+
+        // row 行目にタスクが追加された
+        default void taskInserted(int row, Task task) {
+            tasksChanged();
+        }
+
+        // row 行目のタスクが削除された
+        default void taskDeleted(int row, Task task) {
+            tasksChanged();
+        }
+
+        // oldRow 行目のタスクが更新され、newRow 行目に移動した
+        default void taskUpdated(int oldRow, int newRow, Task task) {
+            tasksChanged();
+        }
+    }
+
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    public int size() {
+        return all.size();
+    }
+
+    // 期限日順で row 行目のタスク
+    public Task get(int row) {
+        return all.get(row);
+    }
+
+    // タスクの行番号（含まれない場合は -1）
+    public int indexOf(Task task) {
+        return all.indexOf(task);
+    }
+
+    // IDからタスクを取得（見つからない場合は null）
+    public Task findById(int id) {
+        return byId.get(id);
+    }
+
+    // タスクを追加する
+    public void add(Task task) {
+        byId.put(task.id, task);
+        index(task);
+        int row = all.indexOf(task);
+        for (Listener listener : listeners) {
+            listener.taskInserted(row, task);
+        }
+    }
+
+    // 複数のタスクをまとめて追加する（索引は一度に作り直す）
+    public void addAll(Collection<Task> tasks) {
+        for (Task task : tasks) {
+            byId.put(task.id, task);
+        }
+        rebuild();
+        for (Listener listener : listeners) {
+            listener.tasksChanged();
+        }
+    }
+
+    // 複数のタスクの追加・置き換え・削除をまとめて反映する（ID → 新しいタスク、削除は null。索引は一度に作り直す）
+    public void applyChanges(Map<Integer, Task> changes) {
+        for (Map.Entry<Integer, Task> change : changes.entrySet()) {
+            if (change.getValue() == null) {
+                byId.remove(change.getKey());
+            } else {
+                byId.put(change.getKey(), change.getValue());
+            }
+        }
+        rebuild();
+        for (Listener listener : listeners) {
+            listener.tasksChanged();
+        }
+    }
+
+    // タスクを削除する
+    public void remove(Task task) {
+        int row = all.indexOf(task);
+        if (row < 0) {
+            return;
+        }
+        unindex(task);
+        byId.remove(task.id);
+        for (Listener listener : listeners) {
+            listener.taskDeleted(row, task);
+        }
+    }
+
+    // タスクを変更する（索引から外して変更し、優先度と期限切れ状態を再計算して索引に戻す）
+    public void update(Task task, Consumer<Task> change) {
+        int oldRow = all.indexOf(task);
+        unindex(task);
+        change.accept(task);
+        task.updatePriorityAndOverdue();
+        index(task);
+        int newRow = all.indexOf(task);
+        for (Listener listener : listeners) {
+            listener.taskUpdated(oldRow, newRow, task);
+        }
+    }
+
+    // 日付が変わったときに、優先度・期限切れの境界をまたいだタスクだけを再計算する
+    // 境界（期限切れ・残り1日・残り7日）ごとに、またいだタスクの期限日は連続した範囲になるため、
+    // 期限日順の索引からその範囲だけを取り出す（全タスクは走査しない）
+    public void dayChanged(LocalDate oldDay, LocalDate newDay) {
+        long from = Math.min(oldDay.toEpochDay(), newDay.toEpochDay());
+        long to = Math.max(oldDay.toEpochDay(), newDay.toEpochDay());
+        int[] thresholds = { 0, Task.HIGH_PRIORITY_DAYS + 1, Task.MIDDLE_PRIORITY_DAYS + 1 };
+
+        // 期限日が [from + 境界, to + 境界 - 1] のタスクが対象（範囲が重なる場合はまとめる）
+        List<Task> changed = new ArrayList<>();
+        long nextStart = Long.MIN_VALUE;
+        for (int threshold : thresholds) {
+            long start = Math.max(from + threshold, nextStart);
+            long end = to + threshold - 1;
+            if (start > end) {
+                continue;
+            }
+            int[] range = dueRange(all, LocalDate.ofEpochDay(start), LocalDate.ofEpochDay(end));
+            all.forEach(range[0], range[1], task -> {
+                long daysUntilDue = task.dueDate.toEpochDay() - newDay.toEpochDay();
+                if (task.isOverdue != daysUntilDue < 0 || !task.priority.equals(Task.priorityFor(daysUntilDue))) {
+                    changed.add(task);
+                }
+            });
+            nextStart = end + 1;
+        }
+
+        for (Task task : changed) {
+            int oldRow = all.indexOf(task);
+            unindex(task);
+            task.updatePriorityAndOverdue(newDay.toEpochDay());
+            index(task);
+            for (Listener listener : listeners) {
+                listener.taskUpdated(oldRow, oldRow, task); // 期限日は変わらないため行は移動しない
+            }
+        }
+    }
+
+    // order の順にタスクを保持する索引（初回だけ全件を並べ替えて作成し、以後の変更は索引と同じく差分で反映する）
+    // order は同じインスタンスを使い回すこと（インスタンスごとに索引を作成する）
+    TaskIndex sortedBy(Comparator<Task> order) {
+        if (order == DUE_DATE_ORDER) {
+            return all;
+        }
+        TaskIndex index = sorted.get(order);
+        if (index == null) {
+            index = new TaskIndex(order);
+            index.rebuild(byId.values());
+            sorted.put(order, index);
+        }
+        return index;
+    }
+
+    // 条件に合うタスクを期限日順で取得する
+    // 指定された条件に対応する索引のうち、期限日の範囲内の件数が最も少ないものだけを走査する
+    public List<Task> query(TaskQuery query) {
+        List<Task> result = new ArrayList<>();
+        TaskIndex index = selectIndex(query);
+        if (index == null) {
+            return result;
+        }
+        int[] range = dueRange(index, query.dueFrom, query.dueTo);
+        index.forEach(range[0], range[1], task -> {
+            if (query.matches(task)) {
+                result.add(task);
+            }
+        });
+        return result;
+    }
+
+    // 条件に合うタスクの件数
+    public int count(TaskQuery query) {
+        TaskIndex index = selectIndex(query);
+        if (index == null) {
+            return 0;
+        }
+        int[] range = dueRange(index, query.dueFrom, query.dueTo);
+        if (isExact(index, query)) {
+            return range[1] - range[0]; // 索引と期限日の範囲だけで条件が決まる場合は数えるだけ
+        }
+        int[] count = new int[1];
+        index.forEach(range[0], range[1], task -> {
+            if (query.matches(task)) {
+                count[0]++;
+            }
+        });
+        return count[0];
+    }
+
+    // 期限日順に走査する
+    @Override
+    public Iterator<Task> iterator() {
+        return all.iterator();
+    }
+
+    private void rebuild() {
+        Collection<Task> tasks = byId.values();
+        all.rebuild(tasks);
+        List<Task> undoneTasks = new ArrayList<>();
+        List<Task> doneTasks = new ArrayList<>();
+        List<Task> overdueTasks = new ArrayList<>();
+        Map<String, List<Task>> priorityTasks = new HashMap<>();
+        for (Task task : tasks) {
+            (task.isDone ? doneTasks : undoneTasks).add(task);
+            if (task.isOverdue) {
+                overdueTasks.add(task);
+            }
+            priorityTasks.computeIfAbsent(task.priority, p -> new ArrayList<>()).add(task);
+        }
+        undone.rebuild(undoneTasks);
+        done.rebuild(doneTasks);
+        overdue.rebuild(overdueTasks);
+        for (String priority : PRIORITIES) {
+            byPriority.get(priority).rebuild(priorityTasks.getOrDefault(priority, Collections.emptyList()));
+        }
+        for (TaskIndex index : sorted.values()) {
+            index.rebuild(tasks);
+        }
+    }
+
+    private void index(Task task) {
+        all.insert(task);
+        (task.isDone ? done : undone).insert(task);
+        if (task.isOverdue) {
+            overdue.insert(task);
+        }
+        TaskIndex priority = byPriority.get(task.priority);
+        if (priority != null) {
+            priority.insert(task);
+        }
+        for (TaskIndex index : sorted.values()) {
+            index.insert(task);
+        }
+    }
+
+    private void unindex(Task task) {
+        all.remove(task);
+        (task.isDone ? done : undone).remove(task);
+        if (task.isOverdue) {
+            overdue.remove(task);
+        }
+        TaskIndex priority = byPriority.get(task.priority);
+        if (priority != null) {
+            priority.remove(task);
+        }
+        for (TaskIndex index : sorted.values()) {
+            index.remove(task);
+        }
+    }
+
+    // 条件に使える索引のうち、期限日の範囲内の件数が最も少ないもの（該当なしが確定する場合は null）
+    private TaskIndex selectIndex(TaskQuery query) {
+        List<TaskIndex> candidates = new ArrayList<>(4);
+        candidates.add(all);
+        if (query.done != null) {
+            candidates.add(query.done ? done : undone);
+        }
+        if (query.priority != null) {
+            TaskIndex priority = byPriority.get(query.priority);
+            if (priority == null) {
+                return null;
+            }
+            candidates.add(priority);
+        }
+        if (Boolean.TRUE.equals(query.overdue)) {
+            candidates.add(overdue);
+        }
+
+        TaskIndex best = null;
+        int bestCount = Integer.MAX_VALUE;
+        for (TaskIndex candidate : candidates) {
+            int[] range = dueRange(candidate, query.dueFrom, query.dueTo);
+            if (range[1] - range[0] < bestCount) {
+                best = candidate;
+                bestCount = range[1] - range[0];
+            }
+        }
+        return best;
+    }
+
+    // 索引だけで条件がすべて満たされるかどうか
+    private boolean isExact(TaskIndex index, TaskQuery query) {
+        int conditions = (query.done != null ? 1 : 0) + (query.priority != null ? 1 : 0)
+                + (query.overdue != null ? 1 : 0);
+        if (conditions == 0) {
+            return index == all;
+        }
+        if (conditions > 1) {
+            return false;
+        }
+        return (query.done != null && index == (query.done ? done : undone))
+                || (query.priority != null && index == byPriority.get(query.priority))
+                || (Boolean.TRUE.equals(query.overdue) && index == overdue);
+    }
+
+    // 期限日が from 以上 to 以下の順位の範囲 [開始, 終了)
+    private static int[] dueRange(TaskIndex index, LocalDate from, LocalDate to) {
+        int start = from == null ? 0 : index.countBefore(task -> task.dueDate.isBefore(from));
+        int end = to == null ? index.size() : index.countBefore(task -> !task.dueDate.isAfter(to));
+        return new int[] { start, Math.max(start, end) };
+    }
+}
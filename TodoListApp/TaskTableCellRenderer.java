@@ -1,42 +1,139 @@
 package TodoListApp;
 
 import javax.swing.*;
+import javax.swing.event.TableModelEvent;
+import javax.swing.event.TableModelListener;
 import javax.swing.table.DefaultTableCellRenderer;
 import java.awt.*;
-import java.util.List;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
 
-public class TaskTableCellRenderer extends DefaultTableCellRenderer {
-    List<Task> taskList;
+// タスク一覧のセルのレンダラー（完了は青、期限切れは赤、優先度「高」は太字の橙、それ以外の未完了は黄）
+// 色と文字の太さは行の状態ごとにあらかじめ作った Style を共有し、セルの描画のたびに作成しない。
+// 行ごとの Style は最初に描画したときに求めて覚えておき、テーブルモデルの変更の通知で変わった行だけを消す
+public class TaskTableCellRenderer extends DefaultTableCellRenderer implements TableModelListener {
+    private static final Color SELECTED_BACKGROUND = Color.GRAY.darker(); // 選択行の背景
+    private static final int MAX_CACHED_TEXTS = 4096; // 日付の文字列を覚えておく最大数
 
-    public TaskTableCellRenderer(List<Task> taskList) {
-        this.taskList = taskList;
+    // 行の状態ごとの表示（番号は rowStyles に記録する値から1を引いたもの）
+    private static final Style[] STYLES = {
+            new Style(new Color(173, 216, 230), null, false), // 完了 → 青 (Light Blue)
+            new Style(new Color(255, 204, 204), new Color(160, 0, 0), false), // 期限切れ → 赤
+            new Style(new Color(255, 255, 153), new Color(200, 80, 0), true), // 優先度「高」 → 黄に太字の橙
+            new Style(new Color(255, 255, 153), null, false), // 未完了 → 黄 (Light Yellow)
+    };
+
+    TaskTableModel tableModel;
+    private byte[] rowStyles = new byte[0]; // 行 → STYLES の番号 + 1（0 は未計算）
+    private Font font; // 通常の文字（テーブルの文字）
+    private Font boldFont; // 太字（テーブルの文字が変わったら作り直す）
+    private final Map<LocalDate, String> dateTexts = new HashMap<>(); // 日付 → 表示する文字列
+
+    public TaskTableCellRenderer(TaskTableModel tableModel) {
+        this.tableModel = tableModel;
         setHorizontalAlignment(SwingConstants.CENTER);
+        tableModel.addTableModelListener(this);
     }
 
     @Override
     public Component getTableCellRendererComponent(JTable table, Object value,
             boolean isSelected, boolean hasFocus, int row, int column) {
+        Style style = styleAt(row);
+        if (table.getFont() != font) {
+            font = table.getFont();
+            boldFont = font.deriveFont(Font.BOLD);
+        }
+        setFont(style.bold ? boldFont : font);
+        if (isSelected) {
+            setForeground(table.getSelectionForeground());
+            setBackground(SELECTED_BACKGROUND);
+        } else {
+            setForeground(style.foreground != null ? style.foreground : table.getForeground());
+            setBackground(style.background);
+        }
+        setBorder(hasFocus ? UIManager.getBorder("Table.focusCellHighlightBorder") : noFocusBorder);
+        setText(textOf(value));
+        return this;
+    }
 
-        Component c = super.getTableCellRendererComponent(table, value, isSelected, hasFocus, row, column);
-
-        if (row < taskList.size()) {
-            Task task = taskList.get(row);
-            if (task.isDone) {
-                c.setBackground(new Color(173, 216, 230)); // 完了 → 青 (Light Blue)
-            } else {
-                c.setBackground(new Color(255, 255, 153)); // 未完了 → 黄 (Light Yellow)
-            }
+    // テーブルモデルの変更に合わせて、覚えている行の Style を消す（行の追加・削除ではずらす）
+    @Override
+    public void tableChanged(TableModelEvent e) {
+        int first = e.getFirstRow();
+        int last = e.getLastRow();
+        if (first == TableModelEvent.HEADER_ROW || last == Integer.MAX_VALUE) {
+            Arrays.fill(rowStyles, (byte) 0);
+            return;
+        }
+        int count = last - first + 1;
+        if (first >= rowStyles.length) {
+            return;
+        }
+        switch (e.getType()) {
+            case TableModelEvent.INSERT:
+                rowStyles = Arrays.copyOf(rowStyles, rowStyles.length + count);
+                System.arraycopy(rowStyles, first, rowStyles, first + count, rowStyles.length - first - count);
+                Arrays.fill(rowStyles, first, first + count, (byte) 0);
+                break;
+            case TableModelEvent.DELETE:
+                int end = Math.min(last + 1, rowStyles.length);
+                System.arraycopy(rowStyles, end, rowStyles, first, rowStyles.length - end);
+                rowStyles = Arrays.copyOf(rowStyles, rowStyles.length - (end - first));
+                break;
+            default:
+                Arrays.fill(rowStyles, first, Math.min(last + 1, rowStyles.length), (byte) 0);
+                break;
         }
+    }
 
-        if (isSelected) {
-            c.setBackground(Color.GRAY); // 選択時はグレー
+    // 行の Style（覚えていない場合だけタスクから求める）
+    private Style styleAt(int row) {
+        if (row >= rowStyles.length) {
+            rowStyles = Arrays.copyOf(rowStyles, Math.max(row + 1, tableModel.getRowCount()));
+        }
+        int style = rowStyles[row] - 1;
+        if (style < 0) {
+            Task task = tableModel.getTaskAt(row);
+            style = task.isDone ? 0 : task.isOverdue ? 1 : TaskStore.PRIORITIES[0].equals(task.priority) ? 2 : 3;
+            rowStyles[row] = (byte) (style + 1);
         }
+        return STYLES[style];
+    }
 
-        // 選択時の色が優先されないようにする
-        if (isSelected) {
-            c.setBackground(c.getBackground().darker());
+    // セルに表示する文字列（日付は変換した文字列を覚えておく）
+    private String textOf(Object value) {
+        if (value == null) {
+            return "";
+        }
+        if (value instanceof String) {
+            return (String) value;
         }
+        if (value instanceof LocalDate) {
+            String text = dateTexts.get(value);
+            if (text == null) {
+                if (dateTexts.size() >= MAX_CACHED_TEXTS) {
+                    dateTexts.clear();
+                }
+                text = value.toString();
+                dateTexts.put((LocalDate) value, text);
+            }
+            return text;
+        }
+        return value.toString();
+    }
 
-        return c;
+    // 行の状態ごとの表示（foreground が null の場合はテーブルの文字色）
+    private static class Style {
+        final Color background;
+        final Color foreground;
+        final boolean bold;
+
+        Style(Color background, Color foreground, boolean bold) {
+            this.background = background;
+            this.foreground = foreground;
+            this.bold = bold;
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,266 @@
+package TodoListApp;
+
+import javax.swing.event.TableModelEvent;
+import javax.swing.table.AbstractTableModel;
+import java.util.*;
+
+// TaskStore をそのまま参照するテーブルモデル
+// セルの値は表示時に Task から直接取り出すため、行ごとのデータのコピーを持たない。
+// 絞り込み条件・検索語を指定した場合は、TaskStore・TaskSearchIndex の検索結果を表示する。
+// 変更の通知は、先に検索用の索引に渡してから表示に反映する。
+// 列ごとの並べ替えは TaskStore が保持する列の順序の索引から行を取り出すため、列を切り替えても並べ替え直さない
+// （索引は列ごとに初回だけ作成し、以後はタスクの変更のたびに差分で更新される）
+public class TaskTableModel extends AbstractTableModel implements TaskStore.Listener {
+    private static final String[] COLUMN_NAMES = { "No", "タイトル", "内容", "完了", "期限日", "優先度", "期限切れ", "登録日", "更新日" };
+    public static final int DUE_DATE_COLUMN = 4; // 期限日の列（初期の並び順）
+
+    // 列ごとの並び順（null は並べ替えない列。同じ値の中では期限日順）
+    private static final List<Comparator<Task>> COLUMN_ORDERS = Arrays.asList(
+            null,
+            thenDueDate(Comparator.comparing(task -> task.title)),
+            null,
+            thenDueDate((a, b) -> Boolean.compare(a.isDone, b.isDone)),
+            TaskStore.DUE_DATE_ORDER,
+            thenDueDate(Comparator.comparingInt(task -> priorityRank(task.priority))),
+            null,
+            thenDueDate(Comparator.comparing(task -> task.createdDate, Comparator.nullsFirst(Comparator.naturalOrder()))),
+            thenDueDate(Comparator.comparing(task -> task.updatedDate, Comparator.nullsFirst(Comparator.naturalOrder()))));
+
+    private final TaskStore taskStore;
+    private TaskSearchIndex searchIndex; // タイトル・内容の検索用の索引
+    private TaskQuery query; // 絞り込み条件（null の場合はすべて表示）
+    private String search; // 検索語（null の場合は検索しない）
+    private List<Task> filtered; // 絞り込み結果（表示中の列の昇順）
+    private int sortColumn = DUE_DATE_COLUMN; // 並べ替えている列
+    private boolean descending; // 降順かどうか
+    private Comparator<Task> order = TaskStore.DUE_DATE_ORDER; // 並べ替えている列の順序
+    private TaskIndex sorted; // 並べ替えている列の順序の索引
+    private int cachedRow = -1; // 最後に取り出した行（セルの描画は1行の列を続けて取り出すため）
+    private Task cachedTask; // 最後に取り出した行のタスク
+
+    public TaskTableModel(TaskStore taskStore) {
+        this.taskStore = taskStore;
+        this.searchIndex = new TaskSearchIndex(taskStore);
+        this.sorted = taskStore.sortedBy(order);
+        taskStore.addListener(this);
+    }
+
+    // 列で並べ替えられるかどうか
+    public boolean isSortable(int column) {
+        return column >= 0 && column < COLUMN_ORDERS.size() && COLUMN_ORDERS.get(column) != null;
+    }
+
+    // 列で並べ替える（並べ替えている列を指定した場合は昇順・降順を切り替える）
+    public void sortBy(int column) {
+        if (!isSortable(column)) {
+            return;
+        }
+        if (column == sortColumn) {
+            descending = !descending;
+        } else {
+            sortColumn = column;
+            descending = false;
+            order = COLUMN_ORDERS.get(column);
+            sorted = taskStore.sortedBy(order);
+        }
+        refilter();
+        fireTableDataChanged();
+    }
+
+    public int getSortColumn() {
+        return sortColumn;
+    }
+
+    public boolean isDescending() {
+        return descending;
+    }
+
+    // 絞り込み条件を設定する（null で解除）
+    public void setQuery(TaskQuery query) {
+        this.query = query;
+        refilter();
+        fireTableDataChanged();
+    }
+
+    // 検索語を設定する（空の場合は解除）
+    public void setSearch(String search) {
+        this.search = search == null || search.trim().isEmpty() ? null : search;
+        refilter();
+        fireTableDataChanged();
+    }
+
+    // 検索用の索引を置き換える（読み込み時に別スレッドで作成した索引を使う場合）
+    public void setSearchIndex(TaskSearchIndex searchIndex) {
+        this.searchIndex = searchIndex;
+    }
+
+    public TaskSearchIndex getSearchIndex() {
+        return searchIndex;
+    }
+
+    // 絞り込み条件と検索語から表示するタスクを求める（どちらもない場合は TaskStore をそのまま表示する）
+    private void refilter() {
+        if (search != null) {
+            filtered = searchIndex.search(search);
+            if (query != null) {
+                filtered.removeIf(task -> !query.matches(task));
+            }
+        } else {
+            filtered = query != null ? taskStore.query(query) : null;
+        }
+        if (filtered != null && order != TaskStore.DUE_DATE_ORDER) {
+            filtered = sort(filtered);
+        }
+    }
+
+    // 期限日順の絞り込み結果を並べ替えている列の順にする
+    // 結果が多い場合は、並べ替えるより列の順序の索引をたどって結果に含まれるものを取り出す方が速い
+    private List<Task> sort(List<Task> tasks) {
+        if ((long) tasks.size() * 20 <= taskStore.size()) {
+            tasks.sort(order);
+            return tasks;
+        }
+        BitSet matched = new BitSet();
+        for (Task task : tasks) {
+            matched.set(task.id);
+        }
+        List<Task> result = new ArrayList<>(tasks.size());
+        for (Task task : sorted) {
+            if (matched.get(task.id)) {
+                result.add(task);
+            }
+        }
+        return result;
+    }
+
+    // 指定行のタスク
+    public Task getTaskAt(int row) {
+        if (row == cachedRow) {
+            return cachedTask;
+        }
+        int rank = descending ? getRowCount() - 1 - row : row;
+        cachedTask = filtered != null ? filtered.get(rank) : sorted.get(rank);
+        cachedRow = row;
+        return cachedTask;
+    }
+
+    @Override
+    public int getRowCount() {
+        return filtered != null ? filtered.size() : taskStore.size();
+    }
+
+    @Override
+    public int getColumnCount() {
+        return COLUMN_NAMES.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return COLUMN_NAMES[column];
+    }
+
+    @Override
+    public Object getValueAt(int row, int column) {
+        Task task = getTaskAt(row);
+        switch (column) {
+            case 0:
+                return row + 1;
+            case 1:
+                return task.title;
+            case 2:
+                return task.description;
+            case 3:
+                return task.isDone ? "✓" : "";
+            case 4:
+                return task.dueDate;
+            case 5:
+                return task.priority;
+            case 6:
+                return task.isOverdue ? "⚠" : "";
+            case 7:
+                return task.createdDate;
+            case 8:
+                return task.updatedDate != null ? task.updatedDate : "";
+            default:
+                throw new IndexOutOfBoundsException("列番号が不正です: " + column);
+        }
+    }
+
+    @Override
+    public void tasksChanged() {
+        searchIndex.tasksChanged();
+        refresh();
+    }
+
+    @Override
+    public void taskInserted(int row, Task task) {
+        searchIndex.taskInserted(row, task);
+        if (filtered != null) {
+            refresh();
+            return;
+        }
+        int rank = order == TaskStore.DUE_DATE_ORDER ? row : sorted.indexOf(task);
+        int viewRow = descending ? getRowCount() - 1 - rank : rank;
+        fireTableRowsInserted(viewRow, viewRow);
+    }
+
+    @Override
+    public void taskDeleted(int row, Task task) {
+        searchIndex.taskDeleted(row, task);
+        if (filtered != null) {
+            refresh();
+            return;
+        }
+        // 削除済みのため、並び順で前にあるタスクの数から削除前の行を求める
+        int rank = order == TaskStore.DUE_DATE_ORDER ? row : sorted.countBefore(other -> order.compare(other, task) < 0);
+        int viewRow = descending ? getRowCount() - rank : rank;
+        fireTableRowsDeleted(viewRow, viewRow);
+    }
+
+    @Override
+    public void taskUpdated(int oldRow, int newRow, Task task) {
+        searchIndex.taskUpdated(oldRow, newRow, task);
+        if (filtered != null) {
+            refresh();
+            return;
+        }
+        if (order != TaskStore.DUE_DATE_ORDER) {
+            // 変更前の値がわからず移動元の行を求められないため、すべての行を再描画する（行の数は変わらない）
+            fireTableRowsUpdated(0, getRowCount() - 1);
+            return;
+        }
+        // 期限日が変わって行が移動した場合は、間の行だけを再描画する
+        if (descending) {
+            oldRow = getRowCount() - 1 - oldRow;
+            newRow = getRowCount() - 1 - newRow;
+        }
+        fireTableRowsUpdated(Math.min(oldRow, newRow), Math.max(oldRow, newRow));
+    }
+
+    private void refresh() {
+        refilter();
+        fireTableDataChanged();
+    }
+
+    // 変更を通知する前に、最後に取り出した行を忘れる（すべての変更の通知はここを通る）
+    @Override
+    public void fireTableChanged(TableModelEvent e) {
+        cachedRow = -1;
+        cachedTask = null;
+        super.fireTableChanged(e);
+    }
+
+    // 優先度の並び順（高・中・低の順。それ以外は最後）
+    private static int priorityRank(String priority) {
+        for (int i = 0; i < TaskStore.PRIORITIES.length; i++) {
+            if (TaskStore.PRIORITIES[i].equals(priority)) {
+                return i;
+            }
+        }
+        return TaskStore.PRIORITIES.length;
+    }
+
+    private static Comparator<Task> thenDueDate(Comparator<Task> order) {
+        return order.thenComparing(TaskStore.DUE_DATE_ORDER);
+    }
+}